@@ -13,11 +13,25 @@ import benchmark.peer_to_peer.P2P_Cloud;
 import benchmark.peer_to_peer.P2P_Node;
 import hybrid.Client;
 import hybrid.FailureProducer;
+import hybrid.network.Transport;
+import hybrid.network.Transport.TransportMode;
+import hybrid.network.WireCodec;
 import hybrid.Statistics;
+import hybrid.nodes.AdmissionQueue;
+import hybrid.nodes.AntiEntropy;
+import hybrid.nodes.FailureDetector;
+import hybrid.nodes.GossipController;
+import hybrid.nodes.Node;
+import hybrid.nodes.RoutingCache;
+import hybrid.nodes.SwimMembership;
+import hybrid.nodes.SwimMembership.MembershipMode;
 import hybrid.nodes.cloud_layer.Cloud;
 import hybrid.nodes.cloud_layer.Cloud.Layer;
+import hybrid.nodes.execution.ExecutionBackend;
+import hybrid.nodes.execution.ExecutionBackend.ExecutionMode;
+import hybrid.simulation.Simulator;
 import util_objects.Coordinates;
-import util_objects.NodeState;
+import util_objects.ClusterMetadataStore;
 
 /**
  * This class starts the prototype and the benchmarks.
@@ -27,9 +41,71 @@ import util_objects.NodeState;
 public class Starter {
 	
 	private static Statistics stats = Statistics.getInstance();
+	
+	/** {@link Simulator} which drives the discrete-event mode */
+	private static Simulator simulator = Simulator.getInstance();
 
 	private static Random generator = new Random();
 	
+	// The optional features are disabled by default, so that the benchmarks reproduce the original figures. They are enabled
+	// per experiment by the following switches.
+	
+	/** Configures whether the discrete-event {@link Simulator} (virtual time) or real-time threads are used */
+	private static final boolean USE_DISCRETE_EVENT_SIMULATION = false;
+	
+	/** Configures the seed of the discrete-event simulation. Equal seeds lead to equal results. */
+	private static final long SIMULATION_SEED = 42L;
+	
+	/** Configures the {@link ExecutionBackend} of the tasks. This is ignored in discrete-event mode (-> simulated execution). */
+	private static final ExecutionMode EXECUTION_MODE = ExecutionMode.THREAD_PER_TASK;
+	
+	/** Configures the maximum number of tasks which wait for capacities per node (0 disables the {@link AdmissionQueue}s) */
+	private static final int ADMISSION_QUEUE_LENGTH = 0;
+	
+	/** Configures the maximum waiting time of a task in an {@link AdmissionQueue} [in milliseconds] */
+	private static final long ADMISSION_WAIT_BUDGET = 2_000;
+	
+	/** Configures whether all completed tasks are retained by the nodes (memory grows with the number of tasks) */
+	private static final boolean RETAIN_TASK_HISTORY = false;
+	
+	/** Configures the number of tasks per client request (1 disables batching) */
+	private static final int CLIENT_BATCH_SIZE = 1;
+	
+	/** Configures the share of latency-critical tasks, which have a deadline (0 disables them) */
+	private static final double LATENCY_CRITICAL_SHARE = 0;
+	
+	/** Configures the tolerated delay of latency-critical tasks in addition to their execution time [in milliseconds] */
+	private static final long DEADLINE_SLACK = 1_000;
+	
+	/** Configures the time until a state change should reach all nodes of a cluster via gossip [in milliseconds] 
+	 * (0 disables the {@link GossipController} -> fixed interval and fanout) */
+	private static final long GOSSIP_CONVERGENCE_TARGET = 0;
+	
+	/** Configures the suspicion level (phi) from which a node is suspected by its peers ({@link FailureDetector}) 
+	 * (0 disables the heartbeats -> failures are only detected by failed calls) */
+	private static final double PHI_FAILURE_THRESHOLD = 0;
+	
+	/** Configures the number of known nodes from which the gossip partners compare their views by Merkle trees and only 
+	 * exchange the divergent key ranges ({@link AntiEntropy}) (0 -> the digest always covers the whole view). It is not 
+	 * applied while heartbeats are published ({@link Starter#PHI_FAILURE_THRESHOLD} > 0). */
+	private static final int ANTI_ENTROPY_MIN_CLUSTER_SIZE = 0;
+	
+	/** Configures the time to live of the cached contact nodes of the clients by geo cell ({@link RoutingCache}) [in milliseconds]
+	 * (0 -> the closest node is resolved for every request) */
+	private static final long ROUTING_CACHE_TTL = 0;
+	
+	/** Configures how the nodes of a cluster learn about joins, departures and failures ({@link SwimMembership}) */
+	private static final MembershipMode MEMBERSHIP_MODE = MembershipMode.SUPERVISED;
+	
+	/** Configures whether the messages between the nodes are encoded by the {@link WireCodec} and carried by the {@link Transport} */
+	private static final boolean ENCODE_WIRE_MESSAGES = false;
+	
+	/** Configures whether large encoded messages are compressed */
+	private static final boolean COMPRESS_WIRE_MESSAGES = false;
+	
+	/** Configures the {@link Transport} of the encoded messages (NIO requires real time, i.e. no discrete-event simulation) */
+	private static final TransportMode TRANSPORT_MODE = TransportMode.LOOPBACK;
+	
 	/** Configures the maximum geographical longitude*/
 	private static final int MAX_LONGITUDE_VALUE = 180;
 	
@@ -67,6 +143,24 @@ public class Starter {
 //------------------------------------------------------ Hierarchical Benchmark ----------------------------------------------------------
 	
 	public static void main(String[] args) {
+		if(USE_DISCRETE_EVENT_SIMULATION) {
+			simulator.enable(SIMULATION_SEED);
+			generator = simulator.createRandomGenerator();
+			ExecutionBackend.configure(ExecutionMode.SIMULATED);
+		} else {
+			ExecutionBackend.configure(EXECUTION_MODE);
+		}
+		AdmissionQueue.configure(ADMISSION_QUEUE_LENGTH, ADMISSION_WAIT_BUDGET);
+		Node.setTaskHistoryRetention(RETAIN_TASK_HISTORY);
+		Client.setBatchSize(CLIENT_BATCH_SIZE);
+		Client.setLatencyCriticalTasks(LATENCY_CRITICAL_SHARE, DEADLINE_SLACK);
+		GossipController.configure(GOSSIP_CONVERGENCE_TARGET);
+		FailureDetector.configure(PHI_FAILURE_THRESHOLD);
+		SwimMembership.configure(MEMBERSHIP_MODE);
+		AntiEntropy.configure(ANTI_ENTROPY_MIN_CLUSTER_SIZE);
+		RoutingCache.configure(ROUTING_CACHE_TTL);
+		WireCodec.configure(ENCODE_WIRE_MESSAGES, COMPRESS_WIRE_MESSAGES);
+		Transport.configure(TRANSPORT_MODE);
 		try {
 			//simulateHybridApproach();
 			//simulateP2PApproach();
@@ -104,7 +198,7 @@ public class Starter {
 					generator.nextInt(MAX_CNL_NODE_CAPACITY) + MIN_CNL_NODE_CAPACITY, 
 					generator.nextInt(MAX_CNL_NODE_CAPACITY) + MIN_CNL_NODE_CAPACITY);
 			ID++;
-			Thread.sleep(500);
+			simulator.sleep(500);
 		}
 		
 		for(int i = 0; i < NR_OF_EDGE_NODES; i++) {
@@ -112,7 +206,7 @@ public class Starter {
 					generator.nextInt(MAX_EDGE_NODE_CAPACITY) + MIN_EDGE_NODE_CAPACITY, 
 					generator.nextInt(MAX_EDGE_NODE_CAPACITY) + MIN_EDGE_NODE_CAPACITY);
 			ID++;
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		
 		cloud.startDistributingNodeFailures();
@@ -120,20 +214,23 @@ public class Starter {
 		Set<Client> clients = new HashSet<>(20);
 		for(int i = 0; i < NR_OF_CLIENTS; i++) {
 			Client client = new Client(generateRandomCoordinates(), cloud);
-			client.start();
+			client.launch();
 			clients.add(client);
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		
 		try {
-			Thread.sleep(TIME_TILL_INTERRUPT);
+			simulator.sleep(TIME_TILL_INTERRUPT);
 			clients.forEach(x -> x.interrupt());
 			cloud.shutdownNode();
-			Thread.sleep(10000);
+			simulator.sleep(10000);
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
+		ExecutionBackend.getInstance().shutdown();
+		Transport.getInstance().shutdown();
 		stats.writeStatisticsToCSVFile("./src/main/resources/simple_data.csv", "./src/main/resources/complex_data.csv", "./src/main/resources/edge_pool_stats.csv");
+		stats.writeRuntimeMetricsToCSVFile("./src/main/resources/runtime_metrics.csv");
 	}
 	
 	/**
@@ -146,7 +243,7 @@ public class Starter {
 		//CNL-Nodes and edge nodes are only distinguished because of different failure likelihoods
 		Map<Long, P2P_Node> cnlNodes = new HashMap<>(NR_OF_CNL_NODES); 
 		Map<Long, P2P_Node> edgeNodes = new HashMap<>(NR_OF_EDGE_NODES);
-		Map<Long, NodeState> clusterMetaData = new HashMap<>();
+		ClusterMetadataStore clusterMetaData = new ClusterMetadataStore();
 		
 		P2P_Cloud cloud = P2P_Cloud.getInstance("IP", 2000, ID, generateRandomCoordinates(), Integer.MAX_VALUE, Integer.MAX_VALUE, P2P_DISTANCE);
 		cloud.initiateGossip();
@@ -162,7 +259,7 @@ public class Starter {
 			cnlNodes.put(ID, node);
 			ID++;
 			stats.increaseNrOfCNLNodes();
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		
 		for(int i = 0; i < NR_OF_EDGE_NODES; i++) {
@@ -173,33 +270,36 @@ public class Starter {
 			edgeNodes.put(ID, node);
 			ID++;
 			stats.increaseNrOfEdgeNodes();
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		
 		FailureProducer fp = FailureProducer.getInstance(edgeNodes, cnlNodes);
-		fp.start();
+		fp.launch();
 		
 		Set<Client> clients = new HashSet<>(20);
 		for(int i = 0; i < NR_OF_CLIENTS; i++) {
 			Client client = new Client(generateRandomCoordinates(), cloud);
-			client.start();
+			client.launch();
 			clients.add(client);
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		
 		try {
-			Thread.sleep(TIME_TILL_INTERRUPT);
+			simulator.sleep(TIME_TILL_INTERRUPT);
 			fp.interrupt();
 			clients.forEach(x -> x.interrupt());
 			cloud.shutdownNode();
 			cnlNodes.values().forEach(x -> x.shutdownNode());
 			edgeNodes.values().forEach(x -> x.shutdownNode());
-			Thread.sleep(10000);
+			simulator.sleep(10000);
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
 		
+		ExecutionBackend.getInstance().shutdown();
+		Transport.getInstance().shutdown();
 		stats.writeStatisticsToCSVFile("./src/main/resources/simple_data_p2p.csv", "./src/main/resources/complex_data_p2p.csv", null);
+		stats.writeRuntimeMetricsToCSVFile("./src/main/resources/runtime_metrics_p2p.csv");
 	}
 	
 	/**
@@ -225,7 +325,7 @@ public class Starter {
 					generator.nextInt(MAX_CNL_NODE_CAPACITY) + MIN_CNL_NODE_CAPACITY);
 			cnlNodes.put(ID, cnlNode);
 			ID++;
-			Thread.sleep(500);
+			simulator.sleep(500);
 		}
 		
 		for(int i = 0; i < NR_OF_EDGE_NODES; i++) {
@@ -234,29 +334,32 @@ public class Starter {
 					generator.nextInt(MAX_EDGE_NODE_CAPACITY) + MIN_EDGE_NODE_CAPACITY);
 			edgeNodes.put(ID, edgeNode);
 			ID++;
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		FailureProducer fp = FailureProducer.getInstance(edgeNodes, cnlNodes);
-		fp.start();
+		fp.launch();
 		
 		Set<Client> clients = new HashSet<>(20);
 		for(int i = 0; i < NR_OF_CLIENTS; i++) {
 			Client client = new Client(generateRandomCoordinates(), cloud);
-			client.start();
+			client.launch();
 			clients.add(client);
-			Thread.sleep(200);
+			simulator.sleep(200);
 		}
 		
 		try {
-			Thread.sleep(TIME_TILL_INTERRUPT);
+			simulator.sleep(TIME_TILL_INTERRUPT);
 			fp.interrupt();
 			clients.forEach(x -> x.interrupt());
 			cloud.shutdownNode();
-			Thread.sleep(10000);
+			simulator.sleep(10000);
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
+		ExecutionBackend.getInstance().shutdown();
+		Transport.getInstance().shutdown();
 		stats.writeStatisticsToCSVFile("./src/main/resources/simple_data_h.csv", "./src/main/resources/complex_data_h.csv", null);
+		stats.writeRuntimeMetricsToCSVFile("./src/main/resources/runtime_metrics_h.csv");
 	}
 
 }
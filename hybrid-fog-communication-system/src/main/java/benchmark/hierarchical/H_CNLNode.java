@@ -1,11 +1,13 @@
 package benchmark.hierarchical;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
 import hybrid.nodes.Node;
+import hybrid.nodes.RoutingCache;
 import util_objects.Coordinates;
 import util_objects.FailureHandler;
 import util_objects.NodeState;
@@ -36,7 +38,7 @@ public class H_CNLNode extends Node implements FailureHandler {
 		if(this.gossiper == null) {
 			this.gossiper = new H_GossipThread(this, this.clusterMetaData, supervisor);
 			this.gossiper.updateNodeState();
-			this.gossiper.start();			
+			this.gossiper.launch();			
 		}
 		return this;
 	}
@@ -64,17 +66,20 @@ public class H_CNLNode extends Node implements FailureHandler {
 
 	@Override
 	public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {
-		this.supervisor.startFailureRoutine(failedNode, NodeID);
+		this.sendFailureReport(this.supervisor, failedNode, NodeID);
 		
 	}
 
 	@Override
 	public void startFailureRoutine(Node failedNode, Long NodeID) {
-		synchronized(this.clusterMetaData) {
-			this.clusterMetaData.remove(failedNode.getNodeID());
+		List<Task> inFlightTasks = failedNode.takeOverInFlightTasks();
+		this.clusterMetaData.remove(failedNode.getNodeID());
+		synchronized(this.supervisedEdgeNodes) {
 			this.supervisedEdgeNodes.remove(failedNode);
 		}
-		this.stats.increaseNrOfDetectedNodeFailures();
+		RoutingCache.invalidate(failedNode.getCoordinates());
+		this.stats.increaseNrOfDetectedNodeFailures(failedNode);
+		this.requeueTasks(inFlightTasks, findNearestHealthyNode(this.supervisedEdgeNodes, failedNode));
 	}
 	
 	@Override
@@ -85,7 +90,7 @@ public class H_CNLNode extends Node implements FailureHandler {
 			throw new NoSuchElementException("Node: "+ this.getNodeID());
 		}	
 		//Computes differences and add more current metadata information to the own cluster view.
-		this.clusterMetaData.putAll(receivedMetadata);	
+		this.mergeReceivedNodeStates(receivedMetadata);	
 			
 		this.msg_received.incrementAndGet();
 		//this.msg_replied.incrementAndGet();
@@ -106,6 +111,7 @@ public class H_CNLNode extends Node implements FailureHandler {
 		synchronized(this.supervisedEdgeNodes) {
 			this.supervisedEdgeNodes.add(edgeNode);
 		}
+		RoutingCache.invalidate(edgeNode.getCoordinates());
 	}
 	
 	/** 
@@ -116,6 +122,7 @@ public class H_CNLNode extends Node implements FailureHandler {
 		synchronized(this.supervisedEdgeNodes) {
 			this.supervisedEdgeNodes.remove(edgeNode);
 		}
+		RoutingCache.invalidate(edgeNode.getCoordinates());
 	}
 
 }
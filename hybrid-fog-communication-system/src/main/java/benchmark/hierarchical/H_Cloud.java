@@ -1,10 +1,12 @@
 package benchmark.hierarchical;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
 import hybrid.nodes.Node;
+import hybrid.nodes.RoutingCache;
 import util_objects.Coordinates;
 import util_objects.FailureHandler;
 import util_objects.Irreplaceable;
@@ -67,8 +69,7 @@ public class H_Cloud extends Node implements FailureHandler, Irreplaceable {
 
 	@Override
 	public Node checkForCloserNode(Coordinates clientPosition) {
-		return this.clusterMetaData.values().stream().map(x -> x.getAssociatedNode())
-				.min(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(clientPosition))).get();
+		return this.clusterMetaData.getSpatialIndex().nearest(clientPosition);
 	}
 
 	@Override
@@ -79,12 +80,15 @@ public class H_Cloud extends Node implements FailureHandler, Irreplaceable {
 
 	@Override
 	public void startFailureRoutine(Node failedNode, Long NodeID) {
-		synchronized(this.clusterMetaData) {
-			failedNode.shutdownNode();
-			this.clusterMetaData.remove(failedNode.getNodeID());
+		List<Task> inFlightTasks = failedNode.takeOverInFlightTasks();
+		failedNode.shutdownNode();
+		this.clusterMetaData.remove(failedNode.getNodeID());
+		synchronized(this.supervisedCNLNodes) {
 			this.supervisedCNLNodes.remove(failedNode);
 		}
-		this.stats.increaseNrOfDetectedNodeFailures();
+		RoutingCache.invalidateAll();
+		this.stats.increaseNrOfDetectedNodeFailures(failedNode);
+		this.requeueTasks(inFlightTasks, findNearestHealthyNode(this.supervisedCNLNodes, failedNode));
 	}
 	
 	/** 
@@ -95,6 +99,7 @@ public class H_Cloud extends Node implements FailureHandler, Irreplaceable {
 		synchronized(this.supervisedCNLNodes) {
 			this.supervisedCNLNodes.add(cnlNode);
 		}
+		RoutingCache.invalidateAll();
 	}
 	
 	/** 
@@ -105,6 +110,7 @@ public class H_Cloud extends Node implements FailureHandler, Irreplaceable {
 		synchronized(this.supervisedCNLNodes) {
 			this.supervisedCNLNodes.remove(cnlNode);
 		}
+		RoutingCache.invalidateAll();
 	}
 	
 	@Override
@@ -26,7 +26,7 @@ public class H_EdgeNode extends Node {
 		if(this.gossiper == null) {
 			this.gossiper = new H_GossipThread(this, this.clusterMetaData, this.supervisor);
 			this.gossiper.updateNodeState();
-			this.gossiper.start();			
+			this.gossiper.launch();			
 		}
 		return this;
 	}
@@ -44,7 +44,7 @@ public class H_EdgeNode extends Node {
 
 	@Override
 	public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {
-		this.supervisor.startFailureRoutine(failedNode, NodeID);
+		this.sendFailureReport(this.supervisor, failedNode, NodeID);
 	}
 
 }
@@ -1,10 +1,10 @@
 package benchmark.hierarchical;
 
-import java.util.Map;
 import java.util.NoSuchElementException;
 
 import hybrid.nodes.GossipThread;
 import hybrid.nodes.Node;
+import util_objects.ClusterMetadataStore;
 import util_objects.NodeState;
 
 /** Hierarchical version of {@link GossipThread}*/
@@ -19,26 +19,38 @@ public class H_GossipThread extends GossipThread{
 	 * @param clusterMetaData - map to store metadata information 
 	 * @param supervisor - supervisor of the associated node
 	 */
-	public H_GossipThread(Node server, Map<Long, NodeState> clusterMetaData, Node supervisor) {
+	public H_GossipThread(Node server, ClusterMetadataStore clusterMetaData, Node supervisor) {
 		super(server, clusterMetaData);
 		this.supervisor = supervisor;
 	}
 	
 	@Override
-	public void run() {
-		while(!this.isInterrupted()) {
-			try {
-				this.sendGossipToSupervisor();
-				Thread.sleep(gossipInterval);
-			} catch(InterruptedException e) {
-				System.err.println("[WARN] - H_GOSSIP WAS INTERRUPTED! NODE: " + this.server.getNodeID());
-				
-				if(!this.server.isAvailable()) {//If associated node failed
-					System.out.println("FAILED NODE" + this.server.getNodeID());
-					this.server.reportNodeFailureToSupervisor(this.server, this.supervisor.getNodeID());
-				}
-				this.interrupt();
-			}
+	public long step() {
+		if(this.isInterrupted()) {
+			this.reportOwnFailure();
+			return -1;
+		}
+		this.executeRound();
+		return this.getGossipInterval();
+	}
+	
+	@Override
+	protected void gossipRound() {
+		this.sendGossipToSupervisor();
+	}
+	
+	/** @return number of nodes which should learn a new version of the own node state (supervisor and its supervisor) */
+	@Override
+	protected int getNrOfReceivers() {
+		if(this.supervisor == null) return 0;
+		return (this.supervisor instanceof H_CNLNode) ? 2 : 1;
+	}
+	
+	/** Reports the failure of the associated node to the supervisor (only if the associated node failed). */
+	private void reportOwnFailure() {
+		if(!this.server.isAvailable()) {//If associated node failed
+			System.out.println("FAILED NODE" + this.server.getNodeID());
+			this.server.reportNodeFailureToSupervisor(this.server, this.supervisor.getNodeID());
 		}
 	}
 	
@@ -48,7 +60,7 @@ public class H_GossipThread extends GossipThread{
 	private void sendGossipToSupervisor() {
 		try {
 			this.server.increaseMsgSent();
-			this.supervisor.receiveAndRespondGossipFrom(this.server, this.clusterMetaData);
+			this.pushStates(this.supervisor, this.clusterMetaData.asMap());
 		} catch(NoSuchElementException e) {//If supervisor failed
 			System.err.println(e.getMessage());
 			if(supervisor instanceof H_CNLNode) {
@@ -1,11 +1,16 @@
 package benchmark.peer_to_peer;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import hybrid.Statistics;
+import hybrid.network.Transport;
+import hybrid.network.Transport.MessageType;
+import hybrid.network.WireCodec;
+import hybrid.nodes.RoutingCache;
 import util_objects.NodeState;
 
 /**
@@ -23,6 +28,9 @@ public class Broadcaster {
 	/** {@link Statistics}*/
 	private Statistics stats = Statistics.getInstance();
 	
+	/** {@link WireCodec} which encodes the updates (only if it is enabled) */
+	private WireCodec codec = WireCodec.getInstance();
+	
 	/** Contains all {@link P2P_Node}s of the cluster*/
 	private Set<P2P_Node> clusterNodes = new HashSet<>();
 	
@@ -36,6 +44,7 @@ public class Broadcaster {
 		synchronized(this.clusterNodes) {
 			this.clusterNodes.add(subscriber);
 		}
+		RoutingCache.invalidate(subscriber.getCoordinates());
 	}
 	
 	/** Unsubscribe the broadcast.
@@ -44,11 +53,13 @@ public class Broadcaster {
 		synchronized(this.clusterNodes){
 			this.clusterNodes.remove(unsubscriber);
 		}
+		RoutingCache.invalidate(unsubscriber.getCoordinates());
 		
 	}
 	
 	/**
-	 * Publishes the {@link NodeState} of the sender to all other cluster participants.
+	 * Publishes the {@link NodeState} of the sender to all other cluster participants. If the {@link WireCodec} is enabled, 
+	 * the update is encoded once and carried by the {@link Transport} to each receiver.
 	 * @param nodeID - of the sender
 	 * @param update - new metadata information
 	 */
@@ -59,13 +70,18 @@ public class Broadcaster {
 			receivers = this.clusterNodes.stream().filter(x -> !x.getNodeID().equals(nodeID)).collect(Collectors.toSet());
 			receivers.forEach(x -> System.out.print(x.getNodeID() + "; "));
 		}
+		byte[] message = WireCodec.isEnabled() ? this.codec.encodeStates(Collections.singletonMap(nodeID, update)) : null;
 		for(P2P_Node receiver : receivers) {
 			try {
 				receiver.increaseMsgSent();
-				receiver.receiveBroadcast(nodeID, update);
+				if(message == null) {
+					receiver.receiveBroadcast(nodeID, update);
+				} else {
+					Transport.getInstance().request(nodeID, receiver, MessageType.BROADCAST, message);
+				}
 			} catch (NoSuchElementException e) {//Node failure handling
 				System.err.println("[ERROR] - NODE FAILURE DETECTED. P2P-NODE: " + receiver.getNodeID());
-				this.stats.increaseNrOfDetectedNodeFailures();
+				this.stats.increaseNrOfDetectedNodeFailures(receiver);
 				this.unsubscribe(receiver);
 				receiver.shutdownNode();
 				for(P2P_Node n : this.clusterNodes) {
@@ -75,6 +91,13 @@ public class Broadcaster {
 		}
 	}
 	
+	/** @return number of subscribed nodes */
+	public int getNrOfSubscribers() {
+		synchronized(this.clusterNodes) {
+			return this.clusterNodes.size();
+		}
+	}
+	
 	/**
 	 * Singleton method
 	 * @return singleton instance of Broadcaster
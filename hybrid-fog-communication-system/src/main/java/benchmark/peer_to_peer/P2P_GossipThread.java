@@ -1,8 +1,8 @@
 package benchmark.peer_to_peer;
 
-import java.util.Map;
 
 import hybrid.nodes.GossipThread;
+import util_objects.ClusterMetadataStore;
 import util_objects.NodeState;
 
 /** Peer-to-peer version of {@link GossipThread}*/
@@ -14,24 +14,26 @@ public class P2P_GossipThread extends GossipThread{
 	/** Component for broadcasting {@link Broadcaster} */
 	private final Broadcaster broadcaster = Broadcaster.getInstance();
 
-	public P2P_GossipThread(P2P_Node server, Map<Long, NodeState> clusterMetaData) {
+	public P2P_GossipThread(P2P_Node server, ClusterMetadataStore clusterMetaData) {
 		super(server, clusterMetaData);
 		this.server = server;
 	}
 	
 	@Override
-	public void run() {
+	public void launch() {
 		this.broadcaster.subscribe(this.server);
-		try {
-			while(!this.isInterrupted()) {
-				//Broadcast
-				this.broadcast();
-				Thread.sleep(this.gossipInterval);
-			}
-		} catch (InterruptedException e) {
-			System.err.println("[WARN] - P2P_GOSSIP WAS INTERRUPTED! NODE: " + this.server.getNodeID());
-			this.interrupt();
-		}
+		super.launch();
+	}
+	
+	@Override
+	protected void gossipRound() {
+		this.broadcast();
+	}
+	
+	/** @return number of nodes which should learn a new version of the own node state (all other subscribers) */
+	@Override
+	protected int getNrOfReceivers() {
+		return this.broadcaster.getNrOfSubscribers() - 1;
 	}
 	
 	/** Sends the current {@link NodeState} of {@link P2P_GossipThread#server} to all other known nodes via { {@link Broadcaster}*/
@@ -1,11 +1,13 @@
 package benchmark.peer_to_peer;
 
-import java.util.Comparator;
-import java.util.Map;
 import java.util.NoSuchElementException;
 
+import hybrid.network.Transport.MessageType;
+import hybrid.network.WireCodec;
+import hybrid.nodes.ConvergenceTracker;
 import hybrid.nodes.Node;
 import hybrid.nodes.edge_layer.EdgeNode;
+import util_objects.ClusterMetadataStore;
 import util_objects.Coordinates;
 import util_objects.NodeState;
 import util_objects.Task;
@@ -34,7 +36,7 @@ public class P2P_Node extends Node {
 	 * @param SECTOR_DISTANCE - {@link P2P_Node#SECTOR_DISTANCE}
 	 */
 	public P2P_Node(String IP_ADDRESS, int PORT, long NODE_ID, Coordinates COORDINATES, long MAX_STORAGE,
-			long MAX_RAM, float SECTOR_DISTANCE, Map<Long, NodeState> clusterMetaData) {
+			long MAX_RAM, float SECTOR_DISTANCE, ClusterMetadataStore clusterMetaData) {
 		super(IP_ADDRESS, PORT, NODE_ID, COORDINATES, MAX_STORAGE, MAX_RAM);
 		this.SECTOR_DISTANCE = SECTOR_DISTANCE;
 		this.clusterMetaData = clusterMetaData;
@@ -45,7 +47,7 @@ public class P2P_Node extends Node {
 		if(this.gossiper == null) {
 			this.gossiper = new P2P_GossipThread(this, this.clusterMetaData);
 			this.gossiper.updateNodeState();
-			this.gossiper.start();			
+			this.gossiper.launch();			
 		}
 		return this;
 	}
@@ -56,11 +58,9 @@ public class P2P_Node extends Node {
 		Node target;
 		while (!requestAccepted){
 			try {
-				 target = this.clusterMetaData.values().stream()
-					.filter(x -> ((long) x.getField("available_ram").getValue()) >= task.getRequiredRAM() &&
-								((long) x.getField("available_storage").getValue()) >= task.getRequiredStorage())
-					.min(Comparator.comparingDouble(x -> x.getAssociatedNode().getCoordinates().getDistance(this.getCoordinates())))
-					.get().getAssociatedNode();
+				//The own (possibly outdated) node state is skipped, because the own capacities were just insufficient
+				target = this.clusterMetaData.getSpatialIndex().kNearest(this.getCoordinates(), 1,
+						task.getRequiredRAM(), task.getRequiredStorage(), this.getNodeID()).stream().findFirst().get();
 					
 				//Check the capacities of the target node
 				requestAccepted = target.checkRedirectedTaskRequest(task);
@@ -69,6 +69,13 @@ public class P2P_Node extends Node {
 				System.err.println("[WARN] - CURRENTLY THERE IS NO NODE WHICH COULD HANDLE THE TASK");
 				//If there is no suitable receiver than wait and check whether there are now enough resources to process the task
 				//Else try to redirect the task again
+				if(this.simulator.isEnabled()) {
+					//A blocking wait would stop the virtual time -> retry as event
+					this.simulator.schedule(500, () -> {
+						if(!this.checkAndProcessTask(task)) this.redirectTask(task);
+					});
+					return;
+				}
 				try {
 					Thread.sleep(500);
 					requestAccepted = this.checkAndProcessTask(task); 
@@ -87,10 +94,7 @@ public class P2P_Node extends Node {
 			return this;
 		} else {
 			//No Catch clause because at least this node is contained in the metadata
-			return this.clusterMetaData.values().stream()
-					.map(x -> x.getAssociatedNode())
-					.min(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(clientPosition)))
-					.get();
+			return this.clusterMetaData.getSpatialIndex().nearest(clientPosition);
 		}
 	}
 
@@ -99,6 +103,16 @@ public class P2P_Node extends Node {
 		System.err.println("[ERROR] - FAILURE DETECTION IS MANAGED BY THE BROADCASTER COMPONENT");
 	}
 
+	/** Additionally handles the broadcasts ({@link P2P_Node#receiveBroadcast(Long, NodeState)}).*/
+	@Override
+	public byte[] handleMessage(MessageType type, long senderID, byte[] payload) throws NoSuchElementException {
+		if(type != MessageType.BROADCAST) {
+			return super.handleMessage(type, senderID, payload);
+		}
+		this.receiveBroadcast(senderID, WireCodec.getInstance().decodeStates(payload).get(senderID));
+		return new byte[0];
+	}
+
 	/**
 	 * Receives the {@link NodeState} from another peer and updates the own metadata.
 	 * @param receiver - target node
@@ -110,9 +124,8 @@ public class P2P_Node extends Node {
 		if(this.hasFailed.get()) {
 			throw new NoSuchElementException("Node: "+ this.getNodeID() + " has failed");
 		}	
-		synchronized(this.clusterMetaData) {
-			this.clusterMetaData.put(senderID, receivedMetadata);
-		}
+		this.clusterMetaData.put(senderID, receivedMetadata);
+		ConvergenceTracker.getInstance().recordLearned(this, receivedMetadata);
 			
 		this.msg_received.incrementAndGet();
 		//this.msg_replied.incrementAndGet();
@@ -1,19 +1,24 @@
 package hybrid;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import hybrid.nodes.Node;
+import hybrid.simulation.SimulationProcess;
+import hybrid.simulation.Simulator;
 import util_objects.Coordinates;
 import util_objects.Irreplaceable;
 import util_objects.Task;
 
 /**
  * This class represents a mobile client. Clients are able to move around the world and send tasks to the system. <br>
- * It extends {@link Thread}.
+ * It runs either on its own {@link Thread} or as {@link SimulationProcess} of the {@link Simulator}. In both cases it is 
+ * stopped by {@link Client#interrupt()}.
  * @author Marvin Kruber
  *
  */
-public class Client extends Thread {
+public class Client implements Runnable, SimulationProcess {
 	
 	/** Maximum value for geographical longitude -> Marks a movement restriction */ 
 	private final float MAX_X_COORDINATE = 180;
@@ -39,8 +44,11 @@ public class Client extends Thread {
 	/** Represents the minimum capacity requirements of a task */
 	private final int MIN_CAPACITY_REQ = 1000;
 	
+	/** {@link Simulator} which drives the client if the discrete-event mode is active */
+	private Simulator simulator = Simulator.getInstance();
+	
 	/** Generator for random integer values */
-	private Random generator = new Random();
+	private Random generator = simulator.createRandomGenerator();
 	
 	/** Receives all requests from the client */
 	private Node contactNode;
@@ -48,12 +56,30 @@ public class Client extends Thread {
 	/** The cloud is the emergency contact if a node is unavailable*/
 	private Irreplaceable cloud;
 	
+	/** Number of tasks per request. If it is greater than 1, the tasks are sent as batch ({@link Node#receiveTasks(List, Client)}). */
+	private static int batchSize = 1;
+	
+	/** Share of latency-critical tasks, which have a deadline (0 disables them) */
+	private static double latencyCriticalShare = 0;
+	
+	/** Tolerated delay of a latency-critical task in addition to its execution time [in milliseconds] */
+	private static long deadlineSlack = 0;
+	
 	/** Number of requests which were send by the client*/
 	private int numberOfRequests = 0;
 	
+	/** Additional delay of the next request, which was requested by a node (backpressure) [in milliseconds] */
+	private volatile long backpressureDelay = 0;
+	
 	/** {@link Statistics}*/
 	private Statistics stats = Statistics.getInstance();
 	
+	/** Thread of the client (null if it is driven by the {@link Simulator}) */
+	private Thread thread = null;
+	
+	/** Indicates whether the client was stopped */
+	private volatile boolean stopped = false;
+	
 	/**
 	 * Creates a new {@link Client} which is allocated at initialPosition.
 	 * @param initialPosition - start position of the client
@@ -69,21 +95,109 @@ public class Client extends Thread {
 	public void run() {
 		while(!this.isInterrupted()) {
 			try {
-				Thread.sleep(1000 + this.generator.nextInt(5000));
-				//Send Task
-				//System.out.println("[CLIENT] - SEND TASK");
-				Task task = new Task (this.generator.nextInt(MAX_CAPACITY_REQ) + MIN_CAPACITY_REQ, 
-						this.generator.nextInt(MAX_CAPACITY_REQ) + MIN_CAPACITY_REQ); 
-				this.checkNodeAvailability();
-				this.contactNode.receiveTaskFromClient(task, this);
-				this.numberOfRequests++;
-				move();
+				Thread.sleep(this.nextRequestDelay());
+				this.sendRequest();
 			} catch (InterruptedException e) {
 				System.err.println("[INFO] - CLIENT WAS INTERRUPTED");
-				this.interrupt();
+				this.stopped = true;
+			}
+		}
+	}
+	
+	@Override
+	public long step() {
+		if(this.isInterrupted()) {
+			return -1;
+		}
+		this.sendRequest();
+		return this.nextRequestDelay();
+	}
+	
+	/** Starts the client either as own thread or as process of the {@link Simulator}. */
+	public void launch() {
+		if(this.simulator.isEnabled()) {
+			this.simulator.spawn(this, this.nextRequestDelay());
+		} else {
+			this.thread = new Thread(this);
+			this.thread.start();
+		}
+	}
+	
+	/** Stops the client. A sleeping client thread is woken up, a simulated client does not take any further step. */
+	public void interrupt() {
+		this.stopped = true;
+		if(this.thread != null) {
+			this.thread.interrupt();
+		}
+	}
+	
+	/** @return whether the client was stopped */
+	public boolean isInterrupted() {
+		return this.stopped;
+	}
+	
+	/** @return time until the next request of the client [in milliseconds] */
+	private long nextRequestDelay() {
+		long delay = 1000 + this.generator.nextInt(5000) + this.backpressureDelay;
+		this.backpressureDelay = 0;
+		return delay;
+	}
+	
+	/**
+	 * Receives a backpressure signal of an overloaded node. The next request of the client is delayed accordingly.
+	 * @param retryAfter - requested additional delay [in milliseconds]
+	 */
+	public void applyBackpressure(long retryAfter) {
+		this.backpressureDelay = Math.max(this.backpressureDelay, retryAfter);
+		this.stats.increaseRuntimeCounter("backpressure_signals");
+	}
+	
+	/** Sends a new task (or a batch of tasks) to the contact node and moves the client afterwards. */
+	private void sendRequest() {
+		//Send Task
+		//System.out.println("[CLIENT] - SEND TASK");
+		this.checkNodeAvailability();
+		if(batchSize > 1) {
+			List<Task> tasks = new ArrayList<>(batchSize);
+			for(int i = 0; i < batchSize; i++) {
+				tasks.add(this.generateTask());
 			}
+			this.contactNode.receiveTasks(tasks, this);
+		} else {
+			this.contactNode.receiveTaskFromClient(this.generateTask(), this);
+		}
+		this.numberOfRequests++;
+		//Counted per request, because a simulated client is never interrupted in a thread
+		stats.increaseTotalNrOfTasks(batchSize);
+		move();
+	}
+	
+	/** @return a new task with random capacity requirements. A share of the tasks is latency-critical (with deadline).*/
+	private Task generateTask() {
+		int requiredStorage = this.generator.nextInt(MAX_CAPACITY_REQ) + MIN_CAPACITY_REQ;
+		int requiredRAM = this.generator.nextInt(MAX_CAPACITY_REQ) + MIN_CAPACITY_REQ;
+		if(latencyCriticalShare > 0 && this.generator.nextDouble() < latencyCriticalShare) {
+			return new Task(requiredStorage, requiredRAM, Task.Priority.LATENCY_CRITICAL, requiredStorage + requiredRAM + deadlineSlack);
 		}
-		stats.increaseTotalNrOfTasks(this.numberOfRequests);
+		return new Task(requiredStorage, requiredRAM);
+	}
+	
+	/**
+	 * Configures the number of tasks per request of all clients.
+	 * @param tasksPerRequest - number of tasks per request (1 disables batching)
+	 */
+	public static void setBatchSize(int tasksPerRequest) {
+		batchSize = Math.max(1, tasksPerRequest);
+	}
+	
+	/**
+	 * Configures the latency-critical tasks of all clients. Their deadline is given by their execution time and the slack.
+	 * @param share - share of latency-critical tasks [0, 1] (0 disables them)
+	 * @param slack - tolerated delay in addition to the execution time [in milliseconds]
+	 */
+	public static void setLatencyCriticalTasks(double share, long slack) {
+		latencyCriticalShare = share;
+		deadlineSlack = slack;
 	}
 	
 	/** Simulates the movement of a client on the globe. */
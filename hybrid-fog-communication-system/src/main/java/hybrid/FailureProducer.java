@@ -6,13 +6,16 @@ import java.util.Random;
 import hybrid.nodes.Node;
 import hybrid.nodes.core_network_layer.CNLNode;
 import hybrid.nodes.edge_layer.EdgeNode;
+import hybrid.simulation.SimulationProcess;
+import hybrid.simulation.Simulator;
 
 /**
- * The FailureProducer extends {@link Thread} and is used to generate/simulate node failures.
+ * The FailureProducer is used to generate/simulate node failures. It runs either on its own {@link Thread} or as 
+ * {@link SimulationProcess} of the {@link Simulator}. In both cases it is stopped by {@link FailureProducer#interrupt()}.
  * @author Marvin Kruber
  *
  */
-public class FailureProducer extends Thread {
+public class FailureProducer implements Runnable, SimulationProcess {
 	
 	/** Singleton instance */
 	private static FailureProducer singleton = null;
@@ -23,8 +26,11 @@ public class FailureProducer extends Thread {
 	/** Contains all {@link CNLNode}s of the system */
 	private Map<Long, ? extends Node> allCNLNodes;
 	
+	/** {@link Simulator} which drives the failure producer if the discrete-event mode is active */
+	private Simulator simulator = Simulator.getInstance();
+	
 	/** Generator for random integer values */
-	private Random generator = new Random();
+	private Random generator = simulator.createRandomGenerator();
 	
 	/** {@link Statistics} -> Used to store the number of failed nodes*/
 	private Statistics stats = Statistics.getInstance();
@@ -35,6 +41,12 @@ public class FailureProducer extends Thread {
 	/** Indicates the minimum time frame until the next failure occurs [in milliseconds] */
 	private final int MIN_TIME_UNTIL_NEXT_FAILURE = 5000;
 	
+	/** Thread of the failure producer (null if it is driven by the {@link Simulator}) */
+	private Thread thread = null;
+	
+	/** Indicates whether the failure producer was stopped */
+	private volatile boolean stopped = false;
+	
 	/**
 	 * Creates a new FailureProducer
 	 * @param edgeNodes - set of all edge nodes
@@ -47,30 +59,71 @@ public class FailureProducer extends Thread {
 	
 	@Override
 	public void run() {
-		int nodeCategoryFactor = 0;
-		int nodeSelectionFactor = 0;
 		while(!this.isInterrupted()) {
 			try {
-				Thread.sleep(this.generator.nextInt(MAX_TIME_UNTIL_NEXT_FAILURE) + MIN_TIME_UNTIL_NEXT_FAILURE);
+				Thread.sleep(this.nextFailureDelay());
 			} catch (InterruptedException e) {
 				System.err.println("[INFO] - FAILUREPRODUCER WAS INTERRUPTED");
-				this.interrupt();
-			}
-			nodeCategoryFactor = this.generator.nextInt(100);
-			if(nodeCategoryFactor <= 89) { //Marks likelihood for choosing an edge node
-				if(allEdgeNodes.size() == 0 ) continue;
-				nodeSelectionFactor = this.generator.nextInt(this.allEdgeNodes.size());
-				this.chooseFailedNode(nodeSelectionFactor, this.allEdgeNodes).fail();
-			} else {
-				nodeSelectionFactor = this.generator.nextInt(this.allCNLNodes.size());
-				this.chooseFailedNode(nodeSelectionFactor, this.allCNLNodes).fail();
+				this.stopped = true;
 			}
-			this.stats.increaseNrOfFailedNodes();
-			System.out.println("[INFO] - NODE FAILURE");
+			this.produceFailure();
 		}
 		
 	}
 	
+	@Override
+	public long step() {
+		if(this.isInterrupted()) {
+			return -1;
+		}
+		this.produceFailure();
+		return this.nextFailureDelay();
+	}
+	
+	/** Starts the failure producer either as own thread or as process of the {@link Simulator}. */
+	public void launch() {
+		if(this.simulator.isEnabled()) {
+			this.simulator.spawn(this, this.nextFailureDelay());
+		} else {
+			this.thread = new Thread(this);
+			this.thread.start();
+		}
+	}
+	
+	/** Stops the failure producer. A sleeping thread is woken up, a simulated failure producer does not take any further step. */
+	public void interrupt() {
+		this.stopped = true;
+		if(this.thread != null) {
+			this.thread.interrupt();
+		}
+	}
+	
+	/** @return whether the failure producer was stopped */
+	public boolean isInterrupted() {
+		return this.stopped;
+	}
+	
+	/** @return time until the next failure occurs [in milliseconds] */
+	private long nextFailureDelay() {
+		return this.generator.nextInt(MAX_TIME_UNTIL_NEXT_FAILURE) + MIN_TIME_UNTIL_NEXT_FAILURE;
+	}
+	
+	/** Simulates the failure of a randomly chosen node. */
+	private void produceFailure() {
+		int nodeCategoryFactor = this.generator.nextInt(100);
+		int nodeSelectionFactor = 0;
+		if(nodeCategoryFactor <= 89) { //Marks likelihood for choosing an edge node
+			if(allEdgeNodes.size() == 0 ) return;
+			nodeSelectionFactor = this.generator.nextInt(this.allEdgeNodes.size());
+			this.chooseFailedNode(nodeSelectionFactor, this.allEdgeNodes).fail();
+		} else {
+			nodeSelectionFactor = this.generator.nextInt(this.allCNLNodes.size());
+			this.chooseFailedNode(nodeSelectionFactor, this.allCNLNodes).fail();
+		}
+		this.stats.increaseNrOfFailedNodes();
+		System.out.println("[INFO] - NODE FAILURE");
+	}
+	
 	/**
 	 * Chooses a random node out of a given set in order to simulate a failure of this node.
 	 * @param counter - random number which determines the failed node
@@ -5,11 +5,16 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import hybrid.nodes.Node;
+import hybrid.simulation.Simulator;
 import util_objects.Coordinates;
+import util_objects.LatencyHistogram;
+import util_objects.TaskMetrics;
 
 /**
  * After terminating the system, this class contains all relevant statistics and write them to CSV-files.
@@ -36,6 +41,12 @@ public class Statistics {
 	/** Number of detected node failures */
 	private int nr_Of_Detected_Node_Failures = 0;
 	
+	/** Number of detected node failures of nodes which had not failed */
+	private int nr_Of_False_Positive_Detections = 0;
+	
+	/** Times between the failures and their detection [in milliseconds] */
+	private LatencyHistogram detection_Times = new LatencyHistogram();
+	
 	/** Total number of tasks sent by all clients */
 	private int total_Nr_Of_Tasks = 0;
 	
@@ -48,6 +59,15 @@ public class Statistics {
 	/** Number of redirected tasks */
 	private int nr_Of_Redirected_Tasks = 0; 
 	
+	/** Number of tasks which were lost by node failures (i.e. never requeued) */
+	private int nr_Of_Lost_Tasks = 0;
+	
+	/** Number of tasks which were requeued after a node failure */
+	private int nr_Of_Retried_Tasks = 0;
+	
+	/** Number of tasks which were executed more than once */
+	private int nr_Of_Duplicated_Tasks = 0;
+	
 	/** Contains the coordinates of all nodes */
 	private Map<Long, Coordinates> coordinates_Of_Nodes = new HashMap<>();
 	
@@ -81,6 +101,15 @@ public class Statistics {
 	/** Contains the number of edge pools per {@link CNLNode} */
 	private Map<Long, Integer> number_Of_EdgePools = new HashMap<>();
 	
+	/** Contains additional runtime metrics (e.g. of the execution backend) by their name [in insertion order] */
+	private Map<String, Object> runtime_Metrics = new LinkedHashMap<>();
+	
+	/** Contains the {@link TaskMetrics} per node */
+	private Map<Long, TaskMetrics> task_Metrics = new HashMap<>();
+	
+	/** Contains additional histograms (e.g. latencies) by their name [in insertion order] */
+	private Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+	
 	private Statistics() {
 	}
 	
@@ -110,9 +139,16 @@ public class Statistics {
 		this.nr_Of_Failed_Nodes++;
 	}
 	
-	/** Increases the number of detected node failures*/
-	public synchronized void increaseNrOfDetectedNodeFailures() {
-		this.nr_Of_Detected_Node_Failures++;;
+	/** Increases the number of detected node failures. The time to detect the failure is recorded, or a false positive if 
+	 *  the node has not failed.
+	 * @param failedNode - node which was detected as failed */
+	public synchronized void increaseNrOfDetectedNodeFailures(Node failedNode) {
+		this.nr_Of_Detected_Node_Failures++;
+		if(failedNode.isAvailable()) {
+			this.nr_Of_False_Positive_Detections++;
+		} else {
+			this.detection_Times.record(Simulator.getInstance().currentTimeMillis() - failedNode.getFailureTime());
+		}
 	}
 	
 	/** Increases the number of escalated tasks */
@@ -130,6 +166,21 @@ public class Statistics {
 		this.nr_Of_Redirected_Tasks++;
 	}
 	
+	/** Increases the number of lost tasks */
+	public synchronized void increaseNrOfLostTasks(int number) {
+		this.nr_Of_Lost_Tasks += number;
+	}
+	
+	/** Increases the number of retried tasks */
+	public synchronized void increaseNrOfRetriedTasks() {
+		this.nr_Of_Retried_Tasks++;
+	}
+	
+	/** Increases the number of duplicated tasks */
+	public synchronized void increaseNrOfDuplicatedTasks() {
+		this.nr_Of_Duplicated_Tasks++;
+	}
+	
 	/** Stores the coordinates of a node.*/
 	public synchronized void storeCoordinates(Long NodeID, Coordinates coordinates) {
 		this.coordinates_Of_Nodes.put(NodeID, coordinates);
@@ -150,6 +201,19 @@ public class Statistics {
 		this.avg_execution_time.put(NodeID, avgExecutionTime);
 	}
 	
+	/** Stores the {@link TaskMetrics} of a node. The number of tasks and the average latencies of the node are derived from it.*/
+	public synchronized void storeTaskMetrics(Long NodeID, TaskMetrics metrics) {
+		this.task_Metrics.put(NodeID, metrics);
+		this.number_Of_Tasks_Per_Node.put(NodeID, (int) metrics.getNumberOfTasks());
+		this.avg_execution_time.put(NodeID, metrics.getExecutionTime().getMean());
+		this.avg_transmission_latency.put(NodeID, metrics.getTransmissionDelay().getMean());
+	}
+	
+	/** @return histogram with the given name. It is created if it does not exist yet.*/
+	public synchronized LatencyHistogram getHistogram(String name) {
+		return this.histograms.computeIfAbsent(name, x -> new LatencyHistogram());
+	}
+	
 	/** Stores the number of tasks solved per node.*/
 	public synchronized void storeNumberOfTasksPerNode(Long NodeID, Integer nrOfTasks) {
 		this.number_Of_Tasks_Per_Node.put(NodeID, nrOfTasks);
@@ -185,6 +249,16 @@ public class Statistics {
 		this.number_Of_EdgePools.put(NodeID, nrOfEdgePools);
 	}
 	
+	/** Stores a runtime metric. A previous value with the same name is replaced.*/
+	public synchronized void storeRuntimeMetric(String name, Object value) {
+		this.runtime_Metrics.put(name, value);
+	}
+	
+	/** Increases the runtime counter with the given name by one (starts at 0).*/
+	public synchronized void increaseRuntimeCounter(String name) {
+		this.runtime_Metrics.merge(name, 1L, (x, y) -> ((Long) x) + 1);
+	}
+	
 	//------------------------------------------- Write to files ----------------------------------------------------------------------
 	
 	/** Writes all statistics to various .csv-files. 
@@ -216,6 +290,54 @@ public class Statistics {
 		System.out.println("[INFO] - FINISHED WRITING");
 	}
 	
+	/** Writes all runtime metrics and histograms to a .csv-file (one "name;value" line per metric). 
+	 * The task latencies of all nodes are summarized as histograms.
+	 * @param runtimeMetricsPath - path to the file in which the runtime metrics should be stored
+	 * */ 
+	public synchronized void writeRuntimeMetricsToCSVFile(String runtimeMetricsPath) {
+		LatencyHistogram executionTime = new LatencyHistogram();
+		LatencyHistogram transmissionDelay = new LatencyHistogram();
+		LatencyHistogram queueWait = new LatencyHistogram();
+		LatencyHistogram workerWait = new LatencyHistogram();
+		long deadlineTasks = 0;
+		long missedDeadlines = 0;
+		for(TaskMetrics metrics : this.task_Metrics.values()) {
+			executionTime.merge(metrics.getExecutionTime());
+			transmissionDelay.merge(metrics.getTransmissionDelay());
+			queueWait.merge(metrics.getQueueWait());
+			workerWait.merge(metrics.getWorkerWait());
+			deadlineTasks += metrics.getNumberOfDeadlineTasks();
+			missedDeadlines += metrics.getNumberOfMissedDeadlines();
+		}
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(new File(runtimeMetricsPath), true))) {
+			for(Entry<String, Object> metric : this.runtime_Metrics.entrySet()) {
+				writer.write(metric.getKey() + ";" + metric.getValue() + "\n");
+			}
+			int completedTasks = this.number_Of_Tasks_Per_Node.values().stream().reduce(0, (acc, y) -> acc + y);
+			writer.write("lost_tasks;" + this.nr_Of_Lost_Tasks + "\n");
+			writer.write("retried_tasks;" + this.nr_Of_Retried_Tasks + "\n");
+			writer.write("duplicated_tasks;" + this.nr_Of_Duplicated_Tasks + "\n");
+			writer.write("goodput;" + ((this.total_Nr_Of_Tasks == 0) ? 0 : ((double) completedTasks) / this.total_Nr_Of_Tasks) + "\n");
+			writer.write("deadline_tasks;" + deadlineTasks + "\n");
+			writer.write("deadline_misses;" + missedDeadlines + "\n");
+			writer.write("deadline_miss_ratio;" + ((deadlineTasks == 0) ? 0 : ((double) missedDeadlines) / deadlineTasks) + "\n");
+			writer.write("mean_time_to_detect;" + this.detection_Times.getMean() + "\n");
+			writer.write("false_positive_detections;" + this.nr_Of_False_Positive_Detections + "\n");
+			writer.write("false_positive_rate;" + ((this.nr_Of_Detected_Node_Failures == 0) ? 0 
+					: ((double) this.nr_Of_False_Positive_Detections) / this.nr_Of_Detected_Node_Failures) + "\n");
+			writer.write(this.getHistogramAsString("task_execution_time", executionTime));
+			writer.write(this.getHistogramAsString("task_transmission_delay", transmissionDelay));
+			writer.write(this.getHistogramAsString("task_queue_wait", queueWait));
+			writer.write(this.getHistogramAsString("task_worker_wait", workerWait));
+			writer.write(this.getHistogramAsString("failure_detection_time", this.detection_Times));
+			for(Entry<String, LatencyHistogram> histogram : this.histograms.entrySet()) {
+				writer.write(this.getHistogramAsString(histogram.getKey(), histogram.getValue()));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
 	//------------------------------------------- String formats -------------------------------------------------------------------------
 	
 	/** @return string of all variable values*/
@@ -252,6 +374,19 @@ public class Statistics {
 		return sb.toString();
 	}
 	
+	/** @return string of the summary of a histogram (count, mean, min, percentiles and max)*/
+	private String getHistogramAsString(String name, LatencyHistogram histogram) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(name + "_count;" + histogram.getCount() + "\n");
+		sb.append(name + "_mean;" + histogram.getMean() + "\n");
+		sb.append(name + "_min;" + histogram.getMin() + "\n");
+		sb.append(name + "_p50;" + histogram.getPercentile(0.5) + "\n");
+		sb.append(name + "_p90;" + histogram.getPercentile(0.9) + "\n");
+		sb.append(name + "_p99;" + histogram.getPercentile(0.99) + "\n");
+		sb.append(name + "_max;" + histogram.getMax() + "\n");
+		return sb.toString();
+	}
+	
 	/** @return string representation of {@link Statistics#number_Of_EdgePools} and {@link Statistics#edgePoolMembership}*/
 	private String getEdgePoolStatisticsAsString() {
 		StringBuilder sb = new StringBuilder();
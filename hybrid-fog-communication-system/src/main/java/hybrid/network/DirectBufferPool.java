@@ -0,0 +1,67 @@
+package hybrid.network;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct {@link ByteBuffer}s with a fixed size. Direct buffers are expensive to allocate, but they avoid a copy
+ * within the socket operations, so they are reused. Larger messages are transmitted in several chunks.
+ */
+public class DirectBufferPool {
+
+	/** Size of each buffer [in byte] */
+	private final int bufferSize;
+
+	/** Maximum number of idle buffers which are kept */
+	private final int maxIdleBuffers;
+
+	/** Idle buffers */
+	private final Queue<ByteBuffer> idleBuffers = new ConcurrentLinkedQueue<>();
+
+	/** Number of idle buffers */
+	private final AtomicInteger nrOfIdleBuffers = new AtomicInteger(0);
+
+	/** Number of allocated buffers */
+	private final AtomicInteger nrOfAllocatedBuffers = new AtomicInteger(0);
+
+	/**
+	 * Creates a new buffer pool.
+	 * @param bufferSize - size of each buffer [in byte]
+	 * @param maxIdleBuffers - maximum number of idle buffers which are kept
+	 */
+	public DirectBufferPool(int bufferSize, int maxIdleBuffers) {
+		this.bufferSize = bufferSize;
+		this.maxIdleBuffers = maxIdleBuffers;
+	}
+
+	/** @return cleared buffer (a new one if no buffer is idle) */
+	public ByteBuffer acquire() {
+		ByteBuffer buffer = this.idleBuffers.poll();
+		if(buffer == null) {
+			this.nrOfAllocatedBuffers.incrementAndGet();
+			return ByteBuffer.allocateDirect(this.bufferSize);
+		}
+		this.nrOfIdleBuffers.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Returns a buffer to the pool. It is dropped if {@link DirectBufferPool#maxIdleBuffers} buffers are idle.
+	 * @param buffer - buffer which was acquired from this pool
+	 */
+	public void release(ByteBuffer buffer) {
+		if(this.nrOfIdleBuffers.incrementAndGet() <= this.maxIdleBuffers) {
+			this.idleBuffers.offer(buffer);
+		} else {
+			this.nrOfIdleBuffers.decrementAndGet();
+		}
+	}
+
+	/** @return number of allocated buffers */
+	public int getNumberOfAllocatedBuffers() {
+		return this.nrOfAllocatedBuffers.get();
+	}
+}
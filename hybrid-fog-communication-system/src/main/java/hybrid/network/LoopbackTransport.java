@@ -0,0 +1,30 @@
+package hybrid.network;
+
+import java.util.NoSuchElementException;
+
+import hybrid.nodes.Node;
+
+/**
+ * In-memory transport: The encoded request is directly handed over to the receiver. It measures the encoding costs without
+ * any networking and it is deterministic, so it is used in discrete-event mode.
+ */
+public class LoopbackTransport extends Transport {
+
+	/** Creates a new loopback transport. */
+	public LoopbackTransport() {
+		super(TransportMode.LOOPBACK);
+	}
+
+	@Override
+	protected byte[] transmit(long senderID, Node target, MessageType type, byte[] payload) throws NoSuchElementException {
+		return target.handleMessage(type, senderID, payload);
+	}
+
+	@Override
+	public void bind(Node node) {
+	}
+
+	@Override
+	public void unbind(Node node) {
+	}
+}
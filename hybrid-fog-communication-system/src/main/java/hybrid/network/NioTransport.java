@@ -0,0 +1,491 @@
+package hybrid.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hybrid.nodes.Node;
+
+/**
+ * Transport via TCP sockets on localhost. Each bound node listens on its own port (its PORT if it is available, otherwise
+ * an ephemeral port). <br>
+ * All listening and accepted channels are served by one selector thread with non-blocking I/O. Complete requests are handled
+ * by a pool of handler threads, so that a handler may send requests itself (e.g. a redirected task). The sending nodes use
+ * pooled connections per receiver. All socket operations use pooled direct buffers ({@link DirectBufferPool}). A sender waits at
+ * most {@link NioTransport#REPLY_TIMEOUT} for a reply, so that a blocked handler or a hanging peer is treated like a failed
+ * node ({@link NoSuchElementException}) instead of blocking the sender forever. <br>
+ * Request frame: length (int), message type (byte), NODE_ID of the sender (long), payload. <br>
+ * Reply frame: length (int), status (byte), payload.
+ */
+public class NioTransport extends Transport {
+
+	/** Size of the pooled direct buffers [in byte] */
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	/** Maximum number of idle direct buffers */
+	private static final int MAX_IDLE_BUFFERS = 64;
+
+	/** Maximum time which a sender waits for a reply [in milliseconds] */
+	private static final int REPLY_TIMEOUT = 10_000;
+
+	/** Size of the request header after the length (message type and NODE_ID of the sender) [in byte] */
+	private static final int REQUEST_HEADER_SIZE = 1 + Long.BYTES;
+
+	/** Status of a successful request */
+	private static final byte STATUS_OK = 0;
+
+	/** Status of a request to a failed node (-> {@link NoSuchElementException}) */
+	private static final byte STATUS_UNAVAILABLE = 1;
+
+	/** Status of a request which could not be handled */
+	private static final byte STATUS_ERROR = 2;
+
+	/** Selector which serves all listening and accepted channels */
+	private final Selector selector;
+
+	/** Thread which executes the selector loop */
+	private final Thread selectorThread;
+
+	/** Threads which handle the complete requests */
+	private final ExecutorService handlers;
+
+	/** Pooled direct buffers for all socket operations */
+	private final DirectBufferPool buffers = new DirectBufferPool(BUFFER_SIZE, MAX_IDLE_BUFFERS);
+
+	/** Operations which have to be executed by the selector thread (e.g. registrations) */
+	private final Queue<SelectorTask> selectorTasks = new ConcurrentLinkedQueue<>();
+
+	/** Endpoints of all bound nodes [stored by their NODE_ID] */
+	private final Map<Long, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	/** Idle connections to the bound nodes [stored by their NODE_ID] */
+	private final Map<Long, Queue<SocketChannel>> connections = new ConcurrentHashMap<>();
+
+	/** Indicates whether the transport is running */
+	private volatile boolean running = true;
+
+	/** Creates a new NIO transport and starts its selector thread. */
+	public NioTransport() {
+		super(TransportMode.NIO);
+		try {
+			this.selector = Selector.open();
+		} catch (IOException e) {
+			throw new IllegalStateException("[ERROR] - SELECTOR COULD NOT BE OPENED", e);
+		}
+		AtomicInteger threadCounter = new AtomicInteger(0);
+		this.handlers = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "nio-transport-handler-" + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.selectorThread = new Thread(this::runSelector, "nio-transport-selector");
+		this.selectorThread.setDaemon(true);
+		this.selectorThread.start();
+	}
+
+	//------------------------------------------------ Endpoints ----------------------------------------------------------------
+
+	@Override
+	public void bind(Node node) {
+		try {
+			ServerSocketChannel server = this.openServerChannel(node.getPort());
+			Endpoint endpoint = new Endpoint(node, server, (InetSocketAddress) server.getLocalAddress());
+			this.endpoints.put(node.getNodeID(), endpoint);
+			this.runOnSelector(() -> server.register(this.selector, SelectionKey.OP_ACCEPT, endpoint));
+		} catch (IOException e) {
+			throw new IllegalStateException("[ERROR] - NODE " + node.getNodeID() + " COULD NOT BE BOUND", e);
+		}
+	}
+
+	/**
+	 * Opens a non-blocking listening channel on localhost.
+	 * @param port - preferred port (an ephemeral port is used if it is not available)
+	 * @return bound channel
+	 */
+	private ServerSocketChannel openServerChannel(int port) throws IOException {
+		InetAddress loopback = InetAddress.getLoopbackAddress();
+		if(port > 0) {
+			ServerSocketChannel server = ServerSocketChannel.open();
+			try {
+				server.bind(new InetSocketAddress(loopback, port));
+				server.configureBlocking(false);
+				return server;
+			} catch (IOException e) {
+				server.close();
+				this.stats.increaseRuntimeCounter("transport_port_fallbacks");
+			}
+		}
+		ServerSocketChannel server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress(loopback, 0));
+		server.configureBlocking(false);
+		return server;
+	}
+
+	@Override
+	public void unbind(Node node) {
+		Endpoint endpoint = this.endpoints.remove(node.getNodeID());
+		if(endpoint != null) {
+			closeQuietly(endpoint.server);
+			endpoint.acceptedChannels.forEach(NioTransport::closeQuietly);
+		}
+		Queue<SocketChannel> idleConnections = this.connections.remove(node.getNodeID());
+		if(idleConnections != null) {
+			idleConnections.forEach(NioTransport::closeQuietly);
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		this.running = false;
+		this.selector.wakeup();
+		try {
+			this.selectorThread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.endpoints.values().forEach(x -> this.unbind(x.node));
+		this.connections.values().forEach(x -> x.forEach(NioTransport::closeQuietly));
+		this.handlers.shutdownNow();
+		closeQuietly(this.selector);
+		this.stats.storeRuntimeMetric("transport_direct_buffers", this.buffers.getNumberOfAllocatedBuffers());
+		super.shutdown();
+	}
+
+	//------------------------------------------------ Sending ------------------------------------------------------------------
+
+	@Override
+	protected byte[] transmit(long senderID, Node target, MessageType type, byte[] payload) throws NoSuchElementException {
+		Endpoint endpoint = this.endpoints.get(target.getNodeID());
+		if(endpoint == null) {
+			throw new NoSuchElementException("Node: " + target.getNodeID() + " is unreachable");
+		}
+		byte[] request = ByteBuffer.allocate(Integer.BYTES + REQUEST_HEADER_SIZE + payload.length)
+				.putInt(REQUEST_HEADER_SIZE + payload.length).put((byte) type.ordinal()).putLong(senderID).put(payload).array();
+		SocketChannel channel = null;
+		byte[] reply;
+		try {
+			channel = this.acquireConnection(target.getNodeID(), endpoint.address);
+			this.writeFully(channel, request);
+			reply = this.readFrame(channel);
+			this.releaseConnection(target.getNodeID(), channel);
+		} catch (IOException e) {
+			closeQuietly(channel);
+			throw new NoSuchElementException("Node: " + target.getNodeID() + " is unreachable (" + e.getMessage() + ")");
+		}
+		byte[] body = Arrays.copyOfRange(reply, 1, reply.length);
+		if(reply[0] == STATUS_UNAVAILABLE) {
+			throw new NoSuchElementException(new String(body, StandardCharsets.UTF_8));
+		} else if(reply[0] != STATUS_OK) {
+			throw new IllegalStateException("[ERROR] - REQUEST FAILED AT NODE " + target.getNodeID() + ": "
+					+ new String(body, StandardCharsets.UTF_8));
+		}
+		return body;
+	}
+
+	/** @return idle connection to the node or a new one */
+	private SocketChannel acquireConnection(Long nodeID, InetSocketAddress address) throws IOException {
+		Queue<SocketChannel> idleConnections = this.connections.computeIfAbsent(nodeID, x -> new ConcurrentLinkedQueue<>());
+		for(SocketChannel channel = idleConnections.poll(); channel != null; channel = idleConnections.poll()) {
+			if(channel.isOpen()) return channel;
+		}
+		SocketChannel channel = SocketChannel.open(address);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.socket().setSoTimeout(REPLY_TIMEOUT);
+		return channel;
+	}
+
+	/** Returns a connection to the pool (it is closed if the node is not bound anymore). */
+	private void releaseConnection(Long nodeID, SocketChannel channel) {
+		Queue<SocketChannel> idleConnections = this.connections.get(nodeID);
+		if(this.running && idleConnections != null && this.endpoints.containsKey(nodeID)) {
+			idleConnections.offer(channel);
+		} else {
+			closeQuietly(channel);
+		}
+	}
+
+	/** Writes the whole message in chunks of the pooled buffer size (blocking channel). */
+	private void writeFully(SocketChannel channel, byte[] message) throws IOException {
+		ByteBuffer buffer = this.buffers.acquire();
+		try {
+			for(int position = 0; position < message.length; ) {
+				buffer.clear();
+				int length = Math.min(buffer.capacity(), message.length - position);
+				buffer.put(message, position, length).flip();
+				while(buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				position += length;
+			}
+		} finally {
+			this.buffers.release(buffer);
+		}
+	}
+
+	/** 
+	 * Reads the next frame. The blocking read of a channel ignores the socket timeout, so that the frame is read via the 
+	 * stream of its socket, which throws a {@link java.net.SocketTimeoutException} after {@link NioTransport#REPLY_TIMEOUT}.
+	 * @return content of the next frame without its length (blocking channel)
+	 */
+	private byte[] readFrame(SocketChannel socketChannel) throws IOException {
+		ReadableByteChannel channel = Channels.newChannel(socketChannel.socket().getInputStream());
+		ByteBuffer buffer = this.buffers.acquire();
+		try {
+			buffer.limit(Integer.BYTES);
+			readFully(channel, buffer);
+			buffer.flip();
+			byte[] frame = new byte[buffer.getInt()];
+			for(int position = 0; position < frame.length; ) {
+				buffer.clear();
+				buffer.limit(Math.min(buffer.capacity(), frame.length - position));
+				readFully(channel, buffer);
+				buffer.flip();
+				int length = buffer.remaining();
+				buffer.get(frame, position, length);
+				position += length;
+			}
+			return frame;
+		} finally {
+			this.buffers.release(buffer);
+		}
+	}
+
+	/** Reads until the buffer is full. */
+	private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer) < 0) throw new EOFException("connection closed");
+		}
+	}
+
+	//------------------------------------------------ Receiving ----------------------------------------------------------------
+
+	/** Selector loop: accepts connections, reads requests and writes replies without blocking. */
+	private void runSelector() {
+		while(this.running) {
+			try {
+				this.selector.select();
+				for(SelectorTask task = this.selectorTasks.poll(); task != null; task = this.selectorTasks.poll()) {
+					try {
+						task.run();
+					} catch (IOException e) {
+						System.err.println("[WARN] - NIO TRANSPORT: " + e.getMessage());
+					}
+				}
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while(keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if(key.isValid() && key.isAcceptable()) {
+							this.accept(key);
+						}
+						if(key.isValid() && key.isReadable()) {
+							this.read(key);
+						}
+						if(key.isValid() && key.isWritable()) {
+							this.write(key);
+						}
+					} catch (IOException e) {
+						key.cancel();
+						closeQuietly(key.channel());
+					}
+				}
+			} catch (IOException | ClosedSelectorException e) {
+				if(this.running) e.printStackTrace();
+			}
+		}
+	}
+
+	/** Accepts a new connection of a bound node. */
+	private void accept(SelectionKey key) throws IOException {
+		Endpoint endpoint = (Endpoint) key.attachment();
+		SocketChannel channel = endpoint.server.accept();
+		if(channel == null) return;
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		endpoint.acceptedChannels.add(channel);
+		channel.register(this.selector, SelectionKey.OP_READ, new Connection(endpoint, channel));
+	}
+
+	/** Reads the available bytes of a request. A complete request is passed to a handler thread. */
+	private void read(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		ByteBuffer buffer = this.buffers.acquire();
+		try {
+			if(connection.channel.read(buffer) < 0) {
+				key.cancel();
+				connection.endpoint.acceptedChannels.remove(connection.channel);
+				closeQuietly(connection.channel);
+				return;
+			}
+			buffer.flip();
+			while(buffer.hasRemaining()) {
+				if(connection.request == null) {
+					while(connection.length.hasRemaining() && buffer.hasRemaining()) {
+						connection.length.put(buffer.get());
+					}
+					if(connection.length.hasRemaining()) break;
+					connection.length.flip();
+					connection.request = new byte[connection.length.getInt()];
+					connection.length.clear();
+					connection.position = 0;
+				}
+				int length = Math.min(buffer.remaining(), connection.request.length - connection.position);
+				buffer.get(connection.request, connection.position, length);
+				connection.position += length;
+				if(connection.position == connection.request.length) {
+					this.dispatch(key, connection);
+					break; //The sender waits for the reply before it sends the next request
+				}
+			}
+		} finally {
+			this.buffers.release(buffer);
+		}
+	}
+
+	/** Handles a complete request on a handler thread. The reply is written by the selector thread afterwards. */
+	private void dispatch(SelectionKey key, Connection connection) {
+		byte[] request = connection.request;
+		connection.request = null;
+		key.interestOps(0);
+		this.handlers.execute(() -> {
+			connection.reply = handle(connection.endpoint.node, request);
+			connection.position = 0;
+			this.runOnSelector(() -> {
+				if(key.isValid()) key.interestOps(SelectionKey.OP_WRITE);
+			});
+		});
+	}
+
+	/** @return reply frame (including its length) to a request */
+	private static byte[] handle(Node node, byte[] request) {
+		ByteBuffer header = ByteBuffer.wrap(request);
+		MessageType type = MessageType.values()[header.get()];
+		long senderID = header.getLong();
+		byte[] payload = Arrays.copyOfRange(request, REQUEST_HEADER_SIZE, request.length);
+		byte status = STATUS_OK;
+		byte[] body;
+		try {
+			body = node.handleMessage(type, senderID, payload);
+		} catch (NoSuchElementException e) {
+			status = STATUS_UNAVAILABLE;
+			body = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			status = STATUS_ERROR;
+			body = String.valueOf(e).getBytes(StandardCharsets.UTF_8);
+		}
+		return ByteBuffer.allocate(Integer.BYTES + 1 + body.length).putInt(1 + body.length).put(status).put(body).array();
+	}
+
+	/** Writes the next chunk of a reply. The connection waits for the next request afterwards. */
+	private void write(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		ByteBuffer buffer = this.buffers.acquire();
+		try {
+			int length = Math.min(buffer.capacity(), connection.reply.length - connection.position);
+			buffer.put(connection.reply, connection.position, length).flip();
+			connection.position += connection.channel.write(buffer);
+			if(connection.position == connection.reply.length) {
+				connection.reply = null;
+				key.interestOps(SelectionKey.OP_READ);
+			}
+		} finally {
+			this.buffers.release(buffer);
+		}
+	}
+
+	/** Executes an operation on the selector thread (channels can only be registered by it without blocking). */
+	private void runOnSelector(SelectorTask task) {
+		this.selectorTasks.add(task);
+		this.selector.wakeup();
+	}
+
+	/** Closes a resource and ignores exceptions. */
+	private static void closeQuietly(AutoCloseable resource) {
+		if(resource == null) return;
+		try {
+			resource.close();
+		} catch (Exception e) {
+			//Already closed
+		}
+	}
+
+	//================================  Util   ===============================================
+
+	/** Operation which is executed by the selector thread */
+	private static interface SelectorTask {
+		void run() throws IOException;
+	}
+
+	/** Listening channel of a bound node and all its accepted channels */
+	private static class Endpoint {
+
+		/** Bound node */
+		private final Node node;
+
+		/** Listening channel */
+		private final ServerSocketChannel server;
+
+		/** Address of the listening channel */
+		private final InetSocketAddress address;
+
+		/** Accepted channels (they are closed with the endpoint) */
+		private final Set<SocketChannel> acceptedChannels = ConcurrentHashMap.newKeySet();
+
+		private Endpoint(Node node, ServerSocketChannel server, InetSocketAddress address) {
+			this.node = node;
+			this.server = server;
+			this.address = address;
+		}
+	}
+
+	/** State of an accepted channel (the current request or reply) */
+	private static class Connection {
+
+		/** Bound node which receives the requests */
+		private final Endpoint endpoint;
+
+		/** Accepted channel */
+		private final SocketChannel channel;
+
+		/** Length of the current request */
+		private final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+
+		/** Current request (null while its length is read) */
+		private byte[] request = null;
+
+		/** Current reply (null if there is none) */
+		private volatile byte[] reply = null;
+
+		/** Read position of the request or write position of the reply */
+		private volatile int position = 0;
+
+		private Connection(Endpoint endpoint, SocketChannel channel) {
+			this.endpoint = endpoint;
+			this.channel = channel;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package hybrid.network;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hybrid.Statistics;
+import hybrid.nodes.Node;
+import hybrid.simulation.Simulator;
+
+/**
+ * Carries the encoded messages ({@link WireCodec}) between the nodes. The concrete transport is chosen by
+ * {@link TransportMode}. <br>
+ * Each message is a request which is answered by the receiver ({@link Node#handleMessage(MessageType, long, byte[])}),
+ * so that the interactions keep their synchronous semantics. If the receiver has failed or is unreachable, a
+ * {@link NoSuchElementException} is thrown like for a direct method call. The transport is only used if the
+ * {@link WireCodec} is enabled.
+ */
+public abstract class Transport {
+
+	/** Singleton instance */
+	private static Transport singleton = null;
+
+	/** Configured transport mode */
+	private static TransportMode configuredMode = TransportMode.LOOPBACK;
+
+	/** {@link Statistics}*/
+	protected Statistics stats = Statistics.getInstance();
+
+	/** Transport mode of the transport */
+	private final TransportMode mode;
+
+	/** Number of transmitted requests */
+	private AtomicLong requests = new AtomicLong(0);
+
+	/** Number of transmitted bytes (requests and replies) */
+	private AtomicLong transmittedBytes = new AtomicLong(0);
+
+	/**
+	 * Creates a new transport.
+	 * @param mode - {@link TransportMode} of the transport
+	 */
+	protected Transport(TransportMode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Singleton method to get the transport. It is created with the first use. The {@link NioTransport} requires real time,
+	 * so that the {@link LoopbackTransport} is used in discrete-event mode.
+	 * @return transport
+	 */
+	public static synchronized Transport getInstance() {
+		if(singleton == null) {
+			TransportMode mode = configuredMode;
+			if(mode == TransportMode.NIO && Simulator.getInstance().isEnabled()) {
+				System.err.println("[WARN] - NIO TRANSPORT REQUIRES REAL TIME. LOOPBACK TRANSPORT IS USED.");
+				mode = TransportMode.LOOPBACK;
+			}
+			singleton = (mode == TransportMode.NIO) ? new NioTransport() : new LoopbackTransport();
+		}
+		return singleton;
+	}
+
+	/**
+	 * Configures the transport of all nodes. This has to be done before the first message is sent.
+	 * @param mode - {@link TransportMode} of the transport
+	 */
+	public static synchronized void configure(TransportMode mode) {
+		configuredMode = mode;
+	}
+
+	/**
+	 * Sends a request to the target and waits for its reply.
+	 * @param senderID - NODE_ID of the sender
+	 * @param target - receiver of the request
+	 * @param type - type of the message
+	 * @param payload - encoded message
+	 * @return encoded reply (empty if the message type has no reply)
+	 * @throws NoSuchElementException if the target has failed or is unreachable
+	 */
+	public byte[] request(long senderID, Node target, MessageType type, byte[] payload) throws NoSuchElementException {
+		long start = System.nanoTime();
+		byte[] reply = this.transmit(senderID, target, type, payload);
+		this.requests.incrementAndGet();
+		this.transmittedBytes.addAndGet(payload.length + reply.length);
+		this.stats.getHistogram("transport_round_trip_ns").record(System.nanoTime() - start);
+		return reply;
+	}
+
+	/**
+	 * Transmits a request to the target and returns its reply.
+	 * @see Transport#request(long, Node, MessageType, byte[])
+	 */
+	protected abstract byte[] transmit(long senderID, Node target, MessageType type, byte[] payload) throws NoSuchElementException;
+
+	/**
+	 * Makes a node reachable for requests.
+	 * @param node - node which should receive requests
+	 */
+	public abstract void bind(Node node);
+
+	/**
+	 * Makes a node unreachable (e.g. after its shutdown).
+	 * @param node - node which should not receive requests anymore
+	 */
+	public abstract void unbind(Node node);
+
+	/** Stops the transport and stores its metrics in the {@link Statistics}. */
+	public void shutdown() {
+		this.stats.storeRuntimeMetric("transport", this.mode);
+		this.stats.storeRuntimeMetric("transport_requests", this.requests.get());
+		this.stats.storeRuntimeMetric("transport_bytes", this.transmittedBytes.get());
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return {@link TransportMode} of the transport */
+	public TransportMode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * Enum for the construction of the transports.
+	 */
+	public static enum TransportMode {
+		/** Messages are handed over in memory (fast runs and discrete-event mode) */
+		LOOPBACK,
+		/** Messages are sent via non-blocking sockets on localhost */
+		NIO
+	}
+
+	/**
+	 * Types of the transported messages. The ordinal is used as type on the wire, so new types have to be appended.
+	 */
+	public static enum MessageType {
+		/** Task which should be performed by the receiver */
+		TASK,
+		/** Gossip digest, answered by a digest reply */
+		GOSSIP_DIGEST,
+		/** Node states which were requested by a digest reply */
+		GOSSIP_UPDATES,
+		/** Node states which are pushed to a supervisor (hierarchical benchmark) */
+		GOSSIP_PUSH,
+		/** Node state of a P2P node (peer-to-peer benchmark) */
+		BROADCAST,
+		/** Report of a potentially failed node */
+		FAILURE_REPORT,
+		/** Ping of the SWIM membership protocol with piggybacked updates, answered by an ack */
+		SWIM_PING,
+		/** Request to ping a target on behalf of the sender (SWIM ping-req) */
+		SWIM_PING_REQUEST,
+		/** Node state of a node which joins the cluster, answered by the cluster view of the contact node */
+		SWIM_JOIN,
+		/** Request for hashes of the Merkle tree of the cluster view (anti-entropy) */
+		MERKLE_HASHES,
+		/** Gossip digest of the divergent key ranges, answered by a digest reply */
+		GOSSIP_SLICE_DIGEST
+	}
+}
@@ -0,0 +1,766 @@
+package hybrid.network;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import hybrid.Statistics;
+import hybrid.nodes.FailureDetector;
+import hybrid.nodes.Node;
+import hybrid.nodes.edge_layer.EdgePool;
+import util_objects.Coordinates;
+import util_objects.GossipDigestAck;
+import util_objects.GossipSliceDigest;
+import util_objects.MembershipUpdate;
+import util_objects.NodeState;
+import util_objects.ProbeAck;
+import util_objects.Task;
+import util_objects.VersionedValue;
+
+/**
+ * Versioned binary codec for the payloads of the nodes (node states, digests, digest replies, tasks, failure reports, 
+ * membership updates and Merkle tree hashes). <br>
+ * Each message starts with a header (format version, flags and message type). IDs, versions and capacities are encoded as
+ * variable-length integers (varint), so that small values only need one or two bytes. The fields of a node state are
+ * preceded by a tag, so that unset fields are omitted and new fields can be added with a new tag. Payloads which exceed
+ * {@link WireCodec#COMPRESSION_THRESHOLD} are compressed (deflate) if the compression is configured. <br>
+ * Decoded node states reference the nodes and edge pools of this JVM via their IDs ({@link Node#getNodeByID(long)} and
+ * {@link EdgePool#getPoolByID(int)}). Tasks are not serialized either: {@link WireCodec#encodeTask(Task)} only writes their
+ * identifying fields and parks the task object in {@link WireCodec#tasksInTransit}, from which {@link WireCodec#decodeTask(byte[])}
+ * takes it after checking the fields. Hence, an encoded task can only be decoded by the codec of the same JVM. <br>
+ * The size of each decoded message and the time of encoding and decoding are recorded by the {@link Statistics}.
+ */
+public class WireCodec {
+
+	/** Singleton instance */
+	private static WireCodec singleton = null;
+
+	/** Configures whether the payloads are encoded (otherwise the objects are passed directly) */
+	private static boolean enabled = false;
+
+	/** Configures whether large payloads are compressed */
+	private static boolean compression = false;
+
+	/** Version of the wire format */
+	public static final byte FORMAT_VERSION = 1;
+
+	/** Minimum size of a payload which is compressed [in byte] */
+	private static final int COMPRESSION_THRESHOLD = 256;
+
+	/** Flag which marks a compressed payload */
+	private static final byte FLAG_COMPRESSED = 0x1;
+
+	/** Message type of node states */
+	private static final byte TYPE_STATES = 1;
+
+	/** Message type of a digest */
+	private static final byte TYPE_DIGEST = 2;
+
+	/** Message type of a digest reply */
+	private static final byte TYPE_DIGEST_ACK = 3;
+
+	/** Message type of a task */
+	private static final byte TYPE_TASK = 4;
+
+	/** Message type of a failure report */
+	private static final byte TYPE_FAILURE_REPORT = 5;
+
+	/** Message type of membership updates (SWIM ping and ack) */
+	private static final byte TYPE_MEMBERSHIP_UPDATES = 6;
+
+	/** Message type of an indirect ping request (SWIM ping-req) */
+	private static final byte TYPE_PING_REQUEST = 7;
+
+	/** Message type of the reply to an indirect ping request */
+	private static final byte TYPE_PROBE_ACK = 8;
+
+	/** Message type of a request for Merkle tree hashes */
+	private static final byte TYPE_MERKLE_HASH_REQUEST = 9;
+
+	/** Message type of Merkle tree hashes */
+	private static final byte TYPE_MERKLE_HASHES = 10;
+
+	/** Message type of a digest of divergent key ranges */
+	private static final byte TYPE_SLICE_DIGEST = 11;
+
+	/** Tag which terminates the fields of a node state */
+	private static final byte TAG_END = 0;
+
+	/** Tag of the coordinates */
+	private static final byte TAG_COORDINATES = 1;
+
+	/** Tag of the available RAM */
+	private static final byte TAG_AVAILABLE_RAM = 2;
+
+	/** Tag of the available storage */
+	private static final byte TAG_AVAILABLE_STORAGE = 3;
+
+	/** Tag of the edge pools of a CNL node (extension "edge_pools") */
+	private static final byte TAG_EDGE_POOLS = 4;
+
+	/** Tag of the heartbeat counter */
+	private static final byte TAG_HEARTBEAT = 5;
+
+	/** Tag of the suspicion levels of the failure detector (extension {@link FailureDetector#SUSPICIONS}) */
+	private static final byte TAG_SUSPICIONS = 6;
+
+	/** Name of the extension which contains the edge pools of a CNL node */
+	private static final String EDGE_POOLS = "edge_pools";
+
+	/** {@link Statistics}*/
+	private Statistics stats = Statistics.getInstance();
+
+	/** Encoded tasks which were not decoded yet [stored by their ID]. The receiver resumes the same task object, so that 
+	 *  its metrics are recorded once. */
+	private final Map<Long, Task> tasksInTransit = new ConcurrentHashMap<>();
+
+	private WireCodec() {
+	}
+
+	/**
+	 * Singleton method to get the codec.
+	 * @return codec instance
+	 */
+	public static synchronized WireCodec getInstance() {
+		if(singleton == null) singleton = new WireCodec();
+		return singleton;
+	}
+
+	/**
+	 * Configures the codec of all nodes.
+	 * @param encodePayloads - whether the payloads are encoded (otherwise the objects are passed directly)
+	 * @param compressPayloads - whether large payloads are compressed
+	 */
+	public static void configure(boolean encodePayloads, boolean compressPayloads) {
+		enabled = encodePayloads;
+		compression = compressPayloads;
+	}
+
+	/** @return whether the payloads are encoded */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	//------------------------------------------------ Encoding -----------------------------------------------------------------
+
+	/**
+	 * Encodes node states.
+	 * @param states - node states [stored by their NODE_ID]
+	 * @return encoded message
+	 */
+	public byte[] encodeStates(Map<Long, NodeState> states) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeStates(payload, states.values());
+		return this.finish(TYPE_STATES, payload, start);
+	}
+
+	/**
+	 * Encodes a digest.
+	 * @param digest - versions of node states [stored by their NODE_ID]
+	 * @return encoded message
+	 */
+	public byte[] encodeDigest(Map<Long, Long> digest) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeVarLong(payload, digest.size());
+		for(Map.Entry<Long, Long> entry : digest.entrySet()) {
+			writeVarLong(payload, entry.getKey());
+			writeVarLong(payload, entry.getValue());
+		}
+		return this.finish(TYPE_DIGEST, payload, start);
+	}
+
+	/**
+	 * Encodes a digest of divergent key ranges.
+	 * @param slice - key ranges and versions of the node states within them
+	 * @return encoded message
+	 */
+	public byte[] encodeSliceDigest(GossipSliceDigest slice) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		payload.write(slice.getLevel());
+		writeVarLong(payload, slice.getRanges().size());
+		for(Integer index : slice.getRanges()) {
+			writeVarLong(payload, index);
+		}
+		writeVarLong(payload, slice.getDigest().size());
+		for(Map.Entry<Long, Long> entry : slice.getDigest().entrySet()) {
+			writeVarLong(payload, entry.getKey());
+			writeVarLong(payload, entry.getValue());
+		}
+		return this.finish(TYPE_SLICE_DIGEST, payload, start);
+	}
+
+	/**
+	 * Encodes a request for Merkle tree hashes.
+	 * @param indices - indices of the requested tree nodes
+	 * @return encoded message
+	 */
+	public byte[] encodeMerkleHashRequest(int[] indices) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeVarLong(payload, indices.length);
+		for(int index : indices) {
+			writeVarLong(payload, index);
+		}
+		return this.finish(TYPE_MERKLE_HASH_REQUEST, payload, start);
+	}
+
+	/**
+	 * Encodes Merkle tree hashes. The hashes are uniformly distributed, so they are written with a fixed size.
+	 * @param hashes - hashes of the requested tree nodes
+	 * @return encoded message
+	 */
+	public byte[] encodeMerkleHashes(long[] hashes) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeVarLong(payload, hashes.length);
+		for(long hash : hashes) {
+			writeInt(payload, (int) (hash >>> 32));
+			writeInt(payload, (int) hash);
+		}
+		return this.finish(TYPE_MERKLE_HASHES, payload, start);
+	}
+
+	/**
+	 * Encodes a digest reply.
+	 * @param ack - node states and requested node IDs
+	 * @return encoded message
+	 */
+	public byte[] encodeDigestAck(GossipDigestAck ack) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeStates(payload, ack.getUpdates().values());
+		writeVarLong(payload, ack.getRequestedNodeIDs().size());
+		for(Long nodeID : ack.getRequestedNodeIDs()) {
+			writeVarLong(payload, nodeID);
+		}
+		return this.finish(TYPE_DIGEST_ACK, payload, start);
+	}
+
+	/**
+	 * Encodes a task. The task is registered as in transit until it is decoded ({@link WireCodec#decodeTask(byte[])}) or 
+	 * discarded ({@link WireCodec#discardTask(Task)}).
+	 * @param task - task which should be sent
+	 * @return encoded message
+	 */
+	public byte[] encodeTask(Task task) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeVarLong(payload, task.getTaskID());
+		writeVarLong(payload, task.getRequiredStorage());
+		writeVarLong(payload, task.getRequiredRAM());
+		payload.write(task.getPriority().ordinal());
+		writeVarLong(payload, task.hasDeadline() ? task.getDeadline() - task.getStartTime() + 1 : 0);
+		writeVarLong(payload, task.getStartTime());
+		this.tasksInTransit.put(task.getTaskID(), task);
+		return this.finish(TYPE_TASK, payload, start);
+	}
+
+	/**
+	 * Encodes a failure report.
+	 * @param failedNode - node which potentially failed
+	 * @param reporterID - ID of the reporting node
+	 * @return encoded message
+	 */
+	public byte[] encodeFailureReport(Node failedNode, Long reporterID) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeVarLong(payload, failedNode.getNodeID());
+		writeVarLong(payload, reporterID);
+		return this.finish(TYPE_FAILURE_REPORT, payload, start);
+	}
+
+	/**
+	 * Encodes membership updates (e.g. a SWIM ping or its ack).
+	 * @param updates - piggybacked membership updates
+	 * @return encoded message
+	 */
+	public byte[] encodeMembershipUpdates(List<MembershipUpdate> updates) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeMembershipUpdates(payload, updates);
+		return this.finish(TYPE_MEMBERSHIP_UPDATES, payload, start);
+	}
+
+	/**
+	 * Encodes an indirect ping request.
+	 * @param target - node which should be pinged on behalf of the sender
+	 * @param updates - piggybacked membership updates
+	 * @return encoded message
+	 */
+	public byte[] encodePingRequest(Node target, List<MembershipUpdate> updates) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeVarLong(payload, target.getNodeID());
+		writeMembershipUpdates(payload, updates);
+		return this.finish(TYPE_PING_REQUEST, payload, start);
+	}
+
+	/**
+	 * Encodes the reply to an indirect ping request.
+	 * @param ack - result of the indirect ping and piggybacked membership updates
+	 * @return encoded message
+	 */
+	public byte[] encodeProbeAck(ProbeAck ack) {
+		long start = System.nanoTime();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		payload.write(ack.isAcknowledged() ? 1 : 0);
+		writeMembershipUpdates(payload, ack.getUpdates());
+		return this.finish(TYPE_PROBE_ACK, payload, start);
+	}
+
+	/** Writes the header and the (compressed) payload. */
+	private byte[] finish(byte type, ByteArrayOutputStream payload, long start) {
+		byte[] body = payload.toByteArray();
+		byte flags = 0;
+		if(compression && body.length >= COMPRESSION_THRESHOLD) {
+			byte[] compressed = compress(body);
+			if(compressed.length < body.length) {
+				body = compressed;
+				flags |= FLAG_COMPRESSED;
+			}
+		}
+		byte[] message = new byte[body.length + 3];
+		message[0] = FORMAT_VERSION;
+		message[1] = flags;
+		message[2] = type;
+		System.arraycopy(body, 0, message, 3, body.length);
+		this.stats.getHistogram("wire_encode_time_ns").record(System.nanoTime() - start);
+		return message;
+	}
+
+	/** Writes the number of node states and all node states. */
+	private static void writeStates(ByteArrayOutputStream out, Collection<NodeState> states) {
+		writeVarLong(out, states.size());
+		for(NodeState state : states) {
+			writeState(out, state);
+		}
+	}
+
+	/** Writes the number of membership updates and all updates (member, status, incarnation and source). */
+	private static void writeMembershipUpdates(ByteArrayOutputStream out, List<MembershipUpdate> updates) {
+		writeVarLong(out, updates.size());
+		for(MembershipUpdate update : updates) {
+			writeVarLong(out, update.getMemberID());
+			out.write(update.getStatus().ordinal());
+			writeVarLong(out, update.getIncarnation());
+			writeVarLong(out, update.getSourceID());
+		}
+	}
+
+	/** Writes a node state (NODE_ID, origin time and all set fields with their tags and versions). */
+	private static void writeState(ByteArrayOutputStream out, NodeState state) {
+		writeVarLong(out, state.getAssociatedNode().getNodeID());
+		writeVarLong(out, state.getOriginTime());
+		if(state.getCoordinates() != null) {
+			out.write(TAG_COORDINATES);
+			writeVarLong(out, state.getCoordinatesVersion());
+			writeInt(out, Float.floatToIntBits(state.getCoordinates().getX()));
+			writeInt(out, Float.floatToIntBits(state.getCoordinates().getY()));
+		}
+		if(state.getAvailableRamVersion() > 0 || state.getAvailableRam() > 0) {
+			out.write(TAG_AVAILABLE_RAM);
+			writeVarLong(out, state.getAvailableRamVersion());
+			writeVarLong(out, state.getAvailableRam());
+		}
+		if(state.getAvailableStorageVersion() > 0 || state.getAvailableStorage() > 0) {
+			out.write(TAG_AVAILABLE_STORAGE);
+			writeVarLong(out, state.getAvailableStorageVersion());
+			writeVarLong(out, state.getAvailableStorage());
+		}
+		if(state.getHeartbeat() > 0) {
+			out.write(TAG_HEARTBEAT);
+			writeVarLong(out, state.getHeartbeatVersion());
+			writeVarLong(out, state.getHeartbeat());
+			writeVarLong(out, state.getHeartbeatInterval());
+		}
+		for(Map.Entry<String, VersionedValue<?>> extension : state.getExtensions().entrySet()) {
+			if(EDGE_POOLS.equals(extension.getKey())) {
+				Collection<?> pools = (Collection<?>) extension.getValue().getValue();
+				out.write(TAG_EDGE_POOLS);
+				writeVarLong(out, extension.getValue().getVersion());
+				writeVarLong(out, pools.size());
+				for(Object pool : pools) {
+					writeVarLong(out, ((EdgePool) pool).getPoolID());
+				}
+			} else if(FailureDetector.SUSPICIONS.equals(extension.getKey())) {
+				Map<?, ?> levels = (Map<?, ?>) extension.getValue().getValue();
+				out.write(TAG_SUSPICIONS);
+				writeVarLong(out, extension.getValue().getVersion());
+				writeVarLong(out, levels.size());
+				for(Map.Entry<?, ?> level : levels.entrySet()) {
+					writeVarLong(out, (Long) level.getKey());
+					writeInt(out, Float.floatToIntBits((Float) level.getValue()));
+				}
+			} else {
+				throw new IllegalArgumentException("[ERROR] - NO WIRE TAG FOR FIELD: " + extension.getKey());
+			}
+		}
+		out.write(TAG_END);
+	}
+
+	//------------------------------------------------ Decoding -----------------------------------------------------------------
+
+	/**
+	 * Decodes node states.
+	 * @param message - encoded message
+	 * @return node states [stored by their NODE_ID]
+	 */
+	public Map<Long, NodeState> decodeStates(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_STATES);
+		Map<Long, NodeState> states = readStates(in);
+		this.record(message, start);
+		return states;
+	}
+
+	/**
+	 * Decodes a digest.
+	 * @param message - encoded message
+	 * @return versions of node states [stored by their NODE_ID]
+	 */
+	public Map<Long, Long> decodeDigest(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_DIGEST);
+		int size = (int) readVarLong(in);
+		Map<Long, Long> digest = new HashMap<>(size * 2);
+		for(int i = 0; i < size; i++) {
+			digest.put(readVarLong(in), readVarLong(in));
+		}
+		this.record(message, start);
+		return digest;
+	}
+
+	/**
+	 * Decodes a digest of divergent key ranges.
+	 * @param message - encoded message
+	 * @return key ranges and versions of the node states within them
+	 */
+	public GossipSliceDigest decodeSliceDigest(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_SLICE_DIGEST);
+		int level = in.get();
+		int nrOfRanges = (int) readVarLong(in);
+		Set<Integer> ranges = new HashSet<>(nrOfRanges * 2);
+		for(int i = 0; i < nrOfRanges; i++) {
+			ranges.add((int) readVarLong(in));
+		}
+		int size = (int) readVarLong(in);
+		Map<Long, Long> digest = new HashMap<>(size * 2);
+		for(int i = 0; i < size; i++) {
+			digest.put(readVarLong(in), readVarLong(in));
+		}
+		this.record(message, start);
+		return new GossipSliceDigest(digest, level, ranges);
+	}
+
+	/**
+	 * Decodes a request for Merkle tree hashes.
+	 * @param message - encoded message
+	 * @return indices of the requested tree nodes
+	 */
+	public int[] decodeMerkleHashRequest(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_MERKLE_HASH_REQUEST);
+		int[] indices = new int[(int) readVarLong(in)];
+		for(int i = 0; i < indices.length; i++) {
+			indices[i] = (int) readVarLong(in);
+		}
+		this.record(message, start);
+		return indices;
+	}
+
+	/**
+	 * Decodes Merkle tree hashes.
+	 * @param message - encoded message
+	 * @return hashes of the requested tree nodes
+	 */
+	public long[] decodeMerkleHashes(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_MERKLE_HASHES);
+		long[] hashes = new long[(int) readVarLong(in)];
+		for(int i = 0; i < hashes.length; i++) {
+			hashes[i] = in.getLong();
+		}
+		this.record(message, start);
+		return hashes;
+	}
+
+	/**
+	 * Decodes a digest reply.
+	 * @param message - encoded message
+	 * @return node states and requested node IDs
+	 */
+	public GossipDigestAck decodeDigestAck(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_DIGEST_ACK);
+		Map<Long, NodeState> updates = readStates(in);
+		int size = (int) readVarLong(in);
+		Set<Long> requestedNodeIDs = new HashSet<>(size * 2);
+		for(int i = 0; i < size; i++) {
+			requestedNodeIDs.add(readVarLong(in));
+		}
+		this.record(message, start);
+		return new GossipDigestAck(updates, requestedNodeIDs);
+	}
+
+	/**
+	 * Decodes a task.
+	 * @param message - encoded message
+	 * @return task which was encoded by {@link WireCodec#encodeTask(Task)}
+	 */
+	public Task decodeTask(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_TASK);
+		long taskID = readVarLong(in);
+		int requiredStorage = (int) readVarLong(in);
+		int requiredRAM = (int) readVarLong(in);
+		Task.Priority priority = Task.Priority.values()[in.get()];
+		long relativeDeadline = readVarLong(in) - 1;
+		long startTime = readVarLong(in);
+		Task task = this.tasksInTransit.remove(taskID);
+		if(task == null || task.getRequiredStorage() != requiredStorage || task.getRequiredRAM() != requiredRAM 
+				|| task.getPriority() != priority || task.getStartTime() != startTime
+				|| task.getDeadline() != ((relativeDeadline < 0) ? Task.NO_DEADLINE : startTime + relativeDeadline)) {
+			throw new IllegalArgumentException("[ERROR] - UNKNOWN TASK: " + taskID);
+		}
+		this.record(message, start);
+		return task;
+	}
+
+	/**
+	 * Discards an encoded task which could not be delivered.
+	 * @param task - task which was encoded by {@link WireCodec#encodeTask(Task)}
+	 */
+	public void discardTask(Task task) {
+		this.tasksInTransit.remove(task.getTaskID());
+	}
+
+	/**
+	 * Decodes a failure report.
+	 * @param message - encoded message
+	 * @return node which potentially failed and ID of the reporting node
+	 */
+	public Map.Entry<Node, Long> decodeFailureReport(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_FAILURE_REPORT);
+		Node failedNode = Node.getNodeByID(readVarLong(in));
+		Long reporterID = readVarLong(in);
+		this.record(message, start);
+		return new AbstractMap.SimpleImmutableEntry<>(failedNode, reporterID);
+	}
+
+	/**
+	 * Decodes membership updates.
+	 * @param message - encoded message
+	 * @return piggybacked membership updates
+	 */
+	public List<MembershipUpdate> decodeMembershipUpdates(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_MEMBERSHIP_UPDATES);
+		List<MembershipUpdate> updates = readMembershipUpdates(in);
+		this.record(message, start);
+		return updates;
+	}
+
+	/**
+	 * Decodes an indirect ping request.
+	 * @param message - encoded message
+	 * @return node which should be pinged and piggybacked membership updates
+	 */
+	public Map.Entry<Node, List<MembershipUpdate>> decodePingRequest(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_PING_REQUEST);
+		Node target = Node.getNodeByID(readVarLong(in));
+		List<MembershipUpdate> updates = readMembershipUpdates(in);
+		this.record(message, start);
+		return new AbstractMap.SimpleImmutableEntry<>(target, updates);
+	}
+
+	/**
+	 * Decodes the reply to an indirect ping request.
+	 * @param message - encoded message
+	 * @return result of the indirect ping and piggybacked membership updates
+	 */
+	public ProbeAck decodeProbeAck(byte[] message) {
+		long start = System.nanoTime();
+		ByteBuffer in = this.open(message, TYPE_PROBE_ACK);
+		boolean acknowledged = in.get() != 0;
+		List<MembershipUpdate> updates = readMembershipUpdates(in);
+		this.record(message, start);
+		return new ProbeAck(acknowledged, updates);
+	}
+
+	/** Checks the header and returns the (decompressed) payload. */
+	private ByteBuffer open(byte[] message, byte expectedType) {
+		if(message.length < 3 || message[0] != FORMAT_VERSION) {
+			throw new IllegalArgumentException("[ERROR] - UNSUPPORTED WIRE FORMAT VERSION: " + message[0]);
+		}
+		if(message[2] != expectedType) {
+			throw new IllegalArgumentException("[ERROR] - UNEXPECTED MESSAGE TYPE: " + message[2]);
+		}
+		if((message[1] & FLAG_COMPRESSED) != 0) {
+			return ByteBuffer.wrap(decompress(message, 3));
+		}
+		return ByteBuffer.wrap(message, 3, message.length - 3);
+	}
+
+	/** Records the size of a received message and the time of its decoding. */
+	private void record(byte[] message, long start) {
+		this.stats.getHistogram("wire_decode_time_ns").record(System.nanoTime() - start);
+		this.stats.getHistogram("wire_message_bytes").record(message.length);
+	}
+
+	/** Reads the number of node states and all node states. Node states of unknown nodes are skipped. */
+	private static Map<Long, NodeState> readStates(ByteBuffer in) {
+		int size = (int) readVarLong(in);
+		Map<Long, NodeState> states = new LinkedHashMap<>(size * 2);
+		for(int i = 0; i < size; i++) {
+			long nodeID = readVarLong(in);
+			NodeState state = readState(in, Node.getNodeByID(nodeID));
+			if(state != null) states.put(nodeID, state);
+		}
+		return states;
+	}
+
+	/** Reads the number of membership updates and all updates. Unknown status values are rejected. */
+	private static List<MembershipUpdate> readMembershipUpdates(ByteBuffer in) {
+		int size = (int) readVarLong(in);
+		List<MembershipUpdate> updates = new ArrayList<>(size);
+		MembershipUpdate.Status[] statuses = MembershipUpdate.Status.values();
+		for(int i = 0; i < size; i++) {
+			long memberID = readVarLong(in);
+			int status = in.get();
+			if(status < 0 || status >= statuses.length) {
+				throw new IllegalArgumentException("[ERROR] - UNKNOWN MEMBERSHIP STATUS: " + status);
+			}
+			updates.add(new MembershipUpdate(memberID, statuses[status], readVarLong(in), readVarLong(in)));
+		}
+		return updates;
+	}
+
+	/** Reads the fields of a node state until {@link WireCodec#TAG_END}. Unknown tags are rejected. */
+	private static NodeState readState(ByteBuffer in, Node node) {
+		NodeState state = new NodeState(node);
+		state.setOriginTime(readVarLong(in));
+		for(byte tag = in.get(); tag != TAG_END; tag = in.get()) {
+			long version = readVarLong(in);
+			switch(tag) {
+				case TAG_COORDINATES:
+					float x = Float.intBitsToFloat(in.getInt());
+					state.updateCoordinates(new Coordinates(x, Float.intBitsToFloat(in.getInt())), version);
+					break;
+				case TAG_AVAILABLE_RAM:
+					state.updateAvailableRam(readVarLong(in), version);
+					break;
+				case TAG_AVAILABLE_STORAGE:
+					state.updateAvailableStorage(readVarLong(in), version);
+					break;
+				case TAG_EDGE_POOLS:
+					int nrOfPools = (int) readVarLong(in);
+					Set<EdgePool> pools = new HashSet<>(nrOfPools * 2);
+					for(int i = 0; i < nrOfPools; i++) {
+						pools.add(EdgePool.getPoolByID((int) readVarLong(in)));
+					}
+					state.updateExtension(EDGE_POOLS, new VersionedValue<>(pools, version));
+					break;
+				case TAG_HEARTBEAT:
+					long heartbeat = readVarLong(in);
+					state.updateHeartbeat(heartbeat, readVarLong(in), version);
+					break;
+				case TAG_SUSPICIONS:
+					int nrOfLevels = (int) readVarLong(in);
+					Map<Long, Float> levels = new LinkedHashMap<>(nrOfLevels * 2);
+					for(int i = 0; i < nrOfLevels; i++) {
+						levels.put(readVarLong(in), Float.intBitsToFloat(in.getInt()));
+					}
+					state.updateExtension(FailureDetector.SUSPICIONS, new VersionedValue<>(Collections.unmodifiableMap(levels), version));
+					break;
+				default:
+					throw new IllegalArgumentException("[ERROR] - UNKNOWN WIRE TAG: " + tag);
+			}
+		}
+		return (node == null) ? null : state;
+	}
+
+	//------------------------------------------------ Primitives ---------------------------------------------------------------
+
+	/** Writes an unsigned variable-length integer (7 bits per byte, the highest bit marks a following byte). */
+	static void writeVarLong(ByteArrayOutputStream out, long value) {
+		while((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	/** Reads an unsigned variable-length integer. */
+	static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return value;
+		}
+		throw new IllegalArgumentException("[ERROR] - MALFORMED VARINT");
+	}
+
+	/** Writes an int (big-endian). */
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	/** @return deflated bytes */
+	private static byte[] compress(byte[] body) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		deflater.setInput(body);
+		deflater.finish();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+		byte[] buffer = new byte[512];
+		while(!deflater.finished()) {
+			out.write(buffer, 0, deflater.deflate(buffer));
+		}
+		deflater.end();
+		return out.toByteArray();
+	}
+
+	/** @return inflated bytes of the message (starting at the offset) */
+	private static byte[] decompress(byte[] message, int offset) {
+		Inflater inflater = new Inflater();
+		inflater.setInput(message, offset, message.length - offset);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(2 * message.length);
+		byte[] buffer = new byte[512];
+		try {
+			while(!inflater.finished()) {
+				int length = inflater.inflate(buffer);
+				if(length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalArgumentException("[ERROR] - TRUNCATED COMPRESSED MESSAGE");
+				}
+				out.write(buffer, 0, length);
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("[ERROR] - MALFORMED COMPRESSED MESSAGE", e);
+		} finally {
+			inflater.end();
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,304 @@
+package hybrid.nodes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hybrid.Statistics;
+import hybrid.simulation.Simulator;
+import util_objects.Task;
+
+/**
+ * Bounded queue of tasks which could not be admitted by a {@link Node} because of missing capacities. <br>
+ * Instead of redirecting such a task immediately, it waits up to {@link AdmissionQueue#waitBudget} milliseconds for released
+ * capacities. A task is only enqueued if the capacities are expected to be released within its wait budget (and before its 
+ * latest start time), otherwise it is redirected immediately. A task which fits into the available capacities is admitted
+ * directly by the node, because no waiting task fits into them after a drain. The queue is drained by {@link Node#completeTask(Task)} in 
+ * earliest-deadline-first order ({@link Task#EDF_ORDER}), so that latency-critical tasks do not wait behind bulk tasks. 
+ * A waiting task which does not fit does not block the following tasks. Tasks which exceed their wait budget (or which would 
+ * miss their deadline by waiting any longer) are redirected. If the queue is full, the least urgent task is rejected 
+ * (i.e. redirected) and the client receives a backpressure signal.
+ */
+public class AdmissionQueue {
+
+	/** Configured maximum number of waiting tasks per node (0 disables the admission queues) */
+	private static int configuredMaxLength = 0;
+
+	/** Configured maximum waiting time of a task [in milliseconds] */
+	private static long configuredWaitBudget = 0;
+
+	/** Associated node */
+	private final Node server;
+
+	/** Maximum number of waiting tasks */
+	private final int maxLength;
+
+	/** Maximum waiting time of a task [in milliseconds] */
+	private final long waitBudget;
+
+	/** Waiting tasks in earliest-deadline-first order (FIFO for equal deadlines and priorities) */
+	private final NavigableSet<Entry> waitingTasks = new TreeSet<>(Entry.ORDER);
+	
+	/** Sequence number of the next waiting task */
+	private long sequenceNumber = 0;
+
+	/** {@link Simulator} which schedules the expiration of the wait budget */
+	private Simulator simulator = Simulator.getInstance();
+
+	/** {@link Statistics}*/
+	private Statistics stats = Statistics.getInstance();
+
+	/**
+	 * Creates a new admission queue.
+	 * @param server - associated node
+	 * @param maxLength - maximum number of waiting tasks
+	 * @param waitBudget - maximum waiting time of a task [in milliseconds]
+	 */
+	public AdmissionQueue(Node server, int maxLength, long waitBudget) {
+		this.server = server;
+		this.maxLength = maxLength;
+		this.waitBudget = waitBudget;
+	}
+
+	/**
+	 * Configures the admission queues of all nodes which are created afterwards.
+	 * @param maxLength - maximum number of waiting tasks per node (0 disables the admission queues)
+	 * @param waitBudget - maximum waiting time of a task [in milliseconds]
+	 */
+	public static void configure(int maxLength, long waitBudget) {
+		configuredMaxLength = maxLength;
+		configuredWaitBudget = waitBudget;
+	}
+
+	/**
+	 * Creates the admission queue of a node based on the configuration.
+	 * @param server - associated node
+	 * @return new admission queue or null if the admission queues are disabled
+	 */
+	static AdmissionQueue create(Node server) {
+		return (configuredMaxLength > 0 && configuredWaitBudget > 0)
+				? new AdmissionQueue(server, configuredMaxLength, configuredWaitBudget) : null;
+	}
+
+	/**
+	 * Enqueues a task which could not be admitted. If the queue is full, but the task is more urgent than the least urgent 
+	 * waiting task, the latter is displaced and redirected. <br>
+	 * The task is rejected, if its estimated wait ({@link AdmissionQueue#estimateWait(Entry, long)}) exceeds its wait budget or
+	 * its latest start time, because it would be redirected after waiting anyway.
+	 * @param task - waiting task
+	 * @return false if the queue is full or the estimated wait is too long (i.e. the task is rejected)
+	 */
+	public boolean offer(Task task) {
+		Entry displaced = null;
+		Entry entry;
+		long now = this.simulator.currentTimeMillis();
+		//Redirect the task early, if waiting for the whole budget would cause a deadline miss
+		long waitingTime = Math.max(0, Math.min(this.waitBudget, task.getLatestStartTime() - now));
+		synchronized(this.waitingTasks) {
+			entry = new Entry(task, this.sequenceNumber++);
+			if(this.waitingTasks.size() >= this.maxLength && Entry.ORDER.compare(entry, this.waitingTasks.last()) > 0) {
+				this.stats.increaseRuntimeCounter("admission_queue_rejections");
+				return false;
+			}
+			if(this.estimateWait(entry, now) > waitingTime) {
+				this.stats.increaseRuntimeCounter("admission_queue_bypassed_tasks");
+				return false;
+			}
+			if(this.waitingTasks.size() >= this.maxLength) {
+				displaced = this.waitingTasks.pollLast();
+			}
+			task.enqueue();
+			this.waitingTasks.add(entry);
+		}
+		this.stats.increaseRuntimeCounter("admission_queue_enqueued_tasks");
+		this.simulator.schedule(waitingTime, () -> this.expire(entry));
+		if(displaced != null && displaced.settled.compareAndSet(false, true)) {
+			displaced.task.dequeue();
+			this.stats.increaseRuntimeCounter("admission_queue_displaced_tasks");
+			this.server.redirectTask(displaced.task);
+			this.stats.increaseNrOfRedirectedTasks();
+		}
+		return true;
+	}
+
+	/**
+	 * Estimates how long a task has to wait for its admission. The releases of the tasks in flight are replayed in the order of
+	 * their expected completion and the waiting tasks are admitted like by {@link AdmissionQueue#drain()}: in 
+	 * earliest-deadline-first order, skipping the tasks which do not fit. Hence, only the more urgent waiting tasks which fit 
+	 * before the task delay it. It is assumed that each task in flight is released after its execution time (i.e. waiting for
+	 * a worker is ignored) and that the admitted waiting tasks are not released before the task is admitted.
+	 * @param entry - task which should be enqueued (it is not enqueued yet)
+	 * @param now - current time [in milliseconds]
+	 * @return estimated wait [in milliseconds] (Long.MAX_VALUE if the in-flight tasks do not release sufficient capacities)
+	 */
+	private long estimateWait(Entry entry, long now) {
+		List<Task> candidates = new ArrayList<>();
+		this.waitingTasks.headSet(entry, false).forEach(x -> candidates.add(x.task));
+		candidates.add(entry.task);
+		long capacity = this.server.getCapacitySnapshot();
+		long availableRAM = Node.ramOf(capacity);
+		long availableStorage = Node.storageOf(capacity);
+		List<Task> inFlightTasks = new ArrayList<>(this.server.getInFlightTasks());
+		inFlightTasks.sort(Comparator.comparingLong(x -> x.getAdmissionTime() + x.getExecutionTime()));
+		long releaseTime = now;
+		for(int released = 0; ; released++) {
+			Iterator<Task> iterator = candidates.iterator();
+			while(iterator.hasNext()) {
+				Task candidate = iterator.next();
+				if(candidate.getRequiredRAM() > availableRAM || candidate.getRequiredStorage() > availableStorage) continue;
+				if(candidate == entry.task) {
+					return Math.max(0, releaseTime - now);
+				}
+				availableRAM -= candidate.getRequiredRAM();
+				availableStorage -= candidate.getRequiredStorage();
+				iterator.remove();
+			}
+			if(released == inFlightTasks.size()) {
+				return Long.MAX_VALUE;
+			}
+			Task task = inFlightTasks.get(released);
+			availableRAM += task.getRequiredRAM();
+			availableStorage += task.getRequiredStorage();
+			releaseTime = task.getAdmissionTime() + task.getExecutionTime();
+		}
+	}
+
+	/** 
+	 * Admits waiting tasks in earliest-deadline-first order as long as the released capacities of the node are sufficient.
+	 * A task which does not fit is skipped, so that it does not block smaller tasks behind it.
+	 */
+	public void drain() {
+		List<Task> admittedTasks = new ArrayList<>();
+		synchronized(this.waitingTasks) {
+			Iterator<Entry> iterator = this.waitingTasks.iterator();
+			while(iterator.hasNext()) {
+				Entry entry = iterator.next();
+				if(!this.server.reserveCapacity(entry.task.getRequiredRAM(), entry.task.getRequiredStorage())) {
+					continue;
+				}
+				iterator.remove();
+				if(entry.settled.compareAndSet(false, true)) {
+					admittedTasks.add(entry.task);
+				} else {
+					//Expired concurrently -> already redirected
+					this.server.releaseCapacity(entry.task.getRequiredRAM(), entry.task.getRequiredStorage());
+				}
+			}
+		}
+		for(Task task : admittedTasks) {
+			this.stats.increaseRuntimeCounter("admission_queue_admitted_tasks");
+			this.server.executeTask(task);
+		}
+	}
+
+	/**
+	 * Hands waiting tasks over to an idle node (work stealing). The tasks are handed over in earliest-deadline-first order 
+	 * as long as the capacities of the idle node are sufficient.
+	 * @param thief - idle node which takes over the tasks
+	 * @return number of stolen tasks
+	 */
+	int handOver(Node thief) {
+		List<Task> stolenTasks = new ArrayList<>();
+		synchronized(this.waitingTasks) {
+			Iterator<Entry> iterator = this.waitingTasks.iterator();
+			while(iterator.hasNext()) {
+				Entry entry = iterator.next();
+				if(!thief.reserveCapacity(entry.task.getRequiredRAM(), entry.task.getRequiredStorage())) {
+					continue;
+				}
+				iterator.remove();
+				if(entry.settled.compareAndSet(false, true)) {
+					stolenTasks.add(entry.task);
+				} else {
+					thief.releaseCapacity(entry.task.getRequiredRAM(), entry.task.getRequiredStorage());
+				}
+			}
+		}
+		for(Task task : stolenTasks) {
+			this.stats.increaseRuntimeCounter("stolen_tasks");
+			thief.executeTask(task);
+		}
+		return stolenTasks.size();
+	}
+
+	/**
+	 * Removes all waiting tasks, e.g. to requeue them after a node failure.
+	 * @return tasks which were still waiting
+	 */
+	List<Task> takeOverAll() {
+		List<Task> tasks = new ArrayList<>();
+		synchronized(this.waitingTasks) {
+			for(Entry entry : this.waitingTasks) {
+				if(entry.settled.compareAndSet(false, true)) {
+					entry.task.dequeue();
+					tasks.add(entry.task);
+				}
+			}
+			this.waitingTasks.clear();
+		}
+		return tasks;
+	}
+
+	/** 
+	 * Redirects a task whose wait budget has been exceeded (if it is still waiting). A failed node keeps its tasks. <br>
+	 * The expiration only settles the entry. The redirect may block (e.g. retries of a P2P node), so that it is dispatched 
+	 * ({@link Simulator#dispatch(Runnable)}) instead of delaying the expirations of all other nodes on the timer thread.
+	 */
+	private void expire(Entry entry) {
+		if(!this.server.isAvailable() || !entry.settled.compareAndSet(false, true)) {
+			return;
+		}
+		synchronized(this.waitingTasks) {
+			this.waitingTasks.remove(entry);
+		}
+		entry.task.dequeue();
+		this.stats.increaseRuntimeCounter("admission_queue_expired_tasks");
+		this.simulator.dispatch(() -> {
+			this.server.redirectTask(entry.task);
+			this.stats.increaseNrOfRedirectedTasks();
+		});
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return number of waiting tasks */
+	public int size() {
+		synchronized(this.waitingTasks) {
+			return this.waitingTasks.size();
+		}
+	}
+
+	/** @return maximum waiting time of a task [in milliseconds] -> used as retry delay for the backpressure signal */
+	public long getWaitBudget() {
+		return this.waitBudget;
+	}
+
+	//================================  Util   ===============================================
+	/**
+	 * Waiting task. The settled flag ensures that a task is either admitted or expired, but never both.
+	 */
+	private static class Entry {
+
+		/** Earliest-deadline-first order of the waiting tasks. The sequence number ensures a FIFO order for equal tasks. */
+		private static final Comparator<Entry> ORDER = Comparator.<Entry, Task>comparing(x -> x.task, Task.EDF_ORDER)
+				.thenComparingLong(x -> x.sequenceNumber);
+
+		/** Waiting task */
+		private final Task task;
+
+		/** Sequence number of the waiting task */
+		private final long sequenceNumber;
+
+		/** Indicates whether the task was admitted or expired */
+		private final AtomicBoolean settled = new AtomicBoolean(false);
+
+		private Entry(Task task, long sequenceNumber) {
+			this.task = task;
+			this.sequenceNumber = sequenceNumber;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package hybrid.nodes;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import hybrid.Statistics;
+import hybrid.network.Transport;
+import hybrid.network.Transport.MessageType;
+import hybrid.network.WireCodec;
+import util_objects.ClusterMetadataStore;
+import util_objects.MerkleTree;
+
+/**
+ * Merkle-tree anti-entropy of a node. <br>
+ * Instead of the versions of all known node states, only the versions within divergent key ranges are exchanged by the
+ * gossip: Both {@link MerkleTree}s are compared top-down, one request per level, and only the children of divergent tree
+ * nodes are requested. Hence, equal views cost a single hash comparison and a drifted view (e.g. after a partition) only
+ * transfers the divergent slice. The comparison stops at the level at which a key range contains about
+ * {@link AntiEntropy#ENTRIES_PER_RANGE} entries, because a finer comparison costs more round trips than it saves. It also
+ * stops early if most tree nodes of a level diverge. <br>
+ * Small views are exchanged by a full digest, because it is cheaper than the round trips. <br>
+ * The anti-entropy is not applied while the nodes publish heartbeats ({@link FailureDetector}): Every heartbeat is a new
+ * version, so that nearly all key ranges diverge in every round and the comparison only adds round trips to the full digest.
+ * Excluding the heartbeats from the trees is no alternative, because equal trees would stop their dissemination.
+ */
+public class AntiEntropy {
+
+	/** Configured minimum number of known nodes from which the trees are compared (0 disables the anti-entropy) */
+	private static int minClusterSize = 0;
+
+	/** Expected number of entries per compared key range */
+	private static final int ENTRIES_PER_RANGE = 4;
+
+	/** Share of divergent tree nodes of a level from which the comparison stops, because nearly all key ranges diverge anyway
+	 *  (e.g. after a long partition) */
+	private static final double DENSE_DIVERGENCE = 0.5;
+
+	/** Size of a hash [in byte] */
+	private static final int HASH_SIZE = Long.BYTES;
+
+	/** Size of a requested index [in byte] */
+	private static final int INDEX_SIZE = Integer.BYTES;
+
+	/** Represents the associated node */
+	private final Node server;
+
+	/** Stores the metadata versions of all nodes in the cluster (including the {@link MerkleTree}) */
+	private final ClusterMetadataStore clusterMetaData;
+
+	/** Number of bytes which were transmitted by the last comparison */
+	private long transmittedBytes = 0;
+
+	/** {@link Statistics}*/
+	private final Statistics stats = Statistics.getInstance();
+
+	/** {@link WireCodec} which encodes the messages (only if it is enabled) */
+	private final WireCodec codec = WireCodec.getInstance();
+
+	/**
+	 * Creates the anti-entropy of a node.
+	 * @param server - associated node
+	 * @param clusterMetaData - cluster view of the node
+	 */
+	public AntiEntropy(Node server, ClusterMetadataStore clusterMetaData) {
+		this.server = server;
+		this.clusterMetaData = clusterMetaData;
+	}
+
+	/**
+	 * Configures the anti-entropy of all nodes.
+	 * @param clusterSize - minimum number of known nodes from which the trees are compared (0 disables the anti-entropy)
+	 */
+	public static void configure(int clusterSize) {
+		minClusterSize = clusterSize;
+	}
+
+	/** @return whether the trees are compared if the view is large enough */
+	public static boolean isEnabled() {
+		return minClusterSize > 0;
+	}
+
+	/** @return whether the trees are compared for a view of the given size (never while heartbeats are published) */
+	public static boolean appliesTo(int clusterSize) {
+		return isEnabled() && !FailureDetector.isEnabled() && clusterSize >= minClusterSize;
+	}
+
+	/**
+	 * @param clusterSize - number of known nodes
+	 * @return level of the {@link MerkleTree} at which the comparison stops
+	 */
+	public static int getComparisonLevel(int clusterSize) {
+		int nrOfRanges = Math.max(1, clusterSize / ENTRIES_PER_RANGE);
+		return Math.min(MerkleTree.DEPTH, 32 - Integer.numberOfLeadingZeros(nrOfRanges - 1));
+	}
+
+	/**
+	 * Compares the own tree with the tree of the receiver down to the given level.
+	 * @param receiver - gossip partner
+	 * @param level - level at which the comparison stops
+	 * @throws NoSuchElementException if the receiver has failed
+	 * @return level and indices of the divergent tree nodes (empty if both views are equal)
+	 */
+	public Map.Entry<Integer, Set<Integer>> findDivergentRanges(Node receiver, int level) throws NoSuchElementException {
+		MerkleTree tree = this.clusterMetaData.getMerkleTree();
+		this.transmittedBytes = 0;
+		int[] frontier = {1};
+		for(int currentLevel = 0; ; currentLevel++) {
+			long[] remoteHashes = this.requestHashes(receiver, frontier);
+			List<Integer> divergent = new ArrayList<>();
+			for(int i = 0; i < frontier.length; i++) {
+				if(tree.getHash(frontier[i]) != remoteHashes[i]) divergent.add(frontier[i]);
+			}
+			boolean dense = currentLevel > 0 && divergent.size() > DENSE_DIVERGENCE * frontier.length;
+			if(divergent.isEmpty() || currentLevel == level || dense) {
+				this.stats.getHistogram("anti_entropy_levels").record(currentLevel + 1);
+				this.stats.getHistogram("anti_entropy_divergent_ranges").record(divergent.size());
+				return new AbstractMap.SimpleImmutableEntry<>(currentLevel, new LinkedHashSet<>(divergent));
+			}
+			frontier = new int[2 * divergent.size()];
+			for(int i = 0; i < divergent.size(); i++) {
+				frontier[2 * i] = 2 * divergent.get(i);
+				frontier[2 * i + 1] = 2 * divergent.get(i) + 1;
+			}
+		}
+	}
+
+	/**
+	 * Requests the hashes of the given tree nodes from the receiver. If the {@link WireCodec} is enabled, the request is
+	 * carried by the {@link Transport}.
+	 * @throws NoSuchElementException if the receiver has failed
+	 * @return hashes of the tree nodes of the receiver
+	 */
+	private long[] requestHashes(Node receiver, int[] indices) throws NoSuchElementException {
+		this.server.increaseMsgSent();
+		if(!WireCodec.isEnabled()) {
+			this.transmittedBytes += (long) indices.length * (INDEX_SIZE + HASH_SIZE);
+			return receiver.receiveMerkleHashRequest(this.server, indices);
+		}
+		byte[] message = this.codec.encodeMerkleHashRequest(indices);
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), receiver, MessageType.MERKLE_HASHES, message);
+		this.transmittedBytes += message.length + reply.length;
+		return this.codec.decodeMerkleHashes(reply);
+	}
+
+	/** @return number of bytes which were transmitted by the last comparison */
+	public long getTransmittedBytes() {
+		return this.transmittedBytes;
+	}
+}
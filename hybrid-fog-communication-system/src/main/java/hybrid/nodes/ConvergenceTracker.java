@@ -0,0 +1,158 @@
+package hybrid.nodes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hybrid.Statistics;
+import hybrid.simulation.Simulator;
+import util_objects.NodeState;
+
+/**
+ * Measures how fast the {@link NodeState} versions are disseminated (hybrid gossip, P2P broadcast and hierarchical gossip). <br>
+ * Each version is stamped with its origin time. If a peer learns a tracked version for the first time, its propagation
+ * latency is recorded. After each of the first {@link ConvergenceTracker#TRACKED_ROUNDS} rounds of the origin, the share of
+ * peers which already know the version is recorded (coverage per round). Versions are no longer tracked afterwards.
+ * The following histograms are exported via {@link Statistics}: <br>
+ * - gossip_propagation_latency: time until a peer learned a version [in milliseconds] <br>
+ * - gossip_convergence_time: time until all expected peers learned a version [in milliseconds] <br>
+ * - gossip_coverage_round_k: share of the peers which learned a version after k rounds of the origin [in percent]
+ */
+public class ConvergenceTracker {
+
+	/** Singleton instance */
+	private static ConvergenceTracker singleton = null;
+
+	/** Number of rounds of the origin during which a version is tracked */
+	public static final int TRACKED_ROUNDS = 5;
+
+	/** Tracked versions [stored by the NODE_ID of their origin]. Each list is guarded by itself. */
+	private final ConcurrentHashMap<Long, List<Update>> updates = new ConcurrentHashMap<>();
+
+	/** {@link Simulator} which provides the current time */
+	private Simulator simulator = Simulator.getInstance();
+
+	/** {@link Statistics}*/
+	private Statistics stats = Statistics.getInstance();
+
+	private ConvergenceTracker() {
+	}
+
+	/**
+	 * Singleton method to get the convergence tracker.
+	 * @return convergence tracker instance
+	 */
+	public static synchronized ConvergenceTracker getInstance() {
+		if(singleton == null) singleton = new ConvergenceTracker();
+		return singleton;
+	}
+
+	/**
+	 * Stamps a new version of a node state with the current time and starts its tracking.
+	 * @param origin - node whose state changed
+	 * @param state - new node state version
+	 * @param nrOfReceivers - number of peers which should learn the version (0 disables the tracking)
+	 * @param controller - controller of the origin, which is corrected by the measured convergence time (may be null)
+	 */
+	public void stamp(Node origin, NodeState state, int nrOfReceivers, GossipController controller) {
+		state.setOriginTime(this.simulator.currentTimeMillis());
+		if(nrOfReceivers <= 0) return;
+		List<Update> pending = this.updates.computeIfAbsent(origin.getNodeID(), x -> new ArrayList<>());
+		synchronized(pending) {
+			pending.add(new Update(state.getVersion(), state.getOriginTime(), nrOfReceivers, controller));
+		}
+	}
+
+	/**
+	 * Records that a peer learned a node state version. A node state contains all older versions, so that the tracked versions 
+	 * up to the received one are learned (e.g. if a capacity change was superseded by a heartbeat). Repeated receptions are ignored.
+	 * @param receiver - node which stored the version
+	 * @param state - received node state version
+	 */
+	public void recordLearned(Node receiver, NodeState state) {
+		Long originID = state.getAssociatedNode().getNodeID();
+		List<Update> pending = this.updates.get(originID);
+		if(pending == null || originID.equals(receiver.getNodeID())) return;
+		long now = this.simulator.currentTimeMillis();
+		synchronized(pending) {
+			for(Update update : pending) {
+				if(update.version > state.getVersion() || !update.learners.add(receiver.getNodeID())) continue;
+				this.stats.getHistogram("gossip_propagation_latency").record(now - update.originTime);
+				if(!update.converged && update.learners.size() >= update.nrOfReceivers) {
+					update.converged = true;
+					this.stats.getHistogram("gossip_convergence_time").record(now - update.originTime);
+					if(update.controller != null) {
+						update.controller.recordConvergenceTime(now - update.originTime, update.nrOfReceivers + 1,
+								update.fanout, update.interval);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the coverage of all tracked versions of the origin after one of its rounds. Versions which were tracked for
+	 * {@link ConvergenceTracker#TRACKED_ROUNDS} rounds are removed.
+	 * @param origin - node which executed a round
+	 */
+	public void recordRound(Node origin) {
+		List<Update> pending = this.updates.get(origin.getNodeID());
+		if(pending == null) return;
+		synchronized(pending) {
+			Iterator<Update> iterator = pending.iterator();
+			while(iterator.hasNext()) {
+				Update update = iterator.next();
+				update.rounds++;
+				this.stats.getHistogram("gossip_coverage_round_" + update.rounds)
+					.record(Math.min(100, update.learners.size() * 100L / update.nrOfReceivers));
+				if(update.rounds >= TRACKED_ROUNDS) {
+					if(!update.converged) this.stats.increaseRuntimeCounter("gossip_unconverged_updates");
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/** Tracked node state version */
+	private static class Update {
+
+		/** Version of the node state */
+		private final long version;
+
+		/** Time at which the version was created by its origin [in milliseconds] */
+		private final long originTime;
+
+		/** Number of peers which should learn the version */
+		private final int nrOfReceivers;
+
+		/** Controller of the origin (may be null) */
+		private final GossipController controller;
+
+		/** Fanout of the origin when the version was created */
+		private final int fanout;
+
+		/** Gossip interval (without back-off) of the origin when the version was created [in milliseconds] */
+		private final long interval;
+
+		/** NODE_IDs of the peers which learned the version */
+		private final Set<Long> learners = new HashSet<>();
+
+		/** Number of rounds of the origin since the creation of the version */
+		private int rounds = 0;
+
+		/** Indicates whether all expected peers learned the version */
+		private boolean converged = false;
+
+		private Update(long version, long originTime, int nrOfReceivers, GossipController controller) {
+			this.version = version;
+			this.originTime = originTime;
+			this.nrOfReceivers = nrOfReceivers;
+			this.controller = controller;
+			this.fanout = (controller == null) ? 0 : controller.getFanout();
+			this.interval = (controller == null) ? 0 : controller.getBaseInterval();
+		}
+	}
+}
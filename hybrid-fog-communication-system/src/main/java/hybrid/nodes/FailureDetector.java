@@ -0,0 +1,163 @@
+package hybrid.nodes;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hybrid.simulation.Simulator;
+
+/**
+ * Phi-accrual failure detector of a node (Hayashibara et al., "The phi accrual failure detector", 2004). <br>
+ * Each node publishes a heartbeat counter with its node state in every gossip round. The detector records the arrival times
+ * of new heartbeats of all peers and estimates the distribution (mean and standard deviation) of their inter-arrival times
+ * over a sliding window. The suspicion level phi of a peer is -log10 of the probability that a heartbeat arrives even later
+ * than the time elapsed since its last heartbeat. Thereby, the detection adapts to the gossip interval and to the
+ * randomness of the dissemination. A heartbeat is relayed by other peers, so that it may arrive one gossip round later
+ * without any failure. Hence, one gossip interval of the monitored node (published with its heartbeat) is tolerated as
+ * additional pause. A peer is suspected if its phi exceeds the configured threshold (e.g. 8 -> probability of a false
+ * suspicion of about 10^-8 under the estimated distribution).
+ */
+public class FailureDetector {
+
+	/** Configured suspicion threshold (0 disables the detector -> failures are only detected by failed calls) */
+	private static double threshold = 0;
+
+	/** Name of the node state extension which contains the gossiped suspicion levels */
+	public static final String SUSPICIONS = "suspicions";
+
+	/** Maximum number of inter-arrival times per monitored node */
+	public static final int WINDOW_SIZE = 100;
+
+	/** Minimum standard deviation of the inter-arrival times [in milliseconds]. It avoids that very regular heartbeats
+	 *  lead to a suspicion as soon as one heartbeat is slightly late. */
+	private static final double MIN_STD_DEVIATION = 500;
+
+	/** Heartbeat histories of the monitored nodes [stored by their NODE_ID] */
+	private final Map<Long, HeartbeatHistory> histories = new ConcurrentHashMap<>();
+
+	/** {@link Simulator} which provides the (virtual) time */
+	private final Simulator simulator = Simulator.getInstance();
+
+	/**
+	 * Configures the failure detection of all nodes.
+	 * @param phiThreshold - suspicion level from which a node is suspected (0 disables the failure detector)
+	 */
+	public static void configure(double phiThreshold) {
+		threshold = phiThreshold;
+	}
+
+	/** @return whether the heartbeats are published and monitored */
+	public static boolean isEnabled() {
+		return threshold > 0;
+	}
+
+	/** @return suspicion level from which a node is suspected */
+	public static double getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Records the arrival of a heartbeat. Heartbeats which are not newer than the last one are ignored.
+	 * @param nodeID - NODE_ID of the monitored node
+	 * @param heartbeat - heartbeat counter of the monitored node
+	 * @param gossipInterval - gossip interval of the monitored node at this heartbeat. It is the tolerated additional pause and
+	 * the estimate of the inter-arrival time until the first intervals are measured [in milliseconds].
+	 */
+	public void recordHeartbeat(Long nodeID, long heartbeat, long gossipInterval) {
+		long now = this.simulator.currentTimeMillis();
+		this.histories.computeIfAbsent(nodeID, x -> new HeartbeatHistory(gossipInterval)).record(heartbeat, now, gossipInterval);
+	}
+
+	/**
+	 * @param nodeID - NODE_ID of the monitored node
+	 * @return current suspicion level of the node (0 if no heartbeat of it arrived yet)
+	 */
+	public double getPhi(Long nodeID) {
+		HeartbeatHistory history = this.histories.get(nodeID);
+		return (history == null) ? 0 : history.getPhi(this.simulator.currentTimeMillis());
+	}
+
+	/** Stops monitoring a node (e.g. after it was removed from the cluster). */
+	public void remove(Long nodeID) {
+		this.histories.remove(nodeID);
+	}
+
+	/**
+	 * Calculates phi under the assumption of normally distributed inter-arrival times. The cumulative distribution function
+	 * is approximated by a logistic function, which is accurate enough and numerically stable for large deviations.
+	 * @param elapsed - time since the last heartbeat [in milliseconds]
+	 * @param mean - mean inter-arrival time (including the tolerated pause) [in milliseconds]
+	 * @param stdDeviation - standard deviation of the inter-arrival times [in milliseconds]
+	 * @return suspicion level
+	 */
+	static double phi(long elapsed, double mean, double stdDeviation) {
+		double y = (elapsed - mean) / stdDeviation;
+		double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+		if(elapsed > mean) {
+			return -Math.log10(e / (1.0 + e));
+		}
+		return -Math.log10(1.0 - 1.0 / (1.0 + e));
+	}
+
+	//================================  Util   ===============================================
+
+	/** Sliding window of the inter-arrival times of the heartbeats of a node */
+	private static class HeartbeatHistory {
+
+		/** Inter-arrival times [in milliseconds] */
+		private final Deque<Long> intervals = new ArrayDeque<>(WINDOW_SIZE);
+
+		/** Sum of {@link HeartbeatHistory#intervals} */
+		private double sum = 0;
+
+		/** Sum of the squares of {@link HeartbeatHistory#intervals} */
+		private double squaredSum = 0;
+
+		/** Last heartbeat counter */
+		private long lastHeartbeat = -1;
+
+		/** Arrival time of the last heartbeat [in milliseconds] */
+		private long lastArrival = -1;
+
+		/** Tolerated additional pause [in milliseconds] */
+		private long acceptablePause = 0;
+
+		/** Seeds the window with two intervals which result in the expected mean and a standard deviation of a quarter of it. */
+		private HeartbeatHistory(long expectedInterval) {
+			this.add(expectedInterval - expectedInterval / 4);
+			this.add(expectedInterval + expectedInterval / 4);
+		}
+
+		/** Records a heartbeat and its inter-arrival time. */
+		private synchronized void record(long heartbeat, long now, long acceptablePause) {
+			if(heartbeat <= this.lastHeartbeat) return;
+			this.acceptablePause = acceptablePause;
+			if(this.lastArrival >= 0) {
+				this.add(now - this.lastArrival);
+			}
+			this.lastHeartbeat = heartbeat;
+			this.lastArrival = now;
+		}
+
+		/** Adds an interval and drops the oldest one if the window is full. */
+		private void add(long interval) {
+			if(this.intervals.size() == WINDOW_SIZE) {
+				long oldest = this.intervals.removeFirst();
+				this.sum -= oldest;
+				this.squaredSum -= (double) oldest * oldest;
+			}
+			this.intervals.addLast(interval);
+			this.sum += interval;
+			this.squaredSum += (double) interval * interval;
+		}
+
+		/** @return suspicion level at the given time */
+		private synchronized double getPhi(long now) {
+			if(this.lastArrival < 0) return 0;
+			double mean = this.sum / this.intervals.size();
+			double variance = Math.max(0, this.squaredSum / this.intervals.size() - mean * mean);
+			return phi(now - this.lastArrival, mean + this.acceptablePause, Math.max(MIN_STD_DEVIATION, Math.sqrt(variance)));
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package hybrid.nodes;
+
+/**
+ * Adaptive controller for the fanout and the interval of a {@link GossipThread}. <br>
+ * The parameters are derived from a convergence target ("a state change reaches all nodes within N milliseconds"):
+ * The number of rounds until a push-pull gossip reaches all nodes is estimated from the cluster size and the fanout.
+ * Since the message cost per time grows with the fanout, the smallest fanout is chosen whose interval (target / rounds)
+ * is not shorter than {@link GossipController#MIN_INTERVAL}. The estimation is corrected by measured convergence times. <br>
+ * If no state changes were observed in a round, the interval is doubled up to the expected time between two state changes
+ * (at most {@link GossipController#MAX_INTERVAL}). The next observed change resets it. The back-off is limited by the 
+ * convergence target: A change which occurs during a quiet round waits up to one backed-off interval for the next round and
+ * the remaining rounds run at the base interval, so that the backed-off interval must not exceed the share of the target 
+ * which is left by the remaining rounds.
+ */
+public class GossipController {
+
+	/** Configured convergence target [in milliseconds] (0 disables the adaptation) */
+	private static long convergenceTarget = 0;
+
+	/** Fanout which is used if the adaptation is disabled */
+	public static final int FIXED_FANOUT = 3;
+
+	/** Interval which is used if the adaptation is disabled [in milliseconds] */
+	public static final long FIXED_INTERVAL = 3000;
+
+	/** Maximum number of gossip partners per round */
+	private static final int MAX_FANOUT = 5;
+
+	/** Shortest gossip interval [in milliseconds] */
+	private static final long MIN_INTERVAL = 500;
+
+	/** Longest gossip interval [in milliseconds] */
+	private static final long MAX_INTERVAL = 12_000;
+
+	/** Weight of a new observation in the moving averages of the change rate and the correction factor */
+	private static final double SMOOTHING = 0.2;
+
+	/** Lower bound of the correction factor */
+	private static final double MIN_CORRECTION = 0.5;
+
+	/** Upper bound of the correction factor */
+	private static final double MAX_CORRECTION = 4;
+
+	/** Number of gossip partners per round */
+	private int fanout = FIXED_FANOUT;
+
+	/** Gossip interval [in milliseconds] */
+	private long interval = FIXED_INTERVAL;
+
+	/** Gossip interval after an observed change, i.e. without back-off [in milliseconds] */
+	private long baseInterval = FIXED_INTERVAL;
+
+	/** Moving average of the observed state changes [per second] */
+	private double changeRate = 0;
+
+	/** Ratio between measured and estimated convergence times */
+	private double correction = 1;
+
+	/**
+	 * Configures the convergence target of all gossip controllers.
+	 * @param target - time until a state change should reach all nodes [in milliseconds] (0 disables the adaptation)
+	 */
+	public static void configure(long target) {
+		convergenceTarget = target;
+	}
+
+	/** @return whether the fanout and the interval are adapted */
+	public static boolean isAdaptive() {
+		return convergenceTarget > 0;
+	}
+
+	/**
+	 * Adapts the fanout and the interval for the next round.
+	 * @param clusterSize - number of known nodes (including the own node)
+	 * @param nrOfChanges - number of state changes which were observed since the last round
+	 */
+	public synchronized void adapt(int clusterSize, long nrOfChanges) {
+		if(!isAdaptive()) return;
+		this.changeRate = (1 - SMOOTHING) * this.changeRate + SMOOTHING * nrOfChanges * 1000.0 / this.interval;
+
+		int maxFanout = Math.max(1, Math.min(MAX_FANOUT, clusterSize - 1));
+		long baseInterval = MIN_INTERVAL;
+		this.fanout = maxFanout;
+		for(int fanout = 1; fanout <= maxFanout; fanout++) {
+			long candidate = (long) (convergenceTarget / (this.correction * estimateRounds(clusterSize, fanout)));
+			if(candidate >= MIN_INTERVAL) {
+				this.fanout = fanout;
+				baseInterval = Math.min(candidate, MAX_INTERVAL);
+				break;
+			}
+		}
+		this.baseInterval = baseInterval;
+
+		if(nrOfChanges > 0) {
+			this.interval = baseInterval;
+		} else {
+			//Quiet round -> back off, but not beyond the expected time until the next change and the convergence target
+			long expectedGap = (this.changeRate > 0) ? (long) (1000 / this.changeRate) : MAX_INTERVAL;
+			double remainingRounds = Math.max(0, estimateRounds(clusterSize, this.fanout) - 1);
+			long maxQuietInterval = (long) (convergenceTarget / this.correction - remainingRounds * baseInterval);
+			long maxInterval = Math.min(Math.min(expectedGap, maxQuietInterval), MAX_INTERVAL);
+			this.interval = Math.max(baseInterval, Math.min(2 * this.interval, maxInterval));
+		}
+	}
+
+	/**
+	 * Corrects the estimation of the convergence time by a measured one. The estimation is based on the parameters which were
+	 * used while the state change spread, because the current interval may have been backed off in the meantime.
+	 * @param measuredTime - time until a state change reached all nodes [in milliseconds]
+	 * @param clusterSize - number of nodes which were reached
+	 * @param fanout - fanout when the state change occurred
+	 * @param interval - gossip interval (without back-off) when the state change occurred [in milliseconds]
+	 */
+	public synchronized void recordConvergenceTime(long measuredTime, int clusterSize, int fanout, long interval) {
+		if(!isAdaptive() || clusterSize < 2) return;
+		double estimatedTime = estimateRounds(clusterSize, fanout) * interval;
+		double ratio = Math.max(MIN_CORRECTION, Math.min(MAX_CORRECTION, measuredTime / estimatedTime));
+		this.correction = (1 - SMOOTHING) * this.correction + SMOOTHING * ratio;
+	}
+
+	/**
+	 * Estimates the number of rounds until a push-pull gossip reaches all nodes: log_(fanout+1)(n) + ln(ln(n)).
+	 * @param clusterSize - number of nodes
+	 * @param fanout - number of gossip partners per round
+	 * @return estimated number of rounds (at least 1)
+	 */
+	static double estimateRounds(int clusterSize, int fanout) {
+		if(clusterSize < 2) return 1;
+		double logN = Math.log(clusterSize);
+		return Math.max(1, logN / Math.log(fanout + 1) + Math.log(Math.max(1, logN)));
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return number of gossip partners per round */
+	public synchronized int getFanout() {
+		return this.fanout;
+	}
+
+	/** @return gossip interval [in milliseconds] */
+	public synchronized long getInterval() {
+		return this.interval;
+	}
+
+	/** @return gossip interval after an observed change, i.e. without back-off [in milliseconds] */
+	public synchronized long getBaseInterval() {
+		return this.baseInterval;
+	}
+
+	/** @return moving average of the observed state changes [per second] */
+	public synchronized double getChangeRate() {
+		return this.changeRate;
+	}
+}
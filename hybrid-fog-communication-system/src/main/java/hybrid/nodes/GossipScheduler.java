@@ -0,0 +1,107 @@
+package hybrid.nodes;
+
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hybrid.Statistics;
+import hybrid.simulation.SimulationProcess;
+import hybrid.simulation.Simulator;
+
+/**
+ * Shared scheduler which fires the gossip rounds of all nodes ({@link GossipThread} and its subclasses). <br>
+ * Instead of one sleeping thread per node, the rounds are executed by a small thread pool, so that the number of threads 
+ * does not grow with the number of nodes. Each round is delayed by a random jitter, so that the rounds of the nodes do not 
+ * synchronize. In discrete-event mode the rounds are scheduled by the {@link Simulator}.
+ */
+public class GossipScheduler {
+
+	/** Singleton instance */
+	private static GossipScheduler singleton = null;
+
+	/** Number of threads which execute the gossip rounds of all nodes */
+	private static final int NR_OF_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	/** Maximum deviation of a round from the gossip interval [share of the interval] */
+	private static final double JITTER = 0.1;
+
+	/** {@link Simulator} which schedules the rounds if the discrete-event mode is active */
+	private Simulator simulator = Simulator.getInstance();
+
+	/** Random generator for the jitter */
+	private Random generator = simulator.createRandomGenerator();
+
+	/** Thread pool which executes the rounds in real time (created lazily) */
+	private ScheduledExecutorService executor = null;
+
+	/** Number of registered gossip processes */
+	private AtomicInteger registeredProcesses = new AtomicInteger(0);
+
+	/** {@link Statistics}*/
+	private Statistics stats = Statistics.getInstance();
+
+	private GossipScheduler() {
+	}
+
+	/**
+	 * Singleton method to get the gossip scheduler.
+	 * @return gossip scheduler instance
+	 */
+	public static synchronized GossipScheduler getInstance() {
+		if(singleton == null) singleton = new GossipScheduler();
+		return singleton;
+	}
+
+	/**
+	 * Registers the gossip process of a node. Its first round is fired at a random point in time within the first interval.
+	 * The process is stepped until it returns a negative delay.
+	 * @param gossiper - gossip process of a node
+	 * @param interval - gossip interval [in milliseconds]
+	 */
+	public void register(SimulationProcess gossiper, long interval) {
+		this.stats.storeRuntimeMetric("gossip_processes", this.registeredProcesses.incrementAndGet());
+		this.schedule(gossiper, (long) (this.generator.nextDouble() * interval));
+	}
+
+	/** Schedules the next round of a gossip process. */
+	private void schedule(SimulationProcess gossiper, long delay) {
+		Runnable round = () -> {
+			long nextDelay = gossiper.step();
+			if(nextDelay >= 0) {
+				this.schedule(gossiper, this.applyJitter(nextDelay));
+			}
+		};
+		if(this.simulator.isEnabled()) {
+			this.simulator.schedule(delay, round);
+		} else {
+			this.getExecutor().schedule(() -> {
+				try {
+					round.run();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/** @return interval which deviates randomly by up to {@link GossipScheduler#JITTER} */
+	private long applyJitter(long interval) {
+		return interval + (long) ((2 * this.generator.nextDouble() - 1) * JITTER * interval);
+	}
+
+	/** @return thread pool for the rounds in real time. It uses daemon threads, so that it does not block the shutdown. */
+	private synchronized ScheduledExecutorService getExecutor() {
+		if(this.executor == null) {
+			AtomicInteger threadCounter = new AtomicInteger(0);
+			this.executor = Executors.newScheduledThreadPool(NR_OF_THREADS, runnable -> {
+				Thread thread = new Thread(runnable, "gossip-scheduler-" + threadCounter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.stats.storeRuntimeMetric("gossip_threads", NR_OF_THREADS);
+		}
+		return this.executor;
+	}
+}
@@ -1,106 +1,381 @@
 package hybrid.nodes;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import hybrid.Statistics;
+import hybrid.network.Transport;
+import hybrid.network.Transport.MessageType;
+import hybrid.network.WireCodec;
+import hybrid.nodes.core_network_layer.CNLNode;
+import hybrid.simulation.SimulationProcess;
+import hybrid.simulation.Simulator;
+import util_objects.ClusterMetadataStore;
+import util_objects.GossipDigestAck;
+import util_objects.GossipSliceDigest;
 import util_objects.NodeState;
 import util_objects.VersionedValue;
 
 /**
- * Represents a thread of a node. It extends {@link Thread}.
- * GossipThread handles the gossip communication of a node.
+ * GossipThread handles the gossip communication of a node. 
+ * Its rounds are fired by the shared {@link GossipScheduler}, so that no thread per node is required.
  * @author Marvin Kruber
  *
  */
-public class GossipThread extends Thread {
+public class GossipThread implements SimulationProcess {
 	
 	/** Represents the associated server */
 	protected Node server;
 	
 	/** Stores the metadata versions of all nodes in the cluster.*/
-	protected Map<Long, NodeState> clusterMetaData;
+	protected ClusterMetadataStore clusterMetaData;
 	
-	/** Time interval for the gossip communication [in milliseconds] */
-	protected final int gossipInterval = 3000;
+	/** Adapts the gossip interval and the number of gossip partners ({@link GossipController}) */
+	protected final GossipController controller = new GossipController();
+	
+	/** Compares the cluster views by Merkle trees, so that only divergent key ranges are exchanged ({@link AntiEntropy}) */
+	protected final AntiEntropy antiEntropy;
+	
+	/** Detects failed peers by their heartbeats ({@link FailureDetector}) */
+	protected final FailureDetector failureDetector = new FailureDetector();
+	
+	/** Heartbeat counter of the associated node (only published if the {@link FailureDetector} is enabled) */
+	private long heartbeat = 0;
+	
+	/** Suspicion levels which were published last */
+	private Map<Long, Float> publishedSuspicions = Collections.emptyMap();
+	
+	/** NODE_IDs of the suspected peers which were reported to the supervisor (they are reported again after a refutation) */
+	private final Set<Long> reportedSuspects = new HashSet<>();
+	
+	/** Share of the threshold from which the suspicion level of a peer is published */
+	private static final double PUBLISHED_SUSPICION_SHARE = 0.5;
+	
+	/** Number of changes of {@link GossipThread#clusterMetaData} at the last round */
+	private long lastNrOfChanges = 0;
 	
 	/** Indicates the current version of the nodes state. Changes with every executed task. */
 	private long stateVersion = 0;
 	
+	/** {@link Simulator} which provides the (seeded) random generator */
+	protected Simulator simulator = Simulator.getInstance();
+	
 	/** Random generator*/
-	private Random generator = new Random();
+	private Random generator = simulator.createRandomGenerator();
+	
+	/** Size of a digest entry (NODE_ID and version) [in byte] */
+	private static final int DIGEST_ENTRY_SIZE = 2 * Long.BYTES;
+	
+	/** Number of bytes which were transmitted in the current gossip round */
+	private long bytesOfRound = 0;
+	
+	/** Number of node states which were transmitted in the current gossip round */
+	private long entriesOfRound = 0;
 	
-	/** Maximum number of randomly picked nodes for gossip communication */
-	private final int MAX_NR_OF_DRAWS = 3;
+	/** {@link Statistics}*/
+	protected Statistics stats = Statistics.getInstance();
+	
+	/** {@link WireCodec} which encodes the messages (only if it is enabled) */
+	protected WireCodec codec = WireCodec.getInstance();
+	
+	/** Indicates whether the gossip communication was stopped */
+	private volatile boolean interrupted = false;
 	
 	/**
 	 * Creates a new {@link GossipThread} of a server for the gossip communication.
 	 * @param server - associated node
 	 */
-	public GossipThread(Node server, Map<Long, NodeState> clusterMetaData) {
+	public GossipThread(Node server, ClusterMetadataStore clusterMetaData) {
 		this.server = server;
 		this.clusterMetaData = clusterMetaData;
+		this.antiEntropy = new AntiEntropy(server, clusterMetaData);
 	}
 	
 	@Override
-	public void run() {
-		System.out.println("[INFO] - GOSSIP STARTED BY NODE: " + this.server.getNodeID());
-		try {
-			while(!this.isInterrupted()) {
-				this.chooseRandomGossipPartners().forEach(x -> this.sendGossipTo(x));
-				Thread.sleep(this.gossipInterval);
+	public long step() {
+		if(this.isInterrupted()) {
+			return -1;
+		}
+		this.executeRound();
+		return this.getGossipInterval();
+	}
+	
+	/** Starts the gossip communication by registering it at the {@link GossipScheduler}. */
+	public void launch() {
+		GossipScheduler.getInstance().register(this, this.getGossipInterval());
+	}
+	
+	/** Stops the gossip communication. The current round is completed. */
+	public void interrupt() {
+		this.interrupted = true;
+	}
+	
+	/** @return whether the gossip communication was stopped */
+	public boolean isInterrupted() {
+		return this.interrupted;
+	}
+	
+	/** 
+	 * Publishes pending capacity changes of the node and executes a gossip round afterwards. Idle nodes steal waiting tasks. 
+	 * The coverage of the own node state versions is recorded after the round.
+	 */
+	protected final void executeRound() {
+		this.server.stealTasks();
+		this.publishPendingNodeState();
+		this.gossipRound();
+		ConvergenceTracker.getInstance().recordRound(this.server);
+	}
+	
+	/**
+	 * Publishes the node state if the capacities changed since the last publication. This decouples the task admission 
+	 * from the metadata update.
+	 */
+	public void publishPendingNodeState() {
+		if(this.server.consumeNodeStateChange()) {
+			this.updateNodeState();
+		}
+	}
+	
+	/** 
+	 * Executes a single gossip round with randomly chosen gossip partners. The transmitted bytes and entries are recorded. 
+	 * Afterwards, the fanout and the interval are adapted to the cluster size and the observed state changes.
+	 */
+	protected void gossipRound() {
+		this.bytesOfRound = 0;
+		this.entriesOfRound = 0;
+		if(FailureDetector.isEnabled()) {
+			this.detectFailures();
+		}
+		this.chooseRandomGossipPartners().forEach(x -> this.sendGossipTo(x));
+		this.stats.getHistogram("gossip_bytes_per_round").record(this.bytesOfRound);
+		this.stats.getHistogram("gossip_entries_per_round").record(this.entriesOfRound);
+		
+		if(GossipController.isAdaptive()) {
+			long nrOfChanges = this.clusterMetaData.getNrOfChanges();
+			this.controller.adapt(this.clusterMetaData.size(), nrOfChanges - this.lastNrOfChanges);
+			this.lastNrOfChanges = nrOfChanges;
+			this.stats.getHistogram("gossip_fanout").record(this.controller.getFanout());
+			this.stats.getHistogram("gossip_interval").record(this.controller.getInterval());
+		}
+	}
+	
+	/**
+	 * Evaluates the suspicion levels of all known peers and publishes them with a new heartbeat. Peers whose level exceeds the 
+	 * threshold are reported to the supervisor on behalf of this node only. The gossiped suspicions of other peers may be 
+	 * outdated, so that every peer reports its own suspicions and the supervisor counts independent observers.
+	 */
+	private void detectFailures() {
+		double threshold = FailureDetector.getThreshold();
+		Map<Long, Float> suspicions = new TreeMap<>();
+		List<Node> suspects = new ArrayList<>();
+		for(NodeState state : this.clusterMetaData.values()) {
+			Node peer = state.getAssociatedNode();
+			if(peer == this.server) continue;
+			double phi = this.failureDetector.getPhi(peer.getNodeID());
+			if(phi >= threshold * PUBLISHED_SUSPICION_SHARE) {
+				suspicions.put(peer.getNodeID(), (float) phi);
+			}
+			if(phi < threshold) {
+				this.reportedSuspects.remove(peer.getNodeID());
+			} else if(this.reportedSuspects.add(peer.getNodeID())) {
+				suspects.add(peer);
+			}
+		}
+		this.publishHeartbeat(suspicions);
+		suspects.forEach(x -> this.reportSuspect(x));
+	}
+	
+	/**
+	 * Reports a suspected peer to the supervisor on behalf of this node.
+	 * @param suspect - peer whose suspicion level exceeds the threshold
+	 */
+	private void reportSuspect(Node suspect) {
+		this.stats.increaseRuntimeCounter("phi_suspicions");
+		if(suspect.isAvailable()) {
+			this.stats.increaseRuntimeCounter("phi_false_suspicions");
+		}
+		System.err.println("[WARN] - NODE " + suspect.getNodeID() + " IS SUSPECTED BY: " + this.server.getNodeID());
+		this.server.reportNodeFailureToSupervisor(suspect, this.server.getNodeID());
+	}
+	
+	/**
+	 * Publishes a new heartbeat of the associated node. The suspicion levels are only updated if they changed. 
+	 * Heartbeats are not tracked by the {@link ConvergenceTracker}, because they do not change the capacities.
+	 * @param suspicions - current suspicion levels [stored by the NODE_ID of the peer]
+	 */
+	private synchronized void publishHeartbeat(Map<Long, Float> suspicions) {
+		NodeState previousState = this.clusterMetaData.get(this.server.getNodeID());
+		if(previousState == null) return;
+		NodeState nodeState = new NodeState(previousState);
+		nodeState.updateHeartbeat(++this.heartbeat, this.controller.getInterval(), this.stateVersion);
+		if(!suspicions.equals(this.publishedSuspicions)) {
+			nodeState.updateExtension(FailureDetector.SUSPICIONS, 
+					new VersionedValue<>(Collections.unmodifiableMap(suspicions), this.stateVersion));
+			this.publishedSuspicions = suspicions;
+		}
+		this.incrementStateVersion();
+		this.clusterMetaData.put(this.server.getNodeID(), nodeState);
+	}
+	
+	/**
+	 * Passes the heartbeats of newly merged node states to the {@link FailureDetector}. The peers adapt their gossip intervals
+	 * independently, so that each heartbeat is evaluated against the interval which its sender published with it.
+	 * @param states - node states which were merged into the cluster view
+	 */
+	void recordHeartbeats(List<NodeState> states) {
+		for(NodeState state : states) {
+			if(state.getHeartbeat() > 0 && state.getAssociatedNode() != this.server) {
+				this.failureDetector.recordHeartbeat(state.getAssociatedNode().getNodeID(), state.getHeartbeat(), 
+						state.getHeartbeatInterval());
 			}
-		} catch (InterruptedException e) {
-			System.err.println("[WARN] - GOSSIP WAS INTERRUPTED! NODE: " + this.server.getNodeID());
-			this.interrupt();
 		}
 	}
 	
 	/**
-	 * Propagates metadata information to the receiver and receives potential metadata updates of the receiver.
+	 * Exchanges metadata information with the receiver. At first, the versions of all known node states are sent (digest).
+	 * The receiver replies with its more current node states and requests the node states which are more current at this node.
+	 * If the view is large enough for the {@link AntiEntropy}, the digest only covers the key ranges which diverge from the 
+	 * view of the receiver (nothing is exchanged if both views are equal).
+	 * No lock is held during the communication, because the {@link ClusterMetadataStore} merges the node states atomically.
 	 * @param receiver
 	 */
 	private void sendGossipTo(Node receiver) {
-		Map<Long, NodeState> metadata;
 		//System.out.println("[INFO] - SEND GOSSIP TO " + receiver.getNodeID() + " SENDER: " + this.server.getNodeID());
-		synchronized(this.clusterMetaData) {
-			 metadata = new HashMap<Long, NodeState>(this.clusterMetaData);
-			 //Pass values through return type
-			 this.server.increaseMsgSent();
-			 try {
-				 Map<Long, NodeState> updates = receiver.receiveAndRespondGossipFrom(this.server, metadata);
-				 this.clusterMetaData.putAll(updates);
-			 } catch (NoSuchElementException e) {
-				System.err.println(e.getMessage());
-				this.server.reportNodeFailureToSupervisor(receiver, this.server.getNodeID());
-			 }
+		try {
+			GossipDigestAck ack;
+			if(AntiEntropy.appliesTo(this.clusterMetaData.size())) {
+				Map.Entry<Integer, Set<Integer>> divergence = this.antiEntropy.findDivergentRanges(receiver, 
+						AntiEntropy.getComparisonLevel(this.clusterMetaData.size()));
+				this.bytesOfRound += this.antiEntropy.getTransmittedBytes();
+				int level = divergence.getKey();
+				Set<Integer> ranges = divergence.getValue();
+				if(ranges.isEmpty()) return;
+				this.server.increaseMsgSent();
+				ack = this.exchangeDigest(receiver, new GossipSliceDigest(this.clusterMetaData.createDigest(level, ranges), level, ranges));
+			} else {
+				this.server.increaseMsgSent();
+				ack = this.exchangeDigest(receiver, this.clusterMetaData.createDigest());
+			}
+			this.server.mergeReceivedNodeStates(ack.getUpdates());
+			this.entriesOfRound += ack.getUpdates().size();
+			
+			if(!ack.getRequestedNodeIDs().isEmpty()) {
+				Map<Long, NodeState> requestedStates = new HashMap<>();
+				for(Long nodeID : ack.getRequestedNodeIDs()) {
+					NodeState state = this.clusterMetaData.get(nodeID);
+					if(state != null) { //The node could have been removed in the meantime
+						requestedStates.put(nodeID, state);
+					}
+				}
+				this.server.increaseMsgSent();
+				this.sendUpdates(receiver, requestedStates);
+				this.entriesOfRound += requestedStates.size();
+			}
+		} catch (NoSuchElementException e) {
+			System.err.println(e.getMessage());
+			this.server.reportNodeFailureToSupervisor(receiver, this.server.getNodeID());
+		}
+	}
+	
+	/** 
+	 * Sends a digest to the receiver and returns its reply. The size of both is added to the bytes of the round. 
+	 * If the {@link WireCodec} is enabled, both are encoded and carried by the {@link Transport}.
+	 * @throws NoSuchElementException if the receiver has failed
+	 * @return digest reply of the receiver
+	 */
+	private GossipDigestAck exchangeDigest(Node receiver, Map<Long, Long> digest) throws NoSuchElementException {
+		if(!WireCodec.isEnabled()) {
+			this.bytesOfRound += digest.size() * DIGEST_ENTRY_SIZE;
+			GossipDigestAck ack = receiver.receiveGossipDigestFrom(this.server, digest);
+			this.bytesOfRound += ack.getEstimatedSize();
+			return ack;
+		}
+		byte[] message = this.codec.encodeDigest(digest);
+		this.bytesOfRound += message.length;
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), receiver, MessageType.GOSSIP_DIGEST, message);
+		this.bytesOfRound += reply.length;
+		return this.codec.decodeDigestAck(reply);
+	}
+	
+	/** 
+	 * Sends a digest of divergent key ranges to the receiver and returns its reply. The size of both is added to the bytes of the round.
+	 * @throws NoSuchElementException if the receiver has failed
+	 * @return digest reply of the receiver
+	 */
+	private GossipDigestAck exchangeDigest(Node receiver, GossipSliceDigest slice) throws NoSuchElementException {
+		if(!WireCodec.isEnabled()) {
+			this.bytesOfRound += slice.getDigest().size() * DIGEST_ENTRY_SIZE + slice.getRanges().size() * Integer.BYTES;
+			GossipDigestAck ack = receiver.receiveGossipDigestFrom(this.server, slice.getDigest(), slice.getLevel(), slice.getRanges());
+			this.bytesOfRound += ack.getEstimatedSize();
+			return ack;
+		}
+		byte[] message = this.codec.encodeSliceDigest(slice);
+		this.bytesOfRound += message.length;
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), receiver, MessageType.GOSSIP_SLICE_DIGEST, message);
+		this.bytesOfRound += reply.length;
+		return this.codec.decodeDigestAck(reply);
+	}
+	
+	/** 
+	 * Sends the requested node states to the receiver. Their size is added to the bytes of the round.
+	 * @throws NoSuchElementException if the receiver has failed
+	 */
+	private void sendUpdates(Node receiver, Map<Long, NodeState> states) throws NoSuchElementException {
+		if(!WireCodec.isEnabled()) {
+			states.values().forEach(x -> this.bytesOfRound += x.getEstimatedSize());
+			receiver.receiveGossipUpdatesFrom(this.server, states);
+			return;
 		}
+		byte[] message = this.codec.encodeStates(states);
+		this.bytesOfRound += message.length;
+		Transport.getInstance().request(this.server.getNodeID(), receiver, MessageType.GOSSIP_UPDATES, message);
+	}
+	
+	/** 
+	 * Pushes node states to the receiver, which replies with its more current node states 
+	 * ({@link Node#receiveAndRespondGossipFrom(Node, Map)}). The size of the pushed node states is added to the bytes of the round.
+	 * @throws NoSuchElementException if the receiver has failed
+	 * @return more current node states of the receiver
+	 */
+	protected Map<Long, NodeState> pushStates(Node receiver, Map<Long, NodeState> states) throws NoSuchElementException {
+		if(!WireCodec.isEnabled()) {
+			states.values().forEach(x -> this.bytesOfRound += x.getEstimatedSize());
+			return receiver.receiveAndRespondGossipFrom(this.server, states);
+		}
+		byte[] message = this.codec.encodeStates(states);
+		this.bytesOfRound += message.length;
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), receiver, MessageType.GOSSIP_PUSH, message);
+		return this.codec.decodeStates(reply);
 	}
 	
 	/**
 	 * Determines random nodes of the cluster for the next gossip interaction.
-	 * @return a set of randomly chosen nodes (maximum number of chosen nodes is given by {@link GossipThread#MAX_NR_OF_DRAWS}
+	 * @return a set of randomly chosen nodes (maximum number of chosen nodes is given by the fanout of {@link GossipThread#controller}
 	 */
 	private Set<Node> chooseRandomGossipPartners() {
-		List<Node> knownNodes;
-		synchronized(this.clusterMetaData) {
-			knownNodes = this.clusterMetaData.entrySet().stream().filter(x -> !x.getKey().equals(server.getNodeID()))
-					.map(x -> x.getValue().getAssociatedNode()).collect(Collectors.toList());
-			
-		}
-		Set<Node> chosenNodes = new HashSet<Node>();
+		List<Node> knownNodes = this.clusterMetaData.values().stream()
+				.filter(x -> !x.getAssociatedNode().getNodeID().equals(server.getNodeID()))
+				.map(x -> x.getAssociatedNode()).collect(Collectors.toList());
+		//LinkedHashSet keeps the order of the draws -> deterministic in discrete-event mode
+		Set<Node> chosenNodes = new LinkedHashSet<Node>();
 		
-		if(knownNodes.size() > this.MAX_NR_OF_DRAWS) {
+		int nrOfDraws = this.controller.getFanout();
+		if(knownNodes.size() > nrOfDraws) {
 			
 			/* Chooses randomly a node out of knownNodes.
 			 * The set ensures that no duplicates are contained and takes care that the number of randomly picked 
 			 * nodes may vary */
-			for (int i = 0; i < this.MAX_NR_OF_DRAWS; i++) {
+			for (int i = 0; i < nrOfDraws; i++) {
 				chosenNodes.add(knownNodes.get(this.generator.nextInt(knownNodes.size())));
 			}
 			
@@ -110,16 +385,46 @@ public class GossipThread extends Thread {
 		return chosenNodes;
 	}
 	
-	/** Updates the node state. This should be used when a task is started or completed, and .*/
+	/** Updates the node state. Capacity changes are published via {@link GossipThread#publishPendingNodeState()}.*/
 	public void updateNodeState() {
-		synchronized(this.clusterMetaData) {
-			NodeState nodeState = new NodeState(server);
-			nodeState.updateMetaData("coordinates", new VersionedValue<>(server.getCoordinates(), this.stateVersion));
-			nodeState.updateMetaData("available_ram", new VersionedValue<>(server.getavailableRAM(), this.stateVersion));
-			nodeState.updateMetaData("available_storage", new VersionedValue<>(server.getavailableStorage(), this.stateVersion));
-			this.incrementStateVersion();
-			this.clusterMetaData.put(this.server.getNodeID(), nodeState);
+		this.updateNodeState(null, null);
+	}
+	
+	/**
+	 * Updates the node state and an additional field (extension, e.g. the edge pools of a {@link CNLNode}). 
+	 * The published node state is not modified (copy-on-write), because other nodes may hold it. 
+	 * @param field - name of the additional field (null if only the capacities are updated)
+	 * @param value - value version of the additional field
+	 */
+	public synchronized void updateNodeState(String field, VersionedValue<?> value) {
+		long capacity = this.server.getCapacitySnapshot();
+		NodeState previousState = this.clusterMetaData.get(this.server.getNodeID());
+		//Additional fields of the previous state are kept
+		NodeState nodeState = (previousState == null) ? new NodeState(server) : new NodeState(previousState);
+		if(field != null) {
+			nodeState.updateExtension(field, value);
 		}
+		nodeState.updateCoordinates(server.getCoordinates(), this.stateVersion);
+		nodeState.updateAvailableRam(Node.ramOf(capacity), this.stateVersion);
+		nodeState.updateAvailableStorage(Node.storageOf(capacity), this.stateVersion);
+		this.incrementStateVersion();
+		this.clusterMetaData.put(this.server.getNodeID(), nodeState);
+		ConvergenceTracker.getInstance().stamp(this.server, nodeState, this.getNrOfReceivers(), this.controller);
+	}
+	
+	/** @return number of peers which should learn a new version of the own node state (i.e. all other known nodes) */
+	protected int getNrOfReceivers() {
+		return this.clusterMetaData.size() - 1;
+	}
+	
+	/** @return time interval until the next gossip round [in milliseconds] */
+	protected long getGossipInterval() {
+		return this.controller.getInterval();
+	}
+	
+	/** @return controller which adapts the gossip interval and fanout */
+	public GossipController getController() {
+		return this.controller;
 	}
 	
 	/** Increments the version number of the nodes state by one */
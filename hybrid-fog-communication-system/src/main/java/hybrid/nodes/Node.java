@@ -1,19 +1,40 @@
 package hybrid.nodes;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import hybrid.Client;
 import hybrid.Statistics;
+import hybrid.network.Transport;
+import hybrid.network.Transport.MessageType;
+import hybrid.network.WireCodec;
+import hybrid.nodes.execution.ExecutionBackend;
+import hybrid.simulation.Simulator;
+import util_objects.ClusterMetadataStore;
 import util_objects.Coordinates;
+import util_objects.FailureHandler;
+import util_objects.GossipDigestAck;
+import util_objects.GossipSliceDigest;
+import util_objects.MembershipUpdate;
+import util_objects.MerkleTree;
 import util_objects.NodeState;
+import util_objects.ProbeAck;
+import util_objects.SpatialIndex;
 import util_objects.Task;
+import util_objects.TaskMetrics;
 
 /**
  * Represents a node.
@@ -37,32 +58,66 @@ public abstract class Node {
 	/** {@link Coordinates} of the node **/
 	private final Coordinates COORDINATES;
 	
-	/** Available storage capacity [in byte] */
-	private long availableStorage;
+	/** All created nodes [stored by their NODE_ID]. It resolves the NODE_IDs of received messages. */
+	private static final Map<Long, Node> nodeDirectory = new ConcurrentHashMap<>();
 	
-	/** Available computation capacity [in byte] */
-	private long availableRAM;
+	/** Maximum storage or computation capacity of a node, because both are packed into one long [in byte] */
+	public static final long MAX_CAPACITY = 0xFFFF_FFFFL;
 	
-	/** Stores all completed tasks */
+	/** Available computation capacity (upper 32 bits) and storage capacity (lower 32 bits) [in byte]. <br>
+	 *  Packing both values allows to reserve them with a single compare-and-set, i.e. without any lock. */
+	private final AtomicLong availableCapacity;
+	
+	/** Indicates that the capacities changed since the last publication of the node state */
+	private final AtomicBoolean nodeStateChanged = new AtomicBoolean(false);
+	
+	/** Configures whether the completed tasks are retained in {@link Node#taskHistory} (opt-in, because it grows with every task) */
+	private static boolean retainTaskHistory = false;
+	
+	/** Stores all completed tasks (only if {@link Node#retainTaskHistory} is set) */
 	private List<Task> taskHistory = new ArrayList<>();
 	
-	/** Help object for locking the storage and computation capacity */
-	private Object capacity_Lock;
+	/** Aggregates the latencies of all completed tasks in constant memory */
+	private final TaskMetrics taskMetrics = new TaskMetrics();
+	
+	/** Tasks which are currently executed by the node, i.e. which are lost if the node fails */
+	private final Set<Task> inFlightTasks = ConcurrentHashMap.newKeySet();
+	
+	/** Bounded queue for tasks which wait for released capacities (null if disabled, see {@link AdmissionQueue#configure(int, long)}) */
+	private final AdmissionQueue admissionQueue;
+	
+	/** Cached contact nodes of the clients by geo cell (null if the routing caches are disabled) */
+	private final RoutingCache routingCache;
+	
+	/** Maximum number of nodes which are requested for a redirected task with a deadline, before it is escalated */
+	protected static final int MAX_CANDIDATES_FOR_DEADLINE_TASKS = 3;
+	
+	/** Reply to messages which have no reply ({@link Node#handleMessage(MessageType, long, byte[])}) */
+	private static final byte[] NO_REPLY = new byte[0];
 	
 	/** Indicates if a node has failed */
 	protected AtomicBoolean hasFailed = new AtomicBoolean(false);
 	
+	/** Time of the failure [in milliseconds] (-1 if the node has not failed). It is used to measure the detection time. */
+	private volatile long failureTime = -1;
+	
 	/** {@link Statistics}*/
 	protected Statistics stats = Statistics.getInstance();
 	
+	/** {@link Simulator} which drives the node if the discrete-event mode is active */
+	protected Simulator simulator = Simulator.getInstance();
+	
 	//------------------------------------------ Cluster information ---------------------------------------------------------------
 	
 	/** Stores the metadata versions of all nodes in the cluster by their NODE_ID.*/
-	protected Map<Long, NodeState> clusterMetaData = new HashMap<Long, NodeState>();
+	protected ClusterMetadataStore clusterMetaData = new ClusterMetadataStore();
 	
 	/** {@link GossipThread} instance which handles the gossip communication of the node */
 	protected GossipThread gossiper = null;
 	
+	/** {@link SwimMembership} of the node (null if the supervised membership is configured) */
+	protected SwimMembership membership = null;
+	
 	//------------------------------------------ Stats -----------------------------------------------------------------------------
 	/** Number of messages received*/
 	protected AtomicInteger msg_received = new AtomicInteger(0);
@@ -91,41 +146,57 @@ public abstract class Node {
 		this.PORT = PORT;
 		this.NODE_ID = NODE_ID;
 		this.COORDINATES = COORDINATES;
-		this.availableStorage = MAX_STORAGE;
-		this.availableRAM = MAX_RAM;
-		this.capacity_Lock = new Object();
+		if(MAX_STORAGE < 0 || MAX_STORAGE > MAX_CAPACITY || MAX_RAM < 0 || MAX_RAM > MAX_CAPACITY) {
+			throw new IllegalArgumentException("[ERROR] - CAPACITY OF NODE " + NODE_ID + " EXCEEDS " + MAX_CAPACITY);
+		}
+		this.availableCapacity = new AtomicLong(packCapacity(MAX_RAM, MAX_STORAGE));
+		this.admissionQueue = AdmissionQueue.create(this);
+		this.routingCache = RoutingCache.create();
+		nodeDirectory.put(NODE_ID, this);
+		if(WireCodec.isEnabled()) {
+			Transport.getInstance().bind(this);
+		}
 	}	
 	
 	/** Shutdowns the node and updates the {@link Statistics}. */
 	public void shutdownNode() {
 		this.gossiper.interrupt();
-		int size = this.taskHistory.size();
-		stats.storeNumberOfTasksPerNode(this.NODE_ID, Integer.valueOf(size));
+		if(this.membership != null) {
+			this.membership.interrupt();
+		}
+		if(WireCodec.isEnabled()) {
+			Transport.getInstance().unbind(this);
+		}
+		if(this.hasFailed.get()) {
+			//The tasks of an undetected failure were never requeued
+			stats.increaseNrOfLostTasks(this.takeOverInFlightTasks().size());
+		}
+		stats.storeTaskMetrics(this.NODE_ID, this.taskMetrics);
 		stats.storeCoordinates(this.NODE_ID, this.COORDINATES);
 		stats.storeFailureState(this.NODE_ID, this.hasFailed.get());
 		stats.storeNumberOfGossipMsgSent(this.NODE_ID, Integer.valueOf(this.msg_sent.intValue()));
 		stats.storeNumberOfGossipMsgReceived(this.NODE_ID, Integer.valueOf(this.msg_received.intValue()));
 		stats.storeNumberOfGossipMsgReplied(this.NODE_ID, Integer.valueOf(this.msg_replied.intValue()));
 		stats.storeEdgePoolMembership(this.NODE_ID, this.pool_ID);
-		double avgExecutionTime = 0;
-		double avgTransmissionLatency = 0;
-		
-		if(size > 0) {
-			avgExecutionTime = this.taskHistory.stream()
-					.map(x -> x.getExecutionTime()).reduce(0L, ((acc , y) -> acc + y)) / size;
-			avgTransmissionLatency = this.taskHistory.stream()
-					.map(x -> x.getTransmissionDelay()).reduce(0L, (acc, y) -> acc + y) / size;
-		}
-		
-		stats.storeAvgExecutionTime(this.NODE_ID, avgExecutionTime);
-		stats.storeAvgTransmisionLatency(this.NODE_ID, avgTransmissionLatency);
 	}
 	
 	/** Removes node from cluster. */
 	public void removeNodeFromCluster(Long NODE_ID) {
-		synchronized(this.clusterMetaData) {
-			this.clusterMetaData.remove(NODE_ID);
-		}
+		this.clusterMetaData.remove(NODE_ID);
+	}
+	
+	/**
+	 * Joins the cluster of the contact node via the {@link SwimMembership}. Instead of informing all members, only the contact
+	 * node is informed, which disseminates the join.
+	 * @param contact - member of the cluster
+	 */
+	public void joinCluster(Node contact) {
+		this.membership.join(contact);
+	}
+	
+	/** Leaves the cluster via the {@link SwimMembership}, which disseminates the departure. */
+	public void leaveCluster() {
+		this.membership.leave();
 	}
 	
 
@@ -133,16 +204,26 @@ public abstract class Node {
 	
 	/**
 	 * Receives a message from the sender node and checks whether the available capacities are sufficient.
-	 * If this is fulfilled, it executes the passed task. Otherwise it redirects the task.
+	 * If this is fulfilled, it executes the passed task. Otherwise the task waits in the {@link AdmissionQueue} (if enabled, 
+	 * not full and the estimated wait fits into the wait budget) or it is redirected. <br>
+	 * A task which fits is admitted directly, even if other tasks are waiting: Each drain of the queue admits all waiting tasks
+	 * which fit, so that the task does not take capacities which a waiting task could use.
 	 * @param task - task which should be executed
+	 * @return how the task was admitted
 	 */
-	protected void receiveTask(Task task) {
-		boolean capacityIsSufficient = this.checkAndProcessTask(task);
-		// Redirect the task, if the capacity is not sufficient
-		if(!capacityIsSufficient) {
-			this.redirectTask(task);
-			this.stats.increaseNrOfRedirectedTasks();
+	protected Admission receiveTask(Task task) {
+		if(this.checkAndProcessTask(task)) {
+			return Admission.EXECUTED;
+		}
+		if(this.admissionQueue != null && this.admissionQueue.offer(task)) {
+			//Capacities may have been released since the check
+			this.admissionQueue.drain();
+			return Admission.QUEUED;
 		}
+		// Redirect the task, if the capacity is not sufficient
+		this.redirectTask(task);
+		this.stats.increaseNrOfRedirectedTasks();
+		return Admission.REDIRECTED;
 	}
 	
 	/**
@@ -152,16 +233,43 @@ public abstract class Node {
 	 * @return whether the capacities are sufficient or not
 	 */
 	protected boolean checkAndProcessTask(Task task) {
-		boolean capacityIsSufficient = false;
-		synchronized(this.capacity_Lock) {
-			capacityIsSufficient = (this.availableRAM >= task.getRequiredRAM()) && (this.availableStorage >= task.getRequiredStorage());
-			if(capacityIsSufficient) {
-				this.executeTask(task);
-			}
+		boolean capacityIsSufficient = this.reserveCapacity(task.getRequiredRAM(), task.getRequiredStorage());
+		if(capacityIsSufficient) {
+			this.executeTask(task);
 		}
 		return capacityIsSufficient;
 	}
 	
+	/**
+	 * Reserves the given capacities, if they are available. This is done lock-free by a compare-and-set loop on 
+	 * {@link Node#availableCapacity}.
+	 * @param ram - required computation capacity [in byte]
+	 * @param storage - required storage capacity [in byte]
+	 * @return whether the capacities could be reserved or not
+	 */
+	protected boolean reserveCapacity(long ram, long storage) {
+		long current;
+		do {
+			current = this.availableCapacity.get();
+			if(ramOf(current) < ram || storageOf(current) < storage) {
+				return false;
+			}
+		} while(!this.availableCapacity.compareAndSet(current, current - packCapacity(ram, storage)));
+		this.nodeStateChanged.set(true);
+		return true;
+	}
+	
+	/**
+	 * Releases previously reserved capacities. No carry can occur, because the available capacities never exceed the
+	 * maximum capacities of the node.
+	 * @param ram - released computation capacity [in byte]
+	 * @param storage - released storage capacity [in byte]
+	 */
+	protected void releaseCapacity(long ram, long storage) {
+		this.availableCapacity.addAndGet(packCapacity(ram, storage));
+		this.nodeStateChanged.set(true);
+	}
+	
 	/**
 	 * Processes a redirected task by checking the available resources and executing the task if possible.
 	 * @param task - task which should be executed
@@ -172,27 +280,60 @@ public abstract class Node {
 	}
 	
 	/**
-	 * Executes a given task by initiating a new {@link WorkerThread} and decreases the available capacities.
+	 * Executes a given task by passing it to the configured {@link ExecutionBackend}. 
+	 * The capacities have to be reserved beforehand ({@link Node#reserveCapacity(long, long)}).
 	 * @param task - task which should be performed
 	 */
 	protected void executeTask(Task task) {
-		this.availableRAM -= task.getRequiredRAM();
-		this.availableStorage -= task.getRequiredStorage();
-		this.gossiper.updateNodeState();
-		new WorkerThread(this, task).start();
+		task.admit();
+		this.inFlightTasks.add(task);
+		ExecutionBackend.getInstance().execute(this, task);
 	}
 	
 	/**
-	 * Completes a task and releases the previous required capacities. Thereby the capacity variables of the node are locked.
+	 * Takes back a task which the {@link ExecutionBackend} could not accept (e.g. because its queue is full). The reserved 
+	 * capacities are released and the task is redirected like a task with insufficient capacities. The redirect is dispatched
+	 * ({@link Simulator#dispatch(Runnable)}), because the rejecting thread may be a client, a gossip round or a worker.
+	 * @param task - rejected task
+	 */
+	public void rejectTask(Task task) {
+		this.inFlightTasks.remove(task);
+		this.releaseCapacity(task.getRequiredRAM(), task.getRequiredStorage());
+		this.simulator.dispatch(() -> {
+			this.redirectTask(task);
+			this.stats.increaseNrOfRedirectedTasks();
+		});
+	}
+	
+	/**
+	 * Completes a task and releases the previous required capacities. The new node state is published asynchronously 
+	 * by the {@link GossipThread}. <br>
+	 * The result of a failed node is lost, so that the task stays in flight until it is requeued by the supervisor.
 	 * @param task - completed task
 	 */
 	public void completeTask(Task task) {
-		synchronized(this.capacity_Lock) {
-			this.availableRAM += task.getRequiredRAM();
-			this.availableStorage += task.getRequiredStorage();
-			this.gossiper.updateNodeState();
-			this.taskHistory.add(task);
+		this.releaseCapacity(task.getRequiredRAM(), task.getRequiredStorage());
+		if(this.hasFailed.get()) {
+			return;
+		}
+		if(this.inFlightTasks.remove(task)) {
+			//The task is finished before waiting tasks are admitted, so that its latency does not include their admission
+			task.finishTask();
+			this.taskMetrics.record(task);
+			if(retainTaskHistory) {
+				synchronized(this.taskHistory) {
+					this.taskHistory.add(task);
+				}
+			}
+		} else {
+			//The task was already requeued to another node -> executed twice
+			this.stats.increaseNrOfDuplicatedTasks();
 		}
+		//Waiting tasks are admitted on both paths, because the capacities were released in any case
+		if(this.admissionQueue != null) {
+			this.admissionQueue.drain();
+		}
+		this.stealTasks();
 		//System.out.println("[INFO] - TASK COMPLETED BY: " + this.NODE_ID);
 	}
 	
@@ -202,13 +343,109 @@ public abstract class Node {
 	 */
 	public abstract void redirectTask(Task task);
 	
+	/**
+	 * Lets an idle node take over waiting tasks of overloaded neighbours (work stealing). This is invoked after the completion of
+	 * a task and once per gossip round. By default, nodes do not steal tasks.
+	 */
+	protected void stealTasks() {
+	}
+	
+	/**
+	 * Hands waiting tasks of this node over to an idle node (work stealing).
+	 * @param thief - idle node which takes over the tasks
+	 * @return number of handed over tasks
+	 */
+	public int handOverWaitingTasks(Node thief) {
+		return (this.admissionQueue == null || !this.isAvailable()) ? 0 : this.admissionQueue.handOver(thief);
+	}
+	
+	/**
+	 * Takes over all tasks which are in flight on this node, including the tasks which wait in its {@link AdmissionQueue}. 
+	 * Results of these tasks, which are completed afterwards by this node, are discarded.
+	 * @return tasks which have to be requeued
+	 */
+	public List<Task> takeOverInFlightTasks() {
+		List<Task> tasks = new ArrayList<>();
+		for(Task task : this.inFlightTasks) {
+			if(this.inFlightTasks.remove(task)) {
+				tasks.add(task);
+			}
+		}
+		if(this.admissionQueue != null) {
+			tasks.addAll(this.admissionQueue.takeOverAll());
+		}
+		return tasks;
+	}
+	
+	/**
+	 * Requeues the tasks of a failed node. This is done by the supervisor after it detected the failure 
+	 * ({@link FailureHandler#startFailureRoutine(Node, Long)}).
+	 * @param tasks - tasks which were taken over from the failed node ({@link Node#takeOverInFlightTasks()})
+	 * @param target - nearest healthy node (if it is null, the tasks are admitted by the supervisor itself)
+	 */
+	protected void requeueTasks(List<Task> tasks, Node target) {
+		for(Task task : tasks) {
+			this.stats.increaseNrOfRetriedTasks();
+			if(target == null) {
+				this.receiveTask(task);
+			} else {
+				this.sendTask(target, task);
+			}
+		}
+	}
+	
+	/**
+	 * Determines the nearest healthy node to a failed node.
+	 * @param nodes - candidates
+	 * @param failedNode - failed node
+	 * @return nearest available node (except the failed node) or null if there is none
+	 */
+	protected static Node findNearestHealthyNode(Collection<? extends Node> nodes, Node failedNode) {
+		return nodes.stream().filter(x -> x != failedNode && x.isAvailable())
+				.min(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(failedNode.getCoordinates())))
+				.orElse(null);
+	}
+	
+	/**
+	 * Places a redirected task on a node of the cluster which has sufficient capacities according to the metadata. 
+	 * The nodes are requested in ascending order of their distance. A task without (reachable) deadline is only offered to the 
+	 * closest node. A task with a reachable deadline is offered to up to {@link Node#MAX_CANDIDATES_FOR_DEADLINE_TASKS} nodes, 
+	 * because an escalation to the supervisor would delay it further. The candidates are determined by the spatial index of the
+	 * metadata, which skips all grid cells without sufficient capacities ({@link SpatialIndex}). The node itself is skipped,
+	 * because its indexed capacities are published asynchronously and may still show the capacities which were just missing.
+	 * @param task - task which should be redirected
+	 * @return whether a node accepted the task
+	 */
+	protected boolean placeRedirectedTask(Task task) {
+		boolean deadlineIsReachable = task.hasDeadline() && task.getLatestStartTime() >= this.simulator.currentTimeMillis();
+		List<Node> candidates = this.clusterMetaData.getSpatialIndex().kNearest(this.getCoordinates(),
+			deadlineIsReachable ? MAX_CANDIDATES_FOR_DEADLINE_TASKS : 1, task.getRequiredRAM(), task.getRequiredStorage(), this.NODE_ID);
+		for(Node candidate : candidates) {
+			if(candidate.checkRedirectedTaskRequest(task)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * Sends message to the target node.
 	 * @param target - target of the message
 	 * @param task- task which should be performed by the target
 	 */
 	protected void sendTask(Node target, Task task) {
-		target.receiveTask(task);
+		if(!WireCodec.isEnabled()) {
+			target.receiveTask(task);
+			return;
+		}
+		WireCodec codec = WireCodec.getInstance();
+		try {
+			Transport.getInstance().request(this.NODE_ID, target, MessageType.TASK, codec.encodeTask(task));
+		} catch (NoSuchElementException e) {
+			codec.discardTask(task);
+			this.stats.increaseNrOfLostTasks(1);
+			System.err.println("[WARN] - TASK LOST. NODE " + target.getNodeID() + " IS UNREACHABLE: " + e.getMessage());
+		}
 	}
 	
 	//---   ---   ---   ---   ---   ---   ---   ---   ---   ---  Client ---   ---   ---   ---   ---   ---   ---   ---   ---   --- 
@@ -220,22 +457,127 @@ public abstract class Node {
 	 * @return closest node
 	 */
 	public void receiveTaskFromClient(Task task, Client client) {
-		this.receiveTask(task);
+		Admission admission = this.receiveTask(task);
+		this.respondToClient(client, admission == Admission.REDIRECTED);
+	}
+	
+	/**
+	 * Receives a batch of tasks from a client (e.g. an IoT gateway). The whole batch is admitted by a single capacity 
+	 * reservation, so that it results in one node state version. If the capacities are not sufficient for the whole batch,
+	 * each task is admitted on its own. The closest node is determined only once per batch.
+	 * @param tasks - tasks to process
+	 * @param client - client which sent the tasks
+	 */
+	public void receiveTasks(List<Task> tasks, Client client) {
+		long requiredRAM = 0;
+		long requiredStorage = 0;
+		for(Task task : tasks) {
+			requiredRAM += task.getRequiredRAM();
+			requiredStorage += task.getRequiredStorage();
+		}
+		boolean rejected = false;
+		if(this.reserveCapacity(requiredRAM, requiredStorage)) {
+			tasks.forEach(x -> this.executeTask(x));
+		} else {
+			for(Task task : tasks) {
+				rejected |= (this.receiveTask(task) == Admission.REDIRECTED);
+			}
+		}
+		this.respondToClient(client, rejected);
+	}
+	
+	/**
+	 * Sends the backpressure signal (if necessary) and the closest node to the client.
+	 * @param client - client which sent the request
+	 * @param rejected - whether a task of the request was redirected
+	 */
+	private void respondToClient(Client client, boolean rejected) {
+		//The admission queue is full -> the client has to slow down
+		if(rejected && this.admissionQueue != null) {
+			client.applyBackpressure(this.admissionQueue.getWaitBudget());
+		}
 		//The contactNode of the client is changed, if there is a closer node
-		client.changeContactNode(this.checkForCloserNode(client.getClientPosition()));
+		client.changeContactNode(this.resolveContactNode(client.getClientPosition()));
+	}
+	
+	/**
+	 * Determines the closest node for a client position. If the {@link RoutingCache} is enabled, the cached contact node of
+	 * the geo cell is used and {@link Node#checkForCloserNode(Coordinates)} is only invoked on a cache miss.
+	 * @param clientPosition - geographical position of the client
+	 * @return closest node
+	 */
+	private Node resolveContactNode(Coordinates clientPosition) {
+		if(this.routingCache == null) return this.checkForCloserNode(clientPosition);
+		Node contactNode = this.routingCache.get(clientPosition);
+		if(contactNode == null) {
+			contactNode = this.checkForCloserNode(clientPosition);
+			if(contactNode != null) this.routingCache.put(clientPosition, contactNode);
+		}
+		return contactNode;
 	}
 	
 	/** After a client sent a message, the node checks whether there is any closer node in the system. */
 	public abstract Node checkForCloserNode(Coordinates clientPosition);
 	
 	//------------------------------------------------ Gossip --------------------------------------------------------------
+	/**
+	 * Handles a request which was received via the {@link Transport}. The payload is decoded by the {@link WireCodec} and 
+	 * passed to the corresponding method.
+	 * @param type - type of the message
+	 * @param senderID - NODE_ID of the sender
+	 * @param payload - encoded message
+	 * @throws NoSuchElementException if the node has failed
+	 * @return encoded reply (empty if the message type has no reply)
+	 */
+	public byte[] handleMessage(MessageType type, long senderID, byte[] payload) throws NoSuchElementException {
+		WireCodec codec = WireCodec.getInstance();
+		Node sender = getNodeByID(senderID);
+		switch(type) {
+			case TASK:
+				return new byte[] {(byte) this.receiveTask(codec.decodeTask(payload)).ordinal()};
+			case GOSSIP_DIGEST:
+				return codec.encodeDigestAck(this.receiveGossipDigestFrom(sender, codec.decodeDigest(payload)));
+			case GOSSIP_SLICE_DIGEST:
+				GossipSliceDigest slice = codec.decodeSliceDigest(payload);
+				return codec.encodeDigestAck(this.receiveGossipDigestFrom(sender, slice.getDigest(), slice.getLevel(), slice.getRanges()));
+			case MERKLE_HASHES:
+				return codec.encodeMerkleHashes(this.receiveMerkleHashRequest(sender, codec.decodeMerkleHashRequest(payload)));
+			case GOSSIP_UPDATES:
+				this.receiveGossipUpdatesFrom(sender, codec.decodeStates(payload));
+				return NO_REPLY;
+			case GOSSIP_PUSH:
+				Map<Long, NodeState> reply = this.receiveAndRespondGossipFrom(sender, codec.decodeStates(payload));
+				//Supervisors of the hierarchical benchmark do not reply
+				return codec.encodeStates((reply == null) ? Collections.emptyMap() : reply);
+			case FAILURE_REPORT:
+				if(!(this instanceof FailureHandler)) break;
+				Map.Entry<Node, Long> report = codec.decodeFailureReport(payload);
+				((FailureHandler) this).startFailureRoutine(report.getKey(), report.getValue());
+				return NO_REPLY;
+			case SWIM_PING:
+				return codec.encodeMembershipUpdates(this.receivePing(sender, codec.decodeMembershipUpdates(payload)));
+			case SWIM_PING_REQUEST:
+				Map.Entry<Node, List<MembershipUpdate>> request = codec.decodePingRequest(payload);
+				return codec.encodeProbeAck(this.receivePingRequest(sender, request.getKey(), request.getValue()));
+			case SWIM_JOIN:
+				return codec.encodeStates(this.receiveJoinRequest(sender, codec.decodeStates(payload)));
+			default:
+				break;
+		}
+		throw new IllegalArgumentException("[ERROR] - NODE " + this.NODE_ID + " CANNOT HANDLE MESSAGE TYPE: " + type);
+	}
+	
 	/** Creates an associated {@link GossipThread} to participate in the gossip communication.
 	 * @return the node itself*/
 	public Node initiateGossip() {
 		if(this.gossiper == null) {
 			this.gossiper = new GossipThread(this, this.clusterMetaData);
 			this.gossiper.updateNodeState();
-			this.gossiper.start();			
+			this.gossiper.launch();			
+			if(SwimMembership.isEnabled()) {
+				this.membership = new SwimMembership(this, this.clusterMetaData);
+				this.membership.launch();
+			}
 		}
 		return this;
 	}
@@ -255,16 +597,156 @@ public abstract class Node {
 			System.out.println("Throw Exception");
 			throw new NoSuchElementException("Node: "+ this.NODE_ID);
 		}	
-			//Computes differences and add more current metadata information to the own cluster view.
-			this.clusterMetaData.putAll(this.determineDifferences(this.clusterMetaData, receivedMetadata));	
+			//Adds more current metadata information to the own cluster view.
+			this.mergeReceivedNodeStates(receivedMetadata);	
 			
 			//Searches more current metadata information of the own cluster view and returns those to the sender. 
-			reply = this.determineDifferences(receivedMetadata, this.clusterMetaData);
+			reply = this.determineDifferences(receivedMetadata, this.clusterMetaData.asMap());
 		this.msg_received.incrementAndGet();
 		this.msg_replied.incrementAndGet();
 		return reply;	
 	}
 	
+	/**
+	 * Receives the digest of a gossip partner, i.e. the versions of all node states known by the partner. 
+	 * Instead of the whole cluster metadata only the node states which differ are exchanged.
+	 * @param sender - node which initiated the communication
+	 * @param digest - versions of all node states known by the sender [stored by their NODE_ID]
+	 * @throws NoSuchElementException if a node has failed
+	 * @return node states which are more current than the digest and the IDs of the node states which are requested from the sender
+	 */
+	public GossipDigestAck receiveGossipDigestFrom(Node sender, Map<Long, Long> digest) throws NoSuchElementException {
+		return this.receiveGossipDigestFrom(sender, digest, 0, null);
+	}
+	
+	/**
+	 * Receives the digest of a slice of the cluster view, i.e. of the divergent key ranges which were determined by the 
+	 * {@link AntiEntropy}. Only node states within these key ranges are exchanged.
+	 * @param sender - node which initiated the communication
+	 * @param digest - versions of the node states within the key ranges known by the sender [stored by their NODE_ID]
+	 * @param level - level of the key ranges in the {@link MerkleTree}
+	 * @param ranges - indices of the tree nodes which cover the key ranges (null if the digest covers all node states)
+	 * @throws NoSuchElementException if a node has failed
+	 * @return node states which are more current than the digest and the IDs of the node states which are requested from the sender
+	 */
+	public GossipDigestAck receiveGossipDigestFrom(Node sender, Map<Long, Long> digest, int level, Set<Integer> ranges) 
+			throws NoSuchElementException {
+		//Node Failure
+		if(this.hasFailed.get()) {
+			throw new NoSuchElementException("Node: "+ this.NODE_ID);
+		}
+		Map<Long, NodeState> updates = new HashMap<>();
+		Set<Long> requestedNodeIDs = new HashSet<>();
+		this.clusterMetaData.forEach((nodeID, state) -> {
+			if(ranges != null && !ranges.contains(MerkleTree.indexOf(nodeID, level))) return;
+			Long version = digest.get(nodeID);
+			if(version == null || state.getVersion() > version) {
+				updates.put(nodeID, state);
+			}
+		});
+		for(Map.Entry<Long, Long> version : digest.entrySet()) {
+			NodeState state = this.clusterMetaData.get(version.getKey());
+			if(state == null || version.getValue() > state.getVersion()) {
+				requestedNodeIDs.add(version.getKey());
+			}
+		}
+		this.msg_received.incrementAndGet();
+		this.msg_replied.incrementAndGet();
+		return new GossipDigestAck(updates, requestedNodeIDs);
+	}
+	
+	/**
+	 * Receives a request for hashes of the {@link MerkleTree} of the cluster view ({@link AntiEntropy}).
+	 * @param sender - node which compares its tree
+	 * @param indices - indices of the requested tree nodes (heap order)
+	 * @throws NoSuchElementException if the node has failed
+	 * @return hashes of the requested tree nodes
+	 */
+	public long[] receiveMerkleHashRequest(Node sender, int[] indices) throws NoSuchElementException {
+		if(this.hasFailed.get()) {
+			throw new NoSuchElementException("Node: "+ this.NODE_ID);
+		}
+		this.msg_received.incrementAndGet();
+		this.msg_replied.incrementAndGet();
+		return this.clusterMetaData.getMerkleTree().getHashes(indices);
+	}
+	
+	/**
+	 * Receives the node states which were requested from a gossip partner ({@link Node#receiveGossipDigestFrom(Node, Map)}).
+	 * Only more current node states are adopted.
+	 * @param sender - node which initiated the communication
+	 * @param updates - requested node states [stored by their NODE_ID]
+	 * @throws NoSuchElementException if a node has failed
+	 */
+	public void receiveGossipUpdatesFrom(Node sender, Map<Long, NodeState> updates) throws NoSuchElementException {
+		if(this.hasFailed.get()) {
+			throw new NoSuchElementException("Node: "+ this.NODE_ID);
+		}
+		this.mergeReceivedNodeStates(updates);
+		this.msg_received.incrementAndGet();
+	}
+	
+	/**
+	 * Receives a ping of the {@link SwimMembership} protocol.
+	 * @param sender - node which sent the ping
+	 * @param updates - membership updates which are piggybacked by the sender
+	 * @throws NoSuchElementException if the node has failed
+	 * @return membership updates which are piggybacked on the ack
+	 */
+	public List<MembershipUpdate> receivePing(Node sender, List<MembershipUpdate> updates) throws NoSuchElementException {
+		if(this.hasFailed.get() || this.membership == null) {
+			throw new NoSuchElementException("Node: "+ this.NODE_ID);
+		}
+		return this.membership.acknowledgePing(updates);
+	}
+	
+	/**
+	 * Receives a request to ping the target on behalf of the sender (ping-req of the {@link SwimMembership} protocol).
+	 * @param sender - node whose ping was not acknowledged by the target
+	 * @param target - node which should be pinged
+	 * @param updates - membership updates which are piggybacked by the sender
+	 * @throws NoSuchElementException if the node has failed
+	 * @return whether the target acknowledged the ping and the membership updates which are piggybacked on the reply
+	 */
+	public ProbeAck receivePingRequest(Node sender, Node target, List<MembershipUpdate> updates) throws NoSuchElementException {
+		if(this.hasFailed.get() || this.membership == null) {
+			throw new NoSuchElementException("Node: "+ this.NODE_ID);
+		}
+		return this.membership.pingOnBehalf(target, updates);
+	}
+	
+	/**
+	 * Receives the node state of a node which joins the cluster via this node ({@link Node#joinCluster(Node)}).
+	 * @param joiner - joining node
+	 * @param states - node state of the joining node
+	 * @throws NoSuchElementException if the node has failed
+	 * @return own cluster view
+	 */
+	public Map<Long, NodeState> receiveJoinRequest(Node joiner, Map<Long, NodeState> states) throws NoSuchElementException {
+		if(this.hasFailed.get() || this.membership == null) {
+			throw new NoSuchElementException("Node: "+ this.NODE_ID);
+		}
+		return this.membership.acceptJoin(joiner, states);
+	}
+	
+	/**
+	 * Adds the received node states which are more current to the own cluster view. The first reception of a version 
+	 * is recorded by the {@link ConvergenceTracker} and new heartbeats are passed to the {@link FailureDetector}.
+	 * Node states of members which were removed by the {@link SwimMembership} are dropped.
+	 * @param receivedMetadata - received node states [stored by their NODE_ID]
+	 */
+	protected void mergeReceivedNodeStates(Map<Long, NodeState> receivedMetadata) {
+		if(this.membership != null) {
+			receivedMetadata = this.membership.withoutDeadMembers(receivedMetadata);
+		}
+		ConvergenceTracker tracker = ConvergenceTracker.getInstance();
+		List<NodeState> mergedStates = this.clusterMetaData.mergeAllIfNewer(receivedMetadata);
+		mergedStates.forEach(x -> tracker.recordLearned(this, x));
+		if(FailureDetector.isEnabled() && this.gossiper != null) {
+			this.gossiper.recordHeartbeats(mergedStates);
+		}
+	}
+	
 	/**
 	 * Compares the ownMetadata map with the newMetadata map and returns all differences of newMetadata.
 	 * @param ownMetadata own metadata information map
@@ -273,8 +755,7 @@ public abstract class Node {
 	 */
 	private Map<Long, NodeState> determineDifferences(Map<Long, NodeState> ownMetadata, Map<Long, NodeState> newMetadata) {
 		return newMetadata.entrySet().stream()
-			.filter(x -> (!ownMetadata.containsKey(x.getKey())) || 
-					x.getValue().getFields().get("coordinates").getVersion() > ownMetadata.get(x.getKey()).getFields().get("coordinates").getVersion())
+			.filter(x -> x.getValue().isNewerThan(ownMetadata.get(x.getKey())))
 			.collect(Collectors.toMap(x -> x.getKey(), y -> y.getValue()));
 	}
 	
@@ -282,8 +763,12 @@ public abstract class Node {
 	
 	/** Simulates a node failure. */
 	public void fail() {
+		this.failureTime = this.simulator.currentTimeMillis();
 		this.hasFailed.set(true);
 		this.gossiper.interrupt();
+		if(this.membership != null) {
+			this.membership.interrupt();
+		}
 		System.out.println("[ERROR] - NODE FAILURE | NODE: " + this.NODE_ID);
 	}
 	
@@ -294,6 +779,21 @@ public abstract class Node {
 	 */
 	public abstract void reportNodeFailureToSupervisor(Node failedNode, Long NodeID);
 	
+	/**
+	 * Sends a failure report to the supervisor, which starts its failure routine ({@link FailureHandler#startFailureRoutine(Node, Long)}).
+	 * @param supervisor - supervisor which handles the failure
+	 * @param failedNode - node which potentially failed
+	 * @param NodeID - ID of the reporting node
+	 */
+	protected <S extends Node & FailureHandler> void sendFailureReport(S supervisor, Node failedNode, Long NodeID) {
+		if(WireCodec.isEnabled()) {
+			Transport.getInstance().request(this.NODE_ID, supervisor, MessageType.FAILURE_REPORT, 
+					WireCodec.getInstance().encodeFailureReport(failedNode, NodeID));
+		} else {
+			supervisor.startFailureRoutine(failedNode, NodeID);
+		}
+	}
+	
 	//================================  Getter   ===============================================
 	
 	/** @return the ID of the node */
@@ -308,12 +808,27 @@ public abstract class Node {
 
 	/**@return currently available storage capacity [in byte]*/
 	public long getavailableStorage() {
-		return this.availableStorage;
+		return storageOf(this.availableCapacity.get());
 	}
 	
 	/** @return currently available computation capacity [in byte]*/
 	public long getavailableRAM() {
-		return this.availableRAM;
+		return ramOf(this.availableCapacity.get());
+	}
+	
+	/** @return consistent snapshot of both available capacities (see {@link Node#ramOf(long)} and {@link Node#storageOf(long)})*/
+	long getCapacitySnapshot() {
+		return this.availableCapacity.get();
+	}
+	
+	/** @return tasks which are currently executed by the node (read-only view)*/
+	Collection<Task> getInFlightTasks() {
+		return Collections.unmodifiableSet(this.inFlightTasks);
+	}
+	
+	/** @return whether the capacities changed since the last call. The flag is reset by this call. */
+	boolean consumeNodeStateChange() {
+		return this.nodeStateChanged.getAndSet(false);
 	}
 	
 	/** @return the IP address of the node*/
@@ -326,16 +841,48 @@ public abstract class Node {
 		return this.PORT;
 	}
 	
+	/** @return node with the given NODE_ID (null if it is unknown) */
+	public static Node getNodeByID(long nodeID) {
+		return nodeDirectory.get(nodeID);
+	}
+	
 	/** @return currentNodeState */
 	public NodeState getNodeState() {
 		return this.clusterMetaData.get(this.NODE_ID);
 	}
 	
+	/** @return {@link TaskMetrics} of all completed tasks*/
+	public TaskMetrics getTaskMetrics() {
+		return this.taskMetrics;
+	}
+	
+	/** @return all completed tasks (empty if {@link Node#retainTaskHistory} is not set)*/
+	public List<Task> getTaskHistory() {
+		synchronized(this.taskHistory) {
+			return new ArrayList<>(this.taskHistory);
+		}
+	}
+	
+	/** Configures whether all nodes retain their completed tasks ({@link Node#taskHistory}).*/
+	public static void setTaskHistoryRetention(boolean retain) {
+		retainTaskHistory = retain;
+	}
+	
 	/** @return ID of the current edge pool (0 if it is no edge node)*/
 	public int getPoolID() {
 		return this.pool_ID;
 	}
 	
+	/** @return number of tasks which wait in the {@link AdmissionQueue} of the node*/
+	public int getNumberOfWaitingTasks() {
+		return (this.admissionQueue == null) ? 0 : this.admissionQueue.size();
+	}
+	
+	/** @return time of the failure [in milliseconds] (-1 if the node has not failed) */
+	public long getFailureTime() {
+		return this.failureTime;
+	}
+	
 	/** @return if the node is available or not*/
 	public boolean isAvailable() {
 		return !(this.hasFailed.get());
@@ -345,4 +892,28 @@ public abstract class Node {
 	public void increaseMsgSent() {
 		this.msg_sent.incrementAndGet();
 	}
+	
+	/**
+	 * Result of the admission of a task ({@link Node#receiveTask(Task)}).
+	 */
+	public static enum Admission {
+		EXECUTED, QUEUED, REDIRECTED
+	}
+	
+	//================================  Capacity packing   ===============================================
+	
+	/** @return computation and storage capacity packed into one long */
+	static long packCapacity(long ram, long storage) {
+		return (ram << 32) | storage;
+	}
+	
+	/** @return computation capacity of a packed capacity value */
+	static long ramOf(long capacity) {
+		return capacity >>> 32;
+	}
+	
+	/** @return storage capacity of a packed capacity value */
+	static long storageOf(long capacity) {
+		return capacity & MAX_CAPACITY;
+	}
 }
@@ -0,0 +1,161 @@
+package hybrid.nodes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hybrid.Client;
+import hybrid.Statistics;
+import hybrid.nodes.cloud_layer.Cloud;
+import hybrid.nodes.core_network_layer.CNLNode;
+import hybrid.simulation.Simulator;
+import util_objects.Coordinates;
+import util_objects.HexCoordinates;
+
+/**
+ * Routing cache of a node for the contact-node resolution of clients ({@link Node#checkForCloserNode(Coordinates)}). <br>
+ * A {@link Client} only drifts a few units per request, so that its consecutive requests mostly originate from the same geo
+ * cell. The cache maps each geo cell (a {@link HexCoordinates} cell with a center-to-center distance of
+ * {@link RoutingCache#CELL_SIZE}) to the contact node which was resolved for it. Hence, most requests skip the walk through
+ * the hierarchy (e.g. EdgeNode -> CNLNode -> Cloud -> CNLNode -> EdgePool). <br>
+ * A cached route is invalid
+ * <ul>
+ * <li> after its time to live, </li>
+ * <li> if the membership of its region has changed since it was resolved, i.e. if an edge node joined, left or failed
+ * 		within the edge pool cell of the route or one of its six neighbouring cells ({@link RoutingCache#invalidate(Coordinates)}), </li>
+ * <li> if the membership of the core network layer has changed since it was resolved ({@link RoutingCache#invalidateAll()}), </li>
+ * <li> or if the cached node is no longer available. </li>
+ * </ul>
+ * The membership changes are announced by the supervisors of the nodes, i.e. by the {@link Cloud} (hybrid system), by the
+ * CNLNodes and the cloud of the hierarchical benchmark and by the broadcaster of the peer-to-peer benchmark, whose nodes are
+ * all treated as edge nodes.
+ */
+public class RoutingCache {
+
+	/** Configured time to live of a cached route [in milliseconds] (0 disables the routing caches) */
+	private static long timeToLive = 0;
+
+	/** Center-to-center distance of the geo cells. A cell covers several movements of a client (up to 2 units per request),
+	 *  but only a third of the distance between two edge pools, so that the cached contact node is still (nearly) the closest. */
+	public static final double CELL_SIZE = CNLNode.EDGE_POOL_RANGE_CONFIG / 3;
+
+	/** Maximum number of cached routes per node (the least recently used route is evicted) */
+	private static final int MAX_ENTRIES = 1024;
+
+	/** Version of the membership of the core network layer. Routes which were resolved for an older version are invalid. */
+	private static final AtomicLong membershipEpoch = new AtomicLong(0);
+
+	/** Versions of the membership of the regions (cells of the edge pool grid) [stored by their cell]. Routes which were
+	 *  resolved for an older version of their region are invalid. */
+	private static final Map<HexCoordinates, Long> regionEpochs = new ConcurrentHashMap<>();
+
+	/** Cached routes [stored by their geo cell] in access order */
+	private final Map<HexCoordinates, Route> routes = new LinkedHashMap<HexCoordinates, Route>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<HexCoordinates, Route> eldest) {
+			return this.size() > MAX_ENTRIES;
+		}
+	};
+
+	/** {@link Simulator} which provides the (virtual) time */
+	private final Simulator simulator = Simulator.getInstance();
+
+	/** {@link Statistics}*/
+	private final Statistics stats = Statistics.getInstance();
+
+	private RoutingCache() {}
+
+	/**
+	 * Configures the routing caches of all nodes.
+	 * @param ttl - time to live of a cached route [in milliseconds] (0 disables the routing caches)
+	 */
+	public static void configure(long ttl) {
+		timeToLive = ttl;
+	}
+
+	/** @return whether the nodes cache the routes of the clients */
+	public static boolean isEnabled() {
+		return timeToLive > 0;
+	}
+
+	/**
+	 * Creates the routing cache of a node based on the configuration.
+	 * @return new routing cache or null if the routing caches are disabled
+	 */
+	static RoutingCache create() {
+		return isEnabled() ? new RoutingCache() : null;
+	}
+
+	/** Invalidates the cached routes of all nodes (e.g. after a CNLNode joined, left or failed). */
+	public static void invalidateAll() {
+		membershipEpoch.incrementAndGet();
+	}
+
+	/**
+	 * Invalidates the cached routes of all nodes around a position (e.g. after an edge node joined, left or failed there).
+	 * This concerns the edge pool cell of the position and its six neighbouring cells.
+	 * @param position - position of the node which joined, left or failed
+	 */
+	public static void invalidate(Coordinates position) {
+		HexCoordinates region = regionOf(position);
+		regionEpochs.merge(region, 1L, Long::sum);
+		region.getNeighbours().forEach(x -> regionEpochs.merge(x, 1L, Long::sum));
+	}
+
+	/**
+	 * @param position - position of the client
+	 * @return cached contact node for the geo cell of the position (null if there is no valid route)
+	 */
+	public synchronized Node get(Coordinates position) {
+		HexCoordinates cell = HexCoordinates.of(position, CELL_SIZE);
+		Route route = this.routes.get(cell);
+		if(route != null && (route.epoch != membershipEpoch.get() || route.regionEpoch != regionEpochOf(route.region)
+				|| route.expiryTime < this.simulator.currentTimeMillis() || !route.contactNode.isAvailable())) {
+			this.routes.remove(cell);
+			route = null;
+		}
+		this.stats.increaseRuntimeCounter(route == null ? "routing_cache_misses" : "routing_cache_hits");
+		return (route == null) ? null : route.contactNode;
+	}
+
+	/**
+	 * Caches the resolved contact node for the geo cell of the position.
+	 * @param position - position of the client
+	 * @param contactNode - resolved contact node
+	 */
+	public synchronized void put(Coordinates position, Node contactNode) {
+		HexCoordinates region = regionOf(position);
+		this.routes.put(HexCoordinates.of(position, CELL_SIZE), new Route(contactNode, this.simulator.currentTimeMillis() + timeToLive,
+				membershipEpoch.get(), region, regionEpochOf(region)));
+	}
+
+	/** @return region (cell of the edge pool grid) of the position */
+	private static HexCoordinates regionOf(Coordinates position) {
+		return HexCoordinates.of(position, CNLNode.EDGE_POOL_RANGE_CONFIG);
+	}
+
+	/** @return current version of the membership of the region */
+	private static long regionEpochOf(HexCoordinates region) {
+		return regionEpochs.getOrDefault(region, 0L);
+	}
+
+	/** Resolved contact node of a geo cell. */
+	private static class Route {
+		private final Node contactNode;
+		private final long expiryTime;
+		private final long epoch;
+		private final HexCoordinates region;
+		private final long regionEpoch;
+
+		private Route(Node contactNode, long expiryTime, long epoch, HexCoordinates region, long regionEpoch) {
+			this.contactNode = contactNode;
+			this.expiryTime = expiryTime;
+			this.epoch = epoch;
+			this.region = region;
+			this.regionEpoch = regionEpoch;
+		}
+	}
+}
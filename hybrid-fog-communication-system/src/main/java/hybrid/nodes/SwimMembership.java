@@ -0,0 +1,604 @@
+package hybrid.nodes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import hybrid.Statistics;
+import hybrid.network.Transport;
+import hybrid.network.Transport.MessageType;
+import hybrid.network.WireCodec;
+import hybrid.simulation.SimulationProcess;
+import hybrid.simulation.Simulator;
+import util_objects.ClusterMetadataStore;
+import util_objects.MembershipUpdate;
+import util_objects.MembershipUpdate.Status;
+import util_objects.NodeState;
+import util_objects.ProbeAck;
+
+/**
+ * SWIM membership protocol of a node (Das et al., "SWIM: Scalable Weakly-consistent Infection-style Process Group Membership
+ * Protocol", 2002). It is an alternative to the supervised membership, in which the supervisor informs every member about
+ * joins and removals (O(n) messages per change). <br>
+ * In every protocol period, the node pings one member (round-robin over a shuffled member list). If the ping fails, up to
+ * {@link SwimMembership#INDIRECT_PROBES} other members ping the target on its behalf (ping-req). If none of them reaches
+ * the target, it is suspected. A suspected member refutes the suspicion by increasing its incarnation number. Otherwise, the
+ * suspicion is confirmed after a timeout and the member is removed and reported to the supervisor. <br>
+ * Joins, suspicions and removals are piggybacked on the pings and acks. Each update is transmitted
+ * {@link SwimMembership#DISSEMINATION_MULTIPLIER} * log2(n) times, so that it reaches all members within O(log n) periods
+ * without any additional messages. A joining node only contacts a single member.
+ */
+public class SwimMembership implements SimulationProcess {
+
+	/** Configured membership mode of all nodes */
+	private static MembershipMode mode = MembershipMode.SUPERVISED;
+
+	/** Number of members which ping a target on behalf of the node, if the direct ping failed (k) */
+	public static final int INDIRECT_PROBES = 3;
+
+	/** Length of a protocol period [in milliseconds] */
+	public static final long PROTOCOL_PERIOD = 1_000;
+
+	/** Factor of the number of transmissions of an update (lambda), which is multiplied by log2 of the cluster size */
+	private static final int DISSEMINATION_MULTIPLIER = 3;
+
+	/** Factor of the suspicion timeout, which is multiplied by log10 of the cluster size [in protocol periods] */
+	private static final int SUSPICION_MULTIPLIER = 4;
+
+	/** Maximum number of updates which are piggybacked on a single message */
+	private static final int MAX_PIGGYBACKED_UPDATES = 6;
+
+	/** Represents the associated node */
+	private final Node server;
+
+	/** Stores the metadata versions of all nodes in the cluster (confirmed members are removed from it).*/
+	private final ClusterMetadataStore clusterMetaData;
+
+	/** Known members (except the own node) [stored by their NODE_ID]. The insertion order keeps the simulation deterministic. */
+	private final Map<Long, Member> members = new LinkedHashMap<>();
+
+	/** NODE_IDs of the members which were confirmed as failed or left the cluster. Their node states are not merged anymore. */
+	private final Set<Long> deadMembers = ConcurrentHashMap.newKeySet();
+
+	/** Updates which are piggybacked until they were transmitted often enough [stored by the NODE_ID of the member] */
+	private final Map<Long, Dissemination> disseminations = new LinkedHashMap<>();
+
+	/** Order in which the members are probed */
+	private List<Long> probeOrder = new ArrayList<>();
+
+	/** Position of the next probed member in {@link SwimMembership#probeOrder} */
+	private int probeIndex = 0;
+
+	/** Incarnation number of the own node */
+	private long incarnation = 0;
+
+	/** {@link Simulator} which provides the (virtual) time and the (seeded) random generator */
+	private final Simulator simulator = Simulator.getInstance();
+
+	/** Random generator*/
+	private final Random generator = simulator.createRandomGenerator();
+
+	/** {@link Statistics}*/
+	private final Statistics stats = Statistics.getInstance();
+
+	/** {@link WireCodec} which encodes the messages (only if it is enabled) */
+	private final WireCodec codec = WireCodec.getInstance();
+
+	/** Indicates whether the protocol was stopped */
+	private volatile boolean interrupted = false;
+
+	/**
+	 * Creates the SWIM membership of a node.
+	 * @param server - associated node
+	 * @param clusterMetaData - cluster view of the node
+	 */
+	public SwimMembership(Node server, ClusterMetadataStore clusterMetaData) {
+		this.server = server;
+		this.clusterMetaData = clusterMetaData;
+	}
+
+	/**
+	 * Configures the membership protocol of all nodes.
+	 * @param membershipMode - {@link MembershipMode} of the nodes
+	 */
+	public static void configure(MembershipMode membershipMode) {
+		mode = membershipMode;
+	}
+
+	/** @return whether the nodes use the SWIM membership protocol */
+	public static boolean isEnabled() {
+		return mode == MembershipMode.SWIM;
+	}
+
+	@Override
+	public long step() {
+		if(this.interrupted) {
+			return -1;
+		}
+		this.probeNextMember();
+		this.confirmExpiredSuspicions();
+		return PROTOCOL_PERIOD;
+	}
+
+	/** Starts the protocol periods by registering them at the {@link GossipScheduler}. */
+	public void launch() {
+		GossipScheduler.getInstance().register(this, PROTOCOL_PERIOD);
+	}
+
+	/** Stops the protocol. The current period is completed. */
+	public void interrupt() {
+		this.interrupted = true;
+	}
+
+	//------------------------------------------------ Join and leave -----------------------------------------------------------
+
+	/**
+	 * Joins the cluster of the contact node. The own node state is sent to the contact, which disseminates the join and
+	 * replies with its cluster view. All nodes of the view become members.
+	 * @param contact - member of the cluster
+	 */
+	public void join(Node contact) {
+		Map<Long, NodeState> ownState = Collections.singletonMap(this.server.getNodeID(), this.server.getNodeState());
+		Map<Long, NodeState> view;
+		try {
+			view = this.transmitJoin(contact, ownState);
+		} catch (NoSuchElementException e) {
+			System.err.println("[WARN] - NODE " + this.server.getNodeID() + " CANNOT JOIN VIA UNREACHABLE NODE: " + contact.getNodeID());
+			return;
+		}
+		this.server.mergeReceivedNodeStates(view);
+		synchronized(this) {
+			for(Long nodeID : view.keySet()) {
+				if(!nodeID.equals(this.server.getNodeID()) && !this.deadMembers.contains(nodeID)) {
+					this.members.putIfAbsent(nodeID, new Member(Status.ALIVE, 0));
+				}
+			}
+		}
+		this.stats.increaseRuntimeCounter("swim_joins");
+	}
+
+	/**
+	 * Accepts a joining node: Its node state is merged and the join is disseminated.
+	 * @param joiner - joining node
+	 * @param states - node state of the joining node
+	 * @return own cluster view
+	 */
+	public Map<Long, NodeState> acceptJoin(Node joiner, Map<Long, NodeState> states) {
+		this.server.mergeReceivedNodeStates(states);
+		this.applyUpdates(Collections.singletonList(
+				new MembershipUpdate(joiner.getNodeID(), Status.ALIVE, 0, this.server.getNodeID())));
+		return new HashMap<>(this.clusterMetaData.asMap());
+	}
+
+	/**
+	 * Leaves the cluster gracefully: The protocol is stopped and the departure is sent to up to
+	 * {@link SwimMembership#INDIRECT_PROBES} members, which disseminate it. A failed node cannot leave.
+	 */
+	public void leave() {
+		this.interrupt();
+		if(!this.server.isAvailable()) return;
+		List<MembershipUpdate> departure;
+		List<Node> receivers;
+		synchronized(this) {
+			departure = Collections.singletonList(
+					new MembershipUpdate(this.server.getNodeID(), Status.DEAD, this.incarnation, this.server.getNodeID()));
+			receivers = this.chooseRandomMembers(null, INDIRECT_PROBES);
+		}
+		for(Node receiver : receivers) {
+			try {
+				this.transmitPing(receiver, departure);
+			} catch (NoSuchElementException e) {
+				//Another receiver disseminates the departure
+			}
+		}
+		this.stats.increaseRuntimeCounter("swim_leaves");
+	}
+
+	//------------------------------------------------ Failure detection --------------------------------------------------------
+
+	/**
+	 * Pings the next member. If neither the ping nor the indirect pings are acknowledged, the member is suspected.
+	 * Members which could not reach the target either are recorded as witnesses of the suspicion.
+	 */
+	private void probeNextMember() {
+		Node target;
+		List<Node> helpers;
+		synchronized(this) {
+			Long targetID = this.nextProbeTarget();
+			if(targetID == null) return;
+			target = Node.getNodeByID(targetID);
+			helpers = this.chooseRandomMembers(targetID, INDIRECT_PROBES);
+		}
+		try {
+			this.applyUpdates(this.transmitPing(target, this.selectUpdates()));
+			return;
+		} catch (NoSuchElementException e) {
+			//Indirect probing
+		}
+		Set<Long> witnesses = new LinkedHashSet<>();
+		witnesses.add(this.server.getNodeID());
+		for(Node helper : helpers) {
+			try {
+				ProbeAck ack = this.transmitPingRequest(helper, target, this.selectUpdates());
+				this.applyUpdates(ack.getUpdates());
+				if(ack.isAcknowledged()) return;
+				witnesses.add(helper.getNodeID());
+			} catch (NoSuchElementException e) {
+				//The helper is unreachable as well -> it is probed in one of the next periods
+			}
+		}
+		this.suspect(target, witnesses);
+	}
+
+	/**
+	 * Answers a ping: The piggybacked updates are applied and own updates are piggybacked on the ack.
+	 * @param updates - piggybacked updates of the sender
+	 * @return updates which are piggybacked on the ack
+	 */
+	public List<MembershipUpdate> acknowledgePing(List<MembershipUpdate> updates) {
+		this.applyUpdates(updates);
+		return this.selectUpdates();
+	}
+
+	/**
+	 * Pings the target on behalf of another member (ping-req).
+	 * @param target - member which did not acknowledge the direct ping of the sender
+	 * @param updates - piggybacked updates of the sender
+	 * @return whether the target acknowledged the ping and the updates which are piggybacked on the reply
+	 */
+	public ProbeAck pingOnBehalf(Node target, List<MembershipUpdate> updates) {
+		this.applyUpdates(updates);
+		boolean acknowledged;
+		try {
+			this.applyUpdates(this.transmitPing(target, this.selectUpdates()));
+			acknowledged = true;
+		} catch (NoSuchElementException e) {
+			acknowledged = false;
+		}
+		return new ProbeAck(acknowledged, this.selectUpdates());
+	}
+
+	/**
+	 * Suspects a member, if it is not already suspected or removed. The suspicion is disseminated. If the member is already
+	 * suspected, the witnesses are added to the current suspicion.
+	 * @param suspect - member which did not acknowledge any ping
+	 * @param witnesses - NODE_IDs of the nodes which could not reach the member
+	 */
+	private void suspect(Node suspect, Set<Long> witnesses) {
+		synchronized(this) {
+			Member member = this.members.get(suspect.getNodeID());
+			if(member == null) return;
+			if(member.status == Status.SUSPECT) {
+				member.witnesses.addAll(witnesses);
+				return;
+			}
+			if(member.status != Status.ALIVE) return;
+			member.suspect(this.simulator.currentTimeMillis(), witnesses);
+			this.disseminate(new MembershipUpdate(suspect.getNodeID(), Status.SUSPECT, member.incarnation, this.server.getNodeID()));
+		}
+		this.stats.increaseRuntimeCounter("swim_suspicions");
+		if(suspect.isAvailable()) {
+			this.stats.increaseRuntimeCounter("swim_false_suspicions");
+		}
+	}
+
+	/**
+	 * Confirms all suspicions which were not refuted within the suspicion timeout. The confirmed members are removed and
+	 * reported to the supervisor on behalf of this node only. The witnesses are merely logged, because their suspicions may
+	 * be outdated. The further reporters of the supervisor are the other members which confirm the failure on their own
+	 * ({@link SwimMembership#applyUpdates(List)}).
+	 */
+	private void confirmExpiredSuspicions() {
+		Map<Long, Set<Long>> confirmed = new LinkedHashMap<>();
+		synchronized(this) {
+			long now = this.simulator.currentTimeMillis();
+			long timeout = (long) (SUSPICION_MULTIPLIER * Math.max(1, Math.log10(this.members.size() + 1)) * PROTOCOL_PERIOD);
+			for(Map.Entry<Long, Member> entry : this.members.entrySet()) {
+				Member member = entry.getValue();
+				if(member.status == Status.SUSPECT && now - member.suspectedSince >= timeout) {
+					member.witnesses.add(this.server.getNodeID());
+					confirmed.put(entry.getKey(), member.witnesses);
+				}
+			}
+			for(Long nodeID : confirmed.keySet()) {
+				Member member = this.members.get(nodeID);
+				this.remove(nodeID);
+				this.disseminate(new MembershipUpdate(nodeID, Status.DEAD, member.incarnation, this.server.getNodeID()));
+			}
+		}
+		confirmed.forEach((nodeID, witnesses) -> {
+			Node failedNode = Node.getNodeByID(nodeID);
+			this.stats.increaseRuntimeCounter("swim_confirmations");
+			if(failedNode.isAvailable()) {
+				this.stats.increaseRuntimeCounter("swim_false_confirmations");
+			}
+			this.stats.getHistogram("swim_confirmation_witnesses").record(witnesses.size());
+			System.err.println("[WARN] - NODE " + nodeID + " IS CONFIRMED AS FAILED BY: " + this.server.getNodeID() 
+					+ " (WITNESSES: " + witnesses + ")");
+			this.server.reportNodeFailureToSupervisor(failedNode, this.server.getNodeID());
+		});
+	}
+
+	//------------------------------------------------ Dissemination ------------------------------------------------------------
+
+	/**
+	 * Applies received updates according to the precedence of SWIM: A dead member stays dead. Otherwise, an update with a
+	 * higher incarnation number overrides the known status and a suspicion overrides an alive status with the same incarnation.
+	 * Updates which changed the status are disseminated further. A suspicion of the own node is refuted. <br>
+	 * If a member is declared dead, which this node could not reach itself, this node confirms the failure on its own and 
+	 * reports it to the supervisor on behalf of itself.
+	 * @param updates - received updates
+	 */
+	private void applyUpdates(List<MembershipUpdate> updates) {
+		for(Long nodeID : this.applyUpdatesAndCollectOwnConfirmations(updates)) {
+			Node failedNode = Node.getNodeByID(nodeID);
+			this.stats.increaseRuntimeCounter("swim_confirmations");
+			if(failedNode.isAvailable()) {
+				this.stats.increaseRuntimeCounter("swim_false_confirmations");
+			}
+			System.err.println("[WARN] - NODE " + nodeID + " IS CONFIRMED AS FAILED BY: " + this.server.getNodeID());
+			this.server.reportNodeFailureToSupervisor(failedNode, this.server.getNodeID());
+		}
+	}
+
+	/**
+	 * Applies received updates ({@link SwimMembership#applyUpdates(List)}). The reports are left to the caller, so that they
+	 * are not sent while holding the lock.
+	 * @param updates - received updates
+	 * @return NODE_IDs of the dead members which were suspected by this node itself
+	 */
+	private synchronized List<Long> applyUpdatesAndCollectOwnConfirmations(List<MembershipUpdate> updates) {
+		List<Long> ownConfirmations = new ArrayList<>();
+		for(MembershipUpdate update : updates) {
+			long nodeID = update.getMemberID();
+			if(nodeID == this.server.getNodeID()) {
+				if(update.getStatus() == Status.SUSPECT && update.getIncarnation() >= this.incarnation) {
+					this.incarnation = update.getIncarnation() + 1;
+					this.disseminate(new MembershipUpdate(nodeID, Status.ALIVE, this.incarnation, nodeID));
+					this.stats.increaseRuntimeCounter("swim_refutations");
+				}
+				continue;
+			}
+			if(this.deadMembers.contains(nodeID)) continue;
+			Member member = this.members.get(nodeID);
+			switch(update.getStatus()) {
+				case ALIVE:
+					if(member == null) {
+						this.members.put(nodeID, new Member(Status.ALIVE, update.getIncarnation()));
+					} else if(update.getIncarnation() > member.incarnation) {
+						member.status = Status.ALIVE;
+						member.incarnation = update.getIncarnation();
+					} else {
+						continue;
+					}
+					break;
+				case SUSPECT:
+					if(member == null || update.getIncarnation() < member.incarnation) continue;
+					if(member.status == Status.SUSPECT && update.getIncarnation() == member.incarnation) {
+						//Independent suspicion of another node -> additional witness
+						member.witnesses.add(update.getSourceID());
+						continue;
+					}
+					member.incarnation = update.getIncarnation();
+					member.suspect(this.simulator.currentTimeMillis(), Collections.singleton(update.getSourceID()));
+					break;
+				case DEAD:
+					if(member != null && member.status == Status.SUSPECT && member.witnesses.contains(this.server.getNodeID())) {
+						ownConfirmations.add(nodeID);
+					}
+					this.remove(nodeID);
+					break;
+				default:
+					continue;
+			}
+			this.disseminate(update);
+		}
+		return ownConfirmations;
+	}
+
+	/**
+	 * Selects the updates for the next message: The updates which were transmitted least often are preferred. Updates which
+	 * were transmitted {@link SwimMembership#DISSEMINATION_MULTIPLIER} * log2(n) times are dropped.
+	 * @return updates which should be piggybacked
+	 */
+	private synchronized List<MembershipUpdate> selectUpdates() {
+		if(this.disseminations.isEmpty()) return Collections.emptyList();
+		int limit = DISSEMINATION_MULTIPLIER * (32 - Integer.numberOfLeadingZeros(this.members.size() + 1));
+		List<Dissemination> selected = new ArrayList<>(this.disseminations.values());
+		selected.sort(Comparator.comparingInt(x -> x.transmissions));
+		List<MembershipUpdate> updates = new ArrayList<>(Math.min(MAX_PIGGYBACKED_UPDATES, selected.size()));
+		for(Dissemination dissemination : selected.subList(0, Math.min(MAX_PIGGYBACKED_UPDATES, selected.size()))) {
+			updates.add(dissemination.update);
+			if(++dissemination.transmissions >= limit) {
+				this.disseminations.remove(dissemination.update.getMemberID());
+			}
+		}
+		this.stats.getHistogram("swim_piggybacked_updates").record(updates.size());
+		return updates;
+	}
+
+	/** Queues an update for the dissemination. It replaces older updates about the same member. */
+	private void disseminate(MembershipUpdate update) {
+		this.disseminations.put(update.getMemberID(), new Dissemination(update));
+	}
+
+	/** Removes a dead member from the members and from the cluster view. */
+	private void remove(Long nodeID) {
+		this.members.remove(nodeID);
+		this.deadMembers.add(nodeID);
+		this.clusterMetaData.remove(nodeID);
+	}
+
+	/**
+	 * Drops the node states of dead members, so that a removed member is not restored by the gossip of nodes which did not
+	 * learn about its removal yet.
+	 * @param states - received node states [stored by their NODE_ID]
+	 * @return node states of the members which are not dead
+	 */
+	public Map<Long, NodeState> withoutDeadMembers(Map<Long, NodeState> states) {
+		if(this.deadMembers.isEmpty()) return states;
+		Map<Long, NodeState> liveStates = null;
+		for(Long nodeID : states.keySet()) {
+			if(this.deadMembers.contains(nodeID)) {
+				if(liveStates == null) liveStates = new HashMap<>(states);
+				liveStates.remove(nodeID);
+			}
+		}
+		return (liveStates == null) ? states : liveStates;
+	}
+
+	//------------------------------------------------ Transmission -------------------------------------------------------------
+
+	/**
+	 * Sends a ping with piggybacked updates to the target. If the {@link WireCodec} is enabled, it is carried by the {@link Transport}.
+	 * @throws NoSuchElementException if the target has failed
+	 * @return updates which were piggybacked on the ack
+	 */
+	private List<MembershipUpdate> transmitPing(Node target, List<MembershipUpdate> updates) throws NoSuchElementException {
+		this.recordMessage(updates.size());
+		if(!WireCodec.isEnabled()) {
+			return target.receivePing(this.server, updates);
+		}
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), target, MessageType.SWIM_PING,
+				this.codec.encodeMembershipUpdates(updates));
+		return this.codec.decodeMembershipUpdates(reply);
+	}
+
+	/**
+	 * Requests the helper to ping the target (ping-req).
+	 * @throws NoSuchElementException if the helper has failed
+	 * @return reply of the helper
+	 */
+	private ProbeAck transmitPingRequest(Node helper, Node target, List<MembershipUpdate> updates) throws NoSuchElementException {
+		this.recordMessage(updates.size());
+		this.stats.increaseRuntimeCounter("swim_ping_requests");
+		if(!WireCodec.isEnabled()) {
+			return helper.receivePingRequest(this.server, target, updates);
+		}
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), helper, MessageType.SWIM_PING_REQUEST,
+				this.codec.encodePingRequest(target, updates));
+		return this.codec.decodeProbeAck(reply);
+	}
+
+	/**
+	 * Sends the own node state to the contact node of a join.
+	 * @throws NoSuchElementException if the contact node has failed
+	 * @return cluster view of the contact node
+	 */
+	private Map<Long, NodeState> transmitJoin(Node contact, Map<Long, NodeState> ownState) throws NoSuchElementException {
+		this.recordMessage(0);
+		if(!WireCodec.isEnabled()) {
+			return contact.receiveJoinRequest(this.server, ownState);
+		}
+		byte[] reply = Transport.getInstance().request(this.server.getNodeID(), contact, MessageType.SWIM_JOIN,
+				this.codec.encodeStates(ownState));
+		return this.codec.decodeStates(reply);
+	}
+
+	/** Records a sent message of the protocol and its estimated size. */
+	private void recordMessage(int nrOfUpdates) {
+		this.stats.increaseRuntimeCounter("swim_messages");
+		this.stats.getHistogram("swim_message_bytes").record(Long.BYTES + (long) nrOfUpdates * MembershipUpdate.getEstimatedSize());
+	}
+
+	//------------------------------------------------ Util ---------------------------------------------------------------------
+
+	/** @return NODE_ID of the next member which is probed (null if there are no members). A new round-robin order is shuffled
+	 *  after all members were probed, so that every member is probed within n periods. */
+	private Long nextProbeTarget() {
+		if(this.probeIndex >= this.probeOrder.size()) {
+			this.probeOrder = new ArrayList<>(this.members.keySet());
+			Collections.shuffle(this.probeOrder, this.generator);
+			this.probeIndex = 0;
+		}
+		while(this.probeIndex < this.probeOrder.size()) {
+			Long nodeID = this.probeOrder.get(this.probeIndex++);
+			if(this.members.containsKey(nodeID)) return nodeID;
+		}
+		return null;
+	}
+
+	/**
+	 * Chooses random members which are not suspected.
+	 * @param excludedID - NODE_ID of a member which must not be chosen (null if none)
+	 * @param nrOfMembers - maximum number of chosen members
+	 * @return randomly chosen members
+	 */
+	private List<Node> chooseRandomMembers(Long excludedID, int nrOfMembers) {
+		List<Long> candidates = new ArrayList<>();
+		this.members.forEach((nodeID, member) -> {
+			if(member.status == Status.ALIVE && !nodeID.equals(excludedID)) candidates.add(nodeID);
+		});
+		Collections.shuffle(candidates, this.generator);
+		List<Node> chosenMembers = new ArrayList<>(nrOfMembers);
+		for(Long nodeID : candidates.subList(0, Math.min(nrOfMembers, candidates.size()))) {
+			chosenMembers.add(Node.getNodeByID(nodeID));
+		}
+		return chosenMembers;
+	}
+
+	/** @return number of known members (except the own node) */
+	public synchronized int getNumberOfMembers() {
+		return this.members.size();
+	}
+
+	/** Status of a known member */
+	private static class Member {
+
+		/** Current status */
+		private Status status;
+
+		/** Highest known incarnation number */
+		private long incarnation;
+
+		/** Time since which the member is suspected [in milliseconds] */
+		private long suspectedSince = -1;
+
+		/** NODE_IDs of the nodes which could not reach the member during the current suspicion */
+		private Set<Long> witnesses = new HashSet<>();
+
+		private Member(Status status, long incarnation) {
+			this.status = status;
+			this.incarnation = incarnation;
+		}
+
+		/** Marks the member as suspected since the given time. */
+		private void suspect(long now, Set<Long> witnesses) {
+			this.status = Status.SUSPECT;
+			this.suspectedSince = now;
+			this.witnesses = new LinkedHashSet<>(witnesses);
+		}
+	}
+
+	/** Update which is piggybacked on the next messages */
+	private static class Dissemination {
+
+		/** Disseminated update */
+		private final MembershipUpdate update;
+
+		/** Number of transmissions of the update */
+		private int transmissions = 0;
+
+		private Dissemination(MembershipUpdate update) {
+			this.update = update;
+		}
+	}
+
+	/**
+	 * Enum for the configuration of the membership protocol. In the supervised mode, the supervisors inform all members about
+	 * joins and removals. In the SWIM mode, the members detect failures and disseminate changes themselves.
+	 */
+	public static enum MembershipMode {
+		SUPERVISED, SWIM
+	}
+}
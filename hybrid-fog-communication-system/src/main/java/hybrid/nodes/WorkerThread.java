@@ -15,31 +15,57 @@ public class WorkerThread extends Thread {
 	/** Represents the task being performed */
 	private Task task;
 	
+	/** Callback which is invoked after the thread finished (may be null) */
+	private Runnable onFinish;
+	
 	/**
 	 * Creates a new {@link WorkerThread} of a server for a specific task.
 	 * @param server
 	 * @param task
 	 */
 	public WorkerThread(Node server, Task task) {
+		this(server, task, null);
+	}
+	
+	/**
+	 * Creates a new {@link WorkerThread} of a server for a specific task.
+	 * @param server
+	 * @param task
+	 * @param onFinish - callback which is invoked after the thread finished (e.g. to count running threads)
+	 */
+	public WorkerThread(Node server, Task task, Runnable onFinish) {
 		this.server = server;
 		this.task = task;
+		this.onFinish = onFinish;
 	}
 	
 	@Override
 	public void run() {
 		try {
-			//System.out.println("[INFO] - TASK ACCEPTED BY:" + this.server.getNodeID());
-			
-			Thread.sleep(this.task.getRequiredRAM()); //TODO BOOSTER?
-			//System.out.println("[INFO] - APPLICATION DATA PROCESSED");
-			
-			Thread.sleep(this.task.getRequiredStorage());
-			//System.out.println("[INFO] - APPLICATION DATA STORED");
-			
-			this.server.completeTask(task); //Completes task and releases capacities
+			processTask(this.server, this.task);
 		} catch (InterruptedException e) {
 			System.err.println("[INFO] - TASK INTERRUPTED. NODE: " + this.server.getNodeID());
+		} finally {
+			if(this.onFinish != null) this.onFinish.run();
 		}
+	}
+	
+	/**
+	 * Processes a task on the current thread and completes it afterwards.
+	 * @param server - node which accepted the task
+	 * @param task - task which should be processed
+	 * @throws InterruptedException if the processing is interrupted
+	 */
+	public static void processTask(Node server, Task task) throws InterruptedException {
+		//System.out.println("[INFO] - TASK ACCEPTED BY:" + server.getNodeID());
+		task.startProcessing();
+		
+		Thread.sleep(task.getRequiredRAM()); //TODO BOOSTER?
+		//System.out.println("[INFO] - APPLICATION DATA PROCESSED");
+		
+		Thread.sleep(task.getRequiredStorage());
+		//System.out.println("[INFO] - APPLICATION DATA STORED");
 		
+		server.completeTask(task); //Completes task and releases capacities
 	}
 }
@@ -1,20 +1,23 @@
 package hybrid.nodes.cloud_layer;
 
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
 import hybrid.FailureProducer;
 import hybrid.nodes.Node;
+import hybrid.nodes.RoutingCache;
+import hybrid.nodes.SwimMembership;
 import hybrid.nodes.core_network_layer.CNLNode;
 import hybrid.nodes.edge_layer.EdgeNode;
 import util_objects.Task;
 import util_objects.Coordinates;
 import util_objects.FailureHandler;
 import util_objects.Irreplaceable;
+import util_objects.SpatialIndex;
 
 /**
  * Represents the cloud layer. It extends {@link Node} and implements {@link FailureHandler} and {@link Irreplaceable}.<br>
@@ -30,6 +33,9 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 	/** Contains all {@CNLNode} of the system [stored by their corresponding ID]*/
 	private Map<Long, CNLNode> cnlNodes;
 	
+	/** Locations of all {@link CNLNode}s of the system, which are updated on insertion and deletion*/
+	private final SpatialIndex<CNLNode> cnlIndex = new SpatialIndex<>();
+	
 	/** Contains all {@EdgeNode} of the system [stored by their corresponding ID]*/
 	private Map<Long, EdgeNode> edgeNodes;
 	
@@ -82,11 +88,13 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 				cnlNode.insertEdgeNode((EdgeNode) newNode);
 				this.edgeNodes.put(NODE_ID, (EdgeNode) newNode);
 				this.stats.increaseNrOfEdgeNodes();
+				RoutingCache.invalidate(COORDINATES);
 				break;
 			case Core_Network_Layer:
 				newNode = (new CNLNode(IP_ADDRESS, PORT, NODE_ID, COORDINATES, MAX_STORAGE, MAX_RAM, this)).initiateGossip();
 				this.insertCNLNode((CNLNode) newNode);
 				this.stats.increaseNrOfCNLNodes();
+				RoutingCache.invalidateAll();
 				break;
 			default:
 				throw new NoSuchElementException();
@@ -96,18 +104,22 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 	
 	/** Determines the closest CNLNode based on the given coordinates.*/
 	private CNLNode findClosestCNLNode(Coordinates coordinates) {
-		return this.cnlNodes.values().stream()
-					.sorted(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(coordinates)))
-					.findFirst().get();
+		CNLNode closestNode = this.cnlIndex.nearest(coordinates);
+		if(closestNode == null) throw new NoSuchElementException();
+		return closestNode;
 		//1. Determine the average range of a CNLNode (range of edge pools which are managed by it)
 		//2. Find the correct edge pool (has to be done in CNL-Node)
 	}
 	
 	/**
 	 * Inserts a new {@link CNLNode} in the system and informs all other nodes of the cluster about the new node.
+	 * In the SWIM mode, the new node joins via the closest CNLNode, which disseminates the join ({@link SwimMembership}).
 	 * @param node
 	 */
 	private void insertCNLNode(CNLNode node) {
+		if(SwimMembership.isEnabled() && !this.cnlNodes.isEmpty()) {
+			node.joinCluster(this.findClosestCNLNode(node.getCoordinates()));
+		}
 		try {
 			for (CNLNode clusterNode : this.cnlNodes.values()) {
 				clusterNode.addClusterParticipant(node);
@@ -116,6 +128,7 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 			System.err.println("[HINT] - There is no other CNLNode in the cluster");
 		}
 		this.cnlNodes.put(node.getNodeID(), node);
+		this.cnlIndex.insert(node.getNodeID(), node.getCoordinates(), node);
 	}
 
 	/**
@@ -128,11 +141,18 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 			case Edge_Layer:
 				this.findClosestCNLNode(node.getCoordinates()).deleteNode((EdgeNode) node);
 				this.edgeNodes.remove(node.getNodeID());
+				RoutingCache.invalidate(node.getCoordinates());
 				break;
 			case Core_Network_Layer:
 				this.cnlNodes.remove(node.getNodeID());
-				this.cnlNodes.values().forEach(x -> x.removeNodeFromCluster(node.getNodeID()));
+				this.cnlIndex.remove(node.getNodeID());
+				if(SwimMembership.isEnabled()) {
+					node.leaveCluster();
+				} else {
+					this.cnlNodes.values().forEach(x -> x.removeNodeFromCluster(node.getNodeID()));
+				}
 				node.shutdownNode();
+				RoutingCache.invalidateAll();
 				break;
 			default:
 				throw new NoSuchElementException();
@@ -159,12 +179,13 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 		System.out.println("[CLIENT-INFO] Node: " + failedNode.getNodeID() + "has to be checked. It could have failed");
 		if(failedNode instanceof EdgeNode) {
 			this.edgeNodes.remove(failedNode.getNodeID());
+			RoutingCache.invalidate(failedNode.getCoordinates());
 		} else if(failedNode instanceof CNLNode) {
 			this.deleteNode(Layer.Core_Network_Layer, failedNode);
 		} else {
 			throw new RuntimeException("[ERROR] - UNKNOWN NODE");
 		}
-		this.stats.increaseNrOfDetectedNodeFailures();
+		this.stats.increaseNrOfDetectedNodeFailures(failedNode);
 	}	
 	
 	
@@ -184,7 +205,9 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 			}
 			reporterIDs.add(NodeID);
 			if(reporterIDs.size() == 2) {
+				List<Task> inFlightTasks = failedNode.takeOverInFlightTasks();
 				this.reportNodeFailureToSupervisor(failedNode, this.getNodeID());
+				this.requeueTasks(inFlightTasks, findNearestHealthyNode(this.cnlNodes.values(), failedNode));
 			}
 		}
 	}
@@ -197,7 +220,7 @@ public class Cloud extends Node implements FailureHandler, Irreplaceable{
 	/** Starts the distribution of node failures*/
 	public void startDistributingNodeFailures() {
 		failureProducer = FailureProducer.getInstance(edgeNodes, cnlNodes);
-		failureProducer.start();
+		failureProducer.launch();
 	}
 	
 	/**
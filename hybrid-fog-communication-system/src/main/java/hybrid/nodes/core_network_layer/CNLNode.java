@@ -3,12 +3,16 @@ package hybrid.nodes.core_network_layer;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import hybrid.nodes.Node;
+import hybrid.nodes.SwimMembership;
 import hybrid.nodes.cloud_layer.Cloud;
 import hybrid.nodes.edge_layer.EdgeNode;
 import hybrid.nodes.edge_layer.EdgePool;
@@ -16,6 +20,7 @@ import util_objects.Task;
 import util_objects.VersionedValue;
 import util_objects.Coordinates;
 import util_objects.FailureHandler;
+import util_objects.HexCoordinates;
 
 /**
  * Represents a node of the core network layer. It extends {@link Node} and implements {@link FailureHandler}.
@@ -33,6 +38,9 @@ public class CNLNode extends Node implements FailureHandler {
 	/** All edge pools which are maintained by the CNLNode*/
 	private Set<EdgePool> edgePools = new HashSet<EdgePool>();
 	
+	/** Index of {@link CNLNode#edgePools} [stored by their cell of the hexagonal grid]*/
+	private Map<HexCoordinates, EdgePool> edgePoolsByCell = new ConcurrentHashMap<HexCoordinates, EdgePool>();
+	
 	/** Version of the {@link CNLNode#edgePools} field*/
 	private Long versionOfEdgePools = 0L;
 	
@@ -56,38 +64,30 @@ public class CNLNode extends Node implements FailureHandler {
 
 	@Override
 	public void redirectTask(Task task) {
-		try {
-			Node target = this.clusterMetaData.values().stream()
-				.filter(x -> ((long) x.getField("available_ram").getValue()) >= task.getRequiredRAM() &&
-							((long) x.getField("available_storage").getValue()) >= task.getRequiredStorage())
-				.min(Comparator.comparingDouble(x -> x.getAssociatedNode().getCoordinates().getDistance(this.getCoordinates()))).get().getAssociatedNode();
-			if(!target.checkRedirectedTaskRequest(task)) {
-				throw new NoSuchElementException();
-			}
-		} catch (NoSuchElementException e){
+		//Deadline-aware placement within the cluster, otherwise the task is escalated
+		if(!this.placeRedirectedTask(task)) {
 			System.err.println("[ESCALATION] - ESCALATION TO THE CLOUD");
 			this.sendTask(this.supervisor, task);
 			this.stats.increaseNrOfEscalatedTask();
-		}	
+		}
 	}
 	
 	/**
-	 * Inserts a new {@link EdgeNode} in the system. If there is no existing suitable {@link EdgePool}, a new one is created and
-	 * the node is inserted.
+	 * Inserts a new {@link EdgeNode} in the system. The node belongs to the edge pool of the cell of the hexagonal grid which
+	 * contains its position. If there is no existing suitable {@link EdgePool}, a new one is created and the node is inserted.
 	 * @param node new {@link EdgeNode}
 	 */
 	public void insertEdgeNode(EdgeNode node) {	
 		synchronized(this.edgePools) {
-			Coordinates targetPoolCoordinates = this.calculateCenterOfNewEdgePool(node.getCoordinates());
-			try {
-				EdgePool targetPool = this.edgePools.stream()
-					.filter(x -> x.getCenter().equals(targetPoolCoordinates))
-					.findAny().get();
+			HexCoordinates cell = HexCoordinates.of(node.getCoordinates(), EDGE_POOL_RANGE_CONFIG);
+			EdgePool targetPool = this.edgePoolsByCell.get(cell);
+			if(targetPool != null) {
 				targetPool.addNode(node);
-			} catch (NoSuchElementException e) {
+			} else {
 				//The required edge pool has yet to be created
-				EdgePool newPool = new EdgePool(node, targetPoolCoordinates, EDGE_POOL_RANGE_CONFIG); 
+				EdgePool newPool = new EdgePool(node, cell, EDGE_POOL_RANGE_CONFIG); 
 				this.edgePools.add(newPool);
+				this.edgePoolsByCell.put(cell, newPool);
 				newPool.addNode(node);
 				
 				this.updateEdgePoolMetaData();
@@ -95,85 +95,33 @@ public class CNLNode extends Node implements FailureHandler {
 		}
 	}
 	
-	/** Adds newest information about the supervised edge pools to the to the clusterMetaData*/
-	protected void updateEdgePoolMetaData() {
-		synchronized(this.clusterMetaData) {
-			this.clusterMetaData.get(this.getNodeID()).getFields()
-				.put("edge_pools", new VersionedValue<>(new HashSet<>(this.edgePools), this.versionOfEdgePools));
-			this.versionOfEdgePools++;
-		}
+	/**
+	 * Determines the own edge pool which is closest to the given position. Since the cells of the hexagonal grid are the 
+	 * Voronoi regions of the pool centers, this is the pool of the cell which contains the position (constant time). Only if 
+	 * this cell is not supervised by this node, all own pools are compared.
+	 * @param position - geographical position
+	 * @return closest {@link EdgePool}
+	 * @throws NoSuchElementException if the node supervises no edge pools
+	 */
+	private EdgePool findClosestEdgePool(Coordinates position) {
+		EdgePool pool = this.edgePoolsByCell.get(HexCoordinates.of(position, EDGE_POOL_RANGE_CONFIG));
+		if(pool != null) return pool;
+		return this.edgePools.stream()
+			.min(Comparator.comparingDouble(x -> x.getCenter().getDistance(position))).get();
 	}
 	
 	/**
-	 * Calculates the coordinates of a new {@link EdgePool} based on the coordinates of an {@link EdgeNode}, which should be 
-	 * inserted into in this pool.
-	 * Thereby, the intersection of prime meridian and equator is assumed as the origin of a two dimensional coordinates system. 
-	 * @param coordinates of the {@link EdgeNode} which should be inserted in the new {@link EdgePool}
-	 * @return coordinates of the center of the new {@link EdgePool}
+	 * @param pool - edge pool of the hexagonal grid
+	 * @return own edge pools which are adjacent to the given pool on the hexagonal grid
 	 */
-	private Coordinates calculateCenterOfNewEdgePool(Coordinates coordinates) {
-	//----------------------------------------------------------------------------------------------------------------
-		/*Vertical movement parameters on the same horizontal line 
-		==> Origin <_><_> 
-		*/
-			//horizontal distance between two hexagons on the same horizontal line
-			float XMovementPossibility1 =  (float) (Math.cos(Math.toRadians(30)) * EDGE_POOL_RANGE_CONFIG * 2) ; 
-			//vertical movement equals EDGE_POOL_RANGE_CONFIG in this movement scenario
-			float YMovementPossibility1 = EDGE_POOL_RANGE_CONFIG;
-	//----------------------------------------------------------------------------------------------------------------
-		//Radius of the perimeter of the hexagon
-		//Use geometric relations of a regular hexagon @see http://www.mathematische-basteleien.de/sechseck.htm
-		float perimeterRadius = (float) (Math.cos(Math.toRadians(30)) / (EDGE_POOL_RANGE_CONFIG / 2));
-		
-		//Calculate position of potential suitable edge pool center
-		float nrOfPassedHorizontalHexagons = coordinates.getX() / XMovementPossibility1;
-		float potentialXCoordinate = (Math.round(nrOfPassedHorizontalHexagons) * XMovementPossibility1);
-		float xDeviation = coordinates.getX() - potentialXCoordinate;
-		
-		float nrOfPassedVerticalHexagons = coordinates.getY() / YMovementPossibility1;
-		float potentialYCoordinate = (Math.round(nrOfPassedVerticalHexagons) * YMovementPossibility1);
-		float yDeviation = coordinates.getY() - potentialYCoordinate;
-		
-		//Coordinates of the center of the potential edge pool
-		Coordinates potentialCoordinates = new Coordinates(potentialXCoordinate, potentialYCoordinate);
-		
-		//Calculate the distance between the potential center of the pool and the position of the node
-		float distanceToCenter = (float) potentialCoordinates.getDistance(coordinates);
-		double angle = Math.atan(Math.abs(yDeviation) / Math.abs(xDeviation)); //positive angle
-		angle = Math.toDegrees(angle);
-		
-		while(angle > 30) {
-			angle -= 30;
-		}
-		
-		//Calculate maximum radius of the hexagon for the given angle.
-		double criticalRadius = (perimeterRadius - EDGE_POOL_RANGE_CONFIG /2) / 30 * angle + EDGE_POOL_RANGE_CONFIG /2;
-		
-		if (criticalRadius > distanceToCenter) {
-			return potentialCoordinates;
-		} else {
-			//Corner cases, i.e. the borders of the regular hexagon are exceeded
-			//Use the fact that a regular hexagon can be formed from six equilateral triangles
-			if(Math.abs(xDeviation) <= 0.5 * perimeterRadius && yDeviation >= EDGE_POOL_RANGE_CONFIG /2) { 
-				//UP
-				return new Coordinates(potentialXCoordinate, potentialYCoordinate + EDGE_POOL_RANGE_CONFIG);
-			} else if(xDeviation > 0.5 * perimeterRadius && yDeviation >= 0) { 
-				//UP_RIGHT
-				return new Coordinates(potentialXCoordinate + 2 * perimeterRadius, potentialYCoordinate + EDGE_POOL_RANGE_CONFIG / 2);
-			} else if (xDeviation < -0.5 * perimeterRadius && yDeviation >= 0) {
-				//UP_LEFT
-				return new Coordinates(potentialXCoordinate - 2 * perimeterRadius, potentialYCoordinate + EDGE_POOL_RANGE_CONFIG / 2);
-			} else if (Math.abs(xDeviation) <= 0.5 * perimeterRadius && yDeviation <= -EDGE_POOL_RANGE_CONFIG /2) {
-				//DOWN
-				return new Coordinates(potentialXCoordinate, potentialYCoordinate - EDGE_POOL_RANGE_CONFIG);
-			} else if (xDeviation > 0.5 * perimeterRadius && yDeviation <= 0) {
-				//DOWN_RIGHT
-				return new Coordinates(potentialXCoordinate + 2 * perimeterRadius, potentialYCoordinate - EDGE_POOL_RANGE_CONFIG / 2);
-			} else {
-				//DOWN_LEFT --> xDeviation < -0.5 * perimeterRadius && yDeviation <= 0
-				return new Coordinates(potentialXCoordinate - 2 * perimeterRadius, potentialYCoordinate - EDGE_POOL_RANGE_CONFIG / 2);
-			}
-		}
+	public Set<EdgePool> getNeighbourPools(EdgePool pool) {
+		return pool.getNeighbourCells().stream().map(this.edgePoolsByCell::get).filter(Objects::nonNull).collect(Collectors.toSet());
+	}
+	
+	/** Adds newest information about the supervised edge pools to the to the clusterMetaData (as new version of the node state)*/
+	protected synchronized void updateEdgePoolMetaData() {
+		this.gossiper.updateNodeState("edge_pools", new VersionedValue<>(new HashSet<>(this.edgePools), this.versionOfEdgePools));
+		this.versionOfEdgePools++;
 	}
 	
 	/**
@@ -189,6 +137,9 @@ public class CNLNode extends Node implements FailureHandler {
 			newNode.receiveEdgePools(reassignablePools);
 		}
 		this.edgePools.removeAll(reassignablePools);
+		reassignablePools.forEach(x -> this.edgePoolsByCell.remove(x.getCell(), x));
+		//Another pool of the same cell (e.g. received from a failed node) takes over the index entry
+		this.edgePools.forEach(x -> this.edgePoolsByCell.putIfAbsent(x.getCell(), x));
 		}
 	}
 	
@@ -199,17 +150,18 @@ public class CNLNode extends Node implements FailureHandler {
 	private void receiveEdgePools(Set<EdgePool> newPools) {
 		synchronized(this.edgePools) {
 			this.edgePools.addAll(newPools);
+			newPools.forEach(x -> this.edgePoolsByCell.putIfAbsent(x.getCell(), x));
 		}
 		newPools.forEach(x -> x.changeSupervisor(this));
 	}
 	
 	/**
-	 * Registers a new cluster participant in cluster clusterMetaData
-	 * @param nodeID - ID of the new node
-	 * @param metaData - metadata information of the new node
+	 * Registers a new cluster participant in cluster clusterMetaData and hands over the edge pools which are closer to it.
+	 * In the SWIM mode, the participant is disseminated by the {@link SwimMembership} instead.
+	 * @param node - new CNLNode
 	 */
 	public void addClusterParticipant(CNLNode node) {
-		synchronized(this.clusterMetaData) {
+		if(!SwimMembership.isEnabled()) {
 			this.clusterMetaData.put(node.getNodeID(), node.getNodeState());
 		}
 		this.reassignEdgePoolsAfterInsertion(node);
@@ -221,8 +173,7 @@ public class CNLNode extends Node implements FailureHandler {
 	 */
 	public void deleteNode(EdgeNode node) {
 		try {
-		EdgePool targetPool = this.edgePools.stream()
-				.min(Comparator.comparingDouble(x -> x.getCenter().getDistance(node.getCoordinates()))).get();
+		EdgePool targetPool = this.findClosestEdgePool(node.getCoordinates());
 		targetPool.removeNode(node);
 		} catch (NoSuchElementException e) {
 			System.err.println(e);
@@ -233,7 +184,7 @@ public class CNLNode extends Node implements FailureHandler {
 	
 	@Override
 	public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {
-		this.supervisor.startFailureRoutine(failedNode, NodeID);
+		this.sendFailureReport(this.supervisor, failedNode, NodeID);
 	}
 
 	@Override
@@ -251,20 +202,36 @@ public class CNLNode extends Node implements FailureHandler {
 			}
 			reporterIDs.add(NodeID);
 			if(reporterIDs.size() == 2) {
+				List<Task> inFlightTasks = failedNode.takeOverInFlightTasks();
 				this.deleteNode((EdgeNode) failedNode);
 				this.supervisor.reportNodeFailureToSupervisor(failedNode, NodeID);
 				System.err.println("[INFO] - NODE FAILURE DETECTED. REMOVED NODE:" + failedNode.getNodeID());
+				this.requeueTasks(inFlightTasks, this.findNearestHealthyEdgeNode(failedNode));
 			}
 		}
 	}
 	
+	/**
+	 * Determines the nearest healthy {@link EdgeNode} (of the own edge pools) to a failed node.
+	 * @param failedNode - failed node
+	 * @return nearest healthy edge node or null if there is none
+	 */
+	private Node findNearestHealthyEdgeNode(Node failedNode) {
+		try {
+			Node target = this.findClosestEdgePool(failedNode.getCoordinates()).findClosestEdgeNode(failedNode.getCoordinates());
+			return (target != failedNode && target.isAvailable()) ? target : null;
+		} catch (NoSuchElementException e) {
+			return null;
+		}
+	}
+	
 	/**
 	 * It reassigns the edge pools which were supervised by the failed {@link CNLNode} to the other nodes of the cluster.
 	 * @param failedNode
 	 */
 	public void reassignEdgePoolsAfterFailure (CNLNode failedNode) {
 		@SuppressWarnings("unchecked")
-		Set<EdgePool> pools = (Set<EdgePool>) this.clusterMetaData.get(failedNode.getNodeID()).getField("edge_pools").getValue();
+		Set<EdgePool> pools = (Set<EdgePool>) this.clusterMetaData.get(failedNode.getNodeID()).getExtension("edge_pools").getValue();
 		Set<Node> allCnlNodes = this.clusterMetaData.values().stream().map(x -> x.getAssociatedNode()).collect(Collectors.toSet());
 		CNLNode receiver; 
 		System.err.println("REASSIGN EDGE POOLS!");
@@ -284,13 +251,9 @@ public class CNLNode extends Node implements FailureHandler {
 	//----------------------------------------------- Client ------------------------------------------------------------
 	@Override
 	public Node checkForCloserNode(Coordinates clientPosition) {
-		CNLNode closerCNLNode = (CNLNode) this.clusterMetaData.values().stream()
-			.map(x -> x.getAssociatedNode())
-			.min(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(clientPosition)))
-			.get();
+		CNLNode closerCNLNode = (CNLNode) this.clusterMetaData.getSpatialIndex().nearest(clientPosition);
 		try {
-			return closerCNLNode.edgePools.stream().min(Comparator.comparingDouble(x -> x.getCenter().getDistance(clientPosition)))
-				.get().findClosestEdgeNode(clientPosition);
+			return closerCNLNode.findClosestEdgePool(clientPosition).findClosestEdgeNode(clientPosition);
 		} catch (NoSuchElementException e) {
 			//Case that there are no edge nodes which are supervised by the closest CNL Node
 			System.err.println("[INFO] - The closest CNLNodes has no edge pools.");
@@ -1,7 +1,5 @@
 package hybrid.nodes.edge_layer;
 
-import java.util.Comparator;
-import java.util.NoSuchElementException;
 
 import hybrid.nodes.Node;
 import hybrid.nodes.core_network_layer.CNLNode;
@@ -21,6 +19,9 @@ public class EdgeNode extends Node{
 	/** Represents the radius of the corresponding pool*/
 	private float poolRadius;
 	
+	/** {@link EdgePool} which contains the edge node (its members are the neighbours for work stealing)*/
+	private EdgePool pool = null;
+	
 	public EdgeNode(String IP_ADDRESS, int PORT, long NODE_ID, Coordinates COORDINATES, long MAX_STORAGE, long MAX_RAM, CNLNode supervisor) {
 		super(IP_ADDRESS, PORT, NODE_ID, COORDINATES, MAX_STORAGE, MAX_RAM);
 		this.supervisor = supervisor;
@@ -29,17 +30,8 @@ public class EdgeNode extends Node{
 
 	@Override
 	public void redirectTask(Task task) {
-		try {
-			Node target = this.clusterMetaData.values().stream()
-				.filter(x -> ((long) x.getField("available_ram").getValue()) >= task.getRequiredRAM() &&
-							((long) x.getField("available_storage").getValue()) >= task.getRequiredStorage())
-				.min(Comparator.comparingDouble(x -> x.getAssociatedNode().getCoordinates().getDistance(this.getCoordinates()))).get().getAssociatedNode();
-				
-			//Check the capacities of the target node
-			if(!target.checkRedirectedTaskRequest(task)) {
-				throw new NoSuchElementException();
-			}
-		} catch (NoSuchElementException e){
+		//Deadline-aware placement within the cluster, otherwise the task is escalated
+		if(!this.placeRedirectedTask(task)) {
 			System.err.println("[ESCALATION] - ESCALATION TO THE CLOUD");
 			this.sendTask(this.supervisor, task);
 			this.stats.increaseNrOfEscalatedTask();
@@ -58,14 +50,12 @@ public class EdgeNode extends Node{
 	 * @param metaData - metadata information of the new node
 	 */
 	public void addClusterParticipant(Long nodeID, NodeState metaData) {
-		synchronized(this.clusterMetaData) {
-			this.clusterMetaData.put(nodeID, metaData);
-		}
+		this.clusterMetaData.put(nodeID, metaData);
 	}
 
 	@Override
 	public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {
-		this.supervisor.startFailureRoutine(failedNode, NodeID);
+		this.sendFailureReport(this.supervisor, failedNode, NodeID);
 	}
 	
 	/** Stores the ID of the edge pool to which the edge node belongs.
@@ -82,15 +72,24 @@ public class EdgeNode extends Node{
 			return this;
 		} else if (distanceToNode > (this.poolRadius / 2) && distanceToNode <= this.poolRadius) {
 			//No Catch clause because at least this node is contained in the metadata
-			return this.clusterMetaData.values().stream()
-					.map(x -> x.getAssociatedNode())
-					.min(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(clientPosition)))
-					.get();
+			return this.clusterMetaData.getSpatialIndex().nearest(clientPosition);
 		}
 		Node closerNode = this.supervisor.checkForCloserNode(clientPosition);
 		return (closerNode == null) ? this : closerNode;
 	}
 	
+	@Override
+	protected void stealTasks() {
+		if(this.pool != null && this.isAvailable() && this.getNumberOfWaitingTasks() == 0) {
+			this.pool.stealTasksFor(this);
+		}
+	}
+	
+	/** Setter for {@link EdgeNode#pool} */
+	void setPool(EdgePool pool) {
+		this.pool = pool;
+	}
+	
 	/** Setter for {@link EdgeNode#poolRadius} */
 	public void setPoolDistance(float poolRadius) {
 		this.poolRadius = poolRadius;
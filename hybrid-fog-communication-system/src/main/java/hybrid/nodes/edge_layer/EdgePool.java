@@ -1,20 +1,27 @@
 package hybrid.nodes.edge_layer;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import hybrid.nodes.SwimMembership;
 import hybrid.nodes.core_network_layer.CNLNode;
 import util_objects.Coordinates;
+import util_objects.HexCoordinates;
 
 /**This class represents an edge pool. An edge pool is a set of {@link EdgeNode}s which are 
- * collected based on their geographical proximity. An edge pool exhibits a hexagonal form. */
+ * collected based on their geographical proximity. An edge pool exhibits a hexagonal form. <br>
+ * The top-level edge pools of a {@link CNLNode} are the cells of a hexagonal grid and addressed by their
+ * {@link HexCoordinates}. Subpools are not part of the grid. */
 public class EdgePool {
 	
 	/** All edge nodes of the corresponding edge pool*/
@@ -26,11 +33,21 @@ public class EdgePool {
 	/** All subpools of the current edge pool. <br>
 	 * If an edge pool exceeds the limit of 30 edge nodes it is split into 7 new (sub) edge pools. 
 	 * [one per edge of the current pool] */
-	private Set<EdgePool> subpools = null;
+	private volatile Set<EdgePool> subpools = null;
+	
+	/** Edge pool which was split into this subpool (null for top-level pools) */
+	private EdgePool parent = null;
+	
+	/** Leaves of the subpool tree of this pool ({@link EdgePool#getAllSubpools()}). It is only replaced (copy-on-write) by
+	 *  {@link EdgePool#splitPool} of this pool or of any descendant. */
+	private volatile Set<EdgePool> leaves = Collections.singleton(this);
 	
 	/** Marks the central point of the edge pool*/
 	private final Coordinates CENTER;
 	
+	/** Cell of the hexagonal grid which is covered by the edge pool (null for subpools) */
+	private final HexCoordinates CELL;
+	
 	/** Represents the distance to the next edge pool [from center to center] */
 	private final float DISTANCE_TO_OTHER_EDGE_POOL;
 	
@@ -40,28 +57,39 @@ public class EdgePool {
 	/** ID of the edge pool */
 	private int poolID;
 	
+	/** All created edge pools [stored by their ID]. It resolves the pool IDs of received messages. */
+	private static Map<Integer, EdgePool> poolDirectory = new ConcurrentHashMap<>();
+	
 	/**
 	 * Creates a new {@link EdgePool} based on the given coordinates of the pools center and its distance to other edge pools.
 	 * @param center - {@link EdgePool#CENTER} of the edge pool
 	 * @param distanceToOtherEdgePool - {@link EdgePool#DISTANCE_TO_OTHER_EDGE_POOL}
 	 */
 	public EdgePool(Coordinates center, float distanceToOtherEdgePool) {
-		this.CENTER = center;
-		this.DISTANCE_TO_OTHER_EDGE_POOL = distanceToOtherEdgePool;
-		this.edgeNodes = new HashSet<EdgeNode>(MAXIMUM_POOL_SIZE);
-		this.poolID = poolIDCounter.getAndIncrement();
+		this(null, center, distanceToOtherEdgePool);
 	}
 	
 	/**
-	 * Creates a new {@link EdgePool} based on the given coordinates of the pools center and its distance to other edge pools.
-	 * @param center - {@link EdgePool#CENTER} of the edge pool
+	 * Creates a new {@link EdgePool} which covers a cell of the hexagonal grid.
 	 * @param edgeNode - first {@link EdgeNode} of the edge pool
+	 * @param cell - {@link EdgePool#CELL} of the edge pool
 	 * @param distanceToOtherEdgePool - {@link EdgePool#DISTANCE_TO_OTHER_EDGE_POOL}
 	 */
-	public EdgePool(EdgeNode edgeNode, Coordinates center, float distanceToOtherEdgePool) {
-		this(center, distanceToOtherEdgePool);
+	public EdgePool(EdgeNode edgeNode, HexCoordinates cell, float distanceToOtherEdgePool) {
+		this(cell, cell.getCenter(distanceToOtherEdgePool), distanceToOtherEdgePool);
 		this.edgeNodes.add(edgeNode);
 		edgeNode.setPoolID(this.poolID);
+		edgeNode.setPool(this);
+	}
+	
+	/** Creates a new {@link EdgePool} with the given cell (null for subpools), center and distance to other edge pools. */
+	private EdgePool(HexCoordinates cell, Coordinates center, float distanceToOtherEdgePool) {
+		this.CELL = cell;
+		this.CENTER = center;
+		this.DISTANCE_TO_OTHER_EDGE_POOL = distanceToOtherEdgePool;
+		this.edgeNodes = new HashSet<EdgeNode>(MAXIMUM_POOL_SIZE);
+		this.poolID = poolIDCounter.getAndIncrement();
+		poolDirectory.put(this.poolID, this);
 	}
 	
 	
@@ -70,16 +98,27 @@ public class EdgePool {
 	 * @param edgeNode - {@link EdgeNode} which should be added to the pool
 	 */
 	public void addNode(EdgeNode edgeNode) {
+		EdgePool leaf = this.findClosestSubPool(edgeNode.getCoordinates());
+		if(leaf != this) {
+			//A split pool only forwards new nodes to its closest subpool
+			leaf.addNode(edgeNode);
+			return;
+		}
 		synchronized(this.edgeNodes) {
-			if(this.edgeNodes.size() == MAXIMUM_POOL_SIZE) {
+			if(this.subpools != null) {
+				//The pool was split after the lookup above, so that the node belongs to one of its subpools
+				leaf = this.findClosestSubPool(edgeNode.getCoordinates());
+			} else if(this.edgeNodes.size() == MAXIMUM_POOL_SIZE) {
 				this.splitPool(edgeNode); //Invokes addNode on the subpools for each node
 			} else {
 				this.updateClusterMetadata(edgeNode);
 				this.edgeNodes.add(edgeNode);
 				edgeNode.setPoolID(this.poolID);
+				edgeNode.setPool(this);
 				edgeNode.setPoolDistance(DISTANCE_TO_OTHER_EDGE_POOL / 2);
 			}
 		}
+		if(leaf != this) leaf.addNode(edgeNode);
 	}
 	
 	/**
@@ -87,20 +126,32 @@ public class EdgePool {
 	 * @param edgeNode - {@link EdgeNode} which should be added to the pool
 	 */
 	private void splitPool(EdgeNode edgeNode) {
-		this.subpools = new HashSet<EdgePool>(7);
+		Set<EdgePool> subpools = new HashSet<EdgePool>(7);
 		float newDistance = this.DISTANCE_TO_OTHER_EDGE_POOL / 4; //new distance from center to center
-		this.subpools.add(new EdgePool(this.CENTER, newDistance));
+		subpools.add(new EdgePool(this.CENTER, newDistance));
 		
 		Coordinates newCenter;
 		for(Direction direction : Direction.values()) { //Creates remaining sub edge pool according to their direction
 			newCenter = this.calculateCenterOfSubPool(direction, newDistance);
-			this.subpools.add(new EdgePool(newCenter, newDistance));
+			subpools.add(new EdgePool(newCenter, newDistance));
+		}
+		subpools.forEach(x -> x.parent = this);
+		this.subpools = subpools;
+		//Replaces this pool by its subpools in the leaves of this pool and of all its ancestors
+		EdgePool root = this;
+		while(root.parent != null) root = root.parent;
+		synchronized(root) {
+			for(EdgePool pool = this; pool != null; pool = pool.parent) {
+				Set<EdgePool> leaves = new HashSet<EdgePool>(pool.leaves);
+				leaves.remove(this);
+				leaves.addAll(subpools);
+				pool.leaves = Collections.unmodifiableSet(leaves);
+			}
 		}
 		//-------------------------------------------------------------------------------------------------------------
 		//Distributes the edge nodes among the newly created (sub) edge pools based on their geographical proximity
-		Set<EdgePool> subpools = this.getAllSubpools();
 		for(EdgeNode node : this.edgeNodes) {
-			this.findClosestSubPool(node.getCoordinates(), subpools).addNode(node);
+			this.findClosestSubPool(node.getCoordinates()).addNode(node);
 		}
 		this.edgeNodes.clear();
 		//-------------------------------------------------------------------------------------------------------------
@@ -147,24 +198,18 @@ public class EdgePool {
 	}
 	
 	/**
-	 * Determines the closest (sub) edge pool based on the passed coordinates. 
+	 * Determines the closest (sub) edge pool based on the passed coordinates. The subpool tree is descended from this pool
+	 * by choosing the closest of the seven subpools on each level, so that the lookup costs O(depth) instead of O(leaves).
+	 * This is also the way in which the nodes are distributed among the subpools.
 	 * @param coordinates - location of the target
-	 * @return closest {@link EdgePool}
+	 * @return closest {@link EdgePool} without subpools (this pool if it is not split)
 	 */
 	private EdgePool findClosestSubPool(Coordinates coordinates) {
-		Set<EdgePool> targetPools = this.getAllSubpools();
-		return this.findClosestSubPool(coordinates, targetPools);
-	}
-	
-	/**
-	 * Determines the closest (sub) edge pool out of the given edge pools based on the passed coordinates. 
-	 * This is used as performance improvement in {@link EdgePool#distributeNodes()} .
-	 * @param coordinates - location of the target
-	 * @param targetPools - search set
-	 * @return closest {@link EdgePool}
-	 */
-	private EdgePool findClosestSubPool(Coordinates coordinates, Set<EdgePool> searchSet) {
-		return searchSet.stream().min(Comparator.comparingDouble(x -> x.getCenter().getDistance(coordinates))).get();
+		EdgePool pool = this;
+		for(Set<EdgePool> children = pool.subpools; children != null; children = pool.subpools) {
+			pool = children.stream().min(Comparator.comparingDouble(x -> x.getCenter().getDistance(coordinates))).get();
+		}
+		return pool;
 	}
 	
 	/**
@@ -179,13 +224,40 @@ public class EdgePool {
 	}
 	
 	/**
-	 * Removes a single node from the edge pool.
+	 * Lets an idle member of the pool take over waiting tasks of the other pool members (work stealing). The most loaded
+	 * members are relieved first.
+	 * @param thief - idle {@link EdgeNode} of this pool
+	 */
+	public void stealTasksFor(EdgeNode thief) {
+		//The queue lengths are captured once, because they change concurrently
+		List<Map.Entry<EdgeNode, Integer>> victims = new ArrayList<>();
+		synchronized(this.edgeNodes) {
+			for(EdgeNode node : this.edgeNodes) {
+				int waitingTasks = node.getNumberOfWaitingTasks();
+				if(node != thief && waitingTasks > 0) {
+					victims.add(new AbstractMap.SimpleEntry<>(node, waitingTasks));
+				}
+			}
+		}
+		victims.sort(Map.Entry.<EdgeNode, Integer>comparingByValue().reversed());
+		for(Map.Entry<EdgeNode, Integer> victim : victims) {
+			victim.getKey().handOverWaitingTasks(thief);
+		}
+	}
+	
+	/**
+	 * Removes a single node from the edge pool. In the SWIM mode, the node announces its departure itself 
+	 * ({@link SwimMembership}). A failed node is removed by the members which confirmed its failure.
 	 * @param node
 	 */
 	public void removeNode(EdgeNode node) {
-		EdgePool targetPool = this.findClosestSubPool(node.getCoordinates());
-		for(EdgeNode e : targetPool.edgeNodes) {
-			e.removeNodeFromCluster(node.getNodeID());
+		if(SwimMembership.isEnabled()) {
+			node.leaveCluster();
+		} else {
+			EdgePool targetPool = this.findClosestSubPool(node.getCoordinates());
+			for(EdgeNode e : targetPool.edgeNodes) {
+				e.removeNodeFromCluster(node.getNodeID());
+			}
 		}
 		node.shutdownNode();
 	}
@@ -202,6 +274,13 @@ public class EdgePool {
 	
 	/** Updates the metadata of an existing node in the cluster.*/
 	private void updateClusterMetadata(EdgeNode node) {
+		if(SwimMembership.isEnabled()) {
+			//The node joins via the closest member, which disseminates the join
+			this.edgeNodes.stream().filter(x -> x != node)
+				.min(Comparator.comparingDouble(x -> x.getCoordinates().getDistance(node.getCoordinates())))
+				.ifPresent(contact -> node.joinCluster(contact));
+			return;
+		}
 		//Informs all other node of the cluster about the new node
 		for (EdgeNode clusterNode : this.edgeNodes) {
 			clusterNode.addClusterParticipant(node.getNodeID(), node.getNodeState());
@@ -228,32 +307,39 @@ public class EdgePool {
 		return this.edgeNodes.size();
 	}
 	
+	/** @return ID of the pool*/
+	public int getPoolID() {
+		return this.poolID;
+	}
+	
+	/** @return edge pool with the given ID (null if it is unknown) */
+	public static EdgePool getPoolByID(int poolID) {
+		return poolDirectory.get(poolID);
+	}
+	
 	/** @return geographical center of the pool*/
 	public Coordinates getCenter() {
 		return this.CENTER;
 	}
 	
+	/** @return cell of the hexagonal grid which is covered by the pool (null for subpools) */
+	public HexCoordinates getCell() {
+		return this.CELL;
+	}
+	
+	/** @return cells of the six neighbouring edge pools (empty for subpools) */
+	public List<HexCoordinates> getNeighbourCells() {
+		return (this.CELL == null) ? new ArrayList<>() : this.CELL.getNeighbours();
+	}
+	
 	/** @return {@link EdgePool#DISTANCE_TO_OTHER_EDGE_POOL}*/
 	public double getDistanceToOtherEdgePool() {
 		return this.DISTANCE_TO_OTHER_EDGE_POOL;
 	}
 	
-	/**@return all (direct and indirect) children egde pools */
+	/**@return all (direct and indirect) children egde pools without subpools */
 	private Set<EdgePool> getAllSubpools() {
-		Set<EdgePool> targetPools = new HashSet<EdgePool>();
-		Queue<EdgePool> currentLayer = new LinkedList<EdgePool>();
-		currentLayer.add(this);
-		EdgePool pool;
-		
-		while(!currentLayer.isEmpty()) {
-			pool = currentLayer.poll();
-			if(pool.subpools != null) {
-				currentLayer.addAll(pool.subpools);
-			} else {
-				targetPools.add(pool);	
-			}
-		}
-		return targetPools;
+		return this.leaves;
 	}
 	
 	//================================  STATS   ===============================================
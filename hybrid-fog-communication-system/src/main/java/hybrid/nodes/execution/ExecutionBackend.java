@@ -0,0 +1,229 @@
+package hybrid.nodes.execution;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hybrid.Statistics;
+import hybrid.nodes.Node;
+import hybrid.nodes.WorkerThread;
+import hybrid.simulation.Simulator;
+import util_objects.Task;
+
+/**
+ * Executes the tasks which were accepted by a {@link Node}. The concrete backend is chosen by {@link ExecutionMode}, so that
+ * throughput and memory consumption of the different execution strategies can be compared. <br>
+ * Every backend tracks its queue depth and its number of threads and stores them in the {@link Statistics} on shutdown. <br>
+ * The capacities of a task are reserved before it is handed over to the backend. The time which a task waits for a worker 
+ * thread of a pool is measured separately ({@link Task#getWorkerWait()}).
+ */
+public abstract class ExecutionBackend {
+
+	/** Singleton instance */
+	private static ExecutionBackend singleton = null;
+
+	/** {@link Statistics}*/
+	protected Statistics stats = Statistics.getInstance();
+
+	/** Execution mode of the backend */
+	private final ExecutionMode mode;
+
+	/** Number of submitted tasks */
+	private AtomicLong submittedTasks = new AtomicLong(0);
+
+	/** Maximum observed queue depth */
+	private AtomicInteger peakQueueDepth = new AtomicInteger(0);
+
+	/** Maximum observed number of threads */
+	private AtomicInteger peakThreadCount = new AtomicInteger(0);
+
+	/**
+	 * Creates a new backend.
+	 * @param mode - {@link ExecutionMode} of the backend
+	 */
+	protected ExecutionBackend(ExecutionMode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Singleton method to get the execution backend. If no backend was configured, the {@link SimulatedBackend} is used in
+	 * discrete-event mode and the {@link ThreadPerTaskBackend} otherwise.
+	 * @return execution backend
+	 */
+	public static synchronized ExecutionBackend getInstance() {
+		if(singleton == null) {
+			singleton = create(Simulator.getInstance().isEnabled() ? ExecutionMode.SIMULATED : ExecutionMode.THREAD_PER_TASK);
+		}
+		return singleton;
+	}
+
+	/**
+	 * Replaces the execution backend. This has to be done before the first task is executed.
+	 * @param mode - {@link ExecutionMode} of the new backend
+	 * @return the new backend
+	 */
+	public static synchronized ExecutionBackend configure(ExecutionMode mode) {
+		singleton = create(mode);
+		return singleton;
+	}
+
+	/** Factory method for all execution backends */
+	private static ExecutionBackend create(ExecutionMode mode) {
+		switch(mode) {
+			case THREAD_PER_TASK:
+				return new ThreadPerTaskBackend();
+			case SHARED_POOL:
+				return new SharedPoolBackend();
+			case PER_NODE_POOL:
+				return new PerNodePoolBackend();
+			case VIRTUAL_THREADS:
+				return new VirtualThreadBackend();
+			case SIMULATED:
+				return new SimulatedBackend();
+			default:
+				throw new IllegalArgumentException("[ERROR] - UNKNOWN EXECUTION MODE: " + mode);
+		}
+	}
+
+	/**
+	 * Executes a task for a node. The capacities of the node have already been reserved.
+	 * @param node - node which accepted the task
+	 * @param task - task which should be executed
+	 */
+	public void execute(Node node, Task task) {
+		this.submittedTasks.incrementAndGet();
+		this.submit(node, task);
+		updateMaximum(this.peakQueueDepth, this.getQueueDepth());
+		updateMaximum(this.peakThreadCount, this.getThreadCount());
+	}
+
+	/**
+	 * Hands the task over to the concrete execution strategy.
+	 * @param node - node which accepted the task
+	 * @param task - task which should be executed
+	 */
+	protected abstract void submit(Node node, Task task);
+
+	/** @return number of tasks which are waiting for a thread */
+	public abstract int getQueueDepth();
+
+	/** @return number of threads which are currently used by the backend */
+	public abstract int getThreadCount();
+
+	/** Stops the backend and stores its metrics in the {@link Statistics}. Already submitted tasks are still completed. */
+	public void shutdown() {
+		this.stopWorkers();
+		Runtime runtime = Runtime.getRuntime();
+		this.stats.storeRuntimeMetric("execution_backend", this.mode);
+		this.stats.storeRuntimeMetric("executed_tasks", this.submittedTasks.get());
+		this.stats.storeRuntimeMetric("peak_queue_depth", this.peakQueueDepth.get());
+		this.stats.storeRuntimeMetric("peak_thread_count", this.peakThreadCount.get());
+		this.stats.storeRuntimeMetric("used_heap_bytes", runtime.totalMemory() - runtime.freeMemory());
+	}
+
+	/** Stops the worker threads of the backend (if there are any). */
+	protected void stopWorkers() {
+	}
+
+	/**
+	 * Processes a task on the current thread. This is the body of each worker.
+	 * @param node - node which accepted the task
+	 * @param task - task which should be executed
+	 */
+	protected static void process(Node node, Task task) {
+		try {
+			WorkerThread.processTask(node, task);
+		} catch (InterruptedException e) {
+			System.err.println("[INFO] - TASK INTERRUPTED. NODE: " + node.getNodeID());
+		}
+	}
+
+	/** Raises the value of maximum to value if it is larger. */
+	protected static void updateMaximum(AtomicInteger maximum, int value) {
+		int current = maximum.get();
+		while(value > current && !maximum.compareAndSet(current, value)) {
+			current = maximum.get();
+		}
+	}
+
+	/**
+	 * Task which waits for a worker thread of a pool. The waiting tasks are ordered by {@link Task#EDF_ORDER}, so that a
+	 * latency-critical task does not wait behind bulk tasks. Tasks with the same deadline and priority keep their submission order.
+	 */
+	protected static class QueuedTask implements Runnable, Comparable<QueuedTask> {
+
+		/** Generator of the submission order */
+		private static final AtomicLong sequenceGenerator = new AtomicLong(0);
+
+		/** Waiting task */
+		private final Task task;
+
+		/** Submission order of the task */
+		private final long sequence = sequenceGenerator.incrementAndGet();
+
+		/** Processing of the task by a worker thread */
+		private final Runnable processing;
+
+		/**
+		 * @param task - waiting task
+		 * @param processing - processing of the task by a worker thread
+		 */
+		protected QueuedTask(Task task, Runnable processing) {
+			this.task = task;
+			this.processing = processing;
+		}
+
+		@Override
+		public void run() {
+			this.processing.run();
+		}
+
+		/** @return waiting task */
+		public Task getTask() {
+			return this.task;
+		}
+
+		@Override
+		public int compareTo(QueuedTask other) {
+			int order = Task.EDF_ORDER.compare(this.task, other.task);
+			return (order != 0) ? order : Long.compare(this.sequence, other.sequence);
+		}
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return {@link ExecutionMode} of the backend */
+	public ExecutionMode getMode() {
+		return this.mode;
+	}
+
+	/** @return number of submitted tasks */
+	public long getNumberOfSubmittedTasks() {
+		return this.submittedTasks.get();
+	}
+
+	/** @return maximum observed queue depth */
+	public int getPeakQueueDepth() {
+		return this.peakQueueDepth.get();
+	}
+
+	/** @return maximum observed number of threads */
+	public int getPeakThreadCount() {
+		return this.peakThreadCount.get();
+	}
+
+	/**
+	 * Enum for the construction of the execution backends.
+	 */
+	public static enum ExecutionMode {
+		/** One new platform thread ({@link WorkerThread}) per task (original behaviour) */
+		THREAD_PER_TASK,
+		/** One bounded thread pool which is shared by all nodes */
+		SHARED_POOL,
+		/** One small thread pool per node */
+		PER_NODE_POOL,
+		/** One virtual thread per task (requires Java 21, otherwise a cached thread pool is used) */
+		VIRTUAL_THREADS,
+		/** Completion is scheduled by the discrete-event {@link Simulator} */
+		SIMULATED
+	}
+}
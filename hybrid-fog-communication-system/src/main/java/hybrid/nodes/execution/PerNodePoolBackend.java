@@ -0,0 +1,77 @@
+package hybrid.nodes.execution;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hybrid.nodes.Node;
+import util_objects.Task;
+
+/**
+ * Executes the tasks of each node by a small thread pool of this node. It extends {@link ExecutionBackend}. <br>
+ * The pools are created lazily with the first task of a node. Idle threads are released after a keep alive time. The waiting
+ * tasks of a node are scheduled earliest-deadline-first ({@link QueuedTask}).
+ */
+public class PerNodePoolBackend extends ExecutionBackend {
+
+	/** Configures the maximum number of worker threads per node */
+	private static final int POOL_SIZE_PER_NODE = 4;
+
+	/** Configures the time after which idle worker threads are released [in milliseconds] */
+	private static final long KEEP_ALIVE_TIME = 10_000;
+
+	/** Thread pools of the nodes [stored by their NODE_ID] */
+	private final Map<Long, ThreadPoolExecutor> executors = new ConcurrentHashMap<>();
+	
+	/** Number of tasks which are waiting in any pool. A counter avoids iterating over all pools per task. */
+	private AtomicInteger queuedTasks = new AtomicInteger(0);
+	
+	/** Number of alive worker threads of all pools */
+	private AtomicInteger aliveThreads = new AtomicInteger(0);
+
+	public PerNodePoolBackend() {
+		super(ExecutionMode.PER_NODE_POOL);
+	}
+
+	@Override
+	protected void submit(Node node, Task task) {
+		this.queuedTasks.incrementAndGet();
+		this.executors.computeIfAbsent(node.getNodeID(), id -> this.createExecutor()).execute(new QueuedTask(task, () -> {
+			this.queuedTasks.decrementAndGet();
+			process(node, task);
+		}));
+	}
+
+	/** @return a new thread pool for a single node */
+	private ThreadPoolExecutor createExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE_PER_NODE, POOL_SIZE_PER_NODE, KEEP_ALIVE_TIME,
+				TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), runnable -> new Thread(() -> {
+					this.aliveThreads.incrementAndGet();
+					try {
+						runnable.run();
+					} finally {
+						this.aliveThreads.decrementAndGet();
+					}
+				}));
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return this.queuedTasks.get();
+	}
+
+	@Override
+	public int getThreadCount() {
+		return this.aliveThreads.get();
+	}
+
+	@Override
+	protected void stopWorkers() {
+		this.executors.values().forEach(x -> x.shutdown());
+	}
+}
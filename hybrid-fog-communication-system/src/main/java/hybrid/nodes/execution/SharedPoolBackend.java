@@ -0,0 +1,65 @@
+package hybrid.nodes.execution;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hybrid.nodes.Node;
+import util_objects.Task;
+
+/**
+ * Executes the tasks of all nodes by one bounded thread pool. It extends {@link ExecutionBackend}. <br>
+ * The waiting tasks are scheduled earliest-deadline-first ({@link QueuedTask}). If the queue of the pool is full, the task
+ * is rejected and redirected by its node ({@link Node#rejectTask(Task)}) instead of being executed by the submitting thread,
+ * which may be a client, a gossip round or a timer.
+ */
+public class SharedPoolBackend extends ExecutionBackend {
+
+	/** Configures the number of worker threads */
+	private static final int POOL_SIZE = 64;
+
+	/** Configures the maximum number of waiting tasks */
+	private static final int QUEUE_CAPACITY = 10_000;
+
+	/** Shared thread pool */
+	private final ThreadPoolExecutor executor;
+
+	/** Number of waiting tasks. The priority queue of the pool is unbounded, so that the capacity is enforced by this counter. */
+	private AtomicInteger queuedTasks = new AtomicInteger(0);
+
+	public SharedPoolBackend() {
+		super(ExecutionMode.SHARED_POOL);
+		this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 0L, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<Runnable>());
+	}
+
+	@Override
+	protected void submit(Node node, Task task) {
+		if(this.queuedTasks.incrementAndGet() > QUEUE_CAPACITY) {
+			this.queuedTasks.decrementAndGet();
+			this.stats.increaseRuntimeCounter("rejected_tasks");
+			node.rejectTask(task);
+			return;
+		}
+		this.executor.execute(new QueuedTask(task, () -> {
+			this.queuedTasks.decrementAndGet();
+			process(node, task);
+		}));
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return this.queuedTasks.get();
+	}
+
+	@Override
+	public int getThreadCount() {
+		return this.executor.getPoolSize();
+	}
+
+	@Override
+	protected void stopWorkers() {
+		this.executor.shutdown();
+	}
+}
@@ -0,0 +1,42 @@
+package hybrid.nodes.execution;
+
+import hybrid.nodes.Node;
+import hybrid.simulation.Simulator;
+import util_objects.Task;
+
+/**
+ * Executes the tasks in virtual time. It extends {@link ExecutionBackend}. <br>
+ * Instead of sleeping in a thread, the completion of a task is scheduled by the {@link Simulator}.
+ */
+public class SimulatedBackend extends ExecutionBackend {
+
+	/** {@link Simulator} which schedules the completion of the tasks */
+	private Simulator simulator = Simulator.getInstance();
+
+	/** Number of tasks which are currently processed */
+	private int runningTasks = 0;
+
+	public SimulatedBackend() {
+		super(ExecutionMode.SIMULATED);
+	}
+
+	@Override
+	protected void submit(Node node, Task task) {
+		this.runningTasks++;
+		task.startProcessing();
+		this.simulator.schedule(task.getExecutionTime(), () -> {
+			this.runningTasks--;
+			node.completeTask(task);
+		});
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return this.runningTasks; //All running tasks wait in the event queue of the simulator
+	}
+
+	@Override
+	public int getThreadCount() {
+		return 0; //The simulator runs on the thread which drives the simulation
+	}
+}
@@ -0,0 +1,36 @@
+package hybrid.nodes.execution;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hybrid.nodes.Node;
+import hybrid.nodes.WorkerThread;
+import util_objects.Task;
+
+/**
+ * Original execution strategy: Every task is executed by a new {@link WorkerThread}. It extends {@link ExecutionBackend}.
+ */
+public class ThreadPerTaskBackend extends ExecutionBackend {
+
+	/** Number of running worker threads */
+	private AtomicInteger runningThreads = new AtomicInteger(0);
+
+	public ThreadPerTaskBackend() {
+		super(ExecutionMode.THREAD_PER_TASK);
+	}
+
+	@Override
+	protected void submit(Node node, Task task) {
+		this.runningThreads.incrementAndGet();
+		new WorkerThread(node, task, () -> this.runningThreads.decrementAndGet()).start();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return 0; //Each task gets its thread immediately
+	}
+
+	@Override
+	public int getThreadCount() {
+		return this.runningThreads.get();
+	}
+}
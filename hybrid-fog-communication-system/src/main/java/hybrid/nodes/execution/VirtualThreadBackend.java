@@ -0,0 +1,64 @@
+package hybrid.nodes.execution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import hybrid.nodes.Node;
+import util_objects.Task;
+
+/**
+ * Executes every task by its own virtual thread. It extends {@link ExecutionBackend}. <br>
+ * Virtual threads require Java 21. The executor is therefore looked up reflectively and a cached thread pool is used
+ * on older runtimes, so that the prototype still compiles and runs there.
+ */
+public class VirtualThreadBackend extends ExecutionBackend {
+
+	/** Executor which starts one virtual thread per task */
+	private final ExecutorService executor;
+
+	/** Number of running tasks (i.e. of running virtual threads) */
+	private AtomicInteger runningTasks = new AtomicInteger(0);
+
+	public VirtualThreadBackend() {
+		super(ExecutionMode.VIRTUAL_THREADS);
+		this.executor = createVirtualThreadExecutor();
+	}
+
+	/** @return a virtual-thread-per-task executor or a cached thread pool if virtual threads are not supported */
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			System.err.println("[WARN] - VIRTUAL THREADS ARE NOT SUPPORTED BY THIS JVM. USE CACHED THREAD POOL INSTEAD.");
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	@Override
+	protected void submit(Node node, Task task) {
+		this.runningTasks.incrementAndGet();
+		this.executor.execute(() -> {
+			try {
+				process(node, task);
+			} finally {
+				this.runningTasks.decrementAndGet();
+			}
+		});
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return 0; //Each task gets its thread immediately
+	}
+
+	@Override
+	public int getThreadCount() {
+		return this.runningTasks.get();
+	}
+
+	@Override
+	protected void stopWorkers() {
+		this.executor.shutdown();
+	}
+}
@@ -0,0 +1,14 @@
+package hybrid.simulation;
+
+/**
+ * Represents an actor (e.g. gossip, client or failure producer) which can be driven by the {@link Simulator}
+ * instead of its own thread. Each step replaces one iteration of the actor's loop including its sleep.
+ */
+public interface SimulationProcess {
+
+	/**
+	 * Executes the next step of the process.
+	 * @return delay until the next step [in milliseconds] or a negative value if the process has terminated
+	 */
+	public long step();
+}
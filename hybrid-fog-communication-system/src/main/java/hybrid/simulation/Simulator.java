@@ -0,0 +1,238 @@
+package hybrid.simulation;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import util_objects.Task;
+
+/**
+ * Discrete-event simulation engine. It replaces the wall-clock sleeps of the prototype by a virtual clock and a priority queue
+ * of events. Thereby, task completions, gossip rounds, client requests and node failures are executed in the order of their
+ * virtual time stamps on the thread which drives the simulation. <br>
+ * If the simulator is not enabled, all actors use their own threads and the real time (i.e. the original behaviour).
+ * In this case scheduled actions are executed by a real-time timer thread.<br>
+ * Note: The discrete-event mode is not thread-safe. All events have to be scheduled by the driving thread.
+ */
+public class Simulator {
+
+	/** Singleton instance */
+	private static Simulator singleton = null;
+
+	/** Pending events ordered by their execution time */
+	private final PriorityQueue<Event> eventQueue = new PriorityQueue<>();
+
+	/** Current virtual time [in milliseconds] */
+	private long currentTime = 0;
+
+	/** Sequence number of the next event. It breaks ties between events with the same execution time (FIFO).*/
+	private long sequenceNumber = 0;
+
+	/** Number of processed events */
+	private long processedEvents = 0;
+
+	/** Indicates whether the discrete-event mode is active */
+	private boolean enabled = false;
+
+	/** Seeded generator which derives all other random generators of the simulation */
+	private Random seedGenerator = new Random();
+	
+	/** Timer which executes scheduled actions if the discrete-event mode is not active (created lazily) */
+	private ScheduledExecutorService realTimeTimer = null;
+	
+	/** Threads which execute dispatched actions if the discrete-event mode is not active (created lazily) */
+	private ExecutorService dispatcher = null;
+
+	private Simulator() {
+	}
+
+	/**
+	 * Singleton method to get the simulator instance.
+	 * @return simulator instance
+	 */
+	public static Simulator getInstance() {
+		if(singleton == null) singleton = new Simulator();
+		return singleton;
+	}
+
+	/**
+	 * Activates the discrete-event mode. This has to be done before any node or client is created. The tasks are stamped 
+	 * with the virtual time afterwards.
+	 * @param seed - seed of the simulation. Equal seeds lead to equal results.
+	 */
+	public void enable(long seed) {
+		this.enabled = true;
+		this.seedGenerator = new Random(seed);
+		Task.setClock(this::currentTimeMillis);
+	}
+
+	/** @return whether the discrete-event mode is active */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/** @return current virtual time if the simulator is enabled, otherwise the current system time [in milliseconds] */
+	public long currentTimeMillis() {
+		return this.enabled ? this.currentTime : System.currentTimeMillis();
+	}
+
+	/** @return a new random generator which is deterministically seeded if the simulator is enabled */
+	public Random createRandomGenerator() {
+		return this.enabled ? new Random(this.seedGenerator.nextLong()) : new Random();
+	}
+
+	//------------------------------------------------ Scheduling --------------------------------------------------------------
+
+	/**
+	 * Schedules an action which is executed after the given delay (in virtual time). If the discrete-event mode is not 
+	 * active, the action is executed by a timer thread after the given delay in real time.
+	 * @param delay - delay [in milliseconds]
+	 * @param action - action which should be executed
+	 */
+	public void schedule(long delay, Runnable action) {
+		if(!this.enabled) {
+			this.getRealTimeTimer().schedule(() -> {
+				try {
+					action.run();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+			return;
+		}
+		this.eventQueue.add(new Event(this.currentTime + Math.max(0, delay), this.sequenceNumber++, action));
+	}
+	
+	/**
+	 * Executes an action which may block (e.g. a redirect of a task) outside of the calling thread. Hence, a scheduled
+	 * action can hand it over without delaying the following actions of the single timer thread. In discrete-event mode the
+	 * action is executed immediately, because no action blocks in virtual time.
+	 * @param action - action which should be executed
+	 */
+	public void dispatch(Runnable action) {
+		if(this.enabled) {
+			action.run();
+			return;
+		}
+		this.getDispatcher().execute(() -> {
+			try {
+				action.run();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		});
+	}
+	
+	/** @return timer for scheduled actions in real time. It uses a daemon thread, so that it does not block the shutdown. */
+	private synchronized ScheduledExecutorService getRealTimeTimer() {
+		if(this.realTimeTimer == null) {
+			this.realTimeTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread timer = new Thread(runnable, "real-time-timer");
+				timer.setDaemon(true);
+				return timer;
+			});
+		}
+		return this.realTimeTimer;
+	}
+	
+	/** @return threads for dispatched actions in real time. They are daemon threads, so that they do not block the shutdown. */
+	private synchronized ExecutorService getDispatcher() {
+		if(this.dispatcher == null) {
+			this.dispatcher = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "dispatcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.dispatcher;
+	}
+
+	/**
+	 * Starts a {@link SimulationProcess}. The process is stepped until it returns a negative delay.
+	 * @param process - process which should be started
+	 * @param initialDelay - delay until the first step [in milliseconds]
+	 */
+	public void spawn(SimulationProcess process, long initialDelay) {
+		this.schedule(initialDelay, () -> this.step(process));
+	}
+
+	/** Executes the next step of a process and schedules the following one. */
+	private void step(SimulationProcess process) {
+		long nextDelay = process.step();
+		if(nextDelay >= 0) {
+			this.schedule(nextDelay, () -> this.step(process));
+		}
+	}
+
+	/**
+	 * Processes all events until the given virtual time is reached.
+	 * @param endTime - virtual time at which the simulation stops [in milliseconds]
+	 */
+	public void runUntil(long endTime) {
+		Event event;
+		while(!this.eventQueue.isEmpty() && this.eventQueue.peek().time <= endTime) {
+			event = this.eventQueue.poll();
+			this.currentTime = event.time;
+			event.action.run();
+			this.processedEvents++;
+		}
+		this.currentTime = Math.max(this.currentTime, endTime);
+	}
+
+	/**
+	 * Lets the time pass. In discrete-event mode all events of the given time frame are processed, otherwise the
+	 * current thread sleeps.
+	 * @param millis - time frame [in milliseconds]
+	 * @throws InterruptedException if the current thread is interrupted while sleeping
+	 */
+	public void sleep(long millis) throws InterruptedException {
+		if(this.enabled) {
+			this.runUntil(this.currentTime + millis);
+		} else {
+			Thread.sleep(millis);
+		}
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return number of processed events */
+	public long getNumberOfProcessedEvents() {
+		return this.processedEvents;
+	}
+
+	/** @return number of pending events */
+	public int getNumberOfPendingEvents() {
+		return this.eventQueue.size();
+	}
+
+	//================================  Util   ===============================================
+	/**
+	 * Entry of the event queue. Events are ordered by their time and their sequence number.
+	 */
+	private static class Event implements Comparable<Event> {
+
+		/** Execution time [in milliseconds] */
+		private final long time;
+
+		/** Sequence number of the event */
+		private final long sequenceNumber;
+
+		/** Action which is executed */
+		private final Runnable action;
+
+		private Event(long time, long sequenceNumber, Runnable action) {
+			this.time = time;
+			this.sequenceNumber = sequenceNumber;
+			this.action = action;
+		}
+
+		@Override
+		public int compareTo(Event other) {
+			int result = Long.compare(this.time, other.time);
+			return (result != 0) ? result : Long.compare(this.sequenceNumber, other.sequenceNumber);
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package util_objects;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import hybrid.nodes.Node;
+
+/**
+ * Stores the metadata versions ({@link NodeState}) of all nodes in the cluster by their NODE_ID. <br>
+ * It is backed by a {@link ConcurrentHashMap}, so that readers (e.g. the routing of tasks and clients) never block and
+ * no caller has to lock the store. Node states are never modified after their publication (copy-on-write). Received node 
+ * states are merged atomically, i.e. a node state is only replaced by a more current version. <br>
+ * The versions are additionally summarized by a {@link MerkleTree}, which is updated with every change, so that two stores
+ * can be compared by key ranges (anti-entropy). The locations and available capacities of the known nodes are indexed by a
+ * {@link SpatialIndex}, which is updated with every stored or removed node state, so that nearest-node and placement
+ * queries do not scan all node states.
+ */
+public class ClusterMetadataStore {
+
+	/** Node states of all known nodes [stored by their NODE_ID] */
+	private final ConcurrentHashMap<Long, NodeState> nodeStates = new ConcurrentHashMap<>();
+
+	/** Read-only view of {@link ClusterMetadataStore#nodeStates} */
+	private final Map<Long, NodeState> view = Collections.unmodifiableMap(this.nodeStates);
+
+	/** Number of changes of the store (stored, merged or removed node states) */
+	private final AtomicLong nrOfChanges = new AtomicLong(0);
+
+	/** Hash tree over the versions of all node states */
+	private final MerkleTree merkleTree = new MerkleTree();
+
+	/** Locations and available capacities of all known nodes */
+	private final SpatialIndex<Node> spatialIndex = new SpatialIndex<>();
+
+	/**
+	 * Stores a node state regardless of its version (e.g. the own node state or the state of a new cluster participant).
+	 * @param nodeID - ID of the node
+	 * @param state - node state
+	 */
+	public void put(Long nodeID, NodeState state) {
+		NodeState previous = this.nodeStates.put(nodeID, state);
+		this.merkleTree.update(nodeID, versionOf(previous), state.getVersion());
+		this.updateSpatialIndex(nodeID);
+		this.nrOfChanges.incrementAndGet();
+	}
+
+	/**
+	 * Stores a received node state, if it is more current than the stored one. This is done atomically.
+	 * @param nodeID - ID of the node
+	 * @param state - received node state
+	 * @return whether the node state was stored
+	 */
+	public boolean mergeIfNewer(Long nodeID, NodeState state) {
+		NodeState[] replaced = new NodeState[1];
+		//Set within the merge (not derived from the result), because a re-merged instance is identical to the stored one
+		boolean[] stored = {true};
+		this.nodeStates.merge(nodeID, state, (current, update) -> {
+			if(!update.isNewerThan(current)) {
+				stored[0] = false;
+				return current;
+			}
+			stored[0] = true;
+			replaced[0] = current;
+			return update;
+		});
+		if(stored[0]) {
+			//The replaced state is captured atomically within the merge, so that every transition is applied exactly once
+			this.merkleTree.update(nodeID, versionOf(replaced[0]), state.getVersion());
+			this.updateSpatialIndex(nodeID);
+			this.nrOfChanges.incrementAndGet();
+		}
+		return stored[0];
+	}
+
+	/**
+	 * Stores all received node states which are more current than the stored ones.
+	 * @param updates - received node states [stored by their NODE_ID]
+	 * @return all node states which were stored
+	 */
+	public List<NodeState> mergeAllIfNewer(Map<Long, NodeState> updates) {
+		List<NodeState> stored = new ArrayList<>();
+		updates.forEach((nodeID, state) -> {
+			if(this.mergeIfNewer(nodeID, state)) stored.add(state);
+		});
+		return stored;
+	}
+
+	/**
+	 * Removes the node state of a node (e.g. after a node failure).
+	 * @param nodeID - ID of the node
+	 */
+	public void remove(Long nodeID) {
+		NodeState removed = this.nodeStates.remove(nodeID);
+		if(removed != null) {
+			this.merkleTree.update(nodeID, removed.getVersion(), null);
+			this.updateSpatialIndex(nodeID);
+			this.nrOfChanges.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Updates the entry of the node in the {@link SpatialIndex} to its currently stored node state (or removes it). The
+	 * current state is read under the lock of the index, so that the index reflects the last stored version even if
+	 * several versions are merged concurrently.
+	 * @param nodeID - ID of the node whose node state was stored or removed
+	 */
+	private void updateSpatialIndex(Long nodeID) {
+		synchronized(this.spatialIndex) {
+			NodeState state = this.nodeStates.get(nodeID);
+			if(state == null) {
+				this.spatialIndex.remove(nodeID);
+			} else if(!this.spatialIndex.updateCapacities(nodeID, state.getAvailableRam(), state.getAvailableStorage())) {
+				Node node = state.getAssociatedNode();
+				this.spatialIndex.insert(nodeID, node.getCoordinates(), node, state.getAvailableRam(), state.getAvailableStorage());
+			}
+		}
+	}
+
+	/** @return versions of all stored node states [stored by their NODE_ID] */
+	public Map<Long, Long> createDigest() {
+		Map<Long, Long> digest = new HashMap<>();
+		this.nodeStates.forEach((nodeID, state) -> digest.put(nodeID, state.getVersion()));
+		return digest;
+	}
+
+	/**
+	 * Creates a digest of the node states within the given key ranges of the {@link MerkleTree}.
+	 * @param level - level of the key ranges in the tree
+	 * @param ranges - indices of the tree nodes (heap order) which cover the key ranges
+	 * @return versions of the node states within the key ranges [stored by their NODE_ID]
+	 */
+	public Map<Long, Long> createDigest(int level, Set<Integer> ranges) {
+		Map<Long, Long> digest = new HashMap<>();
+		this.nodeStates.forEach((nodeID, state) -> {
+			if(ranges.contains(MerkleTree.indexOf(nodeID, level))) digest.put(nodeID, state.getVersion());
+		});
+		return digest;
+	}
+
+	/** @return version of the node state (null if there is none) */
+	private static Long versionOf(NodeState state) {
+		return (state == null) ? null : state.getVersion();
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return hash tree over the versions of all node states */
+	public MerkleTree getMerkleTree() {
+		return this.merkleTree;
+	}
+
+	/** @return index of the locations and capacities of all known nodes (e.g. for nearest-node and placement queries) */
+	public SpatialIndex<Node> getSpatialIndex() {
+		return this.spatialIndex;
+	}
+
+	/** @return node state of the node (null if it is unknown) */
+	public NodeState get(Long nodeID) {
+		return this.nodeStates.get(nodeID);
+	}
+
+	/** @return weakly consistent view of all node states, which does not block concurrent updates */
+	public Collection<NodeState> values() {
+		return this.nodeStates.values();
+	}
+
+	/** Performs the action for all stored node states (weakly consistent). */
+	public void forEach(BiConsumer<Long, NodeState> action) {
+		this.nodeStates.forEach(action);
+	}
+
+	/** @return read-only map view of the store */
+	public Map<Long, NodeState> asMap() {
+		return this.view;
+	}
+
+	/** @return number of changes since the creation of the store (e.g. to detect quiet gossip rounds) */
+	public long getNrOfChanges() {
+		return this.nrOfChanges.get();
+	}
+
+	/** @return number of known nodes */
+	public int size() {
+		return this.nodeStates.size();
+	}
+}
@@ -47,4 +47,9 @@ public class Coordinates {
 			return this.X == coordinates.getX() && this.Y == coordinates.getY();
 		}
 	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * Float.hashCode(this.X) + Float.hashCode(this.Y);
+	}
 }
@@ -0,0 +1,51 @@
+package util_objects;
+
+import java.util.Map;
+import java.util.Set;
+
+import hybrid.nodes.Node;
+
+/**
+ * Reply to a gossip digest ({@link Node#receiveGossipDigestFrom(Node, Map)}). <br>
+ * It contains the node states which are more current than the versions of the digest and the IDs of all nodes whose 
+ * state is more current at the sender of the digest. Thereby, only changed node states are transmitted.
+ */
+public class GossipDigestAck {
+
+	/** Node states which are more current than the versions of the digest [stored by their NODE_ID] */
+	private final Map<Long, NodeState> updates;
+
+	/** IDs of the nodes whose states are requested from the sender of the digest */
+	private final Set<Long> requestedNodeIDs;
+
+	/**
+	 * Creates a new reply to a gossip digest.
+	 * @param updates - node states which are more current than the versions of the digest
+	 * @param requestedNodeIDs - IDs of the nodes whose states are requested from the sender of the digest
+	 */
+	public GossipDigestAck(Map<Long, NodeState> updates, Set<Long> requestedNodeIDs) {
+		this.updates = updates;
+		this.requestedNodeIDs = requestedNodeIDs;
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return node states which are more current than the versions of the digest */
+	public Map<Long, NodeState> getUpdates() {
+		return this.updates;
+	}
+
+	/** @return IDs of the nodes whose states are requested from the sender of the digest */
+	public Set<Long> getRequestedNodeIDs() {
+		return this.requestedNodeIDs;
+	}
+
+	/** @return estimated size of the reply [in byte] */
+	public long getEstimatedSize() {
+		long size = (long) this.requestedNodeIDs.size() * Long.BYTES;
+		for(NodeState state : this.updates.values()) {
+			size += state.getEstimatedSize();
+		}
+		return size;
+	}
+}
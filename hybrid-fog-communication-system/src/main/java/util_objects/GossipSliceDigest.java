@@ -0,0 +1,52 @@
+package util_objects;
+
+import java.util.Map;
+import java.util.Set;
+
+import hybrid.nodes.Node;
+
+/**
+ * Digest of a slice of the cluster view ({@link Node#receiveGossipDigestFrom(Node, Map, int, Set)}). <br>
+ * It contains the versions of all node states within the key ranges of a {@link MerkleTree} which diverge between the
+ * gossip partners. Node states outside of these key ranges are not exchanged.
+ */
+public class GossipSliceDigest {
+
+	/** Versions of the node states within the key ranges [stored by their NODE_ID] */
+	private final Map<Long, Long> digest;
+
+	/** Level of the key ranges in the {@link MerkleTree} */
+	private final int level;
+
+	/** Indices of the tree nodes which cover the key ranges */
+	private final Set<Integer> ranges;
+
+	/**
+	 * Creates a new digest of a slice of the cluster view.
+	 * @param digest - versions of the node states within the key ranges
+	 * @param level - level of the key ranges in the {@link MerkleTree}
+	 * @param ranges - indices of the tree nodes which cover the key ranges
+	 */
+	public GossipSliceDigest(Map<Long, Long> digest, int level, Set<Integer> ranges) {
+		this.digest = digest;
+		this.level = level;
+		this.ranges = ranges;
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return versions of the node states within the key ranges */
+	public Map<Long, Long> getDigest() {
+		return this.digest;
+	}
+
+	/** @return level of the key ranges in the {@link MerkleTree} */
+	public int getLevel() {
+		return this.level;
+	}
+
+	/** @return indices of the tree nodes which cover the key ranges */
+	public Set<Integer> getRanges() {
+		return this.ranges;
+	}
+}
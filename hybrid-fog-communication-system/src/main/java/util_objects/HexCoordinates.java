@@ -0,0 +1,126 @@
+package util_objects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Integer address of a cell of a hexagonal grid in axial coordinates (q, r). <br>
+ * The hexagons are flat-topped, i.e. the neighbouring cells above and below share the X-coordinate of their centers.
+ * The grid is spanned by the center-to-center distance of neighbouring cells. The cell (0, 0) is centered at the origin
+ * of the {@link Coordinates}. <br>
+ * Since the cells are the Voronoi regions of their centers, the cell of a position is also the cell with the closest
+ * center. A position is mapped to its cell by rounding once, and all other operations (neighbours, distances) are exact
+ * integer operations.
+ */
+public class HexCoordinates {
+
+	/** Offsets of the six neighbouring cells (UP, UP_RIGHT, DOWN_RIGHT, DOWN, DOWN_LEFT, UP_LEFT) */
+	private static final int[][] NEIGHBOUR_OFFSETS = {{0, 1}, {1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}};
+
+	/** Ratio of the horizontal distance between two neighbouring columns and the center-to-center distance */
+	private static final double COLUMN_RATIO = Math.sqrt(3) / 2;
+
+	/** Axial column coordinate */
+	private final int Q;
+
+	/** Axial row coordinate */
+	private final int R;
+
+	/**
+	 * @param q - axial column coordinate
+	 * @param r - axial row coordinate
+	 */
+	public HexCoordinates(int q, int r) {
+		this.Q = q;
+		this.R = r;
+	}
+
+	/**
+	 * Determines the cell which contains the position.
+	 * @param position - geographical position
+	 * @param distance - center-to-center distance of neighbouring cells
+	 * @return cell which contains the position (i.e. the cell with the closest center)
+	 */
+	public static HexCoordinates of(Coordinates position, double distance) {
+		double q = position.getX() / (COLUMN_RATIO * distance);
+		double r = position.getY() / distance - q / 2;
+		//Rounding in cube coordinates (x = q, z = r, y = -q - r): the component with the largest rounding error is derived
+		double s = -q - r;
+		long roundedQ = Math.round(q);
+		long roundedR = Math.round(r);
+		long roundedS = Math.round(s);
+		double deviationQ = Math.abs(roundedQ - q);
+		double deviationR = Math.abs(roundedR - r);
+		double deviationS = Math.abs(roundedS - s);
+		if(deviationQ > deviationR && deviationQ > deviationS) {
+			roundedQ = -roundedR - roundedS;
+		} else if(deviationR > deviationS) {
+			roundedR = -roundedQ - roundedS;
+		}
+		return new HexCoordinates((int) roundedQ, (int) roundedR);
+	}
+
+	/**
+	 * @param distance - center-to-center distance of neighbouring cells
+	 * @return geographical center of the cell
+	 */
+	public Coordinates getCenter(double distance) {
+		return new Coordinates((float) (this.Q * COLUMN_RATIO * distance), (float) ((this.R + this.Q / 2.0) * distance));
+	}
+
+	/** @return the six neighbouring cells */
+	public List<HexCoordinates> getNeighbours() {
+		List<HexCoordinates> neighbours = new ArrayList<>(NEIGHBOUR_OFFSETS.length);
+		for(int[] offset : NEIGHBOUR_OFFSETS) {
+			neighbours.add(new HexCoordinates(this.Q + offset[0], this.R + offset[1]));
+		}
+		return neighbours;
+	}
+
+	/**
+	 * @param target - other cell
+	 * @return number of steps between both cells on the grid
+	 */
+	public int getDistance(HexCoordinates target) {
+		int deltaQ = this.Q - target.Q;
+		int deltaR = this.R - target.R;
+		return (Math.abs(deltaQ) + Math.abs(deltaR) + Math.abs(deltaQ + deltaR)) / 2;
+	}
+
+	/** @return axial column coordinate */
+	public int getQ() {
+		return this.Q;
+	}
+
+	/** @return axial row coordinate */
+	public int getR() {
+		return this.R;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if(!(object instanceof HexCoordinates)) {
+			return false;
+		} else {
+			HexCoordinates coordinates = (HexCoordinates) object;
+			return this.Q == coordinates.Q && this.R == coordinates.R;
+		}
+	}
+
+	/**
+	 * Unique for all cells whose coordinates fit into 16 bits, because 31 * q + r collides for neighbouring cells of dense 
+	 * grids (e.g. (0, 31) and (1, 0)). The packed coordinates are mixed by a bijection, so that the buckets of a hash map 
+	 * are not only selected by q ^ r.
+	 */
+	@Override
+	public int hashCode() {
+		int packed = (this.Q << 16) | (this.R & 0xFFFF);
+		int hash = packed * 0x9E3779B1;
+		return hash ^ (hash >>> 16);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + this.Q + ", " + this.R + ")";
+	}
+}
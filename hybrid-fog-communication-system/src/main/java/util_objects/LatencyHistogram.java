@@ -0,0 +1,144 @@
+package util_objects;
+
+/**
+ * Constant-memory histogram for latencies (or any other non-negative long values). <br>
+ * Values are collected in log-linear buckets: Each power of two is divided into {@link LatencyHistogram#SUB_BUCKETS} buckets,
+ * so that the relative error of a percentile is at most 12.5%. Count, sum, minimum and maximum are exact.
+ * The buckets are allocated with the first recorded value, so that unused histograms are cheap.
+ */
+public class LatencyHistogram {
+
+	/** Number of bits which are used to divide a power of two */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/** Number of buckets per power of two */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** Largest power of two which is distinguished. Larger values are stored in the last bucket. */
+	private static final int MAX_EXPONENT = 40;
+
+	/** Total number of buckets */
+	private static final int NR_OF_BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	/** Number of values per bucket (null until the first value is recorded) */
+	private long[] buckets = null;
+
+	/** Number of recorded values */
+	private long count = 0;
+
+	/** Sum of all recorded values */
+	private long sum = 0;
+
+	/** Smallest recorded value */
+	private long min = Long.MAX_VALUE;
+
+	/** Largest recorded value */
+	private long max = 0;
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 * @param value - e.g. latency [in milliseconds]
+	 */
+	public synchronized void record(long value) {
+		value = Math.max(0, value);
+		if(this.buckets == null) {
+			this.buckets = new long[NR_OF_BUCKETS];
+		}
+		this.buckets[bucketIndex(value)]++;
+		this.count++;
+		this.sum += value;
+		this.min = Math.min(this.min, value);
+		this.max = Math.max(this.max, value);
+	}
+
+	/**
+	 * Adds all values of another histogram to this histogram.
+	 * @param other - histogram which should be merged
+	 */
+	public void merge(LatencyHistogram other) {
+		long[] otherBuckets;
+		long otherCount, otherSum, otherMin, otherMax;
+		synchronized(other) {
+			if(other.count == 0) return;
+			otherBuckets = other.buckets.clone();
+			otherCount = other.count;
+			otherSum = other.sum;
+			otherMin = other.min;
+			otherMax = other.max;
+		}
+		synchronized(this) {
+			if(this.buckets == null) {
+				this.buckets = new long[NR_OF_BUCKETS];
+			}
+			for(int i = 0; i < NR_OF_BUCKETS; i++) {
+				this.buckets[i] += otherBuckets[i];
+			}
+			this.count += otherCount;
+			this.sum += otherSum;
+			this.min = Math.min(this.min, otherMin);
+			this.max = Math.max(this.max, otherMax);
+		}
+	}
+
+	/**
+	 * Determines the approximated percentile of all recorded values.
+	 * @param percentile - e.g. 0.99 for the 99th percentile
+	 * @return the highest value of the bucket which contains the percentile (0 if no value was recorded)
+	 */
+	public synchronized long getPercentile(double percentile) {
+		if(this.count == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile * this.count));
+		long seen = 0;
+		for(int i = 0; i < NR_OF_BUCKETS; i++) {
+			seen += this.buckets[i];
+			if(seen >= rank) {
+				return Math.max(this.min, Math.min(this.max, bucketUpperBound(i)));
+			}
+		}
+		return this.max;
+	}
+
+	/** @return index of the bucket which contains the value */
+	private static int bucketIndex(long value) {
+		if(value < SUB_BUCKETS) return (int) value;
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return Math.min((shift + 1) * SUB_BUCKETS + subBucket, NR_OF_BUCKETS - 1);
+	}
+
+	/** @return highest value which is stored in the bucket */
+	private static long bucketUpperBound(int index) {
+		if(index < SUB_BUCKETS) return index;
+		int shift = index / SUB_BUCKETS - 1;
+		long lowerBound = ((long) (SUB_BUCKETS + index % SUB_BUCKETS)) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return number of recorded values */
+	public synchronized long getCount() {
+		return this.count;
+	}
+
+	/** @return sum of all recorded values */
+	public synchronized long getSum() {
+		return this.sum;
+	}
+
+	/** @return smallest recorded value (0 if no value was recorded) */
+	public synchronized long getMin() {
+		return (this.count == 0) ? 0 : this.min;
+	}
+
+	/** @return largest recorded value */
+	public synchronized long getMax() {
+		return this.max;
+	}
+
+	/** @return average of all recorded values (0 if no value was recorded) */
+	public synchronized double getMean() {
+		return (this.count == 0) ? 0 : ((double) this.sum) / this.count;
+	}
+}
@@ -0,0 +1,71 @@
+package util_objects;
+
+import hybrid.nodes.SwimMembership;
+
+/**
+ * Membership update of the SWIM protocol ({@link SwimMembership}), which is piggybacked on pings and their acks. <br>
+ * Updates about the same member are ordered by its incarnation number, which is only increased by the member itself
+ * to refute a suspicion.
+ */
+public class MembershipUpdate {
+
+	/** NODE_ID of the member which the update is about */
+	private final long memberID;
+
+	/** {@link Status} of the member */
+	private final Status status;
+
+	/** Incarnation number of the member */
+	private final long incarnation;
+
+	/** NODE_ID of the node which created the update (e.g. the node which suspected the member) */
+	private final long sourceID;
+
+	/**
+	 * Creates a new membership update.
+	 * @param memberID - NODE_ID of the member which the update is about
+	 * @param status - status of the member
+	 * @param incarnation - incarnation number of the member
+	 * @param sourceID - NODE_ID of the node which created the update
+	 */
+	public MembershipUpdate(long memberID, Status status, long incarnation, long sourceID) {
+		this.memberID = memberID;
+		this.status = status;
+		this.incarnation = incarnation;
+		this.sourceID = sourceID;
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return NODE_ID of the member which the update is about */
+	public long getMemberID() {
+		return this.memberID;
+	}
+
+	/** @return status of the member */
+	public Status getStatus() {
+		return this.status;
+	}
+
+	/** @return incarnation number of the member */
+	public long getIncarnation() {
+		return this.incarnation;
+	}
+
+	/** @return NODE_ID of the node which created the update */
+	public long getSourceID() {
+		return this.sourceID;
+	}
+
+	/** @return estimated size of the update (NODE_IDs, incarnation and status) [in byte] */
+	public static int getEstimatedSize() {
+		return 3 * Long.BYTES + 1;
+	}
+
+	//================================  Util   ===============================================
+	/**
+	 * Status of a member. A dead member was confirmed as failed or left the cluster, which cannot be revoked.
+	 * The ordinal is used on the wire, so new values have to be appended.
+	 */
+	public static enum Status {ALIVE, SUSPECT, DEAD}
+}
@@ -0,0 +1,87 @@
+package util_objects;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hash tree over the versions of the node states of a {@link ClusterMetadataStore}, keyed by NODE_ID. <br>
+ * The NODE_IDs are spread over {@link MerkleTree#NR_OF_LEAVES} key ranges by a hash function. The hash of a tree node is the
+ * XOR of the hashes of all entries (NODE_ID and version) within its key range. Hence, an entry change only updates the
+ * {@link MerkleTree#DEPTH} + 1 tree nodes on its path (without any lock, because XOR is commutative), and two trees can be
+ * compared top-down at any level: Equal hashes mean (with high probability) equal key ranges. <br>
+ * The tree nodes are stored in heap order: The root has the index 1 and the children of the node i have the indices 2i and 2i+1.
+ */
+public class MerkleTree {
+
+	/** Number of levels below the root */
+	public static final int DEPTH = 10;
+
+	/** Number of key ranges at the lowest level */
+	public static final int NR_OF_LEAVES = 1 << DEPTH;
+
+	/** Hashes of the tree nodes in heap order (index 0 is unused) */
+	private final AtomicLongArray hashes = new AtomicLongArray(2 * NR_OF_LEAVES);
+
+	/**
+	 * Replaces the version of an entry.
+	 * @param nodeID - NODE_ID of the entry
+	 * @param oldVersion - replaced version (null if the entry is new)
+	 * @param newVersion - new version (null if the entry is removed)
+	 */
+	public void update(long nodeID, Long oldVersion, Long newVersion) {
+		long delta = 0;
+		if(oldVersion != null) delta ^= hashOf(nodeID, oldVersion);
+		if(newVersion != null) delta ^= hashOf(nodeID, newVersion);
+		if(delta == 0) return;
+		for(int index = NR_OF_LEAVES + leafOf(nodeID); index > 0; index >>>= 1) {
+			final long change = delta;
+			this.hashes.getAndUpdate(index, x -> x ^ change);
+		}
+	}
+
+	/**
+	 * @param index - index of a tree node (heap order)
+	 * @return hash of the tree node (0 if its key range is empty)
+	 */
+	public long getHash(int index) {
+		return this.hashes.get(index);
+	}
+
+	/**
+	 * @param indices - indices of tree nodes (heap order)
+	 * @return hashes of the tree nodes
+	 */
+	public long[] getHashes(int[] indices) {
+		long[] result = new long[indices.length];
+		for(int i = 0; i < indices.length; i++) {
+			result[i] = this.hashes.get(indices[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * @param nodeID - NODE_ID of an entry
+	 * @param level - level of the tree (0 is the root)
+	 * @return index of the tree node at the given level whose key range contains the entry
+	 */
+	public static int indexOf(long nodeID, int level) {
+		return (1 << level) + (leafOf(nodeID) >>> (DEPTH - level));
+	}
+
+	/** @return key range of the lowest level which contains the NODE_ID */
+	private static int leafOf(long nodeID) {
+		return (int) (mix(nodeID) >>> (Long.SIZE - DEPTH));
+	}
+
+	/** @return hash of an entry */
+	private static long hashOf(long nodeID, long version) {
+		return mix(mix(nodeID) + version);
+	}
+
+	/** @return well-distributed hash of a value (finalizer of SplitMix64) */
+	private static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
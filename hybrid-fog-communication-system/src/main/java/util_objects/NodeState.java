@@ -1,5 +1,7 @@
 package util_objects;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -9,22 +11,64 @@ import hybrid.nodes.Node;
  * Wrapper class which contains the metadata information of a node.
  * Source: <a href="https://martinfowler.com/articles/patterns-of-distributed-systems/gossip-dissemination.html">
  * https://martinfowler.com/articles/patterns-of-distributed-systems/gossip-dissemination.html</a><br>
- * Accessed: 02/02/2022
+ * Accessed: 02/02/2022 <br>
+ * The frequently read fields (coordinates and available capacities) are stored as typed fields with their own versions,
+ * so that the routing and the gossip do not require map lookups, casts and boxed values. Rare fields (e.g. "edge_pools"
+ * of a CNL node) are stored as extensions.
  * @author Marvin Kruber
  */
 public class NodeState {
-	
-	/** Stores all metadata information fields and their corresponding value versions ({@link VersionedValue}) of a node. */
-	private Map<String, VersionedValue<?>> metaDataInf = new HashMap<String, VersionedValue<?>>();
-	
+
 	/** Represents the associated node. */
 	private Node node;
-	
+
+	/** Coordinates of the node */
+	private Coordinates coordinates = null;
+
+	/** Version of {@link NodeState#coordinates} */
+	private long coordinatesVersion = 0;
+
+	/** Available RAM of the node */
+	private long availableRam = 0;
+
+	/** Version of {@link NodeState#availableRam} */
+	private long availableRamVersion = 0;
+
+	/** Available storage of the node */
+	private long availableStorage = 0;
+
+	/** Version of {@link NodeState#availableStorage} */
+	private long availableStorageVersion = 0;
+
+	/** Heartbeat counter of the node, which is increased in every gossip round (0 if the node publishes no heartbeats) */
+	private long heartbeat = 0;
+
+	/** Version of {@link NodeState#heartbeat} */
+	private long heartbeatVersion = 0;
+
+	/** Gossip interval of the node at its last heartbeat [in milliseconds]. It is the expected inter-arrival time of its heartbeats. */
+	private long heartbeatInterval = 0;
+
+	/** Rare metadata fields and their value versions ({@link VersionedValue}). It is shared by copies until it is changed. */
+	private Map<String, VersionedValue<?>> extensions = Collections.emptyMap();
+
+	/** Time at which this version was created by the associated node [in milliseconds] */
+	private long originTime = 0;
+
+	/** Number of typed fields (coordinates, available RAM and available storage) */
+	private static final int NR_OF_TYPED_FIELDS = 3;
+
+	/** Estimated size of a field tag [in byte] */
+	private static final int ESTIMATED_TAG_SIZE = 1;
+
+	/** Estimated size of a single value [in byte] (e.g. a long or two floats) */
+	private static final int ESTIMATED_VALUE_SIZE = 8;
+
 	/** Creates a new NodeState. */
 	public NodeState(Node node) {
 		this.node = node;
 	}
-	
+
 	/**
 	 * Creates a copy of the node state. This is used to avoid that all nodes only hold the same reference instead of
 	 * the values. If all nodes hold the same reference, changes of the node state would be propagated immediately. This would
@@ -32,31 +76,163 @@ public class NodeState {
 	 * @param nodeState
 	 */
 	public NodeState(NodeState nodeState) {
-		this.node = nodeState.getAssociatedNode();
-		this.metaDataInf = new HashMap<>(nodeState.getFields());
+		this.node = nodeState.node;
+		this.coordinates = nodeState.coordinates;
+		this.coordinatesVersion = nodeState.coordinatesVersion;
+		this.availableRam = nodeState.availableRam;
+		this.availableRamVersion = nodeState.availableRamVersion;
+		this.availableStorage = nodeState.availableStorage;
+		this.availableStorageVersion = nodeState.availableStorageVersion;
+		this.heartbeat = nodeState.heartbeat;
+		this.heartbeatVersion = nodeState.heartbeatVersion;
+		this.heartbeatInterval = nodeState.heartbeatInterval;
+		this.extensions = nodeState.extensions;
+		this.originTime = nodeState.originTime;
+	}
+
+	/** Updates the coordinates of the node. */
+	public void updateCoordinates(Coordinates coordinates, long version) {
+		this.coordinates = coordinates;
+		this.coordinatesVersion = version;
+	}
+
+	/** Updates the available RAM of the node. */
+	public void updateAvailableRam(long availableRam, long version) {
+		this.availableRam = availableRam;
+		this.availableRamVersion = version;
+	}
+
+	/** Updates the available storage of the node. */
+	public void updateAvailableStorage(long availableStorage, long version) {
+		this.availableStorage = availableStorage;
+		this.availableStorageVersion = version;
+	}
+
+	/** Updates the heartbeat counter of the node and the gossip interval at which it publishes its heartbeats. */
+	public void updateHeartbeat(long heartbeat, long interval, long version) {
+		this.heartbeat = heartbeat;
+		this.heartbeatInterval = interval;
+		this.heartbeatVersion = version;
 	}
-	
+
 	/**
-	 * Updates the map of metadata information ({@link NodeState#metaDataInf}) of the node.
+	 * Inserts or updates a rare metadata field (extension). The extensions are copied, because they may be shared with
+	 * other versions of the node state.
 	 * @param field - field which should be inserted or updated
 	 * @param value - new value version
 	 */
-	public void updateMetaData(String field, VersionedValue<?> value) {
-		this.metaDataInf.put(field, value);
+	public void updateExtension(String field, VersionedValue<?> value) {
+		Map<String, VersionedValue<?>> extensions = new HashMap<>(this.extensions);
+		extensions.put(field, value);
+		this.extensions = extensions;
+	}
+
+	/** Stamps the version with the time of its creation [in milliseconds]. */
+	public void setOriginTime(long originTime) {
+		this.originTime = originTime;
+	}
+
+	/**
+	 * Checks whether this node state is more current than the other one.
+	 * @param other - node state to compare with (may be null)
+	 * @return true if the other node state is null or older
+	 */
+	public boolean isNewerThan(NodeState other) {
+		return other == null || this.getVersion() > other.getVersion();
 	}
-	
+
+	/**
+	 * Estimates the size of the node state, if it would be transmitted (NODE_ID, the typed fields with their tags, versions
+	 * and values and all extensions with their names, versions and values). This is used to measure the gossip bandwidth.
+	 * @return estimated size [in byte]
+	 */
+	public long getEstimatedSize() {
+		long size = Long.BYTES + NR_OF_TYPED_FIELDS * (ESTIMATED_TAG_SIZE + Long.BYTES + ESTIMATED_VALUE_SIZE);
+		if(this.heartbeat > 0) {
+			size += ESTIMATED_TAG_SIZE + Long.BYTES + 2 * ESTIMATED_VALUE_SIZE;
+		}
+		for(Map.Entry<String, VersionedValue<?>> field : this.extensions.entrySet()) {
+			Object value = field.getValue().getValue();
+			size += field.getKey().length() + Long.BYTES;
+			if(value instanceof Collection) {
+				size += ((Collection<?>) value).size() * ESTIMATED_VALUE_SIZE;
+			} else if(value instanceof Map) {
+				size += ((Map<?, ?>) value).size() * 2 * ESTIMATED_VALUE_SIZE;
+			} else {
+				size += ESTIMATED_VALUE_SIZE;
+			}
+		}
+		return size;
+	}
+
 	//================================  Getter   ===============================================
-	
-		/** @return map of all fields and their current value versions ({@link NodeState#metaDataInf}).*/
-		public Map<String, VersionedValue<?>> getFields() {
-			return this.metaDataInf;
+
+		/** @return coordinates of the node */
+		public Coordinates getCoordinates() {
+			return this.coordinates;
+		}
+
+		/** @return available RAM of the node */
+		public long getAvailableRam() {
+			return this.availableRam;
+		}
+
+		/** @return available storage of the node */
+		public long getAvailableStorage() {
+			return this.availableStorage;
+		}
+
+		/** @return version of the coordinates */
+		public long getCoordinatesVersion() {
+			return this.coordinatesVersion;
+		}
+
+		/** @return version of the available RAM */
+		public long getAvailableRamVersion() {
+			return this.availableRamVersion;
 		}
-		
-		/** @return value version of the specified field */
-		public VersionedValue<?> getField(String field){
-			return this.metaDataInf.get(field);
+
+		/** @return version of the available storage */
+		public long getAvailableStorageVersion() {
+			return this.availableStorageVersion;
+		}
+
+		/** @return heartbeat counter of the node (0 if the node publishes no heartbeats) */
+		public long getHeartbeat() {
+			return this.heartbeat;
+		}
+
+		/** @return version of the heartbeat counter */
+		public long getHeartbeatVersion() {
+			return this.heartbeatVersion;
+		}
+
+		/** @return gossip interval of the node at its last heartbeat [in milliseconds] */
+		public long getHeartbeatInterval() {
+			return this.heartbeatInterval;
+		}
+
+		/** @return value version of the specified extension (null if it does not exist) */
+		public VersionedValue<?> getExtension(String field) {
+			return this.extensions.get(field);
+		}
+
+		/** @return read-only map of all extensions and their current value versions */
+		public Map<String, VersionedValue<?>> getExtensions() {
+			return Collections.unmodifiableMap(this.extensions);
+		}
+
+		/** @return version of the node state (i.e. the highest version of the typed fields) */
+		public long getVersion() {
+			long version = Math.max(this.coordinatesVersion, Math.max(this.availableRamVersion, this.availableStorageVersion));
+			return Math.max(version, this.heartbeatVersion);
+		}
+
+		/** @return time at which this version was created by the associated node [in milliseconds] */
+		public long getOriginTime() {
+			return this.originTime;
 		}
-		
+
 		/** @return associated node */
 		public Node getAssociatedNode(){
 			return this.node;
@@ -0,0 +1,41 @@
+package util_objects;
+
+import java.util.List;
+
+import hybrid.nodes.Node;
+
+/**
+ * Reply to an indirect ping of the SWIM protocol ({@link Node#receivePingRequest(Node, Node, List)}). <br>
+ * It contains whether the target acknowledged the ping of the helper and the membership updates which are piggybacked
+ * by the helper.
+ */
+public class ProbeAck {
+
+	/** Indicates whether the target acknowledged the ping of the helper */
+	private final boolean acknowledged;
+
+	/** Membership updates which are piggybacked by the helper */
+	private final List<MembershipUpdate> updates;
+
+	/**
+	 * Creates a new reply to an indirect ping.
+	 * @param acknowledged - whether the target acknowledged the ping of the helper
+	 * @param updates - membership updates which are piggybacked by the helper
+	 */
+	public ProbeAck(boolean acknowledged, List<MembershipUpdate> updates) {
+		this.acknowledged = acknowledged;
+		this.updates = updates;
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return whether the target acknowledged the ping of the helper */
+	public boolean isAcknowledged() {
+		return this.acknowledged;
+	}
+
+	/** @return membership updates which are piggybacked by the helper */
+	public List<MembershipUpdate> getUpdates() {
+		return this.updates;
+	}
+}
@@ -0,0 +1,395 @@
+package util_objects;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Uniform grid over {@link Coordinates} for nearest-node queries (nearest, k-nearest and radius queries). <br>
+ * The entries are stored by a key (e.g. the NODE_ID) in square cells. A query only scans the cells around the target
+ * ring by ring, until no unscanned cell can contain a closer entry. Hence, a query costs about
+ * {@link SpatialIndex#ENTRIES_PER_CELL} distance calculations per scanned cell instead of one per entry. <br>
+ * Additionally, each entry can carry its available capacities (RAM and storage) and each cell knows the maximum
+ * capacities of its entries, so that queries for the nearest entries with sufficient capacities skip all cells which
+ * cannot satisfy them (placement queries). <br>
+ * Insertions and removals are incremental. The grid is only rebuilt (with an adjusted cell size) if the number of entries
+ * has doubled or shrunk to a quarter since the last rebuild, or if the covered area has grown too much. <br>
+ * Entries with the same distance to the target are ordered by their key. All methods are synchronized.
+ * @param <T> type of the indexed values
+ */
+public class SpatialIndex<T> {
+
+	/** Expected number of entries per cell */
+	private static final int ENTRIES_PER_CELL = 4;
+
+	/** Factor by which the number of cells may exceed the expected number of cells before the grid is rebuilt */
+	private static final int MAX_CELL_OVERHEAD = 4;
+
+	/** Number of entries up to which the grid is not rebuilt */
+	private static final int MIN_REBUILD_SIZE = 16;
+
+	/** Capacity of entries which were inserted without capacities */
+	private static final long UNLIMITED = Long.MAX_VALUE;
+
+	/** All entries [stored by their key] */
+	private final Map<Long, Entry<T>> entries = new HashMap<>();
+
+	/** All occupied cells [stored by the packed cell index] */
+	private final Map<Long, Cell<T>> cells = new HashMap<>();
+
+	/** Edge length of a cell */
+	private double cellSize = 1;
+
+	/** Coordinates of the corner of the cell (0, 0) */
+	private double originX = 0;
+	private double originY = 0;
+
+	/** Range of the cell indices which have been occupied since the last rebuild */
+	private int minCellX = 0;
+	private int maxCellX = -1;
+	private int minCellY = 0;
+	private int maxCellY = -1;
+
+	/** Number of entries at the last rebuild */
+	private int sizeAtRebuild = 0;
+
+	/**
+	 * Inserts an entry without capacities or replaces the entry with the same key.
+	 * @param key - key of the entry (e.g. NODE_ID)
+	 * @param coordinates - location of the entry
+	 * @param value - indexed value
+	 */
+	public synchronized void insert(long key, Coordinates coordinates, T value) {
+		this.insert(key, coordinates, value, UNLIMITED, UNLIMITED);
+	}
+
+	/**
+	 * Inserts an entry or replaces the entry with the same key.
+	 * @param key - key of the entry (e.g. NODE_ID)
+	 * @param coordinates - location of the entry
+	 * @param value - indexed value
+	 * @param availableRam - available RAM of the entry
+	 * @param availableStorage - available storage of the entry
+	 */
+	public synchronized void insert(long key, Coordinates coordinates, T value, long availableRam, long availableStorage) {
+		this.remove(key);
+		Entry<T> entry = new Entry<>(key, coordinates, value);
+		entry.availableRam = availableRam;
+		entry.availableStorage = availableStorage;
+		this.entries.put(key, entry);
+		this.addToCell(entry);
+		int expectedCells = Math.max(1, this.entries.size() / ENTRIES_PER_CELL);
+		long nrOfCells = (long) (this.maxCellX - this.minCellX + 1) * (this.maxCellY - this.minCellY + 1);
+		if(this.entries.size() > 2 * Math.max(MIN_REBUILD_SIZE, this.sizeAtRebuild)
+				|| nrOfCells > MAX_CELL_OVERHEAD * expectedCells + MIN_REBUILD_SIZE) {
+			this.rebuild();
+		}
+	}
+
+	/**
+	 * Updates the capacities of an entry (e.g. after a new version of a node state was merged).
+	 * @param key - key of the entry
+	 * @param availableRam - available RAM of the entry
+	 * @param availableStorage - available storage of the entry
+	 * @return whether the entry is contained
+	 */
+	public synchronized boolean updateCapacities(long key, long availableRam, long availableStorage) {
+		Entry<T> entry = this.entries.get(key);
+		if(entry == null) return false;
+		if(entry.availableRam == availableRam && entry.availableStorage == availableStorage) return true;
+		Cell<T> cell = this.cells.get(packCell(entry.cellX, entry.cellY));
+		boolean lowersMaximum = (entry.availableRam == cell.maxRam && availableRam < cell.maxRam)
+				|| (entry.availableStorage == cell.maxStorage && availableStorage < cell.maxStorage);
+		entry.availableRam = availableRam;
+		entry.availableStorage = availableStorage;
+		if(lowersMaximum) {
+			cell.updateMaxima();
+		} else {
+			cell.maxRam = Math.max(cell.maxRam, availableRam);
+			cell.maxStorage = Math.max(cell.maxStorage, availableStorage);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes an entry.
+	 * @param key - key of the entry
+	 * @return whether the entry was contained
+	 */
+	public synchronized boolean remove(long key) {
+		Entry<T> entry = this.entries.remove(key);
+		if(entry == null) return false;
+		long cellKey = packCell(entry.cellX, entry.cellY);
+		Cell<T> cell = this.cells.get(cellKey);
+		cell.entries.remove(entry);
+		if(cell.entries.isEmpty()) {
+			this.cells.remove(cellKey);
+		} else {
+			cell.updateMaxima();
+		}
+		if(this.sizeAtRebuild > MIN_REBUILD_SIZE && this.entries.size() < this.sizeAtRebuild / 4) {
+			this.rebuild();
+		}
+		return true;
+	}
+
+	/**
+	 * @param target - location of the target
+	 * @return value of the closest entry (null if the index is empty)
+	 */
+	public synchronized T nearest(Coordinates target) {
+		List<T> result = this.kNearest(target, 1);
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	/**
+	 * @param target - location of the target
+	 * @param k - number of requested entries
+	 * @return values of the k closest entries (ordered by their distance to the target)
+	 */
+	public synchronized List<T> kNearest(Coordinates target, int k) {
+		return this.kNearest(target, k, Long.MIN_VALUE, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Determines the closest entries with sufficient capacities. Cells whose maximum capacities are insufficient are skipped.
+	 * @param target - location of the target
+	 * @param k - number of requested entries
+	 * @param requiredRam - minimum available RAM of an entry
+	 * @param requiredStorage - minimum available storage of an entry
+	 * @return values of the k closest entries with sufficient capacities (ordered by their distance to the target)
+	 */
+	public synchronized List<T> kNearest(Coordinates target, int k, long requiredRam, long requiredStorage) {
+		return this.kNearest(target, k, requiredRam, requiredStorage, x -> false);
+	}
+
+	/**
+	 * Determines the closest entries with sufficient capacities except the excluded entry (e.g. the requesting node, whose 
+	 * indexed capacities may be outdated).
+	 * @param target - location of the target
+	 * @param k - number of requested entries
+	 * @param requiredRam - minimum available RAM of an entry
+	 * @param requiredStorage - minimum available storage of an entry
+	 * @param excludedKey - key of the entry which is skipped
+	 * @return values of the k closest entries with sufficient capacities (ordered by their distance to the target)
+	 */
+	public synchronized List<T> kNearest(Coordinates target, int k, long requiredRam, long requiredStorage, long excludedKey) {
+		return this.kNearest(target, k, requiredRam, requiredStorage, x -> x == excludedKey);
+	}
+
+	/** Determines the closest entries with sufficient capacities whose keys are not excluded. */
+	private List<T> kNearest(Coordinates target, int k, long requiredRam, long requiredStorage, LongPredicate excluded) {
+		List<T> result = new ArrayList<>();
+		if(k <= 0 || this.entries.isEmpty()) return result;
+		//Max-heap of the k closest entries so far
+		PriorityQueue<Candidate<T>> closest = new PriorityQueue<>(k + 1, Candidate.<T>byDistance().reversed());
+		int centerX = clamp(this.cellOf(target.getX(), this.originX), this.minCellX, this.maxCellX);
+		int centerY = clamp(this.cellOf(target.getY(), this.originY), this.minCellY, this.maxCellY);
+		for(int ring = 0; ; ring++) {
+			for(int x = Math.max(centerX - ring, this.minCellX); x <= Math.min(centerX + ring, this.maxCellX); x++) {
+				this.collect(x, centerY - ring, target, k, requiredRam, requiredStorage, excluded, closest);
+				if(ring > 0) this.collect(x, centerY + ring, target, k, requiredRam, requiredStorage, excluded, closest);
+			}
+			for(int y = Math.max(centerY - ring + 1, this.minCellY); y <= Math.min(centerY + ring - 1, this.maxCellY); y++) {
+				this.collect(centerX - ring, y, target, k, requiredRam, requiredStorage, excluded, closest);
+				this.collect(centerX + ring, y, target, k, requiredRam, requiredStorage, excluded, closest);
+			}
+			double bound = this.distanceBeyondRing(target, centerX, centerY, ring);
+			if(bound == Double.POSITIVE_INFINITY || (closest.size() == k && closest.peek().distance < bound)) break;
+		}
+		List<Candidate<T>> sorted = new ArrayList<>(closest);
+		sorted.sort(Candidate.byDistance());
+		sorted.forEach(x -> result.add(x.entry.value));
+		return result;
+	}
+
+	/**
+	 * @param target - location of the target
+	 * @param radius - maximum distance to the target
+	 * @return values of all entries within the radius (ordered by their distance to the target)
+	 */
+	public synchronized List<T> withinRadius(Coordinates target, double radius) {
+		List<Candidate<T>> candidates = new ArrayList<>();
+		int fromX = Math.max(this.cellOf(target.getX() - radius, this.originX), this.minCellX);
+		int toX = Math.min(this.cellOf(target.getX() + radius, this.originX), this.maxCellX);
+		int fromY = Math.max(this.cellOf(target.getY() - radius, this.originY), this.minCellY);
+		int toY = Math.min(this.cellOf(target.getY() + radius, this.originY), this.maxCellY);
+		for(int x = fromX; x <= toX; x++) {
+			for(int y = fromY; y <= toY; y++) {
+				Cell<T> cell = this.cells.get(packCell(x, y));
+				if(cell == null) continue;
+				for(Entry<T> entry : cell.entries) {
+					double distance = entry.coordinates.getDistance(target);
+					if(distance <= radius) candidates.add(new Candidate<>(entry, distance));
+				}
+			}
+		}
+		candidates.sort(Candidate.byDistance());
+		List<T> result = new ArrayList<>();
+		candidates.forEach(x -> result.add(x.entry.value));
+		return result;
+	}
+
+	/** @return number of entries */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/** 
+	 * Adds the entries of a cell with sufficient capacities (except the excluded ones) to the k closest entries, if they are 
+	 * closer than the current ones. 
+	 */
+	private void collect(int cellX, int cellY, Coordinates target, int k, long requiredRam, long requiredStorage,
+			LongPredicate excluded, PriorityQueue<Candidate<T>> closest) {
+		Cell<T> cell = this.cells.get(packCell(cellX, cellY));
+		if(cell == null || cell.maxRam < requiredRam || cell.maxStorage < requiredStorage) return;
+		for(Entry<T> entry : cell.entries) {
+			if(entry.availableRam < requiredRam || entry.availableStorage < requiredStorage || excluded.test(entry.key)) continue;
+			Candidate<T> candidate = new Candidate<>(entry, entry.coordinates.getDistance(target));
+			if(closest.size() < k) {
+				closest.add(candidate);
+			} else if(Candidate.<T>byDistance().compare(candidate, closest.peek()) < 0) {
+				closest.poll();
+				closest.add(candidate);
+			}
+		}
+	}
+
+	/**
+	 * @return minimum distance between the target and any cell outside of the scanned rings (infinite if all occupied cells
+	 * 		   have been scanned)
+	 */
+	private double distanceBeyondRing(Coordinates target, int centerX, int centerY, int ring) {
+		double bound = Double.POSITIVE_INFINITY;
+		if(centerX - ring > this.minCellX) {
+			bound = Math.min(bound, target.getX() - (this.originX + (centerX - ring) * this.cellSize));
+		}
+		if(centerX + ring < this.maxCellX) {
+			bound = Math.min(bound, this.originX + (centerX + ring + 1) * this.cellSize - target.getX());
+		}
+		if(centerY - ring > this.minCellY) {
+			bound = Math.min(bound, target.getY() - (this.originY + (centerY - ring) * this.cellSize));
+		}
+		if(centerY + ring < this.maxCellY) {
+			bound = Math.min(bound, this.originY + (centerY + ring + 1) * this.cellSize - target.getY());
+		}
+		return Math.max(0, bound);
+	}
+
+	/** Adjusts the cell size to the current number of entries and their covered area and reassigns all entries. */
+	private void rebuild() {
+		this.cells.clear();
+		this.minCellX = 0;
+		this.maxCellX = -1;
+		this.minCellY = 0;
+		this.maxCellY = -1;
+		this.sizeAtRebuild = this.entries.size();
+		if(this.entries.isEmpty()) return;
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for(Entry<T> entry : this.entries.values()) {
+			minX = Math.min(minX, entry.coordinates.getX());
+			maxX = Math.max(maxX, entry.coordinates.getX());
+			minY = Math.min(minY, entry.coordinates.getY());
+			maxY = Math.max(maxY, entry.coordinates.getY());
+		}
+		double width = maxX - minX;
+		double height = maxY - minY;
+		int expectedCells = Math.max(1, this.entries.size() / ENTRIES_PER_CELL);
+		//The second term limits the number of cells if all entries are (nearly) on a line
+		this.cellSize = Math.max(Math.sqrt(width * height / expectedCells), Math.max(width, height) / expectedCells);
+		if(this.cellSize <= 0) this.cellSize = 1;
+		this.originX = minX;
+		this.originY = minY;
+		this.entries.values().forEach(this::addToCell);
+	}
+
+	/** Adds an entry to its cell and extends the range of the occupied cells. */
+	private void addToCell(Entry<T> entry) {
+		entry.cellX = this.cellOf(entry.coordinates.getX(), this.originX);
+		entry.cellY = this.cellOf(entry.coordinates.getY(), this.originY);
+		Cell<T> cell = this.cells.computeIfAbsent(packCell(entry.cellX, entry.cellY), x -> new Cell<>());
+		cell.entries.add(entry);
+		cell.maxRam = Math.max(cell.maxRam, entry.availableRam);
+		cell.maxStorage = Math.max(cell.maxStorage, entry.availableStorage);
+		if(this.maxCellX < this.minCellX) {
+			this.minCellX = this.maxCellX = entry.cellX;
+			this.minCellY = this.maxCellY = entry.cellY;
+		} else {
+			this.minCellX = Math.min(this.minCellX, entry.cellX);
+			this.maxCellX = Math.max(this.maxCellX, entry.cellX);
+			this.minCellY = Math.min(this.minCellY, entry.cellY);
+			this.maxCellY = Math.max(this.maxCellY, entry.cellY);
+		}
+	}
+
+	/** @return index of the cell which contains the value along one axis */
+	private int cellOf(double value, double origin) {
+		double index = Math.floor((value - origin) / this.cellSize);
+		return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, index));
+	}
+
+	/** @return value which is limited to the given range */
+	private static int clamp(int value, int min, int max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	/** @return key of a cell in {@link SpatialIndex#cells} */
+	private static long packCell(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+	/** Indexed value, its location and its capacities. */
+	private static class Entry<T> {
+		private final long key;
+		private final Coordinates coordinates;
+		private final T value;
+		private long availableRam;
+		private long availableStorage;
+		private int cellX;
+		private int cellY;
+
+		private Entry(long key, Coordinates coordinates, T value) {
+			this.key = key;
+			this.coordinates = coordinates;
+			this.value = value;
+		}
+	}
+
+	/** Entries of a cell and their maximum capacities. */
+	private static class Cell<T> {
+		private final List<Entry<T>> entries = new ArrayList<>();
+		private long maxRam = Long.MIN_VALUE;
+		private long maxStorage = Long.MIN_VALUE;
+
+		/** Recalculates the maximum capacities (e.g. after the entry with the maximum capacity has been changed). */
+		private void updateMaxima() {
+			this.maxRam = Long.MIN_VALUE;
+			this.maxStorage = Long.MIN_VALUE;
+			for(Entry<T> entry : this.entries) {
+				this.maxRam = Math.max(this.maxRam, entry.availableRam);
+				this.maxStorage = Math.max(this.maxStorage, entry.availableStorage);
+			}
+		}
+	}
+
+	/** Entry and its distance to the target of a query. */
+	private static class Candidate<T> {
+		private final Entry<T> entry;
+		private final double distance;
+
+		private Candidate(Entry<T> entry, double distance) {
+			this.entry = entry;
+			this.distance = distance;
+		}
+
+		/** @return order by the distance and (for equal distances) by the key */
+		private static <T> Comparator<Candidate<T>> byDistance() {
+			return Comparator.<Candidate<T>>comparingDouble(x -> x.distance).thenComparingLong(x -> x.entry.key);
+		}
+	}
+}
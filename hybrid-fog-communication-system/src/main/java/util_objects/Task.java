@@ -1,5 +1,9 @@
 package util_objects;
 
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
 /**
  * Represents a task.
  * @author Marvin Kruber
@@ -7,34 +11,123 @@ package util_objects;
  */
 public class Task {
 	
+	/** Deadline of tasks without any deadline */
+	public static final long NO_DEADLINE = Long.MAX_VALUE;
+	
+	/** Earliest-deadline-first order. Tasks with the same deadline (e.g. without any deadline) are ordered by their priority.*/
+	public static final Comparator<Task> EDF_ORDER = Comparator.comparingLong(Task::getDeadline).thenComparing(Task::getPriority);
+	
+	/** Clock of the start and finish times [in milliseconds]. It is replaced by the virtual clock in discrete-event mode. */
+	private static volatile LongSupplier clock = System::currentTimeMillis;
+	
+	/** Generator of the task IDs */
+	private static final AtomicLong idGenerator = new AtomicLong(0);
+	
+	/** Unique identifier of the task (it identifies the task within encoded messages) */
+	private final long taskID = idGenerator.incrementAndGet();
+	
 	/** Storage capacity required for the task [in byte] */
 	private final int requiredStorage;
 	
 	/** Computation capacity required for the task [in byte] */
 	private final int requiredRAM;
 	
-	/** Start time [in milliseconds] */
-	private final long startTime = System.currentTimeMillis();
+	/** Start time [in milliseconds] (virtual time in discrete-event mode) */
+	private final long startTime = clock.getAsLong();
 	
 	/** Finish time [in milliseconds] */
 	private long finishTime;
 	
+	/** Time since which the task waits in an admission queue [in milliseconds] (-1 if it does not wait) */
+	private long enqueueTime = -1;
+	
+	/** Total time which the task waited in admission queues [in milliseconds] */
+	private long queueWait = 0;
+	
+	/** Time at which the capacities for the task were reserved by its executing node [in milliseconds] */
+	private long admissionTime = -1;
+	
+	/** Time at which a worker started the processing of the task [in milliseconds] */
+	private long processingStartTime = -1;
+	
+	/** {@link Priority} of the task */
+	private final Priority priority;
+	
+	/** Time until which the task has to be finished [in milliseconds] ({@link Task#NO_DEADLINE} if there is none) */
+	private final long deadline;
+	
 	/**
-	 * Creates a new {@link Task}.
+	 * Creates a new {@link Task} with normal priority and without any deadline.
 	 * @param requiredStorage - storage capacity required for the task [in byte]
 	 * @param requiredRAM - computation capacity required for the task [in byte]
 	 */
 	public Task(int requiredStorage, int requiredRAM) {
+		this(requiredStorage, requiredRAM, Priority.NORMAL, NO_DEADLINE);
+	}
+	
+	/**
+	 * Creates a new {@link Task}.
+	 * @param requiredStorage - storage capacity required for the task [in byte]
+	 * @param requiredRAM - computation capacity required for the task [in byte]
+	 * @param priority - priority of the task
+	 * @param relativeDeadline - deadline relative to the start time [in milliseconds] ({@link Task#NO_DEADLINE} if there is none)
+	 */
+	public Task(int requiredStorage, int requiredRAM, Priority priority, long relativeDeadline) {
 		this.requiredStorage = requiredStorage;
 		this.requiredRAM = requiredRAM;
+		this.priority = priority;
+		this.deadline = (relativeDeadline == NO_DEADLINE) ? NO_DEADLINE : this.startTime + relativeDeadline;
 	}
 	
 	public void finishTask() {
-		this.finishTime = System.currentTimeMillis();
+		this.finishTime = clock.getAsLong();
+	}
+	
+	/** Marks that the task starts to wait in an admission queue. */
+	public void enqueue() {
+		this.enqueueTime = clock.getAsLong();
+	}
+	
+	/** Marks that the task left an admission queue (admitted, expired or taken over). Its waiting time is accumulated. */
+	public void dequeue() {
+		if(this.enqueueTime >= 0) {
+			this.queueWait += clock.getAsLong() - this.enqueueTime;
+			this.enqueueTime = -1;
+		}
+	}
+	
+	/** Marks that the capacities for the task were reserved and the task is handed over to the execution backend. */
+	public void admit() {
+		this.dequeue();
+		this.admissionTime = clock.getAsLong();
+		this.processingStartTime = -1;
+	}
+	
+	/** Marks that a worker starts the processing of the task. */
+	public void startProcessing() {
+		this.processingStartTime = clock.getAsLong();
+	}
+	
+	/**
+	 * Replaces the clock of all tasks which are created afterwards.
+	 * @param timeSource - clock of the start and finish times [in milliseconds]
+	 */
+	public static void setClock(LongSupplier timeSource) {
+		clock = timeSource;
 	}
 	
 	//================================  Getter   ===============================================
 	
+	/** @return unique identifier of the task*/
+	public long getTaskID() {
+		return this.taskID;
+	}
+	
+	/** @return start time [in milliseconds]*/
+	public long getStartTime() {
+		return this.startTime;
+	}
+	
 	/** @return required storage capacity*/
 	public int getRequiredStorage() {
 		return this.requiredStorage;
@@ -50,8 +143,54 @@ public class Task {
 		return this.requiredRAM + this.requiredStorage;
 	}
 	
+	/** @return priority of the task*/
+	public Priority getPriority() {
+		return this.priority;
+	}
+	
+	/** @return time until which the task has to be finished [in milliseconds] ({@link Task#NO_DEADLINE} if there is none)*/
+	public long getDeadline() {
+		return this.deadline;
+	}
+	
+	/** @return whether the task has a deadline*/
+	public boolean hasDeadline() {
+		return this.deadline != NO_DEADLINE;
+	}
+	
+	/** @return latest time at which the execution has to start to meet the deadline [in milliseconds]*/
+	public long getLatestStartTime() {
+		return this.hasDeadline() ? this.deadline - this.getExecutionTime() : NO_DEADLINE;
+	}
+	
+	/** @return whether the (finished) task missed its deadline*/
+	public boolean isDeadlineMissed() {
+		return this.hasDeadline() && this.finishTime > this.deadline;
+	}
+	
+	/** @return time at which the capacities for the task were reserved [in milliseconds] (-1 if it was not admitted yet)*/
+	public long getAdmissionTime() {
+		return this.admissionTime;
+	}
+	
+	/** @return total time which the task waited in admission queues [in milliseconds]*/
+	public long getQueueWait() {
+		return this.queueWait;
+	}
+	
+	/** @return time which the task waited for a worker after its admission [in milliseconds]*/
+	public long getWorkerWait() {
+		return (this.admissionTime < 0 || this.processingStartTime < 0) ? 0 : this.processingStartTime - this.admissionTime;
+	}
+	
 	/** @return transmission delay*/
 	public long getTransmissionDelay() { // *2 because of the transmission from and to the client
-		return 2 * ((this.finishTime - this.startTime) - this.getExecutionTime());
+		return 2 * ((this.finishTime - this.startTime) - this.getExecutionTime() - this.queueWait - this.getWorkerWait());
 	}
+	
+	//================================  Util   ===============================================
+	/**
+	 * Priority of a task. Latency-critical tasks precede bulk tasks if both have the same deadline.
+	 */
+	public static enum Priority {LATENCY_CRITICAL, NORMAL, BULK}
 }
@@ -0,0 +1,80 @@
+package util_objects;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming aggregator for the completed tasks of a node. It replaces the evaluation of the complete task history, because
+ * its memory consumption does not grow with the number of tasks.
+ */
+public class TaskMetrics {
+
+	/** Execution times of all completed tasks [in milliseconds] */
+	private final LatencyHistogram executionTime = new LatencyHistogram();
+
+	/** Transmission delays of all completed tasks [in milliseconds] */
+	private final LatencyHistogram transmissionDelay = new LatencyHistogram();
+
+	/** Times which the completed tasks waited in admission queues [in milliseconds] */
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+
+	/** Times which the completed tasks waited for a worker after their admission [in milliseconds] */
+	private final LatencyHistogram workerWait = new LatencyHistogram();
+
+	/** Number of completed tasks with a deadline */
+	private final AtomicLong deadlineTasks = new AtomicLong(0);
+	
+	/** Number of completed tasks which missed their deadline */
+	private final AtomicLong missedDeadlines = new AtomicLong(0);
+
+	/**
+	 * Records a completed task.
+	 * @param task - completed task (its finish time has to be set)
+	 */
+	public void record(Task task) {
+		this.executionTime.record(task.getExecutionTime());
+		this.transmissionDelay.record(task.getTransmissionDelay());
+		this.queueWait.record(task.getQueueWait());
+		this.workerWait.record(task.getWorkerWait());
+		if(task.hasDeadline()) {
+			this.deadlineTasks.incrementAndGet();
+			if(task.isDeadlineMissed()) this.missedDeadlines.incrementAndGet();
+		}
+	}
+
+	//================================  Getter   ===============================================
+
+	/** @return number of completed tasks */
+	public long getNumberOfTasks() {
+		return this.executionTime.getCount();
+	}
+
+	/** @return number of completed tasks with a deadline */
+	public long getNumberOfDeadlineTasks() {
+		return this.deadlineTasks.get();
+	}
+
+	/** @return number of completed tasks which missed their deadline */
+	public long getNumberOfMissedDeadlines() {
+		return this.missedDeadlines.get();
+	}
+
+	/** @return histogram of the execution times */
+	public LatencyHistogram getExecutionTime() {
+		return this.executionTime;
+	}
+
+	/** @return histogram of the transmission delays */
+	public LatencyHistogram getTransmissionDelay() {
+		return this.transmissionDelay;
+	}
+
+	/** @return histogram of the waiting times in admission queues */
+	public LatencyHistogram getQueueWait() {
+		return this.queueWait;
+	}
+
+	/** @return histogram of the waiting times for a worker */
+	public LatencyHistogram getWorkerWait() {
+		return this.workerWait;
+	}
+}
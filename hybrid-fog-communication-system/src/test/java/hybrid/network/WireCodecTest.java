@@ -0,0 +1,278 @@
+package hybrid.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import hybrid.nodes.FailureDetector;
+import hybrid.nodes.Node;
+import hybrid.nodes.edge_layer.EdgePool;
+import util_objects.Coordinates;
+import util_objects.GossipDigestAck;
+import util_objects.GossipSliceDigest;
+import util_objects.MembershipUpdate;
+import util_objects.MembershipUpdate.Status;
+import util_objects.NodeState;
+import util_objects.ProbeAck;
+import util_objects.Task;
+import util_objects.Task.Priority;
+import util_objects.VersionedValue;
+
+/**
+ * Checks that every message of the {@link WireCodec} is decoded to the encoded content (round trip), with and without
+ * compression.
+ */
+public class WireCodecTest {
+
+	/** Index of the flags in the header */
+	private static final int FLAGS = 1;
+
+	/** Name of the extension which contains the edge pools of a CNL node */
+	private static final String EDGE_POOLS = "edge_pools";
+
+	/** Nodes which are resolved by their IDs while decoding */
+	private static final Node FIRST_NODE = createNode(9001, new Coordinates(1.5f, -2.25f));
+	private static final Node SECOND_NODE = createNode(9002, new Coordinates(-300, 4000));
+
+	/** Edge pools which are resolved by their IDs while decoding */
+	private static final EdgePool FIRST_POOL = new EdgePool(new Coordinates(0, 0), 100);
+	private static final EdgePool SECOND_POOL = new EdgePool(new Coordinates(100, 0), 100);
+
+	private final WireCodec codec = WireCodec.getInstance();
+
+	@After
+	public void resetCompression() {
+		WireCodec.configure(false, false);
+	}
+
+	@Test
+	public void statesWithAllFieldsAndExtensions() {
+		Map<Long, NodeState> states = new LinkedHashMap<>();
+		states.put(FIRST_NODE.getNodeID(), fullState(FIRST_NODE));
+		NodeState sparse = new NodeState(SECOND_NODE);
+		sparse.updateAvailableRam(Node.MAX_CAPACITY, 1);
+		states.put(SECOND_NODE.getNodeID(), sparse);
+
+		Map<Long, NodeState> decoded = this.codec.decodeStates(this.codec.encodeStates(states));
+		assertEquals(states.keySet(), decoded.keySet());
+		states.forEach((nodeID, state) -> assertStateEquals(state, decoded.get(nodeID)));
+	}
+
+	@Test
+	public void digests() {
+		Map<Long, Long> digest = new HashMap<>();
+		digest.put(0L, 0L);
+		digest.put(1L, 127L);
+		digest.put(128L, 16_384L);
+		digest.put(Long.MAX_VALUE, Long.MAX_VALUE);
+		assertEquals(digest, this.codec.decodeDigest(this.codec.encodeDigest(digest)));
+		assertEquals(Collections.emptyMap(), this.codec.decodeDigest(this.codec.encodeDigest(Collections.emptyMap())));
+	}
+
+	@Test
+	public void sliceDigests() {
+		Map<Long, Long> digest = new HashMap<>();
+		digest.put(7L, 3L);
+		digest.put(1L << 40, 99L);
+		Set<Integer> ranges = new HashSet<>(Arrays.asList(2, 5, 1023));
+		GossipSliceDigest decoded = this.codec.decodeSliceDigest(this.codec.encodeSliceDigest(new GossipSliceDigest(digest, 10, ranges)));
+		assertEquals(10, decoded.getLevel());
+		assertEquals(ranges, decoded.getRanges());
+		assertEquals(digest, decoded.getDigest());
+	}
+
+	@Test
+	public void digestAcks() {
+		Map<Long, NodeState> updates = Collections.singletonMap(FIRST_NODE.getNodeID(), fullState(FIRST_NODE));
+		Set<Long> requested = new HashSet<>(Arrays.asList(SECOND_NODE.getNodeID(), 42L));
+		GossipDigestAck decoded = this.codec.decodeDigestAck(this.codec.encodeDigestAck(new GossipDigestAck(updates, requested)));
+		assertEquals(requested, decoded.getRequestedNodeIDs());
+		assertEquals(updates.keySet(), decoded.getUpdates().keySet());
+		assertStateEquals(updates.get(FIRST_NODE.getNodeID()), decoded.getUpdates().get(FIRST_NODE.getNodeID()));
+	}
+
+	@Test
+	public void membershipUpdates() {
+		List<MembershipUpdate> updates = membershipUpdateList();
+		assertMembershipUpdatesEqual(updates, this.codec.decodeMembershipUpdates(this.codec.encodeMembershipUpdates(updates)));
+
+		Map.Entry<Node, List<MembershipUpdate>> request = this.codec.decodePingRequest(this.codec.encodePingRequest(SECOND_NODE, updates));
+		assertSame(SECOND_NODE, request.getKey());
+		assertMembershipUpdatesEqual(updates, request.getValue());
+	}
+
+	@Test
+	public void probeAcks() {
+		List<MembershipUpdate> updates = membershipUpdateList();
+		for(boolean acknowledged : new boolean[] {true, false}) {
+			ProbeAck decoded = this.codec.decodeProbeAck(this.codec.encodeProbeAck(new ProbeAck(acknowledged, updates)));
+			assertEquals(acknowledged, decoded.isAcknowledged());
+			assertMembershipUpdatesEqual(updates, decoded.getUpdates());
+		}
+	}
+
+	@Test
+	public void failureReports() {
+		Map.Entry<Node, Long> report = this.codec.decodeFailureReport(this.codec.encodeFailureReport(FIRST_NODE, SECOND_NODE.getNodeID()));
+		assertSame(FIRST_NODE, report.getKey());
+		assertEquals(SECOND_NODE.getNodeID(), report.getValue());
+	}
+
+	@Test
+	public void merkleHashes() {
+		int[] indices = {1, 2, 3, 1 << 20};
+		assertArrayEquals(indices, this.codec.decodeMerkleHashRequest(this.codec.encodeMerkleHashRequest(indices)));
+		long[] hashes = {0, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x1234_5678_9ABC_DEF0L};
+		assertArrayEquals(hashes, this.codec.decodeMerkleHashes(this.codec.encodeMerkleHashes(hashes)));
+	}
+
+	@Test
+	public void tasksAreResumedFromTheTasksInTransit() {
+		Task task = new Task(300, 200, Priority.LATENCY_CRITICAL, 50);
+		assertSame(task, this.codec.decodeTask(this.codec.encodeTask(task)));
+
+		Task withoutDeadline = new Task(1, 2);
+		assertSame(withoutDeadline, this.codec.decodeTask(this.codec.encodeTask(withoutDeadline)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void discardedTasksCannotBeDecoded() {
+		Task task = new Task(1, 1);
+		byte[] message = this.codec.encodeTask(task);
+		this.codec.discardTask(task);
+		this.codec.decodeTask(message);
+	}
+
+	@Test
+	public void compressionFlag() {
+		Map<Long, Long> large = new HashMap<>();
+		for(long nodeID = 0; nodeID < 200; nodeID++) {
+			large.put(nodeID, 1_000_000L);
+		}
+		Map<Long, Long> small = Collections.singletonMap(1L, 1L);
+
+		WireCodec.configure(false, false);
+		byte[] uncompressed = this.codec.encodeDigest(large);
+		assertEquals(0, uncompressed[FLAGS]);
+		assertEquals(large, this.codec.decodeDigest(uncompressed));
+
+		WireCodec.configure(false, true);
+		byte[] compressed = this.codec.encodeDigest(large);
+		assertEquals(1, compressed[FLAGS]);
+		assertTrue(compressed.length < uncompressed.length);
+		assertEquals(large, this.codec.decodeDigest(compressed));
+		//Payloads below the threshold are sent uncompressed
+		assertEquals(0, this.codec.encodeDigest(small)[FLAGS]);
+
+		//Node state whose suspicion levels exceed the threshold
+		NodeState state = fullState(FIRST_NODE);
+		Map<Long, Float> levels = new LinkedHashMap<>();
+		for(long nodeID = 0; nodeID < 100; nodeID++) {
+			levels.put(nodeID, 0.5f);
+		}
+		state.updateExtension(FailureDetector.SUSPICIONS, new VersionedValue<>(levels, 9));
+		byte[] message = this.codec.encodeStates(Collections.singletonMap(FIRST_NODE.getNodeID(), state));
+		assertEquals(1, message[FLAGS]);
+		assertStateEquals(state, this.codec.decodeStates(message).get(FIRST_NODE.getNodeID()));
+	}
+
+	@Test
+	public void varints() {
+		for(long value : new long[] {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Node.MAX_CAPACITY, Long.MAX_VALUE, -1}) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			WireCodec.writeVarLong(out, value);
+			assertEquals(value, WireCodec.readVarLong(ByteBuffer.wrap(out.toByteArray())));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unexpectedMessageTypesAreRejected() {
+		this.codec.decodeStates(this.codec.encodeDigest(Collections.emptyMap()));
+	}
+
+	//================================  Helpers   ===============================================
+
+	/** @return node state of the node with all typed fields and both extensions */
+	private static NodeState fullState(Node node) {
+		NodeState state = new NodeState(node);
+		state.setOriginTime(1_650_000_000_000L);
+		state.updateCoordinates(node.getCoordinates(), 3);
+		state.updateAvailableRam(Node.MAX_CAPACITY, 4);
+		state.updateAvailableStorage(123_456, 5);
+		state.updateHeartbeat(77, 250, 6);
+		state.updateExtension(EDGE_POOLS, new VersionedValue<>(new HashSet<>(Arrays.asList(FIRST_POOL, SECOND_POOL)), 7));
+		Map<Long, Float> levels = new LinkedHashMap<>();
+		levels.put(SECOND_NODE.getNodeID(), 2.5f);
+		levels.put(42L, 0f);
+		state.updateExtension(FailureDetector.SUSPICIONS, new VersionedValue<>(levels, 8));
+		return state;
+	}
+
+	private static List<MembershipUpdate> membershipUpdateList() {
+		return Arrays.asList(new MembershipUpdate(FIRST_NODE.getNodeID(), Status.ALIVE, 0, FIRST_NODE.getNodeID()),
+				new MembershipUpdate(SECOND_NODE.getNodeID(), Status.SUSPECT, 3, FIRST_NODE.getNodeID()),
+				new MembershipUpdate(42L, Status.DEAD, Long.MAX_VALUE, SECOND_NODE.getNodeID()));
+	}
+
+	private static void assertStateEquals(NodeState expected, NodeState actual) {
+		assertNotNull(actual);
+		assertSame(expected.getAssociatedNode(), actual.getAssociatedNode());
+		assertEquals(expected.getOriginTime(), actual.getOriginTime());
+		assertEquals(expected.getCoordinates(), actual.getCoordinates());
+		assertEquals(expected.getCoordinatesVersion(), actual.getCoordinatesVersion());
+		assertEquals(expected.getAvailableRam(), actual.getAvailableRam());
+		assertEquals(expected.getAvailableRamVersion(), actual.getAvailableRamVersion());
+		assertEquals(expected.getAvailableStorage(), actual.getAvailableStorage());
+		assertEquals(expected.getAvailableStorageVersion(), actual.getAvailableStorageVersion());
+		assertEquals(expected.getHeartbeat(), actual.getHeartbeat());
+		assertEquals(expected.getHeartbeatVersion(), actual.getHeartbeatVersion());
+		assertEquals(expected.getHeartbeatInterval(), actual.getHeartbeatInterval());
+		assertEquals(expected.getVersion(), actual.getVersion());
+		assertEquals(expected.getExtensions().keySet(), actual.getExtensions().keySet());
+		expected.getExtensions().forEach((field, value) -> {
+			assertEquals(value.getVersion(), actual.getExtension(field).getVersion());
+			assertEquals(value.getValue(), actual.getExtension(field).getValue());
+		});
+	}
+
+	private static void assertMembershipUpdatesEqual(List<MembershipUpdate> expected, List<MembershipUpdate> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getMemberID(), actual.get(i).getMemberID());
+			assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+			assertEquals(expected.get(i).getIncarnation(), actual.get(i).getIncarnation());
+			assertEquals(expected.get(i).getSourceID(), actual.get(i).getSourceID());
+		}
+	}
+
+	private static Node createNode(long nodeID, Coordinates coordinates) {
+		return new Node("127.0.0.1", 8080, nodeID, coordinates, 1000, 1000) {
+			@Override
+			public void redirectTask(Task task) {}
+
+			@Override
+			public Node checkForCloserNode(Coordinates clientPosition) {
+				return null;
+			}
+
+			@Override
+			public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {}
+		};
+	}
+}
@@ -0,0 +1,138 @@
+package hybrid.nodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hybrid.nodes.Node.Admission;
+import util_objects.Coordinates;
+import util_objects.Task;
+import util_objects.Task.Priority;
+
+/**
+ * Checks the admission of waiting tasks by the {@link AdmissionQueue} of a {@link Node}. The tasks are executed in real time,
+ * i.e. a task occupies its capacities for {@link Task#getExecutionTime()} milliseconds.
+ */
+public class AdmissionQueueTest {
+
+	/** Maximum time to wait for the completion of the tasks [in milliseconds] */
+	private static final long TIMEOUT = 5_000;
+
+	/** Tasks in the order of their admission by the node */
+	private final List<Task> admittedTasks = new ArrayList<>();
+
+	@Before
+	public void enableAdmissionQueues() {
+		AdmissionQueue.configure(10, 60_000);
+	}
+
+	@After
+	public void disableAdmissionQueues() {
+		AdmissionQueue.configure(0, 0);
+	}
+
+	@Test
+	public void waitingTaskWhichDoesNotFitDoesNotBlockSmallerTasks() throws InterruptedException {
+		Node node = this.createNode(100, 100);
+		Task blocker = new Task(60, 60);
+		Task large = new Task(50, 50);
+		Task small = new Task(30, 30);
+		assertEquals(Admission.EXECUTED, node.receiveTask(blocker));
+		assertEquals(Admission.QUEUED, node.receiveTask(large));
+		//The small task fits into the remaining capacities, although the large task waits ahead of it
+		assertEquals(Admission.EXECUTED, node.receiveTask(small));
+		assertEquals(Arrays.asList(blocker, small), this.getAdmittedTasks());
+
+		awaitCompletedTasks(node, 3);
+		assertEquals(Arrays.asList(blocker, small, large), this.getAdmittedTasks());
+		assertTrue(large.getQueueWait() > 0);
+		assertEquals(0, small.getQueueWait(), 5);
+	}
+
+	@Test
+	public void taskWhichFitsIsAdmittedDespiteALongEstimatedWait() throws InterruptedException {
+		AdmissionQueue.configure(10, 500);
+		Node node = this.createNode(100, 100);
+		Task blocker = new Task(60, 60);
+		Task large = new Task(90, 90);
+		Task small = new Task(30, 30);
+		assertEquals(Admission.EXECUTED, node.receiveTask(blocker));
+		assertEquals(Admission.QUEUED, node.receiveTask(large));
+		//The large task ahead of it and the small task do not fit together within the budget, but the small task fits now
+		assertEquals(Admission.EXECUTED, node.receiveTask(small));
+		assertEquals(Arrays.asList(blocker, small), this.getAdmittedTasks());
+
+		awaitCompletedTasks(node, 3);
+		assertEquals(Arrays.asList(blocker, small, large), this.getAdmittedTasks());
+	}
+
+	@Test
+	public void estimateSkipsLargerWaitingTasksWhichDoNotFitYet() {
+		AdmissionQueue.configure(10, 150);
+		Node node = this.createNode(100, 100);
+		assertEquals(Admission.EXECUTED, node.receiveTask(new Task(40, 40)));
+		assertEquals(Admission.EXECUTED, node.receiveTask(new Task(50, 50)));
+		assertEquals(Admission.QUEUED, node.receiveTask(new Task(90, 90)));
+		//The smaller task fits after the first release (80 ms), while the larger task waits for the second one
+		assertEquals(Admission.QUEUED, node.receiveTask(new Task(40, 40)));
+	}
+
+	@Test
+	public void waitingTasksAreAdmittedByDeadline() throws InterruptedException {
+		Node node = this.createNode(100, 100);
+		Task blocker = new Task(60, 60);
+		Task bulk = new Task(60, 60, Priority.BULK, Task.NO_DEADLINE);
+		Task urgent = new Task(60, 60, Priority.LATENCY_CRITICAL, 10_000);
+		assertEquals(Admission.EXECUTED, node.receiveTask(blocker));
+		assertEquals(Admission.QUEUED, node.receiveTask(bulk));
+		assertEquals(Admission.QUEUED, node.receiveTask(urgent));
+
+		awaitCompletedTasks(node, 3);
+		assertEquals(Arrays.asList(blocker, urgent, bulk), this.getAdmittedTasks());
+	}
+
+	@Test
+	public void tasksWhoseEstimatedWaitIsTooLongAreRedirectedImmediately() {
+		Node node = this.createNode(100, 100);
+		assertEquals(Admission.EXECUTED, node.receiveTask(new Task(60, 60)));
+		//The capacities are never sufficient
+		assertEquals(Admission.REDIRECTED, node.receiveTask(new Task(50, 200)));
+		//The capacities are released after 120 ms, but the task has to start within 50 ms
+		assertEquals(Admission.REDIRECTED, node.receiveTask(new Task(50, 50, Priority.LATENCY_CRITICAL, 150)));
+		assertEquals(1, this.getAdmittedTasks().size());
+	}
+
+	//================================  Helpers   ===============================================
+
+	/** @return tasks in the order of their admission */
+	private List<Task> getAdmittedTasks() {
+		synchronized(this.admittedTasks) {
+			return new ArrayList<>(this.admittedTasks);
+		}
+	}
+
+	/** Waits until the node completed the given number of tasks. */
+	private static void awaitCompletedTasks(Node node, long nrOfTasks) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + TIMEOUT;
+		while(node.getTaskMetrics().getNumberOfTasks() < nrOfTasks) {
+			assertTrue("Tasks were not completed in time", System.currentTimeMillis() < timeout);
+			Thread.sleep(10);
+		}
+	}
+
+	/** Creates a node which records the admitted tasks. Redirected tasks are dropped. */
+	private Node createNode(long maxRam, long maxStorage) {
+		return TestNodes.create(new Coordinates(0, 0), maxRam, maxStorage, task -> {
+			synchronized(this.admittedTasks) {
+				this.admittedTasks.add(task);
+			}
+		});
+	}
+}
@@ -0,0 +1,40 @@
+package hybrid.nodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks that the back-off of a {@link GossipController} in quiet rounds keeps the convergence target.
+ */
+public class GossipControllerTest {
+
+	@After
+	public void disableAdaptation() {
+		GossipController.configure(0);
+	}
+
+	@Test
+	public void quietRoundsDoNotBackOffBeyondTheTarget() {
+		for(long target : new long[] {2_000, 5_000, 20_000}) {
+			GossipController.configure(target);
+			for(int clusterSize : new int[] {2, 10, 100, 1_000}) {
+				GossipController controller = new GossipController();
+				controller.adapt(clusterSize, 1);
+				for(int round = 0; round < 20; round++) {
+					controller.adapt(clusterSize, 0);
+					//A change during the quiet round waits for the next round, then spreads at the base interval
+					double remainingRounds = Math.max(0, GossipController.estimateRounds(clusterSize, controller.getFanout()) - 1);
+					double convergenceTime = controller.getInterval() + remainingRounds * controller.getBaseInterval();
+					assertTrue(target + " ms missed for " + clusterSize + " nodes: " + convergenceTime,
+							convergenceTime <= Math.max(target, GossipController.estimateRounds(clusterSize, controller.getFanout())
+									* controller.getBaseInterval()) + 1);
+				}
+				controller.adapt(clusterSize, 1);
+				assertEquals(controller.getBaseInterval(), controller.getInterval());
+			}
+		}
+	}
+}
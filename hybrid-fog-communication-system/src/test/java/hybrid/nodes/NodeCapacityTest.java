@@ -0,0 +1,154 @@
+package hybrid.nodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import util_objects.Task;
+
+/**
+ * Checks the packing of the available capacities of a {@link Node} into one long, including the maximum capacities
+ * ({@link Node#MAX_CAPACITY}) and concurrent reservations and releases.
+ */
+public class NodeCapacityTest {
+
+	/** Capacities at the bounds of a packed value */
+	private static final long[] BOUNDS = {0, 1, 0x7FFF_FFFFL, 0x8000_0000L, Node.MAX_CAPACITY - 1, Node.MAX_CAPACITY};
+
+	@Test
+	public void packingKeepsBothCapacities() {
+		for(long ram : BOUNDS) {
+			for(long storage : BOUNDS) {
+				long packed = Node.packCapacity(ram, storage);
+				assertEquals(ram, Node.ramOf(packed));
+				assertEquals(storage, Node.storageOf(packed));
+			}
+		}
+	}
+
+	@Test
+	public void maximumCapacitiesAreAccepted() {
+		Node node = TestNodes.create(Node.MAX_CAPACITY, Node.MAX_CAPACITY);
+		assertEquals(Node.MAX_CAPACITY, node.getavailableRAM());
+		assertEquals(Node.MAX_CAPACITY, node.getavailableStorage());
+		assertEquals(-1L, node.getCapacitySnapshot());
+	}
+
+	@Test
+	public void capacitiesBeyondTheBoundsAreRejected() {
+		long[][] invalid = {{Node.MAX_CAPACITY + 1, 0}, {0, Node.MAX_CAPACITY + 1}, {-1, 0}, {0, -1}, {Long.MAX_VALUE, Long.MAX_VALUE}};
+		for(long[] capacities : invalid) {
+			try {
+				TestNodes.create(capacities[0], capacities[1]);
+				fail("Capacities were accepted: " + capacities[0] + ", " + capacities[1]);
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
+	@Test
+	public void reservationsDoNotAffectTheOtherCapacity() {
+		Node node = TestNodes.create(Node.MAX_CAPACITY, Node.MAX_CAPACITY);
+		//Reserving the whole storage must not borrow from the RAM
+		assertTrue(node.reserveCapacity(0, Node.MAX_CAPACITY));
+		assertEquals(Node.MAX_CAPACITY, node.getavailableRAM());
+		assertEquals(0, node.getavailableStorage());
+		assertFalse(node.reserveCapacity(0, 1));
+		assertFalse(node.reserveCapacity(1, 1));
+		assertEquals(Node.MAX_CAPACITY, node.getavailableRAM());
+
+		assertTrue(node.reserveCapacity(Node.MAX_CAPACITY, 0));
+		assertEquals(0, node.getCapacitySnapshot());
+		assertFalse(node.reserveCapacity(1, 0));
+
+		//Releasing the whole storage must not carry into the RAM
+		node.releaseCapacity(0, Node.MAX_CAPACITY);
+		assertEquals(0, node.getavailableRAM());
+		assertEquals(Node.MAX_CAPACITY, node.getavailableStorage());
+		node.releaseCapacity(Node.MAX_CAPACITY, 0);
+		assertEquals(Node.MAX_CAPACITY, node.getavailableRAM());
+		assertEquals(Node.MAX_CAPACITY, node.getavailableStorage());
+	}
+
+	@Test
+	public void insufficientCapacitiesAreNotReserved() {
+		Node node = TestNodes.create(50, 100);
+		assertFalse(node.reserveCapacity(51, 10));
+		assertFalse(node.reserveCapacity(10, 101));
+		assertEquals(50, node.getavailableRAM());
+		assertEquals(100, node.getavailableStorage());
+		assertTrue(node.reserveCapacity(50, 100));
+		assertEquals(0, node.getCapacitySnapshot());
+	}
+
+	@Test
+	public void concurrentReservationsNeverOverbook() throws InterruptedException {
+		//The storage is the bottleneck, while the RAM is at its maximum
+		Node node = TestNodes.create(Node.MAX_CAPACITY, 1000);
+		AtomicInteger reserved = new AtomicInteger(0);
+		runConcurrently(8, () -> {
+			for(int i = 0; i < 500; i++) {
+				if(node.reserveCapacity(Node.MAX_CAPACITY / 2000, 1)) reserved.incrementAndGet();
+			}
+		});
+		assertEquals(1000, reserved.get());
+		assertEquals(0, node.getavailableStorage());
+		assertEquals(Node.MAX_CAPACITY - 1000 * (Node.MAX_CAPACITY / 2000), node.getavailableRAM());
+	}
+
+	@Test
+	public void concurrentReservationsAndReleasesRestoreTheCapacities() throws InterruptedException {
+		Node node = TestNodes.create(Node.MAX_CAPACITY, Node.MAX_CAPACITY);
+		long ram = Node.MAX_CAPACITY / 5;
+		long storage = Node.MAX_CAPACITY / 3;
+		runConcurrently(8, () -> {
+			for(int i = 0; i < 20_000; i++) {
+				if(node.reserveCapacity(ram, storage)) {
+					long snapshot = node.getCapacitySnapshot();
+					assertTrue(Node.ramOf(snapshot) <= Node.MAX_CAPACITY - ram);
+					assertTrue(Node.storageOf(snapshot) <= Node.MAX_CAPACITY - storage);
+					node.releaseCapacity(ram, storage);
+				}
+			}
+		});
+		assertEquals(Node.MAX_CAPACITY, node.getavailableRAM());
+		assertEquals(Node.MAX_CAPACITY, node.getavailableStorage());
+	}
+
+	//================================  Helpers   ===============================================
+
+	/** Runs the action by several threads at the same time and rethrows the first failure. */
+	private static void runConcurrently(int nrOfThreads, Runnable action) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Throwable> failures = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for(int i = 0; i < nrOfThreads; i++) {
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+					action.run();
+				} catch (Throwable e) {
+					synchronized(failures) {
+						failures.add(e);
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		if(!failures.isEmpty()) throw new AssertionError(failures.get(0));
+	}
+}
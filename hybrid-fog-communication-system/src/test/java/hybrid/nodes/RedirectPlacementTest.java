@@ -0,0 +1,54 @@
+package hybrid.nodes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import util_objects.Coordinates;
+import util_objects.NodeState;
+import util_objects.Task;
+
+/**
+ * Checks that {@link Node#placeRedirectedTask(Task)} never offers a task to the redirecting node itself, although its own
+ * node state in the metadata still shows the capacities from before the task arrived.
+ */
+public class RedirectPlacementTest {
+
+	@Test
+	public void redirectSkipsTheSender() {
+		Node sender = TestNodes.create(new Coordinates(0, 0), 100, 100);
+		Node neighbour = TestNodes.create(new Coordinates(10, 10), 100, 100);
+		publishState(sender, sender, 100, 100);
+		publishState(sender, neighbour, 100, 100);
+		//The capacities of the sender are exhausted, but its published node state is outdated
+		assertTrue(sender.reserveCapacity(100, 100));
+
+		Task task = new Task(50, 50);
+		assertTrue(sender.placeRedirectedTask(task));
+		assertEquals(50, neighbour.getavailableRAM());
+		assertEquals(0, sender.getavailableRAM());
+	}
+
+	@Test
+	public void redirectFailsIfOnlyTheSenderIsIndexed() {
+		Node sender = TestNodes.create(new Coordinates(0, 0), 100, 100);
+		publishState(sender, sender, 100, 100);
+		assertTrue(sender.reserveCapacity(100, 100));
+
+		assertFalse(sender.placeRedirectedTask(new Task(50, 50, Task.Priority.LATENCY_CRITICAL, 60_000)));
+		assertEquals(0, sender.getavailableRAM());
+	}
+
+	//================================  Helpers   ===============================================
+
+	/** Stores the node state of a node with the given capacities in the metadata of the receiver. */
+	private static void publishState(Node receiver, Node node, long availableRam, long availableStorage) {
+		NodeState state = new NodeState(node);
+		state.updateCoordinates(node.getCoordinates(), 1);
+		state.updateAvailableRam(availableRam, 1);
+		state.updateAvailableStorage(availableStorage, 1);
+		receiver.clusterMetaData.put(node.getNodeID(), state);
+	}
+}
@@ -0,0 +1,70 @@
+package hybrid.nodes;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import util_objects.Coordinates;
+import util_objects.Task;
+
+/**
+ * Creates minimal nodes for the tests: Redirected tasks are dropped, there is no closer node and failure reports are ignored.
+ * All nodes get their NODE_ID from one counter, so that they do not replace each other in the node directory of {@link Node}.
+ */
+final class TestNodes {
+
+	/** IDs of the created nodes. They start above the fixed IDs of other tests (e.g. WireCodecTest). */
+	private static final AtomicLong nodeIDs = new AtomicLong(10_000);
+
+	private TestNodes() {
+	}
+
+	/**
+	 * Creates a node at the origin.
+	 * @param maxRam - maximum computation capacity [in byte]
+	 * @param maxStorage - maximum storage capacity [in byte]
+	 * @return new node
+	 */
+	static Node create(long maxRam, long maxStorage) {
+		return create(new Coordinates(0, 0), maxRam, maxStorage);
+	}
+
+	/**
+	 * Creates a node.
+	 * @param coordinates - location of the node
+	 * @param maxRam - maximum computation capacity [in byte]
+	 * @param maxStorage - maximum storage capacity [in byte]
+	 * @return new node
+	 */
+	static Node create(Coordinates coordinates, long maxRam, long maxStorage) {
+		return create(coordinates, maxRam, maxStorage, x -> {});
+	}
+
+	/**
+	 * Creates a node which reports the tasks it admits.
+	 * @param coordinates - location of the node
+	 * @param maxRam - maximum computation capacity [in byte]
+	 * @param maxStorage - maximum storage capacity [in byte]
+	 * @param onExecute - invoked for every task before it is handed over to the execution backend
+	 * @return new node
+	 */
+	static Node create(Coordinates coordinates, long maxRam, long maxStorage, Consumer<Task> onExecute) {
+		return new Node("127.0.0.1", 8080, nodeIDs.getAndIncrement(), coordinates, maxStorage, maxRam) {
+			@Override
+			protected void executeTask(Task task) {
+				onExecute.accept(task);
+				super.executeTask(task);
+			}
+
+			@Override
+			public void redirectTask(Task task) {}
+
+			@Override
+			public Node checkForCloserNode(Coordinates clientPosition) {
+				return null;
+			}
+
+			@Override
+			public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {}
+		};
+	}
+}
@@ -0,0 +1,35 @@
+package hybrid.nodes.execution;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.junit.Test;
+
+import hybrid.nodes.execution.ExecutionBackend.QueuedTask;
+import util_objects.Task;
+import util_objects.Task.Priority;
+
+/**
+ * Checks the earliest-deadline-first order of the waiting tasks of the pool backends.
+ */
+public class QueuedTaskTest {
+
+	@Test
+	public void waitingTasksAreOrderedByDeadlinePriorityAndSubmission() {
+		Task firstBulk = new Task(1, 1, Priority.BULK, Task.NO_DEADLINE);
+		Task secondBulk = new Task(1, 1, Priority.BULK, Task.NO_DEADLINE);
+		Task normal = new Task(1, 1);
+		Task critical = new Task(1, 1, Priority.LATENCY_CRITICAL, Task.NO_DEADLINE);
+		Task late = new Task(1, 1, Priority.BULK, 10_000);
+		Task early = new Task(1, 1, Priority.BULK, 100);
+
+		PriorityBlockingQueue<QueuedTask> queue = new PriorityBlockingQueue<>();
+		for(Task task : new Task[] {firstBulk, secondBulk, normal, critical, late, early}) {
+			queue.add(new QueuedTask(task, () -> {}));
+		}
+		for(Task expected : new Task[] {early, late, critical, normal, firstBulk, secondBulk}) {
+			assertSame(expected, queue.poll().getTask());
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package util_objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import hybrid.nodes.Node;
+
+/**
+ * Checks that the {@link MerkleTree} of a {@link ClusterMetadataStore} always summarizes exactly the stored versions.
+ */
+public class ClusterMetadataStoreTest {
+
+	/** Index of the root of the {@link MerkleTree} */
+	private static final int ROOT = 1;
+
+	/** Node which is only used as owner of the node states */
+	private static final Node NODE = new Node("127.0.0.1", 8080, 1, new Coordinates(0, 0), 1000, 1000) {
+		@Override
+		public void redirectTask(Task task) {}
+
+		@Override
+		public Node checkForCloserNode(Coordinates clientPosition) {
+			return null;
+		}
+
+		@Override
+		public void reportNodeFailureToSupervisor(Node failedNode, Long NodeID) {}
+	};
+
+	/** @return node state of {@link ClusterMetadataStoreTest#NODE} with the given version */
+	private static NodeState stateWithVersion(long version) {
+		NodeState state = new NodeState(NODE);
+		state.updateCoordinates(NODE.getCoordinates(), version);
+		return state;
+	}
+
+	@Test
+	public void putAndRemoveRestoreEmptyRoot() {
+		ClusterMetadataStore store = new ClusterMetadataStore();
+		store.put(1L, stateWithVersion(1));
+		assertNotEquals(0, store.getMerkleTree().getHash(ROOT));
+		store.put(1L, stateWithVersion(2));
+		assertNotEquals(0, store.getMerkleTree().getHash(ROOT));
+		store.remove(1L);
+		assertEquals(0, store.getMerkleTree().getHash(ROOT));
+		assertEquals(0, store.getSpatialIndex().size());
+	}
+
+	@Test
+	public void remergedInstanceIsNotStored() {
+		ClusterMetadataStore store = new ClusterMetadataStore();
+		NodeState state = stateWithVersion(3);
+		assertTrue(store.mergeIfNewer(1L, state));
+		long root = store.getMerkleTree().getHash(ROOT);
+		long changes = store.getNrOfChanges();
+
+		assertFalse(store.mergeIfNewer(1L, state));
+		assertEquals(root, store.getMerkleTree().getHash(ROOT));
+		assertEquals(changes, store.getNrOfChanges());
+		assertSame(state, store.get(1L));
+	}
+
+	@Test
+	public void onlyNewerVersionsAreMerged() {
+		ClusterMetadataStore store = new ClusterMetadataStore();
+		store.put(1L, stateWithVersion(5));
+		long root = store.getMerkleTree().getHash(ROOT);
+
+		assertFalse(store.mergeIfNewer(1L, stateWithVersion(4)));
+		assertFalse(store.mergeIfNewer(1L, stateWithVersion(5)));
+		assertEquals(root, store.getMerkleTree().getHash(ROOT));
+
+		assertTrue(store.mergeIfNewer(1L, stateWithVersion(6)));
+		ClusterMetadataStore expected = new ClusterMetadataStore();
+		expected.put(1L, stateWithVersion(6));
+		assertEquals(expected.getMerkleTree().getHash(ROOT), store.getMerkleTree().getHash(ROOT));
+	}
+
+	@Test
+	public void rootOnlyDependsOnStoredVersions() {
+		ClusterMetadataStore merged = new ClusterMetadataStore();
+		ClusterMetadataStore put = new ClusterMetadataStore();
+		for(long nodeID = 1; nodeID <= 50; nodeID++) {
+			for(long version = 1; version <= 3; version++) {
+				merged.mergeIfNewer(nodeID, stateWithVersion(version));
+			}
+			put.put(nodeID, stateWithVersion(3));
+		}
+		assertEquals(put.getMerkleTree().getHash(ROOT), merged.getMerkleTree().getHash(ROOT));
+		for(long nodeID = 1; nodeID <= 50; nodeID++) {
+			merged.remove(nodeID);
+			merged.remove(nodeID);
+		}
+		assertEquals(0, merged.getMerkleTree().getHash(ROOT));
+	}
+}
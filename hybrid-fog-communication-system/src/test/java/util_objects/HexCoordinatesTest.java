@@ -0,0 +1,33 @@
+package util_objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Checks that the cells of a dense {@link HexCoordinates} grid do not share hash codes, so that cell lookups stay O(1).
+ */
+public class HexCoordinatesTest {
+
+	@Test
+	public void denseGridHasDistinctHashCodes() {
+		Set<Integer> hashCodes = new HashSet<>();
+		int radius = 256;
+		for(int q = -radius; q < radius; q++) {
+			for(int r = -radius; r < radius; r++) {
+				hashCodes.add(new HexCoordinates(q, r).hashCode());
+			}
+		}
+		assertEquals(4 * radius * radius, hashCodes.size());
+	}
+
+	@Test
+	public void formerlyCollidingCellsAreDistinguished() {
+		assertNotEquals(new HexCoordinates(0, 31).hashCode(), new HexCoordinates(1, 0).hashCode());
+		assertNotEquals(new HexCoordinates(1, 2).hashCode(), new HexCoordinates(2, 1).hashCode());
+	}
+}
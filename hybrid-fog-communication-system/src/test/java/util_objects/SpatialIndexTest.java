@@ -0,0 +1,214 @@
+package util_objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Compares the queries of a {@link SpatialIndex} with a brute-force scan over all entries, while entries are inserted,
+ * replaced, removed and their capacities are updated (including the rebuilds of the grid).
+ */
+public class SpatialIndexTest {
+
+	/** Capacity of entries which were inserted without capacities */
+	private static final long UNLIMITED = Long.MAX_VALUE;
+
+	/** Index under test [values are the keys of the entries] */
+	private final SpatialIndex<Long> index = new SpatialIndex<>();
+
+	/** Expected entries [stored by their key] */
+	private final Map<Long, Entry> entries = new HashMap<>();
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void emptyIndex() {
+		Coordinates target = new Coordinates(1, 2);
+		assertNull(this.index.nearest(target));
+		assertTrue(this.index.kNearest(target, 3).isEmpty());
+		assertTrue(this.index.kNearest(target, 3, 0, 0).isEmpty());
+		assertTrue(this.index.kNearest(target, 3, 0, 0, 1).isEmpty());
+		assertTrue(this.index.withinRadius(target, 100).isEmpty());
+		this.insert(1, new Coordinates(1, 2), UNLIMITED, UNLIMITED);
+		this.remove(1);
+		assertNull(this.index.nearest(target));
+	}
+
+	@Test
+	public void randomInsertsRemovalsAndCapacityUpdates() {
+		for(int step = 0; step < 3000; step++) {
+			long key = this.random.nextInt(400);
+			int operation = this.random.nextInt(10);
+			if(operation < 5) {
+				this.insert(key, this.randomCoordinates(1000), this.random.nextInt(1000), this.random.nextInt(1000));
+			} else if(operation < 7) {
+				this.remove(key);
+			} else {
+				this.updateCapacities(key, this.random.nextInt(1000), this.random.nextInt(1000));
+			}
+			if(step % 25 == 0) this.verifyQueries(1000);
+		}
+		this.verifyQueries(1000);
+	}
+
+	@Test
+	public void rebuildsOnGrowthAndShrinkage() {
+		//Growth: the number of entries doubles several times
+		for(long key = 0; key < 600; key++) {
+			this.insert(key, this.randomCoordinates(500), this.random.nextInt(100), this.random.nextInt(100));
+			if(key % 50 == 0) this.verifyQueries(500);
+		}
+		this.verifyQueries(500);
+		//Shrinkage: the number of entries falls below a quarter of the size at the last rebuild
+		for(long key = 0; key < 590; key++) {
+			this.remove(key);
+			if(key % 50 == 0) this.verifyQueries(500);
+		}
+		this.verifyQueries(500);
+	}
+
+	@Test
+	public void rebuildsOnGrowingArea() {
+		//Dense cluster, which determines a small cell size ...
+		for(long key = 0; key < 64; key++) {
+			this.insert(key, this.randomCoordinates(5), UNLIMITED, UNLIMITED);
+		}
+		this.verifyQueries(5);
+		//... and outliers far away, which extend the covered area
+		for(long key = 64; key < 80; key++) {
+			this.insert(key, this.randomCoordinates(100_000), UNLIMITED, UNLIMITED);
+			this.verifyQueries(100_000);
+		}
+		//Entries on a line
+		for(long key = 80; key < 200; key++) {
+			this.insert(key, new Coordinates(key * 10, 3), UNLIMITED, UNLIMITED);
+		}
+		this.verifyQueries(2000);
+	}
+
+	@Test
+	public void replacedEntriesMove() {
+		for(long key = 0; key < 100; key++) {
+			this.insert(key, this.randomCoordinates(100), this.random.nextInt(10), this.random.nextInt(10));
+		}
+		for(int round = 0; round < 5; round++) {
+			for(long key = 0; key < 100; key++) {
+				this.insert(key, this.randomCoordinates(100 + round * 500), this.random.nextInt(10), this.random.nextInt(10));
+			}
+			this.verifyQueries(100 + round * 500);
+		}
+	}
+
+	@Test
+	public void equalDistancesAreOrderedByKey() {
+		this.insert(3, new Coordinates(1, 0), UNLIMITED, UNLIMITED);
+		this.insert(1, new Coordinates(-1, 0), UNLIMITED, UNLIMITED);
+		this.insert(2, new Coordinates(0, 1), UNLIMITED, UNLIMITED);
+		Coordinates origin = new Coordinates(0, 0);
+		assertEquals(Long.valueOf(1), this.index.nearest(origin));
+		assertEquals(List.of(1L, 2L, 3L), this.index.kNearest(origin, 3));
+		assertEquals(List.of(1L, 2L, 3L), this.index.withinRadius(origin, 1));
+	}
+
+	//================================  Helpers   ===============================================
+
+	private void insert(long key, Coordinates coordinates, long availableRam, long availableStorage) {
+		if(availableRam == UNLIMITED && availableStorage == UNLIMITED) {
+			this.index.insert(key, coordinates, key);
+		} else {
+			this.index.insert(key, coordinates, key, availableRam, availableStorage);
+		}
+		this.entries.put(key, new Entry(key, coordinates, availableRam, availableStorage));
+		assertEquals(this.entries.size(), this.index.size());
+	}
+
+	private void remove(long key) {
+		assertEquals(this.entries.remove(key) != null, this.index.remove(key));
+		assertEquals(this.entries.size(), this.index.size());
+	}
+
+	private void updateCapacities(long key, long availableRam, long availableStorage) {
+		Entry entry = this.entries.get(key);
+		assertEquals(entry != null, this.index.updateCapacities(key, availableRam, availableStorage));
+		if(entry != null) {
+			this.entries.put(key, new Entry(key, entry.coordinates, availableRam, availableStorage));
+		}
+	}
+
+	/** Compares all queries with the brute-force results for random targets (inside and outside of the covered area). */
+	private void verifyQueries(float area) {
+		for(int query = 0; query < 20; query++) {
+			Coordinates target = this.randomCoordinates(area * 1.5f);
+			List<Long> all = this.bruteForce(target, Long.MIN_VALUE, Long.MIN_VALUE);
+			assertEquals(all.isEmpty() ? null : all.get(0), this.index.nearest(target));
+
+			int k = 1 + this.random.nextInt(12);
+			assertEquals(prefix(all, k), this.index.kNearest(target, k));
+
+			long requiredRam = this.random.nextInt(1000);
+			long requiredStorage = this.random.nextInt(1000);
+			assertEquals(prefix(this.bruteForce(target, requiredRam, requiredStorage), k),
+					this.index.kNearest(target, k, requiredRam, requiredStorage));
+
+			//The excluded entry is usually one of the closest entries (e.g. the requesting node itself)
+			long excludedKey = all.isEmpty() ? -1 : all.get(this.random.nextInt(Math.min(3, all.size())));
+			List<Long> withoutExcluded = this.bruteForce(target, requiredRam, requiredStorage);
+			withoutExcluded.remove(Long.valueOf(excludedKey));
+			assertEquals(prefix(withoutExcluded, k), this.index.kNearest(target, k, requiredRam, requiredStorage, excludedKey));
+
+			double radius = this.random.nextDouble() * area / 4;
+			List<Long> within = this.entries.values().stream()
+					.filter(x -> x.coordinates.getDistance(target) <= radius)
+					.sorted(byDistanceTo(target))
+					.map(x -> x.key)
+					.collect(Collectors.toList());
+			assertEquals(within, this.index.withinRadius(target, radius));
+		}
+	}
+
+	/** @return keys of all entries with sufficient capacities ordered by their distance to the target (and their key) */
+	private List<Long> bruteForce(Coordinates target, long requiredRam, long requiredStorage) {
+		return this.entries.values().stream()
+				.filter(x -> x.availableRam >= requiredRam && x.availableStorage >= requiredStorage)
+				.sorted(byDistanceTo(target))
+				.map(x -> x.key)
+				.collect(Collectors.toList());
+	}
+
+	private static Comparator<Entry> byDistanceTo(Coordinates target) {
+		return Comparator.<Entry>comparingDouble(x -> x.coordinates.getDistance(target)).thenComparingLong(x -> x.key);
+	}
+
+	private static List<Long> prefix(List<Long> list, int length) {
+		return new ArrayList<>(list.subList(0, Math.min(length, list.size())));
+	}
+
+	private Coordinates randomCoordinates(float area) {
+		return new Coordinates((this.random.nextFloat() - 0.5f) * area, (this.random.nextFloat() - 0.5f) * area);
+	}
+
+	/** Expected entry of the index */
+	private static class Entry {
+		private final long key;
+		private final Coordinates coordinates;
+		private final long availableRam;
+		private final long availableStorage;
+
+		private Entry(long key, Coordinates coordinates, long availableRam, long availableStorage) {
+			this.key = key;
+			this.coordinates = coordinates;
+			this.availableRam = availableRam;
+			this.availableStorage = availableStorage;
+		}
+	}
+}